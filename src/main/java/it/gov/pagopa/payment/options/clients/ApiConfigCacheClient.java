@@ -1,11 +1,13 @@
 package it.gov.pagopa.payment.options.clients;
 
-import it.gov.pagopa.payment.options.models.clients.cache.ConfigDataV1;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
 import org.eclipse.microprofile.rest.client.annotation.ClientHeaderParam;
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -16,12 +18,14 @@ import java.util.List;
 public interface ApiConfigCacheClient {
 
   /**
-   * Retrieve cache from the provided service
+   * Retrieve cache from the provided service, as a raw stream to be parsed incrementally.
+   * The caller is responsible for closing the returned stream
    * @param keys list of strings to be used as filter for provided data
-   * @return required cache data
+   * @return required cache data, as JSON stream
    */
   @GET
+  @Produces(MediaType.APPLICATION_JSON)
   @ClientHeaderParam(name = "Ocp-Apim-Subscription-Key", value = "${ApiConfigCacheClient.ocpSubKey}")
-  ConfigDataV1 getCache(@QueryParam("keys") List<String> keys);
+  InputStream getCache(@QueryParam("keys") List<String> keys);
 
 }
@@ -4,24 +4,28 @@ import static it.gov.pagopa.payment.options.models.enums.AppErrorCodeEnum.ODP_ER
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smallrye.mutiny.Uni;
 import it.gov.pagopa.payment.options.exception.CreditorInstitutionException;
 import it.gov.pagopa.payment.options.exception.PaymentOptionsException;
 import it.gov.pagopa.payment.options.models.ErrorResponse;
 import it.gov.pagopa.payment.options.models.clients.creditorInstitution.PaymentOptionsResponse;
+import it.gov.pagopa.payment.options.models.clients.creditorInstitution.RawPaymentOptionsResponse;
 import it.gov.pagopa.payment.options.models.enums.AppErrorCodeEnum;
 import it.gov.pagopa.payment.options.models.enums.CreditorInstitutionErrorEnum;
 import it.gov.pagopa.payment.options.util.StringUtil;
+import it.gov.pagopa.payment.options.util.TimeSource;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.core.Response;
 
+import java.io.IOException;
 import java.net.URL;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.eclipse.microprofile.rest.client.RestClientBuilder;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
 import org.jboss.resteasy.reactive.ClientWebApplicationException;
 import org.slf4j.Logger;
@@ -33,15 +37,29 @@ public class CreditorInstitutionRestClient {
 	
 	private final GpdCoreRestClientInterface gpdClient;
 
+	private final CreditorInstitutionRestClientRegistry clientRegistry;
+
 	private final Logger logger = LoggerFactory.getLogger(CreditorInstitutionRestClient.class);
 
 	private final ObjectMapper objectMapper;
 
+	// forward validated responses as received, instead of decoding and encoding them again
+	private final boolean passthrough;
+
+	private final TimeSource timeSource;
+
 	@Inject
 	public CreditorInstitutionRestClient(ObjectMapper objectMapper, 
-			@RestClient GpdCoreRestClientInterface gpdClient) {
+			@RestClient GpdCoreRestClientInterface gpdClient,
+			CreditorInstitutionRestClientRegistry clientRegistry,
+			@ConfigProperty(name = "CreditorInstitutionRestClient.passthrough", defaultValue = "false")
+			boolean passthrough,
+			TimeSource timeSource) {
 		this.objectMapper = objectMapper;
 		this.gpdClient = gpdClient;
+		this.clientRegistry = clientRegistry;
+		this.passthrough = passthrough;
+		this.timeSource = timeSource;
 	}
 
 	/**
@@ -61,55 +79,103 @@ public class CreditorInstitutionRestClient {
 	      Long targetPort,
 	      String targetPath) {
 
-	    CreditorInstitutionRestClientInterface ecRestClientInterface =
-				RestClientBuilder.newBuilder()
-						.baseUrl(baseUrl)
-						.build(CreditorInstitutionRestClientInterface.class);
+	    // Reuse the client bound to this forwarder, so connections and TLS sessions are kept alive.
+	    CreditorInstitutionRestClientRegistry.Lease lease = clientRegistry.acquire(baseUrl);
 
-	    try {
-	      return getPaymentOptions(targetHost, targetPort, targetPath, ecRestClientInterface);
-	    } catch (CreditorInstitutionException e) {
-	      throw e;
-	    } catch (JsonProcessingException e) {
-	      Instant now = Instant.now();
-	      ErrorResponse errorResponse =
-	          buildErrorResponse(
-	              CreditorInstitutionErrorEnum.PAA_SYSTEM_ERROR.name(),
-	              now.toEpochMilli(),
-	              now.truncatedTo(ChronoUnit.MILLIS).toString());
-	      throw new CreditorInstitutionException(
-	          errorResponse, "[Payment Options] Unable to parse the station response");
+	    try (lease;
+	        Response response = lease.client()
+	            .verifyPaymentOptions(targetHost, targetPort.intValue(), targetPath)) {
+	      return readPaymentOptions(response);
 	    } catch (Exception e) {
-	      logger.error("[Payment Options] Unable to call the station due to error", e);
-	      throw new PaymentOptionsException(
-	          AppErrorCodeEnum.ODP_STAZIONE_INT_PA_IRRAGGIUNGIBILE, e.getMessage());
+	      throw mapEcFailure(e, targetPath);
 	    }
 	  }
 
-	  private PaymentOptionsResponse getPaymentOptions(
+	  /**
+	   * Non-blocking variant of {@link #callEcPaymentOptionsVerify(URL, String, Long, String)}: the
+	   * returned Uni fails with the same exceptions the blocking call throws
+	   *
+	   * @param targetHost verify service host
+	   * @param targetPort verify service port
+	   * @param targetPath verify service path
+	   * @return Uni emitting the PaymentOptionResponse
+	   */
+	  public Uni<PaymentOptionsResponse> callEcPaymentOptionsVerifyAsync(
+	      URL baseUrl,
 	      String targetHost,
 	      Long targetPort,
-	      String targetPath,
-	      CreditorInstitutionRestClientInterface ecRestClientInterface)
-	      throws JsonProcessingException {
-	    try (Response response =
-	        ecRestClientInterface.verifyPaymentOptions(targetHost, targetPort.intValue(), targetPath)) {
+	      String targetPath) {
 
+	    // The lease is held until the response is read, or the call fails or is cancelled
+	    return Uni.createFrom().deferred(() -> {
+	      CreditorInstitutionRestClientRegistry.Lease lease = clientRegistry.acquire(baseUrl);
+	      return verifyAsync(
+	          () -> lease.client().verifyPaymentOptionsAsync(
+	              targetHost, targetPort.intValue(), targetPath),
+	          e -> mapEcFailure(e, targetPath))
+	          .onTermination().invoke(lease::close);
+	    });
+	  }
+
+	  private PaymentOptionsResponse readPaymentOptions(Response response) throws IOException {
+	    if (!passthrough) {
 	      return this.objectMapper.readValue(
 	          response.readEntity(String.class), PaymentOptionsResponse.class);
+	    }
+	    // Responses needing normalization, or invalid, go through the object mapper as before
+	    byte[] json = response.readEntity(byte[].class);
+	    if (PaymentOptionsResponseValidator.isForwardable(this.objectMapper.getFactory(), json)) {
+	      return new RawPaymentOptionsResponse(
+	          json, this.objectMapper.readerFor(PaymentOptionsResponse.class));
+	    }
+	    return this.objectMapper.readValue(json, PaymentOptionsResponse.class);
+	  }
+
+	  // Failures mapped before reading the response, so that a mapped exception is never mapped twice
+	  private Uni<PaymentOptionsResponse> verifyAsync(
+	      Supplier<Uni<? extends Response>> call, Function<Throwable, RuntimeException> failureMapper) {
+	    return Uni.createFrom().<Response>deferred(call)
+	        .onFailure().transform(failureMapper)
+	        .onItem().transform(response -> {
+	          try (response) {
+	            return readPaymentOptions(response);
+	          } catch (Exception e) {
+	            throw failureMapper.apply(e);
+	          }
+	        });
+	  }
 
-	    } catch (ClientWebApplicationException e) {
-	      logger.error("[Payment Options] Encountered REST client exception", e);
-	      Response response = e.getResponse();
-	      ErrorResponse errorResponse =
-	          this.objectMapper.readValue(response.readEntity(String.class), ErrorResponse.class);
-	      errorResponse =
-	          validateAndBuildErrorResponse(response.getStatus(), errorResponse, extractOrgFiscalCode(targetPath));
-
-	      throw new CreditorInstitutionException(
-	          errorResponse,
-	          "[Payment Options] Encountered a managed error calling the station REST endpoint");
+	  private RuntimeException mapEcFailure(Throwable failure, String targetPath) {
+	    try {
+	      if (failure instanceof CreditorInstitutionException e) {
+	        return e;
+	      }
+	      if (failure instanceof ClientWebApplicationException e) {
+	        logger.error("[Payment Options] Encountered REST client exception", e);
+	        Response response = e.getResponse();
+	        ErrorResponse errorResponse =
+	            this.objectMapper.readValue(response.readEntity(String.class), ErrorResponse.class);
+	        CreditorInstitutionErrorEnum creditorInstitutionError =
+	            creditorInstitutionError(response.getStatus(), errorResponse);
+	        errorResponse =
+	            validateAndBuildErrorResponse(response.getStatus(), errorResponse, extractOrgFiscalCode(targetPath));
+
+	        return new CreditorInstitutionException(
+	            errorResponse,
+	            "[Payment Options] Encountered a managed error calling the station REST endpoint",
+	            creditorInstitutionError);
+	      }
+	      if (failure instanceof JsonProcessingException) {
+	        return handleJsonProcessingException("[Payment Options] Unable to parse the station response");
+	      }
+	    } catch (JsonProcessingException e) {
+	      return handleJsonProcessingException("[Payment Options] Unable to parse the station response");
+	    } catch (Exception e) {
+	      failure = e;
 	    }
+	    logger.error("[Payment Options] Unable to call the station due to error", failure);
+	    return new PaymentOptionsException(
+	        AppErrorCodeEnum.ODP_STAZIONE_INT_PA_IRRAGGIUNGIBILE, failure.getMessage());
 	  }
 
 	  private ErrorResponse validateAndBuildErrorResponse(
@@ -122,9 +188,7 @@ public class CreditorInstitutionRestClient {
 	    ErrorResponse errorResponseForPSP =
 	        buildErrorResponse(errorMessage, errorResponse.getTimestamp(), errorResponse.getDateTime());
 
-	    if (CreditorInstitutionErrorEnum.isNotValidErrorCode(responseErrorCode)
-	        || CreditorInstitutionErrorEnum.getFromErrorCode(responseErrorCode).getStatus()
-	            != responseStatus) {
+	    if (creditorInstitutionError(responseStatus, errorResponse) == null) {
 	      errorResponseForPSP.setErrorMessage(CreditorInstitutionErrorEnum.PAA_SYSTEM_ERROR.name());
 
 	      logger.error(
@@ -136,6 +200,17 @@ public class CreditorInstitutionRestClient {
 	    return errorResponseForPSP;
 	  }
 
+	  // Error returned by the creditor institution, null if its code and status are not a valid pair
+	  private static CreditorInstitutionErrorEnum creditorInstitutionError(
+	      int responseStatus, ErrorResponse errorResponse) {
+	    String responseErrorCode = errorResponse.getAppErrorCode();
+	    if (CreditorInstitutionErrorEnum.isNotValidErrorCode(responseErrorCode)) {
+	      return null;
+	    }
+	    CreditorInstitutionErrorEnum error = CreditorInstitutionErrorEnum.getFromErrorCode(responseErrorCode);
+	    return error.getStatus() == responseStatus ? error : null;
+	  }
+
 	  private ErrorResponse buildErrorResponse(String errorMessage, Long timestamp, String dateTime) {
 	    return ErrorResponse.builder()
 	        .httpStatusCode(ODP_ERRORE_EMESSO_DA_PAA.getStatus().getStatusCode())
@@ -174,29 +249,48 @@ public class CreditorInstitutionRestClient {
 		  try (Response response = gpdClient.verifyPaymentOptions(
 				  organizationFiscalCode, noticeNumber, segregationCodes)) {
 
-			  return objectMapper.readValue(
-					  response.readEntity(String.class),
-					  PaymentOptionsResponse.class
-					  );
-
-		  } catch (ClientWebApplicationException e) {
-
-			  throw handleClientWebApplicationException(e, organizationFiscalCode);
+			  return readPaymentOptions(response);
 
-		  } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
-
-			  throw handleJsonProcessingException();
+		  } catch (Exception e) {
+			  throw mapGpdFailure(e, organizationFiscalCode);
+		  }
+	  }
 
-		  } catch (CreditorInstitutionException e) {
-			  throw e;
+	  /**
+	   * Non-blocking variant of {@link #callGpdPaymentOptionsVerify(String, String, String)}: the
+	   * returned Uni fails with the same exceptions the blocking call throws
+	   *
+	   * @param organizationFiscalCode fiscal code of the organization
+	   * @param noticeNumber notice number (NAV)
+	   * @param segregationCodes optional segregation codes
+	   * @return Uni emitting the PaymentOptionsResponse
+	   */
+	  public Uni<PaymentOptionsResponse> callGpdPaymentOptionsVerifyAsync(
+			  String organizationFiscalCode,
+			  String noticeNumber,
+			  String segregationCodes
+			  ) {
+		  return verifyAsync(
+				  () -> gpdClient.verifyPaymentOptionsAsync(
+						  organizationFiscalCode, noticeNumber, segregationCodes),
+				  e -> mapGpdFailure(e, organizationFiscalCode));
+	  }
 
-		  } catch (Exception e) {
-			  throw new PaymentOptionsException(
-					  AppErrorCodeEnum.ODP_STAZIONE_INT_PA_IRRAGGIUNGIBILE,
-					  e.getMessage(),
-					  e
-					  );
+	  private RuntimeException mapGpdFailure(Throwable failure, String organizationFiscalCode) {
+		  if (failure instanceof ClientWebApplicationException e) {
+			  return handleClientWebApplicationException(e, organizationFiscalCode);
+		  }
+		  if (failure instanceof JsonProcessingException) {
+			  return handleJsonProcessingException("[Payment Options] Unable to parse the GPD-Core response");
+		  }
+		  if (failure instanceof CreditorInstitutionException e) {
+			  return e;
 		  }
+		  return new PaymentOptionsException(
+				  AppErrorCodeEnum.ODP_STAZIONE_INT_PA_IRRAGGIUNGIBILE,
+				  failure.getMessage(),
+				  failure
+				  );
 	  }
 
 	  
@@ -215,6 +309,8 @@ public class CreditorInstitutionRestClient {
 						  ErrorResponse.class
 						  );
 
+				  CreditorInstitutionErrorEnum creditorInstitutionError =
+						  creditorInstitutionError(resp.getStatus(), errorResponse);
 				  errorResponse = validateAndBuildErrorResponse(
 						  resp.getStatus(),
 						  errorResponse,
@@ -223,14 +319,15 @@ public class CreditorInstitutionRestClient {
 
 				  return new CreditorInstitutionException(
 						  errorResponse,
-						  "[Payment Options] Encountered a managed error calling GPD-Core verifyPaymentOptions"
+						  "[Payment Options] Encountered a managed error calling GPD-Core verifyPaymentOptions",
+						  creditorInstitutionError
 						  );
 
 			  } catch (CreditorInstitutionException ex) {
 				  return ex;
 
-			  } catch (com.fasterxml.jackson.core.JsonProcessingException ex) {
-				  return handleJsonProcessingException();
+			  } catch (JsonProcessingException ex) {
+				  return handleJsonProcessingException("[Payment Options] Unable to parse the GPD-Core response");
 
 			  } catch (Exception ex) {
 				  return new PaymentOptionsException(
@@ -250,17 +347,17 @@ public class CreditorInstitutionRestClient {
 	  }
 
 
-	  private CreditorInstitutionException handleJsonProcessingException() {
-		  Instant now = Instant.now();
+	  private CreditorInstitutionException handleJsonProcessingException(String message) {
+		  long now = timeSource.currentTimeMillis();
 		  ErrorResponse fallback = buildErrorResponse(
 				  CreditorInstitutionErrorEnum.PAA_SYSTEM_ERROR.name(),
-				  now.toEpochMilli(),
-				  now.truncatedTo(ChronoUnit.MILLIS).toString()
+				  now,
+				  TimeSource.isoInstant(now)
 				  );
 
 		  return new CreditorInstitutionException(
 				  fallback,
-				  "[Payment Options] Unable to parse the GPD-Core response"
+				  message
 				  );
 	  }
 }
@@ -1,5 +1,6 @@
 package it.gov.pagopa.payment.options.clients;
 
+import io.smallrye.mutiny.Uni;
 import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
@@ -20,4 +21,17 @@ public interface CreditorInstitutionRestClientInterface {
       @HeaderParam("X-Host-Path") String hostPath
   );
 
+  /**
+   * Non-blocking variant of {@link #verifyPaymentOptions(String, Integer, String)}, completed on
+   * the event loop when the forwarder responds
+   */
+  @POST
+  @Path("/forward")
+  @ClientHeaderParam(name = "Ocp-Apim-Subscription-Key", value = "${CreditorInstitutionRestClient.ocpSubKey}")
+  Uni<Response> verifyPaymentOptionsAsync(
+      @HeaderParam("X-Host-Url") String hostUrl,
+      @HeaderParam("X-Host-Port") Integer hostPort,
+      @HeaderParam("X-Host-Path") String hostPath
+  );
+
 }
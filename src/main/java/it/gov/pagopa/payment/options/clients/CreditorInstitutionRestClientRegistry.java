@@ -0,0 +1,276 @@
+package it.gov.pagopa.payment.options.clients;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.metrics.Meter;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.net.URL;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.rest.client.RestClientBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded registry of creditor institution REST clients, keyed by the APIM forwarder base URL.
+ *
+ * <p>Building a REST client creates a new proxy, connection pool and TLS context, so clients are
+ * built once per forwarder URL and reused across requests; concurrent first requests for a URL
+ * may each build one, all but the registered one being closed. Since the key is derived from the
+ * station {@code Connection}, a client is rebuilt only when a config cache refresh changes the
+ * connection; stale entries are released by idle eviction or, when the registry is full, by
+ * evicting the least recently used entry.
+ *
+ * <p>Clients are handed out as {@link Lease}s: an evicted client is closed once the last request
+ * using it releases its lease, so eviction never fails a call in flight.
+ */
+@ApplicationScoped
+public class CreditorInstitutionRestClientRegistry {
+
+  private final Logger logger = LoggerFactory.getLogger(CreditorInstitutionRestClientRegistry.class);
+
+  private final Map<String, Entry> clients = new ConcurrentHashMap<>();
+
+  private final ReentrantLock evictionLock = new ReentrantLock();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  private final int maxSize;
+  private final long idleTimeoutNanos;
+  private final Function<URL, CreditorInstitutionRestClientInterface> clientFactory;
+  private final LongSupplier nanoClock;
+
+  private volatile long lastIdleSweep;
+
+  @Inject
+  CreditorInstitutionRestClientRegistry(
+      @ConfigProperty(name = "CreditorInstitutionRestClient.registry.maxSize", defaultValue = "256")
+          int maxSize,
+      @ConfigProperty(name = "CreditorInstitutionRestClient.registry.idleTimeout", defaultValue = "PT10M")
+          Duration idleTimeout,
+      Meter meter) {
+    this(maxSize, idleTimeout, meter,
+        baseUrl -> RestClientBuilder.newBuilder()
+            .baseUrl(baseUrl)
+            .build(CreditorInstitutionRestClientInterface.class),
+        System::nanoTime);
+  }
+
+  CreditorInstitutionRestClientRegistry(
+      int maxSize,
+      Duration idleTimeout,
+      Meter meter,
+      Function<URL, CreditorInstitutionRestClientInterface> clientFactory,
+      LongSupplier nanoClock) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("Client registry size must be positive");
+    }
+    this.maxSize = maxSize;
+    this.idleTimeoutNanos = idleTimeout.toNanos();
+    this.clientFactory = clientFactory;
+    this.nanoClock = nanoClock;
+    this.lastIdleSweep = nanoClock.getAsLong();
+    registerMetrics(meter != null ? meter : OpenTelemetry.noop().getMeter("noop"));
+  }
+
+  /**
+   * Leases the client bound to the given forwarder base URL, building it on first use. The lease
+   * must be closed once the call is over, so that an evicted client can be closed.
+   *
+   * @param baseUrl forwarder base URL, as built from the station connection
+   * @return a lease on a reusable client instance for the provided URL
+   */
+  public Lease acquire(URL baseUrl) {
+    long now = nanoClock.getAsLong();
+    evictIdleIfDue(now);
+
+    // URL.equals/hashCode resolve the host name: key on the external form instead.
+    String key = baseUrl.toExternalForm();
+    while (true) {
+      Entry entry = clients.get(key);
+      if (entry != null) {
+        if (entry.retain()) {
+          hits.increment();
+          entry.lastAccess = now;
+          return new Lease(key, entry);
+        }
+        // An entry that cannot be retained was already evicted, and removed: look it up again.
+        continue;
+      }
+
+      // Built outside the map, so that building a client never blocks the lookups of other keys
+      Entry built = new Entry(clientFactory.apply(baseUrl), now);
+      if (clients.putIfAbsent(key, built) != null) {
+        // Another request registered a client first: close this one and use that
+        release(key, built);
+        continue;
+      }
+      misses.increment();
+      // Fails only if another request evicted the client already
+      if (built.retain()) {
+        if (clients.size() > maxSize) {
+          evictLeastRecentlyUsed(key);
+        }
+        return new Lease(key, built);
+      }
+    }
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  public int size() {
+    return clients.size();
+  }
+
+  @PreDestroy
+  void close() {
+    clients.keySet().forEach(this::evict);
+  }
+
+  private void evictIdleIfDue(long now) {
+    // Sweep at most twice per idle period, and only from one thread at a time.
+    if (now - lastIdleSweep < idleTimeoutNanos / 2 || !evictionLock.tryLock()) {
+      return;
+    }
+    try {
+      lastIdleSweep = now;
+      clients.forEach((key, entry) -> {
+        if (now - entry.lastAccess > idleTimeoutNanos) {
+          evict(key);
+        }
+      });
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private void evictLeastRecentlyUsed(String justAdded) {
+    evictionLock.lock();
+    try {
+      while (clients.size() > maxSize) {
+        String eldest = null;
+        long eldestAccess = Long.MAX_VALUE;
+        for (Map.Entry<String, Entry> candidate : clients.entrySet()) {
+          if (!candidate.getKey().equals(justAdded)
+              && candidate.getValue().lastAccess < eldestAccess) {
+            eldest = candidate.getKey();
+            eldestAccess = candidate.getValue().lastAccess;
+          }
+        }
+        if (eldest == null) {
+          return;
+        }
+        evict(eldest);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private void evict(String key) {
+    Entry removed = clients.remove(key);
+    if (removed == null) {
+      return;
+    }
+    evictions.increment();
+    release(key, removed);
+  }
+
+  // Drops one reference to the entry, closing its client with the last one
+  private void release(String key, Entry entry) {
+    if (entry.references.decrementAndGet() > 0
+        || !(entry.client instanceof AutoCloseable closeable)) {
+      return;
+    }
+    try {
+      closeable.close();
+    } catch (Exception e) {
+      logger.warn("[Payment Options] Unable to close REST client for {}: {}", key, e.getMessage());
+    }
+  }
+
+  private void registerMetrics(Meter meter) {
+    meter.counterBuilder("odp.ec_client.registry.hits")
+        .setDescription("Creditor institution REST client lookups served by an existing client")
+        .buildWithCallback(m -> m.record(hits.sum()));
+    meter.counterBuilder("odp.ec_client.registry.misses")
+        .setDescription("Creditor institution REST client lookups that built a new client")
+        .buildWithCallback(m -> m.record(misses.sum()));
+    meter.counterBuilder("odp.ec_client.registry.evictions")
+        .setDescription("Creditor institution REST clients released for idleness or capacity")
+        .buildWithCallback(m -> m.record(evictions.sum()));
+    meter.upDownCounterBuilder("odp.ec_client.registry.size")
+        .setDescription("Creditor institution REST clients currently held by the registry")
+        .buildWithCallback(m -> m.record(clients.size()));
+  }
+
+  /** Client in use by a request, released by closing the lease */
+  public final class Lease implements AutoCloseable {
+
+    private final String key;
+    private final Entry entry;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Lease(String key, Entry entry) {
+      this.key = key;
+      this.entry = entry;
+    }
+
+    public CreditorInstitutionRestClientInterface client() {
+      return entry.client;
+    }
+
+    @Override
+    public void close() {
+      if (released.compareAndSet(false, true)) {
+        release(key, entry);
+      }
+    }
+  }
+
+  private static final class Entry {
+
+    private final CreditorInstitutionRestClientInterface client;
+    // One reference held by the registry until eviction, plus one per open lease
+    private final AtomicInteger references = new AtomicInteger(1);
+    private volatile long lastAccess;
+
+    private Entry(CreditorInstitutionRestClientInterface client, long lastAccess) {
+      this.client = client;
+      this.lastAccess = lastAccess;
+    }
+
+    // Fails once the client has been closed
+    private boolean retain() {
+      int current;
+      do {
+        current = references.get();
+        if (current == 0) {
+          return false;
+        }
+      } while (!references.compareAndSet(current, current + 1));
+      return true;
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package it.gov.pagopa.payment.options.clients;
 
+import io.smallrye.mutiny.Uni;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
@@ -26,4 +27,17 @@ public interface GpdCoreRestClientInterface {
             @PathParam("notice-number") String noticeNumber,
             @QueryParam("segregationCodes") String segregationCodes
     );
+
+    /**
+     * Non-blocking variant of {@link #verifyPaymentOptions(String, String, String)}
+     */
+    @POST
+    @Path("/payment-options/organizations/{organization-fiscal-code}/notices/{notice-number}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes(MediaType.APPLICATION_JSON)
+    Uni<Response> verifyPaymentOptionsAsync(
+            @PathParam("organization-fiscal-code") String organizationFiscalCode,
+            @PathParam("notice-number") String noticeNumber,
+            @QueryParam("segregationCodes") String segregationCodes
+    );
 }
@@ -0,0 +1,160 @@
+package it.gov.pagopa.payment.options.clients;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonParser.NumberType;
+import com.fasterxml.jackson.core.JsonToken;
+import it.gov.pagopa.payment.options.models.enums.InstallmentEnum;
+import it.gov.pagopa.payment.options.models.enums.PaymentOptionStatusEnum;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming check of a creditor institution verify response against the PaymentOptionsResponse
+ * model, telling whether its bytes can be forwarded as received.
+ *
+ * <p>A response is forwarded as is only when decoding and encoding it again would not change its
+ * content: UTF-8, known fields only, each at most once and with the exact JSON type of the model,
+ * and nothing after the root object. Anything else is left to the object mapper, which either
+ * normalizes it (e.g. dropping unknown fields, coercing types) or rejects it.
+ */
+public final class PaymentOptionsResponseValidator {
+
+  private static final Shape STRING = nullable(parser -> {
+    if (parser.currentToken() != JsonToken.VALUE_STRING) {
+      return false;
+    }
+    // decodes the value, rejecting malformed UTF-8 as the object mapper would
+    parser.getTextLength();
+    return true;
+  });
+
+  private static final Shape INT = nullable(parser ->
+      parser.currentToken() == JsonToken.VALUE_NUMBER_INT
+          && parser.getNumberType() == NumberType.INT);
+
+  private static final Shape LONG = nullable(parser ->
+      parser.currentToken() == JsonToken.VALUE_NUMBER_INT
+          && parser.getNumberType() != NumberType.BIG_INTEGER);
+
+  private static final Shape BOOLEAN = nullable(parser -> parser.currentToken().isBoolean());
+
+  private static final Shape INSTALLMENT = object(Map.of(
+      "nav", STRING,
+      "iuv", STRING,
+      "amount", LONG,
+      "description", STRING,
+      "dueDate", STRING,
+      "validFrom", STRING,
+      "status", enumeration(InstallmentEnum.class),
+      "statusReason", STRING));
+
+  private static final Shape PAYMENT_OPTION = object(Map.of(
+      "description", STRING,
+      "numberOfInstallments", INT,
+      "dueDate", STRING,
+      "validFrom", STRING,
+      "amount", LONG,
+      "status", enumeration(PaymentOptionStatusEnum.class),
+      "statusReason", STRING,
+      "allCCP", BOOLEAN,
+      "installments", array(INSTALLMENT)));
+
+  private static final Shape PAYMENT_OPTIONS_RESPONSE = object(Map.of(
+      "organizationFiscalCode", STRING,
+      "companyName", STRING,
+      "officeName", STRING,
+      "standin", BOOLEAN,
+      "paymentOptions", array(PAYMENT_OPTION)));
+
+  private PaymentOptionsResponseValidator() {}
+
+  /**
+   * Checks the provided verify response
+   *
+   * @param jsonFactory factory of the object mapper decoding the responses
+   * @param json response body
+   * @return true if the body can be forwarded as received, false if it must be decoded
+   * @throws IOException if the body is not valid JSON
+   */
+  public static boolean isForwardable(JsonFactory jsonFactory, byte[] json) throws IOException {
+    if (!isUtf8(json)) {
+      return false;
+    }
+    try (JsonParser parser = jsonFactory.createParser(json)) {
+      return parser.nextToken() == JsonToken.START_OBJECT
+          && PAYMENT_OPTIONS_RESPONSE.accepts(parser)
+          && parser.nextToken() == null;
+    }
+  }
+
+  // JSON text starts with an ASCII character: UTF-16/32 put a zero byte next to it, BOMs are not ASCII
+  private static boolean isUtf8(byte[] json) {
+    return json.length > 0 && json[0] > 0 && (json.length == 1 || json[1] != 0);
+  }
+
+  private static Shape object(Map<String, Shape> fields) {
+    // fields seen so far are tracked in a bit mask, by field ordinal
+    Map<String, Integer> ordinals = new HashMap<>();
+    Shape[] shapes = new Shape[fields.size()];
+    fields.forEach((name, shape) -> {
+      shapes[ordinals.size()] = shape;
+      ordinals.put(name, ordinals.size());
+    });
+    return nullable(parser -> {
+      if (parser.currentToken() != JsonToken.START_OBJECT) {
+        return false;
+      }
+      int seen = 0;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        Integer ordinal = ordinals.get(parser.currentName());
+        if (ordinal == null || (seen & (1 << ordinal)) != 0) {
+          return false;
+        }
+        seen |= 1 << ordinal;
+        parser.nextToken();
+        if (!shapes[ordinal].accepts(parser)) {
+          return false;
+        }
+      }
+      return true;
+    });
+  }
+
+  private static Shape array(Shape elements) {
+    return nullable(parser -> {
+      if (parser.currentToken() != JsonToken.START_ARRAY) {
+        return false;
+      }
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        if (!elements.accepts(parser)) {
+          return false;
+        }
+      }
+      return true;
+    });
+  }
+
+  private static Shape enumeration(Class<? extends Enum<?>> type) {
+    Set<String> names = Arrays.stream(type.getEnumConstants())
+        .map(Enum::name)
+        .collect(Collectors.toUnmodifiableSet());
+    return nullable(parser -> parser.currentToken() == JsonToken.VALUE_STRING
+        && names.contains(parser.getText()));
+  }
+
+  private static Shape nullable(Shape shape) {
+    return parser -> parser.currentToken() == JsonToken.VALUE_NULL || shape.accepts(parser);
+  }
+
+  /** Expected JSON value, checked with the parser positioned on its first token */
+  @FunctionalInterface
+  private interface Shape {
+
+    boolean accepts(JsonParser parser) throws IOException;
+  }
+}
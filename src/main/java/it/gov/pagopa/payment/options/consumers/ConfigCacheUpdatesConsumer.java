@@ -1,7 +1,8 @@
 package it.gov.pagopa.payment.options.consumers;
 
 import it.gov.pagopa.payment.options.models.events.CacheUpdateEvent;
-import it.gov.pagopa.payment.options.services.ConfigCacheService;
+import it.gov.pagopa.payment.options.services.ConfigCacheMetrics;
+import it.gov.pagopa.payment.options.services.ConfigCacheRefreshScheduler;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.eclipse.microprofile.reactive.messaging.Incoming;
@@ -18,10 +19,15 @@ public class ConfigCacheUpdatesConsumer {
   private final Logger logger = LoggerFactory.getLogger(ConfigCacheUpdatesConsumer.class);
 
   @Inject
-  public ConfigCacheService configCacheService;
+  public ConfigCacheRefreshScheduler refreshScheduler;
+
+  // Tracks the events not served yet, for the config cache staleness
+  @Inject
+  ConfigCacheMetrics cacheMetrics;
 
   /**
-   * Consume method, containing the trigger of the local cache config update
+   * Consume method, scheduling the local cache config update. The refresh runs in background,
+   * so the event is acknowledged without waiting for the api-config cache download
    * @param event cache update event
    */
   @Incoming("nodo-dei-pagamenti-cache")
@@ -35,23 +41,10 @@ public class ConfigCacheUpdatesConsumer {
 
 	  logger.info("[Payment Options] Received update event with cacheVersion {}"
 			  + " and version {}", event.getCacheVersion(), event.getVersion());
-	  try {
-		  configCacheService.checkAndUpdateCache(event);
-	  } catch (Exception e) {
-		  // Best-effort cache update:
-		  // If an update fails we must NOT rethrow here. Rethrowing can trigger retries / message reprocessing
-		  // depending on the reactive messaging failure strategy, causing CPU/memory spikes and pod restarts.
-		  // By swallowing the exception, the service keeps running and continues serving requests using
-		  // the last known good cache snapshot, and the next Kafka event will try to refresh again.	
-		  logger.error(
-				  "[Payment Options] Cache update failed (cacheVersion={}, version={}). Keeping previous snapshot. Cause: {}",
-				  event.getCacheVersion(),
-				  event.getVersion(),
-				  e.getMessage(),
-				  e
-				  );
-	  }
-
+	  // Best-effort cache update: failures are logged by the scheduler and never rethrown here,
+	  // so that they cannot trigger retries / message reprocessing.
+	  cacheMetrics.eventReceived();
+	  refreshScheduler.submit(event);
   }
 
 }
@@ -2,6 +2,7 @@ package it.gov.pagopa.payment.options.exception;
 
 import it.gov.pagopa.payment.options.models.ErrorResponse;
 import it.gov.pagopa.payment.options.models.enums.AppErrorCodeEnum;
+import it.gov.pagopa.payment.options.models.enums.CreditorInstitutionErrorEnum;
 import jakarta.ws.rs.core.Response;
 import lombok.Getter;
 import java.util.Objects;
@@ -11,6 +12,9 @@ public class CreditorInstitutionException extends RuntimeException {
 
   private ErrorResponse errorResponse;
 
+  // error returned by the creditor institution, null if none or not a valid one
+  private CreditorInstitutionErrorEnum creditorInstitutionError;
+
   /**
    * Constructs new exception with provided error code and message
    *
@@ -22,6 +26,19 @@ public class CreditorInstitutionException extends RuntimeException {
     this.errorResponse = Objects.requireNonNull(errorResponse);
   }
 
+  /**
+   * Constructs new exception for a valid error returned by the creditor institution
+   *
+   * @param errorResponse Error Response
+   * @param message   Detail message
+   * @param creditorInstitutionError error returned by the creditor institution, or null
+   */
+  public CreditorInstitutionException(ErrorResponse errorResponse, String message,
+      CreditorInstitutionErrorEnum creditorInstitutionError) {
+    this(errorResponse, message);
+    this.creditorInstitutionError = creditorInstitutionError;
+  }
+
   /**
    * Constructs new exception with provided error response, message and cause
    *
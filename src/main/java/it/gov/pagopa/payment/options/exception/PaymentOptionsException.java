@@ -23,6 +23,12 @@ public class PaymentOptionsException extends RuntimeException {
 
     private final Long timestamp;
 
+    /**
+     * Whether this exception is an expected rejection of the request, e.g. an unknown PSP, created
+     * without stack trace
+     */
+    private final boolean rejection;
+
     /**
      * Constructs new exception with provided error code and message
      *
@@ -33,6 +39,7 @@ public class PaymentOptionsException extends RuntimeException {
         super(message);
         this.errorCode = Objects.requireNonNull(errorCode);
         this.timestamp = Instant.now().getEpochSecond();
+        this.rejection = false;
     }
 
     /**
@@ -46,6 +53,28 @@ public class PaymentOptionsException extends RuntimeException {
         super(message, cause);
         this.errorCode = Objects.requireNonNull(errorCode);
         this.timestamp = Instant.now().getEpochSecond();
+        this.rejection = false;
+    }
+
+    private PaymentOptionsException(AppErrorCodeEnum errorCode, String message, long timestamp) {
+        super(message, null, false, false);
+        this.errorCode = Objects.requireNonNull(errorCode);
+        this.timestamp = timestamp;
+        this.rejection = true;
+    }
+
+    /**
+     * Creates the exception of an expected rejection of the request, such as an unknown or disabled
+     * PSP, station or creditor institution. The stack trace is neither captured nor logged: it
+     * would always point to the same validation code
+     *
+     * @param errorCode Error code
+     * @param message   Detail message
+     * @return the exception to throw
+     */
+    public static PaymentOptionsException rejection(AppErrorCodeEnum errorCode, String message) {
+        return new PaymentOptionsException(errorCode, message,
+            Math.floorDiv(System.currentTimeMillis(), 1000L));
     }
 
     public static Response.Status getHttpStatus(PaymentOptionsException e) {
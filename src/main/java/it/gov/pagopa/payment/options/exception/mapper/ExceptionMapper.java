@@ -9,10 +9,12 @@ import it.gov.pagopa.payment.options.exception.CreditorInstitutionException;
 import it.gov.pagopa.payment.options.exception.PaymentOptionsException;
 import it.gov.pagopa.payment.options.models.ErrorResponse;
 import it.gov.pagopa.payment.options.models.enums.AppErrorCodeEnum;
+import it.gov.pagopa.payment.options.util.LogSampler;
+import it.gov.pagopa.payment.options.util.TimeSource;
+import jakarta.inject.Inject;
 import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.Response.Status;
-import java.time.Instant;
 import java.util.List;
 import org.jboss.resteasy.reactive.server.ServerExceptionMapper;
 import org.slf4j.Logger;
@@ -22,13 +24,19 @@ public class ExceptionMapper {
 
     Logger logger = LoggerFactory.getLogger(ExceptionMapper.class);
 
+    @Inject
+    TimeSource timeSource;
+
+    @Inject
+    LogSampler logSampler;
+
     private ErrorResponse buildErrorResponse(Response.Status status, AppErrorCodeEnum errorCode, String message) {
         return ErrorResponse.builder()
                 .httpStatusCode(status.getStatusCode())
                 .httpStatusDescription(status.getReasonPhrase())
                 .appErrorCode(errorCode.getErrorCode())
                 .errorMessage(message)
-                .timestamp(Instant.now().getEpochSecond())
+                .timestamp(timeSource.epochSecond())
                 .build();
     }
 
@@ -68,7 +76,12 @@ public class ExceptionMapper {
 
   @ServerExceptionMapper
   public Response mapPaymentNoticeException(PaymentOptionsException exception) {
-      logger.error(exception.getMessage(), exception);
+      if (!exception.isRejection()) {
+          logger.error(exception.getMessage(), exception);
+      } else if (logSampler.sample(logger, exception.getErrorCode())) {
+          logger.error("[Payment Options] request rejected with {}: {}",
+              exception.getErrorCode().getErrorCode(), exception.getMessage());
+      }
       Response.Status status = getHttpStatus(exception);
       return Response.status(status).entity(buildErrorResponse(status,
               exception.getErrorCode(), exception.getMessage())).build();
@@ -0,0 +1,117 @@
+package it.gov.pagopa.payment.options.filters;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.gov.pagopa.payment.options.models.ErrorResponse;
+import jakarta.ws.rs.core.MultivaluedMap;
+import java.util.HashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Data of a logged API operation, captured by the {@link ApiLoggingFilter} in lazy mode.
+ *
+ * <p>The request and response fields are kept as they are (timestamps, status code, query
+ * parameters, error response) and put in the MDC as views rendering them on {@code toString},
+ * which the log formatter calls only when a log event is written. The JSON fields are rendered
+ * once and reused by the following log events of the same operation.
+ */
+public final class ApiLogContext {
+
+  private static final Logger logger = LoggerFactory.getLogger(ApiLogContext.class);
+
+  private final ObjectMapper objectMapper;
+
+  private final String method;
+  private final long startTime;
+  private final long startNanos;
+  private final MultivaluedMap<String, String> queryParams;
+
+  private long responseTime;
+  private int httpCode;
+  private ErrorResponse errorResponse;
+
+  private String args;
+  private String response;
+
+  final Object startTimeField = new Field(Field.START_TIME);
+  final Object argsField = new Field(Field.ARGS);
+  final Object responseTimeField = new Field(Field.RESPONSE_TIME);
+  final Object httpCodeField = new Field(Field.CODE);
+  final Object responseField = new Field(Field.RESPONSE);
+
+  ApiLogContext(
+      ObjectMapper objectMapper,
+      String method,
+      long startTime,
+      long startNanos,
+      MultivaluedMap<String, String> queryParams) {
+    this.objectMapper = objectMapper;
+    this.method = method;
+    this.startTime = startTime;
+    this.startNanos = startNanos;
+    this.queryParams = queryParams;
+  }
+
+  String getMethod() {
+    return method;
+  }
+
+  void end(long endNanos, int httpCode, ErrorResponse errorResponse) {
+    this.responseTime = (endNanos - startNanos) / 1_000_000L;
+    this.httpCode = httpCode;
+    this.errorResponse = errorResponse;
+  }
+
+  private String args() {
+    if (args == null) {
+      args = queryParams == null || queryParams.isEmpty()
+          ? "{}"
+          : toJsonString(new HashMap<>(queryParams));
+    }
+    return args;
+  }
+
+  private String response() {
+    if (response == null) {
+      response = errorResponse == null ? "" : toJsonString(errorResponse);
+    }
+    return response;
+  }
+
+  private String toJsonString(Object param) {
+    try {
+      return objectMapper.writeValueAsString(param);
+    } catch (JsonProcessingException e) {
+      logger.warn("An error occurred when trying to parse a parameter", e);
+      return "parsing error";
+    }
+  }
+
+  /** MDC value of one of the fields, rendered when read */
+  private final class Field {
+
+    private static final int START_TIME = 0;
+    private static final int ARGS = 1;
+    private static final int RESPONSE_TIME = 2;
+    private static final int CODE = 3;
+    private static final int RESPONSE = 4;
+
+    private final int field;
+
+    private Field(int field) {
+      this.field = field;
+    }
+
+    @Override
+    public String toString() {
+      return switch (field) {
+        case START_TIME -> String.valueOf(startTime);
+        case ARGS -> args();
+        case RESPONSE_TIME -> String.valueOf(responseTime);
+        case CODE -> String.valueOf(httpCode);
+        default -> response();
+      };
+    }
+  }
+}
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import io.undertow.httpcore.StatusCodes;
 import it.gov.pagopa.payment.options.models.ErrorResponse;
+import it.gov.pagopa.payment.options.util.IdGenerator;
 import jakarta.annotation.Priority;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.ws.rs.Priorities;
@@ -16,7 +17,7 @@ import jakarta.ws.rs.core.MultivaluedMap;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.resteasy.reactive.RestResponse;
 import org.jboss.resteasy.reactive.server.ServerRequestFilter;
 import org.jboss.resteasy.reactive.server.ServerResponseFilter;
@@ -24,6 +25,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
+/**
+ * Logs the start and the end of the API operations, keeping the operation data in the MDC.
+ *
+ * <p>In {@link Mode#MDC} mode the data are rendered as strings when captured. In {@link Mode#LAZY}
+ * mode they are captured in an {@link ApiLogContext} and rendered only if a log event is written,
+ * so that a service logging at WARN does not pay for the JSON of the query parameters and of the
+ * error responses.
+ */
 @ApplicationScoped
 public class ApiLoggingFilter {
 
@@ -41,13 +50,32 @@ public class ApiLoggingFilter {
   public static final String OPERATION_ID = "operationId";
   public static final String ARGS = "args";
 
+  private static final String LOG_CONTEXT = ApiLogContext.class.getName();
+
+  /** How the operation data are put in the MDC */
+  public enum Mode {
+    /** Rendered as strings when captured */
+    MDC,
+    /** Captured as they are, rendered when a log event is written */
+    LAZY
+  }
+
   @Context ResourceInfo resourceInfo;
 
   private final ObjectMapper objectMapper;
 
-  public ApiLoggingFilter(ObjectMapper objectMapper) {
+  private final IdGenerator idGenerator;
+
+  private final Mode mode;
+
+  public ApiLoggingFilter(
+      ObjectMapper objectMapper,
+      IdGenerator idGenerator,
+      @ConfigProperty(name = "ApiLoggingFilter.mode", defaultValue = "mdc") Mode mode) {
     objectMapper.registerModule(new JavaTimeModule());
     this.objectMapper = objectMapper;
+    this.idGenerator = idGenerator;
+    this.mode = mode;
   }
 
   @LoggedAPI
@@ -58,34 +86,81 @@ public class ApiLoggingFilter {
         this.resourceInfo.getResourceMethod() != null
             ? this.resourceInfo.getResourceMethod().getName()
             : "";
+    ApiLogContext logContext = logRequest(methodName, ctx.getUriInfo().getQueryParameters());
+    if (logContext != null) {
+      ctx.setProperty(LOG_CONTEXT, logContext);
+    }
+    return Optional.empty();
+  }
+
+  @LoggedAPI
+  @Priority(Priorities.USER)
+  @ServerResponseFilter
+  public void onResponse(
+      ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+    logResponse(
+        (ApiLogContext) requestContext.getProperty(LOG_CONTEXT),
+        responseContext.getStatus(),
+        responseContext.getEntity());
+  }
+
+  /**
+   * Puts the data of a starting API operation in the MDC and logs it
+   *
+   * @param methodName name of the resource method
+   * @param queryParams query parameters of the request
+   * @return the operation data to pass to {@link #logResponse}, null in {@link Mode#MDC} mode
+   */
+  public ApiLogContext logRequest(String methodName, MultivaluedMap<String, String> queryParams) {
+    if (mode == Mode.LAZY) {
+      ApiLogContext logContext = new ApiLogContext(
+          objectMapper, methodName, System.currentTimeMillis(), System.nanoTime(), queryParams);
+      putObject(METHOD, methodName);
+      putObject(START_TIME, logContext.startTimeField);
+      putObject(OPERATION_ID, idGenerator.nextId());
+      if (org.jboss.logmanager.MDC.getObject(REQUEST_ID) == null) {
+        putObject(REQUEST_ID, idGenerator.nextId());
+      }
+      putObject(ARGS, logContext.argsField);
+
+      logger.info("Invoking API operation {}", methodName);
+      return logContext;
+    }
     MDC.put(METHOD, methodName);
     MDC.put(START_TIME, String.valueOf(System.currentTimeMillis()));
-    MDC.put(OPERATION_ID, UUID.randomUUID().toString());
+    MDC.put(OPERATION_ID, idGenerator.nextId());
     if (MDC.get(REQUEST_ID) == null) {
-      MDC.put(REQUEST_ID, UUID.randomUUID().toString());
+      MDC.put(REQUEST_ID, idGenerator.nextId());
     }
-    MDC.put(ARGS, getParams(ctx));
+    MDC.put(ARGS, getParams(queryParams));
 
     logger.info("Invoking API operation {}", methodName);
-
-    return Optional.empty();
+    return null;
   }
 
-  @LoggedAPI
-  @Priority(Priorities.USER)
-  @ServerResponseFilter
-  public void onResponse(ContainerResponseContext responseContext) {
+  /**
+   * Puts the outcome of an API operation in the MDC, logs it and clears the operation data
+   *
+   * @param logContext operation data returned by {@link #logRequest}
+   * @param status HTTP status of the response
+   * @param entity entity of the response
+   */
+  public void logResponse(ApiLogContext logContext, int status, Object entity) {
+    if (logContext != null) {
+      logLazyResponse(logContext, status, entity);
+      return;
+    }
     try {
       String method = MDC.get(METHOD);
 
       MDC.put(RESPONSE_TIME, getExecutionTime());
 
-      if (responseContext.getStatus() == StatusCodes.OK) {
+      if (status == StatusCodes.OK) {
         MDC.put(STATUS, "OK");
-        MDC.put(CODE, String.valueOf(responseContext.getStatus()));
+        MDC.put(CODE, String.valueOf(status));
         MDC.put(RESPONSE, "");
         logger.info("Successful API operation {}", method);
-      } else if (responseContext.getEntity() instanceof ErrorResponse errorResponse) {
+      } else if (entity instanceof ErrorResponse errorResponse) {
         MDC.put(STATUS, "KO");
         MDC.put(CODE, String.valueOf(errorResponse.getHttpStatusCode()));
         MDC.put(RESPONSE, toJsonString(errorResponse));
@@ -115,6 +190,61 @@ public class ApiLoggingFilter {
     }
   }
 
+  private void logLazyResponse(ApiLogContext logContext, int status, Object entity) {
+    try {
+      String method = logContext.getMethod();
+      long endNanos = System.nanoTime();
+
+      putObject(RESPONSE_TIME, logContext.responseTimeField);
+      putObject(CODE, logContext.httpCodeField);
+      putObject(RESPONSE, logContext.responseField);
+
+      if (status == StatusCodes.OK) {
+        logContext.end(endNanos, status, null);
+        putObject(STATUS, "OK");
+        logger.info("Successful API operation {}", method);
+      } else if (entity instanceof ErrorResponse errorResponse) {
+        logContext.end(endNanos, errorResponse.getHttpStatusCode(), errorResponse);
+        putObject(STATUS, "KO");
+        putObject(FAULT_CODE, errorResponse.getAppErrorCode());
+        putObject(FAULT_DETAIL, errorResponse.getErrorMessage());
+        logger.info("Failed API operation {}", method);
+      } else {
+        logContext.end(endNanos, 500, null);
+        putObject(STATUS, "KO");
+        putObject(FAULT_CODE, "");
+        putObject(FAULT_DETAIL, "");
+        logger.info("Unexpected response for API operation {}", method);
+      }
+    } finally {
+      removeObject(METHOD);
+      removeObject(START_TIME);
+      removeObject(OPERATION_ID);
+      removeObject(REQUEST_ID);
+      removeObject(ARGS);
+      removeObject(STATUS);
+      removeObject(CODE);
+      removeObject(RESPONSE_TIME);
+      removeObject(RESPONSE);
+      removeObject(FAULT_CODE);
+      removeObject(FAULT_DETAIL);
+    }
+  }
+
+  // the SLF4J MDC only holds strings and renders the values it replaces or removes, the log
+  // manager one keeps them as they are until a log event is written
+  private static void putObject(String key, Object value) {
+    if (value == null) {
+      org.jboss.logmanager.MDC.removeObject(key);
+    } else {
+      org.jboss.logmanager.MDC.putObject(key, value);
+    }
+  }
+
+  private static void removeObject(String key) {
+    org.jboss.logmanager.MDC.removeObject(key);
+  }
+
   public String getExecutionTime() {
     String startTime = MDC.get(START_TIME);
     if (startTime != null) {
@@ -125,9 +255,8 @@ public class ApiLoggingFilter {
     return "-";
   }
 
-  private String getParams(ContainerRequestContext ctx) {
+  private String getParams(MultivaluedMap<String, String> queryParams) {
     Map<String, Object> params = new HashMap<>();
-    MultivaluedMap<String, String> queryParams = ctx.getUriInfo().getQueryParameters();
     if (queryParams != null && !queryParams.isEmpty()) {
       params.putAll(queryParams);
     }
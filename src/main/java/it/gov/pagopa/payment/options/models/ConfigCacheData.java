@@ -1,6 +1,6 @@
 package it.gov.pagopa.payment.options.models;
 
-import it.gov.pagopa.payment.options.models.clients.cache.ConfigDataV1;
+import it.gov.pagopa.payment.options.models.snapshot.ConfigSnapshot;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -19,9 +19,9 @@ public class ConfigCacheData {
 	private String version;
 	// Kafka event version (CacheUpdateEvent.version)
 	private String eventVersion;
-	private ConfigDataV1 configDataV1;
+	// read-only view of the api-config cache payload
+	private ConfigSnapshot snapshot;
 
-	//Compact index to resolve stationCode without retaining the creditorInstitutionStations payload.
-	//Structure: creditorInstitutionCode -> (segregationCode -> stationCode)
-	private java.util.Map<String, java.util.Map<Long, String>> stationCodeByCiAndSeg;
+	// true when loaded from the local snapshot file and not yet reconciled with api-config-cache
+	private boolean restored;
 }
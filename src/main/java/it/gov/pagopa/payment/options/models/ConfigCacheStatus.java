@@ -0,0 +1,49 @@
+package it.gov.pagopa.payment.options.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * State of the config cache being served and of its last refresh, as exposed by the config cache
+ * admin endpoint. Durations are in milliseconds, sizes in bytes.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfigCacheStatus {
+
+	private String cacheVersion;
+	// version declared by the api-config-cache payload
+	private String version;
+	// Kafka event version (CacheUpdateEvent.version)
+	private String eventVersion;
+	// true when the snapshot was loaded from disk and not yet reconciled with api-config-cache
+	private boolean restored;
+	// ISO-8601 instant at which the snapshot started being served, null if none is served
+	private String snapshotTime;
+	private Long snapshotAge;
+	// estimated heap retained by the snapshot and its routing table
+	private Long retainedSize;
+	private Integer stations;
+	private Integer creditorInstitutions;
+	private Integer psps;
+	private Integer pspBrokers;
+	// creditor institutions with at least one station route
+	private Integer routedCreditorInstitutions;
+
+	// time elapsed since the oldest cache update event not served yet, 0 when up to date
+	private long staleness;
+	// ISO-8601 instant of the last api-config cache download, null if none completed
+	private String lastRefreshTime;
+	private Double lastRefreshHttpDuration;
+	private Double lastRefreshParseDuration;
+	private Double lastRefreshIndexBuildDuration;
+	private Long lastRefreshPayloadSize;
+	// refreshes failed since the start of the service
+	private long refreshFailures;
+}
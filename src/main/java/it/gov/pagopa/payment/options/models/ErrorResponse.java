@@ -10,7 +10,7 @@ import org.eclipse.microprofile.openapi.annotations.media.Schema;
 /** Model class for the error response */
 @Getter
 @Setter
-@Builder
+@Builder(toBuilder = true)
 @Jacksonized
 @RegisterForReflection
 public class ErrorResponse {
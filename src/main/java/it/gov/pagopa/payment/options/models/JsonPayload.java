@@ -0,0 +1,105 @@
+package it.gov.pagopa.payment.options.models;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smallrye.common.vertx.ContextLocals;
+import io.smallrye.common.vertx.VertxContext;
+import io.vertx.core.Context;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * JSON encoding of a response, serialized once per request and shared by the RE events carrying
+ * it and by the HTTP response writer.
+ *
+ * <p>The JSON bytes are written through the ObjectMapper recycled buffers, and their Base64 (MIME)
+ * form used by the events is computed on first use only. The payload can be attached to the
+ * request, so that the response writer can send the same bytes instead of serializing the
+ * response again.
+ */
+public final class JsonPayload {
+
+  private static final String REQUEST_KEY = JsonPayload.class.getName();
+
+  private final Object value;
+
+  private final byte[] json;
+
+  private String base64;
+
+  private JsonPayload(Object value, byte[] json) {
+    this.value = value;
+    this.json = json;
+  }
+
+  /**
+   * Serializes the provided value
+   *
+   * @param objectMapper mapper used to serialize the value
+   * @param value value to serialize
+   * @return the serialized payload
+   * @throws JsonProcessingException if the value cannot be serialized
+   */
+  public static JsonPayload of(ObjectMapper objectMapper, Object value)
+      throws JsonProcessingException {
+    return new JsonPayload(value, objectMapper.writeValueAsBytes(value));
+  }
+
+  /**
+   * Wraps JSON already encoded for the provided value, e.g. received from a creditor institution
+   *
+   * @param value value the JSON represents
+   * @param json UTF-8 encoded JSON of the value, not copied
+   * @return the payload
+   */
+  public static JsonPayload wrap(Object value, byte[] json) {
+    return new JsonPayload(value, json);
+  }
+
+  /**
+   * Provides the payload attached to the current request for the provided value
+   *
+   * @param value value being written
+   * @return the payload of that very instance, or empty if none was attached or the caller is not
+   *     serving a request
+   */
+  public static Optional<JsonPayload> ofRequest(Object value) {
+    if (!VertxContext.isOnDuplicatedContext()) {
+      return Optional.empty();
+    }
+    return ContextLocals.<JsonPayload>get(REQUEST_KEY).filter(payload -> payload.value == value);
+  }
+
+  /**
+   * Attaches this payload to a request, for {@link #ofRequest(Object)}. The request context is
+   * passed explicitly since non-blocking calls complete on the context of the client
+   *
+   * @param requestContext context of the request being served, or null outside requests
+   * @return this payload
+   */
+  public JsonPayload attachTo(Context requestContext) {
+    if (requestContext != null && VertxContext.isDuplicatedContext(requestContext)) {
+      requestContext.putLocal(REQUEST_KEY, this);
+    }
+    return this;
+  }
+
+  /** JSON bytes, UTF-8 encoded. The array is shared and must not be modified */
+  public byte[] getJson() {
+    return json;
+  }
+
+  /** MIME Base64 encoding of the JSON bytes, as carried by the RE events */
+  public String getBase64() {
+    String encoded = base64;
+    if (encoded == null) {
+      encoded = Base64.getMimeEncoder().encodeToString(json);
+      base64 = encoded;
+    }
+    return encoded;
+  }
+
+  public int size() {
+    return json.length;
+  }
+}
@@ -0,0 +1,120 @@
+package it.gov.pagopa.payment.options.models.clients.creditorInstitution;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.ObjectReader;
+import it.gov.pagopa.payment.options.models.JsonPayload;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Payment options forwarded as received from the creditor institution, once validated against
+ * the model. The response bytes are written as they are to the PSP and into the RE events; the
+ * fields are only decoded if one of them is read.
+ *
+ * <p>Instances behave as any other response: a setter, or reading the payment options, which are
+ * mutable, applies to the decoded fields, and the response is then serialized from them instead
+ * of forwarding the received bytes. Instances are meant to be used by one request at a time.
+ */
+public class RawPaymentOptionsResponse extends PaymentOptionsResponse {
+
+  private final byte[] json;
+
+  private final ObjectReader reader;
+
+  // forwarded bytes, null once the decoded fields may have been modified
+  private volatile JsonPayload payload;
+
+  private volatile PaymentOptionsResponse decoded;
+
+  /**
+   * @param json validated response body, UTF-8 encoded
+   * @param reader reader decoding a PaymentOptionsResponse, used if a field is read
+   */
+  public RawPaymentOptionsResponse(byte[] json, ObjectReader reader) {
+    this.json = json;
+    this.reader = reader;
+    this.payload = JsonPayload.wrap(this, json);
+  }
+
+  /**
+   * Provides the received bytes, as long as they still represent this response
+   *
+   * @return the payload to forward, or empty if the response may have been modified
+   */
+  @JsonIgnore
+  public Optional<JsonPayload> getPayload() {
+    return Optional.ofNullable(payload);
+  }
+
+  @Override
+  public String getOrganizationFiscalCode() {
+    return decoded().getOrganizationFiscalCode();
+  }
+
+  @Override
+  public String getCompanyName() {
+    return decoded().getCompanyName();
+  }
+
+  @Override
+  public String getOfficeName() {
+    return decoded().getOfficeName();
+  }
+
+  @Override
+  public Boolean getStandin() {
+    return decoded().getStandin();
+  }
+
+  @Override
+  public List<PaymentOption> getPaymentOptions() {
+    return modifiable().getPaymentOptions();
+  }
+
+  @Override
+  public void setOrganizationFiscalCode(String organizationFiscalCode) {
+    modifiable().setOrganizationFiscalCode(organizationFiscalCode);
+  }
+
+  @Override
+  public void setCompanyName(String companyName) {
+    modifiable().setCompanyName(companyName);
+  }
+
+  @Override
+  public void setOfficeName(String officeName) {
+    modifiable().setOfficeName(officeName);
+  }
+
+  @Override
+  public void setStandin(Boolean standin) {
+    modifiable().setStandin(standin);
+  }
+
+  @Override
+  public void setPaymentOptions(List<PaymentOption> paymentOptions) {
+    modifiable().setPaymentOptions(paymentOptions);
+  }
+
+  // The decoded fields, which may be modified from now on: the received bytes no longer apply
+  private PaymentOptionsResponse modifiable() {
+    PaymentOptionsResponse response = decoded();
+    payload = null;
+    return response;
+  }
+
+  private PaymentOptionsResponse decoded() {
+    PaymentOptionsResponse response = decoded;
+    if (response == null) {
+      try {
+        response = reader.readValue(json);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      decoded = response;
+    }
+    return response;
+  }
+}
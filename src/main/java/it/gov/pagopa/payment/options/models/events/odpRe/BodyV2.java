@@ -0,0 +1,30 @@
+package it.gov.pagopa.payment.options.models.events.odpRe;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BodyV2 {
+
+  private String id;
+  private String sessionId;
+  private Status status;
+  private String organizationId;
+  private String stationId;
+  private String pspId;
+  private String brokerId;
+  private String noticeNumber;
+  private String errorStatusDesc;
+  private String errorStatusCode;
+  private Phases phases;
+  private String payload;
+  private String version;
+
+}
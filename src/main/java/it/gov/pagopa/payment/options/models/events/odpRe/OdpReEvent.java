@@ -0,0 +1,8 @@
+package it.gov.pagopa.payment.options.models.events.odpRe;
+
+/**
+ * Event sent to the payment-options-re channel, in either schema version
+ */
+public interface OdpReEvent {
+
+}
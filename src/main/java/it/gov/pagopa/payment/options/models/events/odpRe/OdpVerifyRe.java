@@ -11,7 +11,7 @@ import lombok.Setter;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class OdpVerifyRe {
+public class OdpVerifyRe implements OdpReEvent {
 
   private Body body;
   private Properties properties;
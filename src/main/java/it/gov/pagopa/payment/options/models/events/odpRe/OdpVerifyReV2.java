@@ -0,0 +1,23 @@
+package it.gov.pagopa.payment.options.models.events.odpRe;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Version 2 of the RE event: a single event per verify interaction, in place of the REQ and RES
+ * events of version 1
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OdpVerifyReV2 implements OdpReEvent {
+
+  private BodyV2 body;
+  private Properties properties;
+
+}
@@ -0,0 +1,25 @@
+package it.gov.pagopa.payment.options.models.events.odpRe;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Timestamps of the phases of a verify interaction, as ISO-8601 instants. Phases not reached,
+ * e.g. the creditor institution request of a rejected verify, are null
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Phases {
+
+  private String pspRequest;
+  private String ecRequest;
+  private String ecResponse;
+  private String pspResponse;
+
+}
@@ -0,0 +1,56 @@
+package it.gov.pagopa.payment.options.models.snapshot;
+
+import java.util.Collections;
+import java.util.Map;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Immutable view of the api-config cache, built at refresh time and read by the verify flow
+ * instead of the api-config-cache DTOs.
+ *
+ * <p>Only what the verify flow reads is kept: the precomputed creditor institution routes, which
+ * reference the stations they route to, and the PSP flags. The stations, creditor institutions and
+ * routing table they are built from are left to the {@link ConfigSnapshotSource}, of which only
+ * the sizes are kept. Maps are read-only views of the maps handed to the builder, which must not
+ * hold null keys or values. A null map or size means that the related data is not available.
+ */
+@Getter
+public class ConfigSnapshot {
+
+  // version declared by the api-config-cache payload
+  private final String version;
+  // PSP code -> enabled flag
+  private final Map<String, Boolean> psps;
+  // PSP broker code -> enabled flag
+  private final Map<String, Boolean> pspBrokers;
+  // creditor institution fiscal code -> precomputed routes, null if stations or CIs are not available
+  private final Map<String, CreditorInstitutionRoutes> routes;
+  private final Integer stationCount;
+  private final Integer creditorInstitutionCount;
+  // creditor institutions in the station routing table
+  private final Integer routedCreditorInstitutionCount;
+
+  @Builder
+  private ConfigSnapshot(
+      String version,
+      Map<String, Boolean> psps,
+      Map<String, Boolean> pspBrokers,
+      Map<String, CreditorInstitutionRoutes> routes,
+      Integer stationCount,
+      Integer creditorInstitutionCount,
+      Integer routedCreditorInstitutionCount) {
+    this.version = version;
+    this.psps = readOnly(psps);
+    this.pspBrokers = readOnly(pspBrokers);
+    this.routes = readOnly(routes);
+    this.stationCount = stationCount;
+    this.creditorInstitutionCount = creditorInstitutionCount;
+    this.routedCreditorInstitutionCount = routedCreditorInstitutionCount;
+  }
+
+  // The map is built once by the assembler: wrap it rather than copying it
+  private static <V> Map<String, V> readOnly(Map<String, V> map) {
+    return map != null ? Collections.unmodifiableMap(map) : null;
+  }
+}
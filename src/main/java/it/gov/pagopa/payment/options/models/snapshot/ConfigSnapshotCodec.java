@@ -0,0 +1,300 @@
+package it.gov.pagopa.payment.options.models.snapshot;
+
+import it.gov.pagopa.payment.options.models.ConfigCacheData;
+import it.gov.pagopa.payment.options.models.clients.cache.Connection.ProtocolEnum;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import lombok.Value;
+
+/**
+ * Binary encoding of the config cache data, used to persist the last known good snapshot.
+ *
+ * <p>The layout is a header (magic, format version, cache/event/api versions), the collections
+ * the snapshot is built from, the station routing table with its primitive arrays as they are held
+ * in memory, and a trailing CRC32 of everything before it. Strings are length prefixed UTF-8, and
+ * are deduplicated on read as the snapshot assembler does. Precomputed routes are not stored: they
+ * depend on the runtime configuration and are rebuilt after the snapshot is read.
+ */
+public final class ConfigSnapshotCodec {
+
+  private static final int MAGIC = 0x4F445053; // "ODPS"
+
+  private static final int FORMAT_VERSION = 1;
+
+  private static final int ABSENT = -1;
+
+  private static final byte STATION_ENABLED = 1;
+  private static final byte STATION_VERIFY_ENABLED = 2;
+
+  private ConfigSnapshotCodec() {}
+
+  /**
+   * Writes the provided cache data, without closing the stream
+   *
+   * @param data cache data, providing the versions
+   * @param source collections the snapshot of the cache data was built from
+   * @param target output stream
+   * @throws IOException on write errors
+   */
+  public static void write(ConfigCacheData data, ConfigSnapshotSource source, OutputStream target)
+      throws IOException {
+    CheckedOutputStream checked = new CheckedOutputStream(target, new CRC32());
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(checked, 1 << 16));
+
+    out.writeInt(MAGIC);
+    out.writeInt(FORMAT_VERSION);
+    writeString(out, data.getCacheVersion());
+    writeString(out, data.getVersion());
+    writeString(out, data.getEventVersion());
+    writeString(out, source.getVersion());
+
+    writeMap(out, source.getStations(), (o, station) -> {
+      writeString(o, station.getStationCode());
+      o.writeByte((station.isEnabled() ? STATION_ENABLED : 0)
+          | (station.isVerifyPaymentOptionEnabled() ? STATION_VERIFY_ENABLED : 0));
+      writeString(o, station.getRestEndpoint());
+      ConnectionSnapshot connection = station.getConnection();
+      o.writeBoolean(connection != null);
+      if (connection != null) {
+        writeString(o, connection.getProtocol() != null ? connection.getProtocol().name() : null);
+        writeString(o, connection.getIp());
+        o.writeBoolean(connection.getPort() != null);
+        if (connection.getPort() != null) {
+          o.writeLong(connection.getPort());
+        }
+      }
+    });
+    writeMap(out, source.getCreditorInstitutions(), (o, creditorInstitution) -> {
+      writeString(o, creditorInstitution.getCreditorInstitutionCode());
+      o.writeBoolean(creditorInstitution.isEnabled());
+    });
+    writeMap(out, source.getPsps(), DataOutputStream::writeBoolean);
+    writeMap(out, source.getPspBrokers(), DataOutputStream::writeBoolean);
+
+    StationRoutingTable routingTable = source.getRoutingTable();
+    out.writeBoolean(routingTable != null);
+    if (routingTable != null) {
+      out.writeInt(routingTable.stationCount());
+      for (int ordinal = 0; ordinal < routingTable.stationCount(); ordinal++) {
+        writeString(out, routingTable.stationCode(ordinal));
+      }
+      Map<String, short[]> routes = routingTable.routesByCreditorInstitution();
+      out.writeInt(routes.size());
+      for (Map.Entry<String, short[]> entry : routes.entrySet()) {
+        writeString(out, entry.getKey());
+        out.writeShort(entry.getValue().length);
+        for (short slot : entry.getValue()) {
+          out.writeShort(slot);
+        }
+      }
+    }
+    out.flush();
+    // the checksum covers everything written so far
+    out.writeLong(checked.getChecksum().getValue());
+    out.flush();
+  }
+
+  /**
+   * Reads cache data previously written by
+   * {@link #write(ConfigCacheData, ConfigSnapshotSource, OutputStream)}
+   *
+   * @param buffer encoded data, read from its position to its limit
+   * @return the decoded cache data, with no snapshot, and the collections to build it from
+   * @throws IOException if the data is truncated, corrupted or of an unknown format
+   */
+  public static Stored read(ByteBuffer buffer) throws IOException {
+    if (buffer.remaining() < Long.BYTES + 2 * Integer.BYTES) {
+      throw new IOException("Config snapshot file truncated");
+    }
+    ByteBuffer body = buffer.slice();
+    body.limit(body.limit() - Long.BYTES);
+    CRC32 crc = new CRC32();
+    crc.update(body.duplicate());
+    if (crc.getValue() != buffer.getLong(buffer.position() + body.limit())) {
+      throw new IOException("Config snapshot file checksum mismatch");
+    }
+    try {
+      return new Reader(body).read();
+    } catch (BufferUnderflowException | IllegalArgumentException e) {
+      throw new IOException("Config snapshot file malformed", e);
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(ABSENT);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static <V> void writeMap(
+      DataOutputStream out, Map<String, V> map, ValueWriter<V> valueWriter) throws IOException {
+    if (map == null) {
+      out.writeInt(ABSENT);
+      return;
+    }
+    out.writeInt(map.size());
+    for (Map.Entry<String, V> entry : map.entrySet()) {
+      writeString(out, entry.getKey());
+      valueWriter.write(out, entry.getValue());
+    }
+  }
+
+  /** Decoded snapshot file */
+  @Value
+  public static class Stored {
+
+    // versions of the stored cache data, whose snapshot is to be built from the source
+    ConfigCacheData data;
+    ConfigSnapshotSource source;
+  }
+
+  @FunctionalInterface
+  private interface ValueWriter<V> {
+
+    void write(DataOutputStream out, V value) throws IOException;
+  }
+
+  private static final class Reader {
+
+    private final ByteBuffer in;
+
+    private final Map<String, String> strings = new HashMap<>();
+
+    private final Map<ConnectionSnapshot, ConnectionSnapshot> connections = new HashMap<>();
+
+    private Reader(ByteBuffer in) {
+      this.in = in;
+    }
+
+    private Stored read() throws IOException {
+      if (in.getInt() != MAGIC) {
+        throw new IOException("Not a config snapshot file");
+      }
+      int formatVersion = in.getInt();
+      if (formatVersion != FORMAT_VERSION) {
+        throw new IOException("Unsupported config snapshot format " + formatVersion);
+      }
+      String cacheVersion = readString();
+      String version = readString();
+      String eventVersion = readString();
+      String snapshotVersion = readString();
+
+      ConfigSnapshotSource.ConfigSnapshotSourceBuilder source = ConfigSnapshotSource.builder()
+          .version(snapshotVersion)
+          .stations(readMap(this::readStation))
+          .creditorInstitutions(readMap(() -> new CreditorInstitutionSnapshot(readString(), readBoolean())))
+          .psps(readMap(this::readBoolean))
+          .pspBrokers(readMap(this::readBoolean))
+          .routingTable(readBoolean() ? readRoutingTable() : null);
+      if (in.hasRemaining()) {
+        throw new IOException("Config snapshot file has trailing data");
+      }
+
+      return new Stored(
+          ConfigCacheData.builder()
+              .cacheVersion(cacheVersion)
+              .version(version)
+              .eventVersion(eventVersion)
+              .build(),
+          source.build());
+    }
+
+    private StationSnapshot readStation() {
+      String stationCode = readString();
+      byte flags = in.get();
+      String restEndpoint = readString();
+      ConnectionSnapshot connection = null;
+      if (readBoolean()) {
+        String protocol = readString();
+        String ip = readString();
+        Long port = readBoolean() ? in.getLong() : null;
+        connection = connections.computeIfAbsent(
+            new ConnectionSnapshot(protocol != null ? ProtocolEnum.valueOf(protocol) : null, ip, port),
+            Function.identity());
+      }
+      return StationSnapshot.builder()
+          .stationCode(stationCode)
+          .enabled((flags & STATION_ENABLED) != 0)
+          .verifyPaymentOptionEnabled((flags & STATION_VERIFY_ENABLED) != 0)
+          .restEndpoint(restEndpoint)
+          .connection(connection)
+          .build();
+    }
+
+    private StationRoutingTable readRoutingTable() throws IOException {
+      int stationCount = in.getInt();
+      if (stationCount < 0 || stationCount > StationRoutingTable.MAX_STATIONS) {
+        throw new IOException("Config snapshot file has an invalid station count");
+      }
+      String[] stationCodes = new String[stationCount];
+      for (int ordinal = 0; ordinal < stationCount; ordinal++) {
+        stationCodes[ordinal] = readString();
+      }
+      int size = in.getInt();
+      Map<String, short[]> routes = new HashMap<>(Math.max(size, 0) * 4 / 3 + 1);
+      for (int i = 0; i < size; i++) {
+        String creditorInstitutionCode = readString();
+        short[] slots = new short[Short.toUnsignedInt(in.getShort())];
+        in.asShortBuffer().get(slots);
+        in.position(in.position() + slots.length * Short.BYTES);
+        if (!StationRoutingTable.isValidRoutes(slots, stationCount)) {
+          throw new IOException("Config snapshot file has invalid routes for " + creditorInstitutionCode);
+        }
+        routes.put(creditorInstitutionCode, slots);
+      }
+      return size == 0 ? StationRoutingTable.empty() : new StationRoutingTable(stationCodes, Map.copyOf(routes));
+    }
+
+    private <V> Map<String, V> readMap(ValueReader<V> valueReader) {
+      int size = in.getInt();
+      if (size == ABSENT) {
+        return null;
+      }
+      Map<String, V> map = new HashMap<>(size * 4 / 3 + 1);
+      for (int i = 0; i < size; i++) {
+        String key = readString();
+        map.put(key, valueReader.read());
+      }
+      return map;
+    }
+
+    private boolean readBoolean() {
+      return in.get() != 0;
+    }
+
+    private String readString() {
+      int length = in.getInt();
+      if (length == ABSENT) {
+        return null;
+      }
+      if (length < 0 || length > in.remaining()) {
+        throw new IllegalArgumentException("Invalid string length " + length);
+      }
+      byte[] bytes = new byte[length];
+      in.get(bytes);
+      String value = new String(bytes, StandardCharsets.UTF_8);
+      String existing = strings.putIfAbsent(value, value);
+      return existing != null ? existing : value;
+    }
+  }
+
+  @FunctionalInterface
+  private interface ValueReader<V> {
+
+    V read();
+  }
+}
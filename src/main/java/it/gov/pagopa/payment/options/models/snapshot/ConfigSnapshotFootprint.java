@@ -0,0 +1,166 @@
+package it.gov.pagopa.payment.options.models.snapshot;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Estimate of the heap retained by a config snapshot, to follow the footprint of the config cache
+ * across refreshes.
+ *
+ * <p>Sizes assume a 64-bit JVM with compressed references (12 byte object headers, 16 byte array
+ * headers, 4 byte references, 8 byte alignment) and Latin-1 strings. Instances shared between
+ * entries, such as the deduplicated codes, the connections, the station routes and the routing
+ * table entries, are counted once. Maps are sized as read-only views of a JDK HashMap, with a
+ * power of two table and a node per entry.
+ */
+public final class ConfigSnapshotFootprint {
+
+  private static final int OBJECT_HEADER = 12;
+  private static final int ARRAY_HEADER = 16;
+  private static final int REFERENCE = 4;
+
+  // only the instances that can be shared are tracked, the others are reachable just once
+  private final Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  private long bytes;
+
+  private ConfigSnapshotFootprint() {}
+
+  /**
+   * Estimates the bytes retained by a config snapshot
+   *
+   * @param snapshot config snapshot, may be null
+   * @return estimated retained size, in bytes
+   */
+  public static long estimate(ConfigSnapshot snapshot) {
+    ConfigSnapshotFootprint footprint = new ConfigSnapshotFootprint();
+    if (snapshot != null) {
+      footprint.snapshot(snapshot);
+    }
+    return footprint.bytes;
+  }
+
+  private void snapshot(ConfigSnapshot snapshot) {
+    bytes += object(7 * REFERENCE);
+    string(snapshot.getVersion());
+    integer(snapshot.getStationCount());
+    integer(snapshot.getCreditorInstitutionCount());
+    integer(snapshot.getRoutedCreditorInstitutionCount());
+    // enabled flags are the Boolean constants
+    map(snapshot.getPsps(), enabled -> {});
+    map(snapshot.getPspBrokers(), enabled -> {});
+    map(snapshot.getRoutes(), this::routes);
+  }
+
+  private void station(StationSnapshot station) {
+    if (!seen.add(station)) {
+      return;
+    }
+    bytes += object(3 * REFERENCE + 2);
+    string(station.getStationCode());
+    string(station.getRestEndpoint());
+    ConnectionSnapshot connection = station.getConnection();
+    if (connection != null && seen.add(connection)) {
+      bytes += object(3 * REFERENCE);
+      string(connection.getIp());
+      Long port = connection.getPort();
+      if (port != null && (port < -128 || port > 127) && seen.add(port)) {
+        bytes += object(8);
+      }
+    }
+  }
+
+  private void routes(CreditorInstitutionRoutes routes) {
+    bytes += object(5 * REFERENCE + 1);
+    string(routes.getCreditorInstitutionCode());
+    string(routes.getRejectionMessage());
+    short[] slots = routes.slots();
+    if (slots != null && seen.add(slots)) {
+      bytes += array(slots.length, 2);
+    }
+    StationRoute[] stationRoutes = routes.stationRoutes();
+    if (stationRoutes == null || !seen.add(stationRoutes)) {
+      return;
+    }
+    bytes += array(stationRoutes.length, REFERENCE);
+    for (StationRoute stationRoute : stationRoutes) {
+      stationRoute(stationRoute);
+    }
+  }
+
+  private void stationRoute(StationRoute stationRoute) {
+    if (stationRoute == null || !seen.add(stationRoute)) {
+      return;
+    }
+    bytes += object(5 * REFERENCE);
+    string(stationRoute.getStationCode());
+    string(stationRoute.getRejectionMessage());
+    if (stationRoute.getStation() != null) {
+      station(stationRoute.getStation());
+    }
+    EcTarget target = stationRoute.getTarget();
+    if (target != null && seen.add(target)) {
+      bytes += object(6 * REFERENCE + 1 + 8);
+      string(target.getStationCode());
+      string(target.getHost());
+      string(target.getPathPrefix());
+      string(target.getErrorMessage());
+      url(target.getForwarderUrl());
+    }
+  }
+
+  // protocol, host, port, file, query, authority, path, user info, ref, hash code and handler
+  private void url(URL url) {
+    if (url != null && seen.add(url)) {
+      bytes += object(9 * REFERENCE + 8) + string(url.toExternalForm().length());
+    }
+  }
+
+  // read-only view, HashMap (table, views, size, modCount, threshold, load factor), table and nodes
+  private <V> void map(Map<String, V> map, Consumer<V> value) {
+    if (map == null || map.isEmpty() || !seen.add(map)) {
+      return;
+    }
+    bytes += object(4 * REFERENCE)
+        + object(4 * REFERENCE + 16)
+        + array((long) Integer.highestOneBit(map.size() * 4 / 3) << 1, REFERENCE)
+        + map.size() * object(3 * REFERENCE + 4);
+    map.forEach((key, entry) -> {
+      string(key);
+      value.accept(entry);
+    });
+  }
+
+  private void integer(Integer value) {
+    if (value != null && (value < -128 || value > 127) && seen.add(value)) {
+      bytes += object(4);
+    }
+  }
+
+  private void string(String value) {
+    if (value != null && seen.add(value)) {
+      bytes += string(value.length());
+    }
+  }
+
+  // value reference, hash, coder and hash-is-zero flag, plus the Latin-1 value array
+  private static long string(int length) {
+    return object(REFERENCE + 4 + 1 + 1) + array(length, 1);
+  }
+
+  private static long object(int fields) {
+    return align(OBJECT_HEADER + fields);
+  }
+
+  private static long array(long length, int elementSize) {
+    return align(ARRAY_HEADER + length * elementSize);
+  }
+
+  private static long align(long size) {
+    return (size + 7) & ~7L;
+  }
+}
@@ -0,0 +1,30 @@
+package it.gov.pagopa.payment.options.models.snapshot;
+
+import java.util.Map;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Collections a config snapshot is built from, as read from the api-config cache payload or from
+ * the snapshot file.
+ *
+ * <p>It is held only while the snapshot routes are built and the snapshot file is written: the
+ * served {@link ConfigSnapshot} keeps the routes and the sizes of these collections, not the
+ * collections themselves. A null map means that the related key was explicitly null in the cache
+ * payload; maps never hold null keys or values.
+ */
+@Value
+@Builder
+public class ConfigSnapshotSource {
+
+  // version declared by the api-config-cache payload
+  String version;
+  Map<String, StationSnapshot> stations;
+  Map<String, CreditorInstitutionSnapshot> creditorInstitutions;
+  // PSP code -> enabled flag
+  Map<String, Boolean> psps;
+  // PSP broker code -> enabled flag
+  Map<String, Boolean> pspBrokers;
+  // station routing table, null if not available
+  StationRoutingTable routingTable;
+}
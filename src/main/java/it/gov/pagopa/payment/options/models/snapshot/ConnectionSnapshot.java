@@ -0,0 +1,16 @@
+package it.gov.pagopa.payment.options.models.snapshot;
+
+import it.gov.pagopa.payment.options.models.clients.cache.Connection.ProtocolEnum;
+import lombok.Value;
+
+/**
+ * Station connection, as needed to reach the APIM forwarder. Instances are shared between all the
+ * stations declaring the same protocol, ip and port
+ */
+@Value
+public class ConnectionSnapshot {
+
+  ProtocolEnum protocol;
+  String ip;
+  Long port;
+}
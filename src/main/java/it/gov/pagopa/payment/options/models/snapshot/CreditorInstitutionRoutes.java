@@ -0,0 +1,103 @@
+package it.gov.pagopa.payment.options.models.snapshot;
+
+import it.gov.pagopa.payment.options.models.enums.AppErrorCodeEnum;
+import lombok.Getter;
+
+/**
+ * Routes of a creditor institution, keyed by its fiscal code in the config snapshot: the outcome
+ * of the creditor institution checks and, per segregation code, the related station route
+ */
+public final class CreditorInstitutionRoutes {
+
+  private static final short[] NO_ROUTES = new short[0];
+
+  @Getter
+  private final String creditorInstitutionCode;
+
+  @Getter
+  private final AppErrorCodeEnum rejection;
+
+  @Getter
+  private final String rejectionMessage;
+
+  // true when the rejection comes from a configuration error rather than from the request
+  @Getter
+  private final boolean configurationError;
+
+  // routing table entry of the creditor institution, null when station routing is not available
+  private final short[] slots;
+
+  // station routes indexed by routing table ordinal, shared by all the creditor institutions
+  private final StationRoute[] stationRoutes;
+
+  private CreditorInstitutionRoutes(String creditorInstitutionCode, AppErrorCodeEnum rejection,
+      String rejectionMessage, boolean configurationError, short[] slots,
+      StationRoute[] stationRoutes) {
+    this.creditorInstitutionCode = creditorInstitutionCode;
+    this.rejection = rejection;
+    this.rejectionMessage = rejectionMessage;
+    this.configurationError = configurationError;
+    this.slots = slots;
+    this.stationRoutes = stationRoutes;
+  }
+
+  /**
+   * Builds the routes of a creditor institution
+   *
+   * @param fiscalCode creditor institution fiscal code, as requested by the PSP
+   * @param creditorInstitution creditor institution data
+   * @param routingTable station routing table, null if not available
+   * @param stationRoutes station routes indexed by routing table ordinal
+   */
+  public static CreditorInstitutionRoutes of(String fiscalCode,
+      CreditorInstitutionSnapshot creditorInstitution, StationRoutingTable routingTable,
+      StationRoute[] stationRoutes) {
+    if (!creditorInstitution.isEnabled()) {
+      return new CreditorInstitutionRoutes(null, AppErrorCodeEnum.ODP_DOMINIO_DISABILITATO,
+          "Creditor institution with id " + fiscalCode + " disabled", false, null, null);
+    }
+    String creditorInstitutionCode = creditorInstitution.getCreditorInstitutionCode();
+    if (creditorInstitutionCode == null) {
+      return new CreditorInstitutionRoutes(null, AppErrorCodeEnum.ODP_SYSTEM_ERROR,
+          "Creditor institution code missing", true, null, null);
+    }
+    short[] slots = null;
+    if (routingTable != null) {
+      slots = routingTable.routesOf(creditorInstitutionCode);
+      if (slots == null) {
+        slots = NO_ROUTES;
+      }
+    }
+    return new CreditorInstitutionRoutes(
+        creditorInstitutionCode, null, null, false, slots, stationRoutes);
+  }
+
+  // Station routes indexed by routing table ordinal, see ConfigSnapshotFootprint
+  StationRoute[] stationRoutes() {
+    return stationRoutes;
+  }
+
+  // Routing table entry, shared with the routing table it was taken from, see ConfigSnapshotFootprint
+  short[] slots() {
+    return slots;
+  }
+
+  /** False when the station routing data was not available at refresh time */
+  public boolean isRoutingAvailable() {
+    return slots != null;
+  }
+
+  /**
+   * Provides the station route for the segregation code
+   *
+   * @param segregationCode segregation code, extracted from the notice number
+   * @return the station route, or null if no station is configured for the segregation code
+   */
+  public StationRoute route(long segregationCode) {
+    if (segregationCode < 0 || segregationCode >= StationRoutingTable.SEGREGATION_CODES) {
+      return null;
+    }
+    int slot = StationRoutingTable.slotOf(slots, (int) segregationCode);
+    return slot != 0 ? stationRoutes[slot - 1] : null;
+  }
+}
@@ -0,0 +1,13 @@
+package it.gov.pagopa.payment.options.models.snapshot;
+
+import lombok.Value;
+
+/**
+ * Read-only view of a creditor institution, limited to the data used by the verify flow
+ */
+@Value
+public class CreditorInstitutionSnapshot {
+
+  String creditorInstitutionCode;
+  boolean enabled;
+}
@@ -0,0 +1,41 @@
+package it.gov.pagopa.payment.options.models.snapshot;
+
+import it.gov.pagopa.payment.options.models.enums.AppErrorCodeEnum;
+import java.net.URL;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Creditor institution endpoint of a station, resolved once per config refresh: either GPD-Core
+ * (special guest), the APIM forwarder coordinates, or the configuration error to be returned when
+ * the station connection cannot be used
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class EcTarget {
+
+  String stationCode;
+  boolean gpd;
+  URL forwarderUrl;
+  String host;
+  long port;
+  // verify endpoint path, to be followed by the payment options suffix
+  String pathPrefix;
+  // configuration error of the station, not an expected rejection of the request
+  AppErrorCodeEnum error;
+  String errorMessage;
+
+  public static EcTarget gpd(String stationCode) {
+    return new EcTarget(stationCode, true, null, null, 0, null, null, null);
+  }
+
+  public static EcTarget forwarder(
+      String stationCode, URL forwarderUrl, String host, long port, String pathPrefix) {
+    return new EcTarget(stationCode, false, forwarderUrl, host, port, pathPrefix, null, null);
+  }
+
+  public static EcTarget misconfigured(String stationCode, AppErrorCodeEnum error, String message) {
+    return new EcTarget(stationCode, false, null, null, 0, null, error, message);
+  }
+}
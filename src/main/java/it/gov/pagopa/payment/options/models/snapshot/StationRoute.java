@@ -0,0 +1,42 @@
+package it.gov.pagopa.payment.options.models.snapshot;
+
+import it.gov.pagopa.payment.options.models.enums.AppErrorCodeEnum;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Outcome of the station checks for a station code referenced by the routing table, shared by
+ * all the creditor institutions routed to it: either the station and its EC target, or the
+ * rejection to be returned before contacting the creditor institution
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class StationRoute {
+
+  // station code as referenced by the creditor institution routes
+  String stationCode;
+  // null when the station code is not configured
+  StationSnapshot station;
+  AppErrorCodeEnum rejection;
+  String rejectionMessage;
+  EcTarget target;
+
+  public static StationRoute of(String stationCode, StationSnapshot station, EcTarget target) {
+    if (station == null) {
+      return new StationRoute(stationCode, null, AppErrorCodeEnum.ODP_STAZIONE_INT_PA_SCONOSCIUTA,
+          "Station not found using station code " + stationCode, null);
+    }
+    if (!station.isEnabled()) {
+      return new StationRoute(stationCode, station, AppErrorCodeEnum.ODP_STAZIONE_INT_PA_DISABILITATA,
+          "Station found using station code " + stationCode + " disabled", null);
+    }
+    if (!station.isVerifyPaymentOptionEnabled()) {
+      return new StationRoute(stationCode, station,
+          AppErrorCodeEnum.ODP_STAZIONE_INT_VERIFICA_ODP_DISABILITATA,
+          "Station found using station code " + stationCode
+              + " has the OdP verify service disabled. Use the standard verification flow", null);
+    }
+    return new StationRoute(stationCode, station, null, null, target);
+  }
+}
@@ -0,0 +1,183 @@
+package it.gov.pagopa.payment.options.models.snapshot;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable (creditor institution code, segregation code) to station code routing table.
+ *
+ * <p>Station codes are stored once, in a single table, and each creditor institution maps to a
+ * {@code short[]} of station ordinals (stored as unsigned ordinal + 1, so that 0 means "no
+ * station"). Segregation codes are the two NAV digits after the aux digit, so they always fall in
+ * [0, 99]: creditor institutions using many of them get a dense array indexed by segregation
+ * code, the others a packed array of (segregation code, ordinal) pairs scanned linearly, which is
+ * smaller and, at a handful of entries, as fast as the dense one. Lookups never box the
+ * segregation code and there are no per creditor institution hash maps.
+ */
+public final class StationRoutingTable {
+
+  public static final int SEGREGATION_CODES = 100;
+
+  // Stations that can be addressed by an unsigned short ordinal (0 is reserved for "empty")
+  static final int MAX_STATIONS = 0xFFFF - 1;
+
+  // Dense arrays (SEGREGATION_CODES slots) are smaller than packed ones from this many entries on
+  private static final int DENSE_THRESHOLD = SEGREGATION_CODES / 2;
+
+  private static final StationRoutingTable EMPTY = new StationRoutingTable(new String[0], Map.of());
+
+  private final String[] stationCodes;
+
+  private final Map<String, short[]> routesByCreditorInstitution;
+
+  StationRoutingTable(String[] stationCodes, Map<String, short[]> routesByCreditorInstitution) {
+    this.stationCodes = stationCodes;
+    this.routesByCreditorInstitution = routesByCreditorInstitution;
+  }
+
+  public static StationRoutingTable empty() {
+    return EMPTY;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Resolves the station serving the provided creditor institution and segregation code
+   *
+   * @param creditorInstitutionCode creditor institution code
+   * @param segregationCode segregation code, extracted from the notice number
+   * @return the station code, or null if no station is configured for the pair
+   */
+  public String resolve(String creditorInstitutionCode, int segregationCode) {
+    int slot = slotOf(routesOf(creditorInstitutionCode), segregationCode);
+    return slot != 0 ? stationCodes[slot - 1] : null;
+  }
+
+  // Routes of a creditor institution, to be decoded with slotOf
+  short[] routesOf(String creditorInstitutionCode) {
+    return routesByCreditorInstitution.get(creditorInstitutionCode);
+  }
+
+  // Routes of every creditor institution, as encoded in memory (see ConfigSnapshotCodec)
+  Map<String, short[]> routesByCreditorInstitution() {
+    return routesByCreditorInstitution;
+  }
+
+  // True if the routes are a dense or packed array referencing only existing station ordinals
+  static boolean isValidRoutes(short[] routes, int stationCount) {
+    boolean dense = routes.length == SEGREGATION_CODES;
+    if (!dense && routes.length % 2 != 0) {
+      return false;
+    }
+    for (int i = dense ? 0 : 1; i < routes.length; i += dense ? 1 : 2) {
+      if (Short.toUnsignedInt(routes[i]) > stationCount
+          || (!dense && (routes[i - 1] < 0 || routes[i - 1] >= SEGREGATION_CODES))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Station ordinal + 1 for the segregation code, or 0 when there is no route
+  static int slotOf(short[] routes, int segregationCode) {
+    if (routes == null || segregationCode < 0 || segregationCode >= SEGREGATION_CODES) {
+      return 0;
+    }
+    if (routes.length == SEGREGATION_CODES) {
+      return Short.toUnsignedInt(routes[segregationCode]);
+    }
+    for (int i = 0; i < routes.length; i += 2) {
+      if (routes[i] == segregationCode) {
+        return Short.toUnsignedInt(routes[i + 1]);
+      }
+    }
+    return 0;
+  }
+
+  /** Station code with the provided ordinal, in [0, stationCount()) */
+  public String stationCode(int ordinal) {
+    return stationCodes[ordinal];
+  }
+
+  /** Number of creditor institutions with at least one route */
+  public int size() {
+    return routesByCreditorInstitution.size();
+  }
+
+  public boolean isEmpty() {
+    return routesByCreditorInstitution.isEmpty();
+  }
+
+  /** Number of distinct station codes referenced by the table */
+  public int stationCount() {
+    return stationCodes.length;
+  }
+
+  /** Mutable, single use accumulator filled while reading the cache payload */
+  public static final class Builder {
+
+    private final Map<String, Integer> ordinals = new HashMap<>();
+
+    private final Map<String, short[]> denseRoutes = new HashMap<>();
+
+    private Builder() {}
+
+    /**
+     * Adds a route, replacing the station previously set for the same pair. Segregation codes
+     * that cannot appear in a notice number are ignored
+     *
+     * @return this builder
+     */
+    public Builder put(String creditorInstitutionCode, long segregationCode, String stationCode) {
+      if (creditorInstitutionCode == null || stationCode == null
+          || segregationCode < 0 || segregationCode >= SEGREGATION_CODES) {
+        return this;
+      }
+      Integer ordinal = ordinals.get(stationCode);
+      if (ordinal == null) {
+        if (ordinals.size() >= MAX_STATIONS) {
+          throw new IllegalStateException("Too many stations for the routing table");
+        }
+        ordinal = ordinals.size();
+        ordinals.put(stationCode, ordinal);
+      }
+      denseRoutes.computeIfAbsent(creditorInstitutionCode, k -> new short[SEGREGATION_CODES])
+          [(int) segregationCode] = (short) (ordinal + 1);
+      return this;
+    }
+
+    public StationRoutingTable build() {
+      if (denseRoutes.isEmpty()) {
+        return EMPTY;
+      }
+      String[] stationCodes = new String[ordinals.size()];
+      ordinals.forEach((code, ordinal) -> stationCodes[ordinal] = code);
+
+      denseRoutes.replaceAll((creditorInstitutionCode, dense) -> compact(dense));
+      return new StationRoutingTable(stationCodes, Map.copyOf(denseRoutes));
+    }
+
+    private static short[] compact(short[] dense) {
+      int entries = 0;
+      for (short slot : dense) {
+        if (slot != 0) {
+          entries++;
+        }
+      }
+      if (entries >= DENSE_THRESHOLD) {
+        return dense;
+      }
+      short[] packed = new short[entries * 2];
+      int i = 0;
+      for (int segregationCode = 0; segregationCode < dense.length; segregationCode++) {
+        if (dense[segregationCode] != 0) {
+          packed[i++] = (short) segregationCode;
+          packed[i++] = dense[segregationCode];
+        }
+      }
+      return packed;
+    }
+  }
+}
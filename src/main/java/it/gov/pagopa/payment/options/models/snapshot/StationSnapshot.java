@@ -0,0 +1,18 @@
+package it.gov.pagopa.payment.options.models.snapshot;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Read-only view of a station, limited to the data used by the verify flow
+ */
+@Value
+@Builder
+public class StationSnapshot {
+
+  String stationCode;
+  boolean enabled;
+  boolean verifyPaymentOptionEnabled;
+  String restEndpoint;
+  ConnectionSnapshot connection;
+}
@@ -0,0 +1,33 @@
+package it.gov.pagopa.payment.options.resources;
+
+import it.gov.pagopa.payment.options.models.ConfigCacheStatus;
+import it.gov.pagopa.payment.options.services.ConfigCacheMetrics;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+
+/**
+ * Read-only view of the config cache for operations: versions, age and size of the snapshot being
+ * served, staleness and the timings of the last refresh. Hidden from the OpenAPI, so that it is
+ * not published through APIM.
+ */
+@Path("/admin/config-cache")
+@Produces(value = MediaType.APPLICATION_JSON)
+public class ConfigCacheAdminResource {
+
+  private final ConfigCacheMetrics cacheMetrics;
+
+  public ConfigCacheAdminResource(ConfigCacheMetrics cacheMetrics) {
+    this.cacheMetrics = cacheMetrics;
+  }
+
+  @Operation(hidden = true)
+  @GET
+  public Response status() {
+    ConfigCacheStatus status = cacheMetrics.status();
+    return Response.ok(status).build();
+  }
+}
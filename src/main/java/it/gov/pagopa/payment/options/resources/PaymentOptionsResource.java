@@ -1,12 +1,16 @@
 package it.gov.pagopa.payment.options.resources;
 
+import io.quarkus.vertx.VertxContextSupport;
+import io.smallrye.mutiny.Uni;
 import it.gov.pagopa.payment.options.filters.LoggedAPI;
 import it.gov.pagopa.payment.options.models.clients.creditorInstitution.PaymentOptionsResponse;
 import it.gov.pagopa.payment.options.services.PaymentOptionsService;
+import it.gov.pagopa.payment.options.util.IdGenerator;
+import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response.Status;
-import java.util.UUID;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
@@ -16,17 +20,75 @@ import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 import org.jboss.resteasy.reactive.RestResponse;
 
-/** Exposes REST interfaces for the payment options services */
+/**
+ * Exposes REST interfaces for the payment options services.
+ *
+ * <p>Requests are received on the event loop and dispatched according to PaymentOptions.execution:
+ * the blocking pipeline runs on the worker pool, keeping the request context and so the
+ * ApiLoggingFilter MDC, while the reactive one stays on the event loop and releases it during the
+ * creditor institution call. Failures are mapped by the same ExceptionMapper in both modes.
+ */
 @Path("/payment-options")
 @Tag(name = "Payment Options", description = "APIs to retrieve payment options")
 @Produces(value = MediaType.APPLICATION_JSON)
 @LoggedAPI
 public class PaymentOptionsResource {
 
+  /** Execution of getPaymentOptions */
+  public enum Execution {
+    /** Blocking, on the worker pool */
+    WORKER,
+    /** Non-blocking, on the event loop */
+    REACTIVE
+  }
+
+  static final String PAYMENT_OPTIONS_EXAMPLE =
+      """
+          {
+              "organizationFiscalCode": "77777777777",
+              "companyName": "EC",
+              "officeName": "EC",
+              "paymentOptions": [
+                  {
+                      "description": "Test PayOpt - unica opzione",
+                      "numberOfInstallments": 1,
+                      "amount": 120,
+                      "dueDate": "2024-10-30T23:59:59",
+                      "validFrom": "2024-09-30T23:59:59",
+                      "status": "non pagato",
+                      "status reason": "desc",
+                      "allCCP": "false",
+                      "installments": [
+                          {
+                              "nav": "311111111111111111",
+                              "iuv": "311111111111111111",
+                              "amount": 120,
+                              "description": "Test Opt Inst - unica opzione",
+                              "dueDate": "2024-10-30T23:59:59",
+                              "validFrom": "2024-09-30T23:59:59",
+                              "status": "non pagato",
+                              "status reason": "desc"
+                          }
+                      ]
+                  }
+              ]
+          }""";
+
   private final PaymentOptionsService paymentOptionsService;
 
-  PaymentOptionsResource(PaymentOptionsService paymentOptionsService) {
+  private final IdGenerator idGenerator;
+
+  private final Execution execution;
+
+  @Inject
+  PaymentOptionsResource(
+      PaymentOptionsService paymentOptionsService,
+      IdGenerator idGenerator,
+      @ConfigProperty(name = "PaymentOptions.execution", defaultValue = "worker")
+          Execution execution) {
     this.paymentOptionsService = paymentOptionsService;
+    this.idGenerator = idGenerator;
+    this.execution = execution;
   }
 
   /**
@@ -37,8 +99,8 @@ public class PaymentOptionsResource {
    * @param idBrokerPsp input id Broker PSP
    * @param organizationFiscalCode EC fiscal code
    * @param noticeNumber input notice number
-   * @return instance of extracted PaymentOptions, obtained from the external creditor institution
-   *     REST api
+   * @return Uni emitting the instance of extracted PaymentOptions, obtained from the external
+   *     creditor institution REST api
    */
   @GET
   @Path("/organizations/{organization-fiscal-code}/notices/{notice-number}")
@@ -61,52 +123,24 @@ public class PaymentOptionsResource {
                 @Content(
                     mediaType = MediaType.APPLICATION_JSON,
                     schema = @Schema(implementation = PaymentOptionsResponse.class),
-                    example =
-                        """
-                          {
-                              "organizationFiscalCode": "77777777777",
-                              "companyName": "EC",
-                              "officeName": "EC",
-                              "paymentOptions": [
-                                  {
-                                      "description": "Test PayOpt - unica opzione",
-                                      "numberOfInstallments": 1,
-                                      "amount": 120,
-                                      "dueDate": "2024-10-30T23:59:59",
-                                      "validFrom": "2024-09-30T23:59:59",
-                                      "status": "non pagato",
-                                      "status reason": "desc",
-                                      "allCCP": "false",
-                                      "installments": [
-                                          {
-                                              "nav": "311111111111111111",
-                                              "iuv": "311111111111111111",
-                                              "amount": 120,
-                                              "description": "Test Opt Inst - unica opzione",
-                                              "dueDate": "2024-10-30T23:59:59",
-                                              "validFrom": "2024-09-30T23:59:59",
-                                              "status": "non pagato",
-                                              "status reason": "desc"
-                                          }
-                                      ]
-                                  }
-                              ]
-                          }"""))
+                    example = PAYMENT_OPTIONS_EXAMPLE))
       })
-  public RestResponse<PaymentOptionsResponse> getPaymentOptions(
+  public Uni<RestResponse<PaymentOptionsResponse>> getPaymentOptions(
       @PathParam("organization-fiscal-code") @Parameter(description = "Organization fiscal code")
           String organizationFiscalCode,
       @PathParam("notice-number") @Parameter(description = "Notice number") String noticeNumber,
       @QueryParam("idPsp") @Parameter(description = "PSP identifier") String idPsp,
       @QueryParam("idBrokerPsp") @Parameter(hidden = true) String idBrokerPsp,
       @HeaderParam("X-Session-Id") String sessionId) {
-    PaymentOptionsResponse paymentOptionsResponse =
-        paymentOptionsService.getPaymentOptions(
-            idPsp,
-            idBrokerPsp,
-            organizationFiscalCode,
-            noticeNumber,
-            sessionId != null ? sessionId : UUID.randomUUID().toString());
-    return RestResponse.status(Status.OK, paymentOptionsResponse);
+    String requestSessionId = sessionId != null ? sessionId : idGenerator.nextId();
+    Uni<PaymentOptionsResponse> paymentOptionsResponse = switch (execution) {
+      case REACTIVE -> paymentOptionsService.getPaymentOptionsAsync(
+          idPsp, idBrokerPsp, organizationFiscalCode, noticeNumber, requestSessionId);
+      case WORKER -> VertxContextSupport.executeBlocking(
+          () -> paymentOptionsService.getPaymentOptions(
+              idPsp, idBrokerPsp, organizationFiscalCode, noticeNumber, requestSessionId));
+    };
+    return paymentOptionsResponse.onItem()
+        .transform(response -> RestResponse.status(Status.OK, response));
   }
 }
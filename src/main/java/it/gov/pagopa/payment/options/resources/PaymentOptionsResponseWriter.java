@@ -0,0 +1,57 @@
+package it.gov.pagopa.payment.options.resources;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.gov.pagopa.payment.options.models.JsonPayload;
+import it.gov.pagopa.payment.options.models.clients.creditorInstitution.PaymentOptionsResponse;
+import it.gov.pagopa.payment.options.models.clients.creditorInstitution.RawPaymentOptionsResponse;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Optional;
+
+/**
+ * Writes the payment options returned to the PSP, reusing the JSON already serialized for the RE
+ * events of the request, or forwarded as received from the creditor institution, when available.
+ * Responses without such payload are serialized as the default JSON writer does, with the same
+ * ObjectMapper.
+ */
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class PaymentOptionsResponseWriter implements MessageBodyWriter<PaymentOptionsResponse> {
+
+  private final ObjectMapper objectMapper;
+
+  PaymentOptionsResponseWriter(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public boolean isWriteable(
+      Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+    return PaymentOptionsResponse.class.isAssignableFrom(type);
+  }
+
+  @Override
+  public void writeTo(
+      PaymentOptionsResponse paymentOptionsResponse,
+      Class<?> type,
+      Type genericType,
+      Annotation[] annotations,
+      MediaType mediaType,
+      MultivaluedMap<String, Object> httpHeaders,
+      OutputStream entityStream) throws IOException {
+    Optional<JsonPayload> payload = JsonPayload.ofRequest(paymentOptionsResponse);
+    if (payload.isEmpty() && paymentOptionsResponse instanceof RawPaymentOptionsResponse raw) {
+      payload = raw.getPayload();
+    }
+    entityStream.write(payload.isPresent()
+        ? payload.get().getJson()
+        : objectMapper.writeValueAsBytes(paymentOptionsResponse));
+  }
+}
@@ -0,0 +1,302 @@
+package it.gov.pagopa.payment.options.services;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.LongHistogram;
+import io.opentelemetry.api.metrics.Meter;
+import it.gov.pagopa.payment.options.models.ConfigCacheData;
+import it.gov.pagopa.payment.options.models.ConfigCacheStatus;
+import it.gov.pagopa.payment.options.models.snapshot.ConfigSnapshot;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Config cache refresh metrics, also backing the config cache admin endpoint: the duration of
+ * the phases of each api-config cache download, the payload size, the estimated heap retained
+ * by the snapshot being served, its versions and age.
+ *
+ * <p>Staleness is the time elapsed since the oldest cache update event received after the start
+ * of the last successful refresh, or 0 when every event received has been served. It keeps
+ * growing while refreshes fail or lag behind the events, so it can be alerted on as is.
+ */
+@ApplicationScoped
+public class ConfigCacheMetrics {
+
+  private static final AttributeKey<String> CACHE_VERSION = AttributeKey.stringKey("cache.version");
+  private static final AttributeKey<String> VERSION = AttributeKey.stringKey("version");
+  private static final AttributeKey<String> EVENT_VERSION = AttributeKey.stringKey("event.version");
+  private static final AttributeKey<Boolean> RESTORED = AttributeKey.booleanKey("restored");
+
+  private static final long NONE = Long.MIN_VALUE;
+  private static final double NANOS_PER_MILLI = 1_000_000d;
+
+  private final LongSupplier nanoClock;
+
+  private final LongAdder failures = new LongAdder();
+
+  // arrival of the oldest cache update event not served yet, NONE when up to date
+  private final AtomicLong pendingSince = new AtomicLong(NONE);
+  private volatile long lastEventAt = NONE;
+
+  private volatile Served served;
+  private volatile Refresh lastRefresh;
+
+  private final DoubleHistogram httpDuration;
+  private final DoubleHistogram parseDuration;
+  private final DoubleHistogram indexBuildDuration;
+  private final LongHistogram payloadSize;
+
+  @Inject
+  ConfigCacheMetrics(Meter meter) {
+    this(meter, System::nanoTime);
+  }
+
+  ConfigCacheMetrics(Meter meter, LongSupplier nanoClock) {
+    this.nanoClock = nanoClock;
+
+    Meter metrics = meter != null ? meter : OpenTelemetry.noop().getMeter("noop");
+    List<Double> durationBuckets = List.of(
+        1d, 5d, 10d, 25d, 50d, 100d, 250d, 500d, 1000d, 2500d, 5000d, 10000d, 30000d, 60000d);
+    this.httpDuration = metrics.histogramBuilder("odp.cache.refresh.http.duration")
+        .setDescription("Time from the api-config cache request to the response headers")
+        .setUnit("ms")
+        .setExplicitBucketBoundariesAdvice(durationBuckets)
+        .build();
+    this.parseDuration = metrics.histogramBuilder("odp.cache.refresh.parse.duration")
+        .setDescription("Time spent streaming and parsing the api-config cache payload")
+        .setUnit("ms")
+        .setExplicitBucketBoundariesAdvice(durationBuckets)
+        .build();
+    this.indexBuildDuration = metrics.histogramBuilder("odp.cache.refresh.index.duration")
+        .setDescription("Time spent building the station routing table and routes")
+        .setUnit("ms")
+        .setExplicitBucketBoundariesAdvice(durationBuckets)
+        .build();
+    this.payloadSize = metrics.histogramBuilder("odp.cache.refresh.payload.size")
+        .setDescription("Size of the downloaded api-config cache payload")
+        .setUnit("By")
+        .ofLongs()
+        .setExplicitBucketBoundariesAdvice(List.of(
+            1L << 20, 5L << 20, 10L << 20, 25L << 20, 50L << 20, 100L << 20, 250L << 20,
+            500L << 20, 1L << 30))
+        .build();
+    metrics.counterBuilder("odp.cache.refresh.failures")
+        .setDescription("Config cache refreshes failed")
+        .buildWithCallback(m -> m.record(failures.sum()));
+    metrics.gaugeBuilder("odp.cache.snapshot.retained")
+        .setDescription("Estimated heap retained by the config snapshot being served")
+        .setUnit("By")
+        .ofLongs()
+        .buildWithCallback(m -> {
+          Served current = served;
+          if (current != null) {
+            m.record(current.retainedBytes);
+          }
+        });
+    metrics.gaugeBuilder("odp.cache.snapshot.age")
+        .setDescription("Time since the config snapshot being served was applied")
+        .setUnit("ms")
+        .ofLongs()
+        .buildWithCallback(m -> {
+          Served current = served;
+          if (current != null) {
+            m.record(TimeUnit.NANOSECONDS.toMillis(nanoClock.getAsLong() - current.since));
+          }
+        });
+    metrics.gaugeBuilder("odp.cache.snapshot.info")
+        .setDescription("Versions of the config snapshot being served, always 1")
+        .ofLongs()
+        .buildWithCallback(m -> {
+          Served current = served;
+          if (current != null) {
+            m.record(1, current.attributes);
+          }
+        });
+    metrics.gaugeBuilder("odp.cache.staleness")
+        .setDescription("Time since the oldest cache update event not served yet, 0 if none")
+        .setUnit("ms")
+        .ofLongs()
+        .buildWithCallback(m -> m.record(staleness()));
+  }
+
+  /** Timestamp to be passed to {@link #synced(long)}, read before a refresh starts */
+  public long now() {
+    return nanoClock.getAsLong();
+  }
+
+  /** Records the receipt of a cache update event, to be served by a later refresh */
+  public void eventReceived() {
+    long now = nanoClock.getAsLong();
+    lastEventAt = now;
+    pendingSince.compareAndSet(NONE, now);
+  }
+
+  /**
+   * Records that the events received before a refresh started are served, either by the
+   * refresh or because the snapshot was already up to date
+   *
+   * @param start value of {@link #now()} read before the refresh started
+   */
+  public void synced(long start) {
+    long since;
+    long next;
+    do {
+      since = pendingSince.get();
+      if (since == NONE || since - start > 0) {
+        return;
+      }
+      // events received meanwhile are still pending, the latest one standing for them
+      long lastEvent = lastEventAt;
+      next = lastEvent != NONE && lastEvent - start > 0 ? lastEvent : NONE;
+    } while (!pendingSince.compareAndSet(since, next));
+  }
+
+  /** Records a refresh failed without updating the snapshot */
+  public void refreshFailed() {
+    failures.increment();
+  }
+
+  /**
+   * Records a completed download of the api-config cache
+   *
+   * @param httpNanos time from the request to the response stream
+   * @param parseNanos time spent reading the payload, without the index build
+   * @param indexBuildNanos time spent building the routing table and routes
+   * @param payloadBytes bytes read from the response stream
+   */
+  public void refreshed(long httpNanos, long parseNanos, long indexBuildNanos, long payloadBytes) {
+    Refresh refresh = new Refresh(Instant.now(), httpNanos / NANOS_PER_MILLI,
+        parseNanos / NANOS_PER_MILLI, indexBuildNanos / NANOS_PER_MILLI, payloadBytes);
+    httpDuration.record(refresh.httpMillis);
+    parseDuration.record(refresh.parseMillis);
+    indexBuildDuration.record(refresh.indexBuildMillis);
+    payloadSize.record(payloadBytes);
+    lastRefresh = refresh;
+  }
+
+  /**
+   * Records the snapshot being served from now on
+   *
+   * @param data config cache data being served
+   * @param retainedBytes estimated heap retained by its snapshot and routing table
+   */
+  public void applied(ConfigCacheData data, long retainedBytes) {
+    served = new Served(data, retainedBytes, nanoClock.getAsLong(), Instant.now());
+  }
+
+  /** Time since the oldest cache update event not served yet, in milliseconds */
+  public long staleness() {
+    long since = pendingSince.get();
+    return since == NONE ? 0 : TimeUnit.NANOSECONDS.toMillis(nanoClock.getAsLong() - since);
+  }
+
+  /** Current state of the config cache, for the admin endpoint */
+  public ConfigCacheStatus status() {
+    ConfigCacheStatus.ConfigCacheStatusBuilder status = ConfigCacheStatus.builder()
+        .staleness(staleness())
+        .refreshFailures(failures.sum());
+    Served current = served;
+    if (current != null) {
+      status.cacheVersion(current.cacheVersion)
+          .version(current.version)
+          .eventVersion(current.eventVersion)
+          .restored(current.restored)
+          .snapshotTime(current.time.toString())
+          .snapshotAge(TimeUnit.NANOSECONDS.toMillis(nanoClock.getAsLong() - current.since))
+          .retainedSize(current.retainedBytes)
+          .stations(current.stations)
+          .creditorInstitutions(current.creditorInstitutions)
+          .psps(current.psps)
+          .pspBrokers(current.pspBrokers)
+          .routedCreditorInstitutions(current.routedCreditorInstitutions);
+    }
+    Refresh refresh = lastRefresh;
+    if (refresh != null) {
+      status.lastRefreshTime(refresh.time.toString())
+          .lastRefreshHttpDuration(refresh.httpMillis)
+          .lastRefreshParseDuration(refresh.parseMillis)
+          .lastRefreshIndexBuildDuration(refresh.indexBuildMillis)
+          .lastRefreshPayloadSize(refresh.payloadBytes);
+    }
+    return status.build();
+  }
+
+  private static Integer size(Map<?, ?> map) {
+    return map != null ? map.size() : null;
+  }
+
+  // Summary of the served snapshot, not retaining it once replaced
+  private static final class Served {
+
+    private final String cacheVersion;
+    private final String version;
+    private final String eventVersion;
+    private final boolean restored;
+    private final long retainedBytes;
+    private final long since;
+    private final Instant time;
+    private final Integer stations;
+    private final Integer creditorInstitutions;
+    private final Integer psps;
+    private final Integer pspBrokers;
+    private final Integer routedCreditorInstitutions;
+    private final Attributes attributes;
+
+    private Served(ConfigCacheData data, long retainedBytes, long since, Instant time) {
+      this.cacheVersion = data.getCacheVersion();
+      this.version = data.getVersion();
+      this.eventVersion = data.getEventVersion();
+      this.restored = data.isRestored();
+      this.retainedBytes = retainedBytes;
+      this.since = since;
+      this.time = time;
+      ConfigSnapshot snapshot = data.getSnapshot();
+      this.stations = snapshot != null ? snapshot.getStationCount() : null;
+      this.creditorInstitutions = snapshot != null ? snapshot.getCreditorInstitutionCount() : null;
+      this.psps = snapshot != null ? size(snapshot.getPsps()) : null;
+      this.pspBrokers = snapshot != null ? size(snapshot.getPspBrokers()) : null;
+      this.routedCreditorInstitutions =
+          snapshot != null ? snapshot.getRoutedCreditorInstitutionCount() : null;
+
+      AttributesBuilder attributes = Attributes.builder().put(RESTORED, restored);
+      if (cacheVersion != null) {
+        attributes.put(CACHE_VERSION, cacheVersion);
+      }
+      if (version != null) {
+        attributes.put(VERSION, version);
+      }
+      if (eventVersion != null) {
+        attributes.put(EVENT_VERSION, eventVersion);
+      }
+      this.attributes = attributes.build();
+    }
+  }
+
+  private static final class Refresh {
+
+    private final Instant time;
+    private final double httpMillis;
+    private final double parseMillis;
+    private final double indexBuildMillis;
+    private final long payloadBytes;
+
+    private Refresh(Instant time, double httpMillis, double parseMillis, double indexBuildMillis,
+        long payloadBytes) {
+      this.time = time;
+      this.httpMillis = httpMillis;
+      this.parseMillis = parseMillis;
+      this.indexBuildMillis = indexBuildMillis;
+      this.payloadBytes = payloadBytes;
+    }
+  }
+}
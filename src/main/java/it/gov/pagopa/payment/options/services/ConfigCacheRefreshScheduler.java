@@ -0,0 +1,239 @@
+package it.gov.pagopa.payment.options.services;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.metrics.LongHistogram;
+import io.opentelemetry.api.metrics.Meter;
+import it.gov.pagopa.payment.options.models.events.CacheUpdateEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the config cache refreshes triggered by cache update events off the messaging thread.
+ *
+ * <p>Events received within the debounce window are coalesced into a single pending one, keeping
+ * only the highest (cacheVersion, version) seen, so a burst of events during a config deployment
+ * results in a single download of the api-config cache. Refreshes run one at a time on a single
+ * background thread: events received while a refresh is running are coalesced again and served
+ * by the next one, so there is never more than one refresh queued.
+ *
+ * <p>The same thread writes the config snapshot file once a refresh has released the refresh
+ * lock: a save not started yet is replaced by the next one, which stores a newer snapshot.
+ */
+@ApplicationScoped
+public class ConfigCacheRefreshScheduler {
+
+  private final Logger logger = LoggerFactory.getLogger(ConfigCacheRefreshScheduler.class);
+
+  private final AtomicReference<Pending> pending = new AtomicReference<>();
+
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+
+  private final AtomicReference<Runnable> pendingSave = new AtomicReference<>();
+
+  private final LongAdder coalesced = new LongAdder();
+
+  private final ConfigCacheService configCacheService;
+  private final ScheduledExecutorService executor;
+  private final long debounceNanos;
+  private final LongSupplier nanoClock;
+
+  private final LongHistogram refreshDuration;
+  private final LongHistogram queueDelay;
+
+  @Inject
+  ConfigCacheRefreshScheduler(
+      ConfigCacheService configCacheService,
+      @ConfigProperty(name = "ConfigCacheRefresh.debounce", defaultValue = "PT1S")
+          Duration debounce,
+      Meter meter) {
+    this(configCacheService, debounce, meter,
+        Executors.newSingleThreadScheduledExecutor(runnable -> {
+          Thread thread = new Thread(runnable, "config-cache-refresh");
+          thread.setDaemon(true);
+          return thread;
+        }),
+        System::nanoTime);
+  }
+
+  ConfigCacheRefreshScheduler(
+      ConfigCacheService configCacheService,
+      Duration debounce,
+      Meter meter,
+      ScheduledExecutorService executor,
+      LongSupplier nanoClock) {
+    if (debounce.isNegative()) {
+      throw new IllegalArgumentException("Cache refresh debounce must not be negative");
+    }
+    this.configCacheService = configCacheService;
+    this.debounceNanos = debounce.toNanos();
+    this.executor = executor;
+    this.nanoClock = nanoClock;
+
+    Meter metrics = meter != null ? meter : OpenTelemetry.noop().getMeter("noop");
+    metrics.counterBuilder("odp.cache.refresh.coalesced")
+        .setDescription("Cache update events merged into an already pending refresh")
+        .buildWithCallback(m -> m.record(coalesced.sum()));
+    this.refreshDuration = metrics.histogramBuilder("odp.cache.refresh.duration")
+        .setDescription("Time spent downloading and building the config cache")
+        .setUnit("ms")
+        .ofLongs()
+        .build();
+    this.queueDelay = metrics.histogramBuilder("odp.cache.refresh.queue_delay")
+        .setDescription("Time from the first coalesced cache update event to the refresh start")
+        .setUnit("ms")
+        .ofLongs()
+        .build();
+  }
+
+  /**
+   * Schedules a refresh for the provided event, returning immediately
+   *
+   * @param event cache update event, or null for a refresh without event
+   */
+  public void submit(CacheUpdateEvent event) {
+    long now = nanoClock.getAsLong();
+    Pending current;
+    Pending merged;
+    do {
+      current = pending.get();
+      merged = current == null
+          ? new Pending(event, now)
+          : new Pending(highest(current.event, event), current.since);
+    } while (!pending.compareAndSet(current, merged));
+    if (current != null) {
+      coalesced.increment();
+    }
+    if (scheduled.compareAndSet(false, true)) {
+      executor.schedule(this::drain, debounceNanos, TimeUnit.NANOSECONDS);
+    }
+    logger.debug("[Payment Options] Cache refresh scheduled (cacheVersion={}, version={})",
+        cacheVersion(merged.event), version(merged.event));
+  }
+
+  /**
+   * Schedules a refresh not bound to any event, used to reconcile a snapshot restored from disk
+   * with api-config-cache
+   */
+  public void reconcile() {
+    submit(null);
+  }
+
+  /**
+   * Schedules the save of a refreshed config snapshot, returning immediately
+   *
+   * @param save snapshot save, replacing the one still pending if any
+   */
+  public void persist(Runnable save) {
+    if (pendingSave.getAndSet(save) == null) {
+      executor.execute(this::drainSave);
+    }
+  }
+
+  public long getCoalesced() {
+    return coalesced.sum();
+  }
+
+  @PreDestroy
+  void close() {
+    executor.shutdownNow();
+  }
+
+  private void drain() {
+    // Cleared before taking the event: an event arriving from now on schedules the next refresh.
+    scheduled.set(false);
+    Pending next = pending.getAndSet(null);
+    if (next == null) {
+      return;
+    }
+    long start = nanoClock.getAsLong();
+    queueDelay.record(TimeUnit.NANOSECONDS.toMillis(start - next.since));
+    CacheUpdateEvent event = next.event;
+    try {
+      configCacheService.checkAndUpdateCache(event);
+    } catch (Exception e) {
+      // Best-effort cache update: keep serving the last known good snapshot, the next event
+      // will try to refresh again.
+      logger.error(
+          "[Payment Options] Cache update failed (cacheVersion={}, version={}). Keeping previous snapshot. Cause: {}",
+          cacheVersion(event),
+          version(event),
+          e.getMessage(),
+          e
+      );
+    } finally {
+      refreshDuration.record(TimeUnit.NANOSECONDS.toMillis(nanoClock.getAsLong() - start));
+    }
+  }
+
+  private void drainSave() {
+    Runnable save = pendingSave.getAndSet(null);
+    if (save == null) {
+      return;
+    }
+    try {
+      save.run();
+    } catch (Exception e) {
+      // Best-effort save: the next refresh writes the snapshot again.
+      logger.warn("[Payment Options] Config snapshot save failed: {}", e.getMessage());
+    }
+  }
+
+  // Highest (cacheVersion, version), preferring the most recent event on ties. A refresh without
+  // event is served by any event-driven one, since it refreshes a restored snapshot anyway.
+  private static CacheUpdateEvent highest(CacheUpdateEvent current, CacheUpdateEvent incoming) {
+    if (current == null || incoming == null) {
+      return current != null ? current : incoming;
+    }
+    int byCacheVersion = compareVersions(current.getCacheVersion(), incoming.getCacheVersion());
+    if (byCacheVersion != 0) {
+      return byCacheVersion > 0 ? current : incoming;
+    }
+    return compareVersions(current.getVersion(), incoming.getVersion()) > 0 ? current : incoming;
+  }
+
+  private static String cacheVersion(CacheUpdateEvent event) {
+    return event != null ? event.getCacheVersion() : null;
+  }
+
+  private static String version(CacheUpdateEvent event) {
+    return event != null ? event.getVersion() : null;
+  }
+
+  // Same ordering used by ConfigCacheService: numeric when possible, lexicographic otherwise
+  private static int compareVersions(String a, String b) {
+    if (a == null && b == null) return 0;
+    if (a == null) return -1;
+    if (b == null) return 1;
+
+    try {
+      return new BigInteger(a).compareTo(new BigInteger(b));
+    } catch (NumberFormatException e) {
+      return a.compareTo(b);
+    }
+  }
+
+  private static final class Pending {
+
+    private final CacheUpdateEvent event;
+    // arrival of the first event coalesced into this one
+    private final long since;
+
+    private Pending(CacheUpdateEvent event, long since) {
+      this.event = event;
+      this.since = since;
+    }
+  }
+}
@@ -1,24 +1,37 @@
 package it.gov.pagopa.payment.options.services;
 
 import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
 import it.gov.pagopa.payment.options.clients.ApiConfigCacheClient;
 import it.gov.pagopa.payment.options.exception.PaymentOptionsException;
-import it.gov.pagopa.payment.options.models.clients.cache.ConfigDataV1;
-import it.gov.pagopa.payment.options.models.clients.cache.StationCreditorInstitution;
+import it.gov.pagopa.payment.options.models.snapshot.ConfigSnapshot;
+import it.gov.pagopa.payment.options.models.snapshot.ConfigSnapshotCodec;
+import it.gov.pagopa.payment.options.models.snapshot.ConfigSnapshotFootprint;
+import it.gov.pagopa.payment.options.models.snapshot.ConfigSnapshotSource;
 import it.gov.pagopa.payment.options.models.enums.AppErrorCodeEnum;
 import it.gov.pagopa.payment.options.models.events.CacheUpdateEvent;
 import it.gov.pagopa.payment.options.models.ConfigCacheData;
+import it.gov.pagopa.payment.options.util.CountingInputStream;
+import it.gov.pagopa.payment.options.util.MemoryUtil;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
 import lombok.SneakyThrows;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
+import java.time.Duration;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -35,6 +48,25 @@ public class ConfigCacheService {
 	@RestClient
 	public ApiConfigCacheClient apiConfigCacheClient;
 
+	// Resolves the EC target of each station once per refresh, for the precomputed routes
+	@Inject
+	CreditorInstitutionService creditorInstitutionService;
+
+	// Last known good snapshot on disk, to serve requests right after a restart
+	@Inject
+	ConfigSnapshotStore snapshotStore;
+
+	@Inject
+	ConfigCacheRefreshScheduler refreshScheduler;
+
+	// Reads the payload through the application ObjectMapper
+	@Inject
+	ConfigCacheStreamParser streamParser;
+
+	// Refresh timings, payload and snapshot sizes and staleness, also served by the admin endpoint
+	@Inject
+	ConfigCacheMetrics cacheMetrics;
+
 	/**
 	 * Provides a thread-safe, "all-or-nothing" reference to the cache. 
 	 * Readers will always retrieve a fully formed ConfigCacheData object, 
@@ -51,14 +83,42 @@ public class ConfigCacheService {
 	private final ReentrantLock refreshLock =
 			new ReentrantLock();
 
+	/**
+	 * Single-flight load used when no snapshot is available yet: request threads wait on the
+	 * same future, for at most initialLoadTimeout, instead of queueing on refreshLock. A failed
+	 * load is handed to the callers arriving within initialLoadFailureCooldown, so requests
+	 * cannot start a download storm while api-config-cache is unavailable.
+	 */
+	private final AtomicReference<CompletableFuture<ConfigCacheData>> initialLoad =
+			new AtomicReference<>();
+
+	private volatile long lastInitialLoadFailure;
+
+	private final ExecutorService initialLoader = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "config-cache-initial-load");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	@ConfigProperty(name = "ConfigCacheLoad.timeout", defaultValue = "PT2S")
+	Duration initialLoadTimeout = Duration.ofSeconds(2);
+
+	@ConfigProperty(name = "ConfigCacheLoad.failureCooldown", defaultValue = "PT5S")
+	Duration initialLoadFailureCooldown = Duration.ofSeconds(5);
+
 	void onStart(@Observes StartupEvent ev) {
 		try {
 			// Avoid forcing a remote refresh if we already have a valid snapshot.
 		    ConfigCacheData current = cacheRef.get();
-		    if (current != null && current.getConfigDataV1() != null) {
+		    if (current != null && current.getSnapshot() != null) {
 		      logger.info("[Payment Options] Cache already initialized at startup - skipping refresh");
 		      return;
 		    }
+			// Warm start: serve the persisted snapshot and reconcile with api-config-cache in background.
+			if (restoreSnapshot()) {
+				refreshScheduler.reconcile();
+				return;
+			}
 			getConfigCacheData();
 		} catch (Exception e) {
 			logger.error("[Payment Options] Encountered error on first cache data retrival: {}", e.getMessage());
@@ -68,25 +128,96 @@ public class ConfigCacheService {
 	/**
 	 * Provides instance of the local cache data, if not yet provided,
 	 * it will call the checkAndUpdate method
-	 * @return local instance of the configCacheData
+	 * @return read-only snapshot of the local cache data
 	 */
-	public ConfigDataV1 getConfigCacheData() {
+	public ConfigSnapshot getConfigCacheData() {
 		// Fast path: return current snapshot without locking.
 		ConfigCacheData current = cacheRef.get();
-		if (current != null && current.getConfigDataV1() != null) {
-			return current.getConfigDataV1();
+		if (current != null && current.getSnapshot() != null) {
+			return current.getSnapshot();
 		}
 
-		// Slow path: refresh is required (e.g., first access or empty snapshot).
-		ConfigCacheData updated = checkAndUpdateCache(null);
-		if (updated == null || updated.getConfigDataV1() == null) {
-			// if after refresh we still don't have data (and no previous snapshot exists), throw an exception to signal the caller.
-			throw new PaymentOptionsException(
-					AppErrorCodeEnum.ODP_SYSTEM_ERROR,
-					"Configuration data currently not available"
-					);
+		// Slow path: wait for the in-flight load (e.g., first access or empty snapshot), with a deadline.
+		try {
+			return startInitialLoad()
+					.get(initialLoadTimeout.toMillis(), TimeUnit.MILLISECONDS)
+					.getSnapshot();
+		} catch (TimeoutException e) {
+			logger.warn("[Payment Options] Configuration data not loaded within {} ms", initialLoadTimeout.toMillis());
+		} catch (ExecutionException e) {
+			logger.error("[Payment Options] Configuration data load failed: {}", e.getCause().getMessage());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
 		}
-		return updated.getConfigDataV1();
+		throw new PaymentOptionsException(
+				AppErrorCodeEnum.ODP_SYSTEM_ERROR,
+				"Configuration data currently not available"
+				);
+	}
+
+	/**
+	 * Non-blocking variant of {@link #getConfigCacheData()}: while no snapshot is available the
+	 * returned Uni joins the in-flight load instead of parking the caller thread, and fails after
+	 * the same bounded wait
+	 * @return Uni emitting the read-only snapshot of the local cache data
+	 */
+	public Uni<ConfigSnapshot> getConfigCacheDataAsync() {
+		ConfigCacheData current = cacheRef.get();
+		if (current != null && current.getSnapshot() != null) {
+			return Uni.createFrom().item(current.getSnapshot());
+		}
+
+		// A copy, so that a timed out caller cancels its own view and not the load shared with the others.
+		return Uni.createFrom().completionStage(() -> startInitialLoad().copy())
+				.ifNoItem().after(initialLoadTimeout).fail()
+				.onItem().transform(ConfigCacheData::getSnapshot)
+				.onFailure().transform(e -> {
+					if (e instanceof io.smallrye.mutiny.TimeoutException) {
+						logger.warn("[Payment Options] Configuration data not loaded within {} ms", initialLoadTimeout.toMillis());
+					} else {
+						logger.error("[Payment Options] Configuration data load failed: {}", e.getMessage());
+					}
+					return new PaymentOptionsException(
+							AppErrorCodeEnum.ODP_SYSTEM_ERROR,
+							"Configuration data currently not available"
+							);
+				});
+	}
+
+	// Joins the load in flight, or the failed one during its cooldown, otherwise starts a new load.
+	private CompletableFuture<ConfigCacheData> startInitialLoad() {
+		while (true) {
+			CompletableFuture<ConfigCacheData> load = initialLoad.get();
+			if (load != null && (!load.isDone() || (load.isCompletedExceptionally()
+					&& System.nanoTime() - lastInitialLoadFailure < initialLoadFailureCooldown.toNanos()))) {
+				return load;
+			}
+			CompletableFuture<ConfigCacheData> next = new CompletableFuture<>();
+			if (initialLoad.compareAndSet(load, next)) {
+				initialLoader.execute(() -> {
+					try {
+						ConfigCacheData updated = checkAndUpdateCache(null);
+						if (updated == null || updated.getSnapshot() == null) {
+							// if after refresh we still don't have data (and no previous snapshot exists), signal the callers.
+							throw new PaymentOptionsException(
+									AppErrorCodeEnum.ODP_SYSTEM_ERROR,
+									"Configuration data currently not available"
+									);
+						}
+						next.complete(updated);
+					} catch (Throwable t) {
+						lastInitialLoadFailure = System.nanoTime();
+						next.completeExceptionally(t);
+					}
+				});
+				return next;
+			}
+		}
+	}
+
+	@PreDestroy
+	void close() {
+		initialLoader.shutdownNow();
 	}
 
 	/**
@@ -102,14 +233,20 @@ public class ConfigCacheService {
 	@SneakyThrows
 	public ConfigCacheData checkAndUpdateCache(CacheUpdateEvent cacheUpdateEvent) {
 
+		// Events received from now on are not covered by this refresh.
+		long start = cacheMetrics.now();
+
 		// Fast, lock-free check: if cache is present and the event doesn't represent a newer version,
 		// return the current snapshot immediately.
 		ConfigCacheData current = cacheRef.get();
 		if (!needsRefresh(current, cacheUpdateEvent)) {
+			cacheMetrics.synced(start);
 			return current;
 		}
 
 		refreshLock.lock();
+		boolean failed = false;
+		Runnable save = null;
 		try {
 			// Double-check inside the lock to prevent multiple concurrent refreshes.
 			current = cacheRef.get();
@@ -127,29 +264,49 @@ public class ConfigCacheService {
 					    .build();
 			}
 
-			ConfigDataV1 configDataV1 = apiConfigCacheClient.getCache(
-					List.of("stations", "creditorInstitutions", "psps", "creditorInstitutionStations", "pspBrokers")
-					);
+			// Stream the payload: creditorInstitutionStations is folded into the index while reading,
+			// so the heaviest collection is never materialized.
+			long allocatedBefore = MemoryUtil.currentThreadAllocatedBytes();
+			long heapPeakBefore = MemoryUtil.heapPeakBytes();
+			long requested = System.nanoTime();
+			long received;
+			long payloadBytes;
+			ConfigCacheStreamParser.Result parsed;
+			try (CountingInputStream payload = new CountingInputStream(apiConfigCacheClient.getCache(
+					List.of("stations", "creditorInstitutions", "psps", "creditorInstitutionStations", "pspBrokers")))) {
+				received = System.nanoTime();
+				parsed = streamParser.parse(payload, creditorInstitutionService::resolveTarget);
+				payloadBytes = payload.getCount();
+			}
+			long parseNanos = System.nanoTime() - received - parsed.getIndexBuildNanos();
+			ConfigSnapshot snapshot = parsed.getSnapshot();
+			ConfigSnapshotSource source = parsed.getSource();
+			long allocatedAfter = MemoryUtil.currentThreadAllocatedBytes();
+			long retainedBytes = ConfigSnapshotFootprint.estimate(snapshot);
+			cacheMetrics.refreshed(received - requested, parseNanos, parsed.getIndexBuildNanos(), payloadBytes);
 
 			// Avoid logging the entire payload to prevent huge allocations and GC pressure.
 			// Log only high-level sizes and versions.
 			logger.debug("[Payment Options] api-config cache fetched - apiVersion={}, stations={}, ci={}, psps={}, pspBrokers={}, eventCacheVersion={}, eventVersion={}",
-					configDataV1.getVersion(),
-					configDataV1.getStations() != null ? configDataV1.getStations().size() : 0,
-							configDataV1.getCreditorInstitutions() != null ? configDataV1.getCreditorInstitutions().size() : 0,
-									configDataV1.getPsps() != null ? configDataV1.getPsps().size() : 0,
-											configDataV1.getPspBrokers() != null ? configDataV1.getPspBrokers().size() : 0,
+					snapshot.getVersion(),
+					snapshot.getStationCount() != null ? snapshot.getStationCount() : 0,
+							snapshot.getCreditorInstitutionCount() != null ? snapshot.getCreditorInstitutionCount() : 0,
+									snapshot.getPsps() != null ? snapshot.getPsps().size() : 0,
+											snapshot.getPspBrokers() != null ? snapshot.getPspBrokers().size() : 0,
 													cacheUpdateEvent != null ? cacheUpdateEvent.getCacheVersion() : null,
 															cacheUpdateEvent != null ? cacheUpdateEvent.getVersion() : null
 					);
+			logger.info("[Payment Options] api-config cache refresh memory - allocatedBytes={}, heapPeakGrowthBytes={}, indexedCreditorInstitutions={}",
+					allocatedBefore >= 0 && allocatedAfter >= 0 ? allocatedAfter - allocatedBefore : -1,
+					MemoryUtil.heapPeakBytes() - heapPeakBefore,
+					snapshot.getRoutedCreditorInstitutionCount());
+			logger.info("[Payment Options] api-config cache refresh timings - httpMs={}, parseMs={}, indexBuildMs={}, payloadBytes={}, retainedBytes={}",
+					TimeUnit.NANOSECONDS.toMillis(received - requested),
+					TimeUnit.NANOSECONDS.toMillis(parseNanos),
+					TimeUnit.NANOSECONDS.toMillis(parsed.getIndexBuildNanos()),
+					payloadBytes,
+					retainedBytes);
 
-			// Build a compact index for station resolution and drop the heavy structure afterwards.
-			Map<String, Map<Long, String>> stationIndex = buildStationIndex(configDataV1);
-
-			// creditorInstitutionStations is the heaviest collection.
-			// After building the index, it is safe to remove it to reduce retained memory.
-			configDataV1.setCreditorInstitutionStations(null);
-			
 			// Determine the version we are currently serving (to prevent downgrades).
 			String servedApiVersion = current != null ? current.getVersion() : null;        // apiVersion
 			String servedEventVersion = current != null ? current.getEventVersion() : null; // eventVersion
@@ -157,11 +314,12 @@ public class ConfigCacheService {
 			String incomingCacheVersion = cacheUpdateEvent != null ? cacheUpdateEvent.getCacheVersion() : null;
 			String incomingEventVersion = cacheUpdateEvent != null ? cacheUpdateEvent.getVersion() : null;
 
-			String fetchedApiVersion = configDataV1.getVersion(); // apiVersion fetched (actually null in DEV/UAT)
+			String fetchedApiVersion = snapshot.getVersion(); // apiVersion fetched (actually null in DEV/UAT)
 			
 			// Guard 1: If we have an event and it's not newer than the one already applied (same stream), DO NOT apply anything.
 			if (cacheUpdateEvent != null
 			    && current != null
+			    && !current.isRestored()
 			    && incomingCacheVersion != null
 			    && incomingCacheVersion.equals(current.getCacheVersion())
 			    && !isNewer(incomingEventVersion, servedEventVersion)) {
@@ -179,11 +337,16 @@ public class ConfigCacheService {
 						.version(fetchedApiVersion != null ? fetchedApiVersion : servedApiVersion)
 						// eventVersion = event version (if there is an event), otherwise keep the previous one
 						.eventVersion(incomingEventVersion != null ? incomingEventVersion : servedEventVersion)
-						.configDataV1(configDataV1)
-						.stationCodeByCiAndSeg(stationIndex)
+						.snapshot(snapshot)
 						.build();
 
 				cacheRef.set(newSnapshot);
+				cacheMetrics.applied(newSnapshot, retainedBytes);
+				if (snapshotStore.isEnabled()) {
+					// Written on the refresh thread once the lock is released, so that a slow disk
+					// never delays the next refresh or a request waiting for the first load.
+					save = () -> snapshotStore.save(newSnapshot, source);
+				}
 				return newSnapshot;
 			}
 
@@ -195,10 +358,12 @@ public class ConfigCacheService {
 			return (current != null) ? current : base;
 
 		} catch (Exception e) {
+			failed = true;
+			cacheMetrics.refreshFailed();
 			logger.error("[Payment Options] Error updating api-config cache: {}", e.getMessage(), e);
 
 			// If exist a valid snapshot, keep serving it.
-			if (current != null && current.getConfigDataV1() != null) {
+			if (current != null && current.getSnapshot() != null) {
 				return current;
 			}
 
@@ -206,6 +371,12 @@ public class ConfigCacheService {
 			throw e ;
 		} finally {
 			refreshLock.unlock();
+			if (!failed) {
+				cacheMetrics.synced(start);
+			}
+			if (save != null) {
+				refreshScheduler.persist(save);
+			}
 		}
 	}
 	
@@ -219,13 +390,16 @@ public class ConfigCacheService {
 		// If no snapshot exists, must refresh.
 		if (current == null) return true;
 
+		// a snapshot restored from disk is served until the first successful refresh
+		if (current.isRestored()) return true;
+
 		// refresh only if we don't have a valid payload yet (prevents re-downloading the whole cache on every access)
 		if (evt == null) {
-			return current.getConfigDataV1() == null;
+			return current.getSnapshot() == null;
 		}
 
 		// if I have no payload, I need to refresh to get it, regardless of the event version (prevents blocking updates when version info is missing).
-		if (current.getConfigDataV1() == null) return true;
+		if (current.getSnapshot() == null) return true;
 
 		// different stream => refresh
 		if (current.getCacheVersion() == null) return true;
@@ -237,45 +411,25 @@ public class ConfigCacheService {
 
 
 
-	private Map<String, Map<Long, String>> buildStationIndex(ConfigDataV1 data) {
-		// Transforms the "creditorInstitutionStations" payload into a compact index:
-		// creditorInstitutionCode -> (segregationCode -> stationCode)
-		// This enables O(1) station resolution at runtime and allows us to drop the heavy map.
-		java.util.Map<String, StationCreditorInstitution> map = data.getCreditorInstitutionStations();
-		if (map == null || map.isEmpty()) {
-			return java.util.Collections.emptyMap();
+	private boolean restoreSnapshot() {
+		Optional<ConfigSnapshotCodec.Stored> stored = snapshotStore.load();
+		if (stored.isEmpty()) {
+			return false;
 		}
-
-		HashMap<String, java.util.Map<Long, String>> out = new HashMap<>();
-		for (StationCreditorInstitution sci : map.values()) {
-			if (sci == null ||
-					sci.getCreditorInstitutionCode() == null ||
-					sci.getSegregationCode() == null ||
-					sci.getStationCode() == null) {
-				continue;
-			}
-
-			out.computeIfAbsent(sci.getCreditorInstitutionCode(), k -> new HashMap<>())
-			.put(sci.getSegregationCode(), sci.getStationCode());
+		ConfigCacheData data = stored.get().getData();
+		// Precomputed routes depend on the runtime configuration, so they are never persisted.
+		data.setSnapshot(ConfigSnapshotAssembler.snapshot(
+				stored.get().getSource(), creditorInstitutionService::resolveTarget));
+		data.setRestored(true);
+		if (!cacheRef.compareAndSet(null, data)) {
+			return false;
 		}
-		return out;
+		cacheMetrics.applied(data, ConfigSnapshotFootprint.estimate(data.getSnapshot()));
+		logger.info("[Payment Options] Serving config snapshot restored from disk - cacheVersion={}, version={}, eventVersion={}",
+				data.getCacheVersion(), data.getVersion(), data.getEventVersion());
+		return true;
 	}
-	
-	public String resolveStationCode(String creditorInstitutionCode, long segregationCode) {
-		// Runtime O(1) lookup using the compact index built at refresh time.
-		// If the index is missing, we fail fast to avoid inconsistent results.
-		ConfigCacheData snap = cacheRef.get();
-		if (snap == null || snap.getStationCodeByCiAndSeg() == null) {
-			throw new PaymentOptionsException(
-					AppErrorCodeEnum.ODP_SYSTEM_ERROR,
-					"Configuration data currently not available"
-					);
-		}
 
-		java.util.Map<Long, String> bySeg = snap.getStationCodeByCiAndSeg().get(creditorInstitutionCode);
-		return bySeg != null ? bySeg.get(segregationCode) : null;
-	}
-	
 	private int compareVersions(String a, String b) {
 		if (a == null && b == null) return 0;
 		if (a == null) return -1;
@@ -0,0 +1,185 @@
+package it.gov.pagopa.payment.options.services;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.gov.pagopa.payment.options.models.clients.cache.BrokerPsp;
+import it.gov.pagopa.payment.options.models.clients.cache.CreditorInstitution;
+import it.gov.pagopa.payment.options.models.clients.cache.PaymentServiceProvider;
+import it.gov.pagopa.payment.options.models.clients.cache.Station;
+import it.gov.pagopa.payment.options.models.snapshot.ConfigSnapshot;
+import it.gov.pagopa.payment.options.models.snapshot.ConfigSnapshotSource;
+import it.gov.pagopa.payment.options.models.snapshot.CreditorInstitutionSnapshot;
+import it.gov.pagopa.payment.options.models.snapshot.EcTarget;
+import it.gov.pagopa.payment.options.models.snapshot.StationRoutingTable;
+import it.gov.pagopa.payment.options.models.snapshot.StationSnapshot;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Token based reader of the api-config-cache payload.
+ *
+ * <p>The payload is consumed as a stream: stations, creditor institutions, PSPs and PSP brokers
+ * are bound one entry at a time and immediately converted into their snapshot counterpart, while
+ * "creditorInstitutionStations" (the largest collection) is folded straight into the station
+ * routing table, without materializing a StationCreditorInstitution per entry. Keys that are not used by
+ * the service are skipped.
+ */
+@ApplicationScoped
+class ConfigCacheStreamParser {
+
+  private final ObjectMapper objectMapper;
+
+  @Inject
+  ConfigCacheStreamParser(ObjectMapper objectMapper) {
+    this.objectMapper =
+        objectMapper.copy().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+  }
+
+  /**
+   * Reads the cache payload from the provided stream, that is not closed by this method
+   *
+   * @param payload api-config-cache response body
+   * @param targetResolver resolves the EC target of an enabled station
+   * @return config snapshot, the collections it was built from and the time spent building it
+   * @throws IOException when the payload cannot be read or is malformed
+   */
+  Result parse(InputStream payload, Function<StationSnapshot, EcTarget> targetResolver)
+      throws IOException {
+    ConfigSnapshotAssembler assembler = new ConfigSnapshotAssembler();
+    // a key missing from the payload is an empty collection, as with the DTO defaults
+    String version = null;
+    Map<String, StationSnapshot> stations = Map.of();
+    Map<String, CreditorInstitutionSnapshot> creditorInstitutions = Map.of();
+    Map<String, Boolean> psps = Map.of();
+    Map<String, Boolean> pspBrokers = Map.of();
+    StationRoutingTable.Builder stationRoutes = StationRoutingTable.builder();
+
+    try (JsonParser parser = objectMapper.createParser(payload)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("Unexpected api-config cache payload: object expected");
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        parser.nextToken();
+        switch (field) {
+          case "version" -> version = parser.getValueAsString();
+          case "stations" ->
+              stations = readMap(parser, Station.class, assembler::station, assembler);
+          case "creditorInstitutions" -> creditorInstitutions = readMap(
+              parser, CreditorInstitution.class, assembler::creditorInstitution, assembler);
+          case "psps" -> psps = readMap(
+              parser, PaymentServiceProvider.class, ConfigSnapshotAssembler::psp, assembler);
+          case "pspBrokers" -> pspBrokers = readMap(
+              parser, BrokerPsp.class, ConfigSnapshotAssembler::pspBroker, assembler);
+          case "creditorInstitutionStations" -> readStationRoutes(parser, stationRoutes, assembler);
+          default -> parser.skipChildren();
+        }
+      }
+    }
+    long indexStart = System.nanoTime();
+    ConfigSnapshotSource source = ConfigSnapshotSource.builder()
+        .version(version)
+        .stations(stations)
+        .creditorInstitutions(creditorInstitutions)
+        .psps(psps)
+        .pspBrokers(pspBrokers)
+        .routingTable(stationRoutes.build())
+        .build();
+    ConfigSnapshot snapshot = ConfigSnapshotAssembler.snapshot(source, targetResolver);
+    return new Result(snapshot, source, System.nanoTime() - indexStart);
+  }
+
+  private <T, R> Map<String, R> readMap(JsonParser parser, Class<T> type,
+      Function<T, R> converter, ConfigSnapshotAssembler assembler) throws IOException {
+    if (parser.currentToken() == JsonToken.VALUE_NULL) {
+      return null;
+    }
+    expectObject(parser);
+    Map<String, R> map = new HashMap<>();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String key = assembler.dedup(parser.currentName());
+      parser.nextToken();
+      if (parser.currentToken() != JsonToken.VALUE_NULL) {
+        // the DTO is only a transient binding target: keep just its snapshot
+        map.put(key, converter.apply(objectMapper.readValue(parser, type)));
+      }
+    }
+    return map;
+  }
+
+  // (creditorInstitutionCode, segregationCode) -> stationCode, entries missing any of them are skipped
+  private void readStationRoutes(JsonParser parser, StationRoutingTable.Builder stationRoutes,
+      ConfigSnapshotAssembler assembler) throws IOException {
+    if (parser.currentToken() == JsonToken.VALUE_NULL) {
+      return;
+    }
+    expectObject(parser);
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        parser.skipChildren();
+        continue;
+      }
+      String creditorInstitutionCode = null;
+      String stationCode = null;
+      long segregationCode = -1;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        JsonToken value = parser.nextToken();
+        switch (field) {
+          case "creditor_institution_code" -> creditorInstitutionCode = parser.getValueAsString();
+          case "station_code" -> stationCode = parser.getValueAsString();
+          case "segregation_code" -> segregationCode = readLong(parser, value);
+          default -> parser.skipChildren();
+        }
+      }
+      stationRoutes.put(
+          assembler.dedup(creditorInstitutionCode), segregationCode, assembler.dedup(stationCode));
+    }
+  }
+
+  // Returns -1 for missing or non numeric values, that the routing table ignores
+  private long readLong(JsonParser parser, JsonToken token) throws IOException {
+    if (token == JsonToken.VALUE_NUMBER_INT) {
+      return parser.getLongValue();
+    }
+    if (token == JsonToken.VALUE_STRING) {
+      try {
+        return Long.parseLong(parser.getText().trim());
+      } catch (NumberFormatException e) {
+        return -1;
+      }
+    }
+    parser.skipChildren();
+    return -1;
+  }
+
+  private void expectObject(JsonParser parser) throws IOException {
+    if (parser.currentToken() != JsonToken.START_OBJECT) {
+      throw new IOException(
+          "Unexpected api-config cache payload: object expected for " + parser.currentName());
+    }
+  }
+
+  /** Outcome of a payload parse */
+  @Getter
+  @RequiredArgsConstructor
+  static class Result {
+
+    private final ConfigSnapshot snapshot;
+
+    // needed only to persist the snapshot
+    private final ConfigSnapshotSource source;
+
+    // time spent building the routing table and the routes, once the payload was read
+    private final long indexBuildNanos;
+  }
+}
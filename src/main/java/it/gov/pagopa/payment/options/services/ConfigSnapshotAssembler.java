@@ -0,0 +1,194 @@
+package it.gov.pagopa.payment.options.services;
+
+import it.gov.pagopa.payment.options.models.clients.cache.BrokerPsp;
+import it.gov.pagopa.payment.options.models.clients.cache.Connection;
+import it.gov.pagopa.payment.options.models.clients.cache.ConfigDataV1;
+import it.gov.pagopa.payment.options.models.clients.cache.CreditorInstitution;
+import it.gov.pagopa.payment.options.models.clients.cache.PaymentServiceProvider;
+import it.gov.pagopa.payment.options.models.clients.cache.Station;
+import it.gov.pagopa.payment.options.models.snapshot.ConfigSnapshot;
+import it.gov.pagopa.payment.options.models.snapshot.ConfigSnapshotSource;
+import it.gov.pagopa.payment.options.models.snapshot.ConnectionSnapshot;
+import it.gov.pagopa.payment.options.models.snapshot.CreditorInstitutionRoutes;
+import it.gov.pagopa.payment.options.models.snapshot.CreditorInstitutionSnapshot;
+import it.gov.pagopa.payment.options.models.snapshot.EcTarget;
+import it.gov.pagopa.payment.options.models.snapshot.StationRoute;
+import it.gov.pagopa.payment.options.models.snapshot.StationRoutingTable;
+import it.gov.pagopa.payment.options.models.snapshot.StationSnapshot;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Converts the api-config-cache DTOs into the read-only snapshot used by the verify flow.
+ *
+ * <p>An instance is meant to build a single snapshot: codes repeated across collections (map
+ * keys, station codes of the index, connection ips) are deduplicated against the strings already
+ * seen, and equal station connections are shared, so the snapshot retains one copy of each.
+ *
+ * <p>The snapshot carries the routes of every creditor institution, so that the verify flow
+ * resolves the outcome of the creditor institution and station checks, and the EC target, with a
+ * single lookup instead of repeating them on every request. Once the routes are built, the
+ * stations, creditor institutions and routing table are no longer referenced by the snapshot.
+ */
+public class ConfigSnapshotAssembler {
+
+  private final Map<String, String> strings = new HashMap<>();
+
+  private final Map<ConnectionSnapshot, ConnectionSnapshot> connections = new HashMap<>();
+
+  /**
+   * Builds a snapshot from an already deserialized payload
+   *
+   * @param configData api-config-cache payload
+   * @param targetResolver resolves the EC target of an enabled station
+   * @return the related snapshot, or null if no payload is provided
+   */
+  public static ConfigSnapshot of(
+      ConfigDataV1 configData, Function<StationSnapshot, EcTarget> targetResolver) {
+    if (configData == null) {
+      return null;
+    }
+    ConfigSnapshotAssembler assembler = new ConfigSnapshotAssembler();
+    StationRoutingTable routingTable = null;
+    if (configData.getCreditorInstitutionStations() != null) {
+      StationRoutingTable.Builder builder = StationRoutingTable.builder();
+      configData.getCreditorInstitutionStations().values().forEach(entry -> {
+        if (entry != null && entry.getSegregationCode() != null) {
+          builder.put(assembler.dedup(entry.getCreditorInstitutionCode()),
+              entry.getSegregationCode(), assembler.dedup(entry.getStationCode()));
+        }
+      });
+      routingTable = builder.build();
+    }
+    return snapshot(ConfigSnapshotSource.builder()
+        .version(configData.getVersion())
+        .stations(assembler.convert(configData.getStations(), assembler::station))
+        .creditorInstitutions(
+            assembler.convert(configData.getCreditorInstitutions(), assembler::creditorInstitution))
+        .psps(assembler.convert(configData.getPsps(), ConfigSnapshotAssembler::psp))
+        .pspBrokers(assembler.convert(configData.getPspBrokers(), ConfigSnapshotAssembler::pspBroker))
+        .routingTable(routingTable)
+        .build(), targetResolver);
+  }
+
+  /**
+   * Builds the snapshot, precomputing the routes of every creditor institution
+   *
+   * @param source collections the snapshot is built from
+   * @param targetResolver resolves the EC target of an enabled station
+   */
+  public static ConfigSnapshot snapshot(
+      ConfigSnapshotSource source, Function<StationSnapshot, EcTarget> targetResolver) {
+    StationRoutingTable routingTable = source.getRoutingTable();
+    return ConfigSnapshot.builder()
+        .version(source.getVersion())
+        .psps(source.getPsps())
+        .pspBrokers(source.getPspBrokers())
+        .routes(routes(source.getStations(), source.getCreditorInstitutions(), routingTable,
+            targetResolver))
+        .stationCount(size(source.getStations()))
+        .creditorInstitutionCount(size(source.getCreditorInstitutions()))
+        .routedCreditorInstitutionCount(routingTable != null ? routingTable.size() : null)
+        .build();
+  }
+
+  /**
+   * Returns the first seen instance equal to the provided string
+   */
+  public String dedup(String value) {
+    if (value == null) {
+      return null;
+    }
+    String existing = strings.putIfAbsent(value, value);
+    return existing != null ? existing : value;
+  }
+
+  public StationSnapshot station(Station station) {
+    if (station == null) {
+      return null;
+    }
+    return StationSnapshot.builder()
+        .stationCode(dedup(station.getStationCode()))
+        .enabled(Boolean.TRUE.equals(station.getEnabled()))
+        .verifyPaymentOptionEnabled(Boolean.TRUE.equals(station.getVerifyPaymentOptionEnabled()))
+        .restEndpoint(dedup(station.getRestEndpoint()))
+        .connection(connection(station.getConnection()))
+        .build();
+  }
+
+  public CreditorInstitutionSnapshot creditorInstitution(CreditorInstitution creditorInstitution) {
+    if (creditorInstitution == null) {
+      return null;
+    }
+    return new CreditorInstitutionSnapshot(
+        dedup(creditorInstitution.getCreditorInstitutionCode()),
+        Boolean.TRUE.equals(creditorInstitution.getEnabled()));
+  }
+
+  public static Boolean psp(PaymentServiceProvider psp) {
+    return psp != null ? psp.isEnabled() : null;
+  }
+
+  public static Boolean pspBroker(BrokerPsp brokerPsp) {
+    return brokerPsp != null ? brokerPsp.isEnabled() : null;
+  }
+
+  private static Map<String, CreditorInstitutionRoutes> routes(
+      Map<String, StationSnapshot> stations,
+      Map<String, CreditorInstitutionSnapshot> creditorInstitutions,
+      StationRoutingTable routingTable,
+      Function<StationSnapshot, EcTarget> targetResolver) {
+    if (stations == null || creditorInstitutions == null) {
+      return null;
+    }
+    // Station checks and EC target resolution are done once per station, then shared.
+    StationRoute[] stationRoutes = new StationRoute[0];
+    if (routingTable != null) {
+      stationRoutes = new StationRoute[routingTable.stationCount()];
+      for (int ordinal = 0; ordinal < stationRoutes.length; ordinal++) {
+        String stationCode = routingTable.stationCode(ordinal);
+        StationSnapshot station = stations.get(stationCode);
+        boolean routable = station != null && station.isEnabled()
+            && station.isVerifyPaymentOptionEnabled();
+        stationRoutes[ordinal] = StationRoute.of(
+            stationCode, station, routable ? targetResolver.apply(station) : null);
+      }
+    }
+    Map<String, CreditorInstitutionRoutes> routes =
+        new HashMap<>(creditorInstitutions.size() * 4 / 3 + 1);
+    for (Map.Entry<String, CreditorInstitutionSnapshot> entry : creditorInstitutions.entrySet()) {
+      routes.put(entry.getKey(), CreditorInstitutionRoutes.of(
+          entry.getKey(), entry.getValue(), routingTable, stationRoutes));
+    }
+    return routes;
+  }
+
+  private ConnectionSnapshot connection(Connection connection) {
+    if (connection == null) {
+      return null;
+    }
+    ConnectionSnapshot snapshot = new ConnectionSnapshot(
+        connection.getProtocol(), dedup(connection.getIp()), connection.getPort());
+    return connections.computeIfAbsent(snapshot, Function.identity());
+  }
+
+  // Entries with a null key or value are dropped, as the snapshot maps hold none
+  private <T, R> Map<String, R> convert(Map<String, T> source, Function<T, R> converter) {
+    if (source == null) {
+      return null;
+    }
+    Map<String, R> converted = new HashMap<>(source.size() * 4 / 3 + 1);
+    source.forEach((key, value) -> {
+      R convertedValue = converter.apply(value);
+      if (key != null && convertedValue != null) {
+        converted.put(dedup(key), convertedValue);
+      }
+    });
+    return converted;
+  }
+
+  private static Integer size(Map<String, ?> map) {
+    return map != null ? map.size() : null;
+  }
+}
@@ -0,0 +1,105 @@
+package it.gov.pagopa.payment.options.services;
+
+import it.gov.pagopa.payment.options.models.ConfigCacheData;
+import it.gov.pagopa.payment.options.models.snapshot.ConfigSnapshotCodec;
+import it.gov.pagopa.payment.options.models.snapshot.ConfigSnapshotSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persists the last known good config cache data on a local file, so that a restarted instance
+ * can serve requests before api-config-cache is reachable.
+ *
+ * <p>The file is replaced atomically (written aside, then moved over the previous one), so a
+ * reader never sees a partially written snapshot, and it is memory mapped when loaded. Both
+ * operations are best-effort: errors are logged and never propagated. The store is disabled when
+ * no path is configured.
+ */
+@ApplicationScoped
+public class ConfigSnapshotStore {
+
+  private final Logger logger = LoggerFactory.getLogger(ConfigSnapshotStore.class);
+
+  private final Path path;
+
+  @Inject
+  ConfigSnapshotStore(@ConfigProperty(name = "ConfigCacheSnapshot.path") Optional<Path> path) {
+    this.path = path.orElse(null);
+  }
+
+  public boolean isEnabled() {
+    return path != null;
+  }
+
+  /**
+   * Writes the provided cache data, replacing the previously stored one
+   *
+   * @param data cache data, providing the versions
+   * @param source collections the snapshot of the cache data was built from
+   */
+  public void save(ConfigCacheData data, ConfigSnapshotSource source) {
+    if (path == null || data == null || source == null) {
+      return;
+    }
+    long start = System.nanoTime();
+    Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+    try {
+      if (path.getParent() != null) {
+        Files.createDirectories(path.getParent());
+      }
+      try (OutputStream out = Files.newOutputStream(temp)) {
+        ConfigSnapshotCodec.write(data, source, out);
+      }
+      try {
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+      }
+      logger.info("[Payment Options] Config snapshot saved - path={}, bytes={}, elapsedMs={}",
+          path, Files.size(path), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    } catch (IOException | RuntimeException e) {
+      logger.warn("[Payment Options] Unable to save config snapshot to {}: {}", path, e.getMessage());
+      try {
+        Files.deleteIfExists(temp);
+      } catch (IOException ignored) {
+        // the next save overwrites it
+      }
+    }
+  }
+
+  /**
+   * Loads the stored cache data, if any
+   *
+   * @return the stored cache data and the collections to build its snapshot from, or empty if the
+   *     store is disabled, no snapshot was saved or the file cannot be read
+   */
+  public Optional<ConfigSnapshotCodec.Stored> load() {
+    if (path == null || !Files.isRegularFile(path)) {
+      return Optional.empty();
+    }
+    long start = System.nanoTime();
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ConfigSnapshotCodec.Stored stored =
+          ConfigSnapshotCodec.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+      logger.info("[Payment Options] Config snapshot loaded - path={}, bytes={}, elapsedMs={}",
+          path, channel.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+      return Optional.of(stored);
+    } catch (IOException | RuntimeException e) {
+      logger.warn("[Payment Options] Unable to load config snapshot from {}: {}", path, e.getMessage());
+      return Optional.empty();
+    }
+  }
+}
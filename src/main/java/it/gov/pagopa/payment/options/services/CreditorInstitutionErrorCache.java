@@ -0,0 +1,255 @@
+package it.gov.pagopa.payment.options.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.metrics.Meter;
+import io.smallrye.mutiny.Uni;
+import it.gov.pagopa.payment.options.exception.CreditorInstitutionException;
+import it.gov.pagopa.payment.options.models.ErrorResponse;
+import it.gov.pagopa.payment.options.models.clients.creditorInstitution.PaymentOptionsResponse;
+import it.gov.pagopa.payment.options.models.enums.CreditorInstitutionErrorEnum;
+import it.gov.pagopa.payment.options.util.TimeSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Negative cache of the terminal errors returned by the creditor institutions, such as an unknown,
+ * expired or cancelled notice, keyed by fiscal code and notice number.
+ *
+ * <p>PSP retry loops keep verifying notices the creditor institution already refused: the errors
+ * listed in {@code PaymentOptionsErrorCache.ttls} are remembered for their own TTL and returned
+ * again, without calling the creditor institution, to the verifies of the same notice. The size of
+ * the cache is bounded with W-TinyLFU eviction. No error is cached unless listed.
+ *
+ * <p>A cached error is returned as a new {@link CreditorInstitutionException} carrying a copy of
+ * the original error response, stamped with the time it is returned at, so the request goes
+ * through the same KO events as when the creditor institution is called.
+ */
+@ApplicationScoped
+public class CreditorInstitutionErrorCache {
+
+  private final Map<CreditorInstitutionErrorEnum, Long> ttlNanosByError;
+  private final Cache<String, CreditorInstitutionException> cache;
+  private final TimeSource timeSource;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  @Inject
+  CreditorInstitutionErrorCache(
+      @ConfigProperty(name = "PaymentOptionsErrorCache.ttls") Optional<List<String>> ttls,
+      @ConfigProperty(name = "PaymentOptionsErrorCache.maxSize", defaultValue = "100000")
+          long maxSize,
+      TimeSource timeSource,
+      Meter meter) {
+    this(ttls.orElse(List.of()), maxSize, timeSource, meter, System::nanoTime);
+  }
+
+  CreditorInstitutionErrorCache(List<String> ttls, long maxSize, TimeSource timeSource,
+      Meter meter, LongSupplier nanoClock) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("Payment options error cache size must be positive");
+    }
+    this.ttlNanosByError = parseTtls(ttls);
+    this.timeSource = timeSource;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfter(new ErrorTtl())
+        .ticker(nanoClock::getAsLong)
+        // maintenance is cheap: run it on the caller rather than on the common pool
+        .executor(Runnable::run)
+        .build();
+    registerMetrics(meter != null ? meter : OpenTelemetry.noop().getMeter("noop"));
+  }
+
+  /** Cache of no error, for services built outside the container */
+  static CreditorInstitutionErrorCache disabled() {
+    return new CreditorInstitutionErrorCache(List.of(), 1,
+        new TimeSource(System::currentTimeMillis, ZoneId.systemDefault()), null, System::nanoTime);
+  }
+
+  /**
+   * Provides the payment options of a notice through the loader, unless the creditor institution
+   * returned a cached terminal error for it
+   *
+   * @param fiscalCode EC fiscal code
+   * @param noticeNumber notice number
+   * @param loader creditor institution call
+   * @return the loaded payment options
+   * @throws CreditorInstitutionException the cached error, or the one thrown by the loader
+   */
+  public PaymentOptionsResponse get(String fiscalCode, String noticeNumber,
+      Supplier<PaymentOptionsResponse> loader) {
+    if (ttlNanosByError.isEmpty()) {
+      return loader.get();
+    }
+
+    String key = key(fiscalCode, noticeNumber);
+    CreditorInstitutionException cached = lookup(key);
+    if (cached != null) {
+      throw cached;
+    }
+    try {
+      return loader.get();
+    } catch (CreditorInstitutionException e) {
+      remember(key, e);
+      throw e;
+    }
+  }
+
+  /**
+   * Non-blocking variant of {@link #get(String, String, Supplier)}
+   *
+   * @param fiscalCode EC fiscal code
+   * @param noticeNumber notice number
+   * @param loader creditor institution call
+   * @return Uni emitting the loaded payment options, or failing with the cached error
+   */
+  public Uni<PaymentOptionsResponse> getAsync(String fiscalCode, String noticeNumber,
+      Supplier<Uni<PaymentOptionsResponse>> loader) {
+    if (ttlNanosByError.isEmpty()) {
+      return loader.get();
+    }
+
+    String key = key(fiscalCode, noticeNumber);
+    return Uni.createFrom().deferred(() -> {
+      CreditorInstitutionException cached = lookup(key);
+      if (cached != null) {
+        return Uni.createFrom().failure(cached);
+      }
+      return loader.get()
+          .onFailure(CreditorInstitutionException.class)
+          .invoke(e -> remember(key, (CreditorInstitutionException) e));
+    });
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public long size() {
+    return cache.estimatedSize();
+  }
+
+  private CreditorInstitutionException lookup(String key) {
+    CreditorInstitutionException cached = cache.getIfPresent(key);
+    if (cached == null) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    long now = timeSource.currentTimeMillis();
+    return copy(cached, cached.getErrorResponse().toBuilder()
+        .timestamp(now)
+        .dateTime(TimeSource.isoInstant(now))
+        .build());
+  }
+
+  private void remember(String key, CreditorInstitutionException e) {
+    if (e.getCreditorInstitutionError() != null
+        && ttlNanosByError.containsKey(e.getCreditorInstitutionError())) {
+      cache.put(key, copy(e, e.getErrorResponse().toBuilder().build()));
+    }
+  }
+
+  // Error responses are mutable, and an exception carries the stack of the request that threw it
+  private static CreditorInstitutionException copy(
+      CreditorInstitutionException e, ErrorResponse errorResponse) {
+    return new CreditorInstitutionException(
+        errorResponse, e.getMessage(), e.getCreditorInstitutionError());
+  }
+
+  private static String key(String fiscalCode, String noticeNumber) {
+    return fiscalCode + '/' + noticeNumber;
+  }
+
+  // Entries "ERROR=ttl", the error being a CreditorInstitutionErrorEnum name
+  private static Map<CreditorInstitutionErrorEnum, Long> parseTtls(List<String> ttls) {
+    Map<CreditorInstitutionErrorEnum, Long> ttlNanosByError =
+        new EnumMap<>(CreditorInstitutionErrorEnum.class);
+    for (String entry : ttls) {
+      if (entry.isBlank()) {
+        continue;
+      }
+      int separator = entry.indexOf('=');
+      if (separator < 0) {
+        throw new IllegalArgumentException(
+            "Payment options error cache entry must be ERROR=ttl: " + entry);
+      }
+      CreditorInstitutionErrorEnum error;
+      try {
+        error = CreditorInstitutionErrorEnum.valueOf(entry.substring(0, separator).strip());
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException(
+            "Unknown creditor institution error in payment options error cache: " + entry, e);
+      }
+      Duration ttl;
+      try {
+        ttl = Duration.parse(entry.substring(separator + 1).strip());
+      } catch (DateTimeParseException e) {
+        throw new IllegalArgumentException(
+            "Invalid payment options error cache TTL: " + entry, e);
+      }
+      if (ttl.isNegative()) {
+        throw new IllegalArgumentException(
+            "Payment options error cache TTL must not be negative: " + entry);
+      }
+      // a zero TTL leaves the error out of the cache
+      if (!ttl.isZero()) {
+        ttlNanosByError.put(error, ttl.toNanos());
+      }
+    }
+    return ttlNanosByError;
+  }
+
+  private void registerMetrics(Meter meter) {
+    meter.counterBuilder("odp.verify.error_cache.hits")
+        .setDescription("Verify requests answered with a cached creditor institution error")
+        .buildWithCallback(m -> m.record(hits.sum()));
+    meter.counterBuilder("odp.verify.error_cache.misses")
+        .setDescription("Verify requests with no cached creditor institution error")
+        .buildWithCallback(m -> m.record(misses.sum()));
+    meter.upDownCounterBuilder("odp.verify.error_cache.size")
+        .setDescription("Creditor institution errors currently cached")
+        .buildWithCallback(m -> m.record(size()));
+  }
+
+  // Each entry lives for the TTL of its error from the response, reads do not extend it
+  private final class ErrorTtl implements Expiry<String, CreditorInstitutionException> {
+
+    @Override
+    public long expireAfterCreate(String key, CreditorInstitutionException value,
+        long currentTime) {
+      return ttlNanosByError.get(value.getCreditorInstitutionError());
+    }
+
+    @Override
+    public long expireAfterUpdate(String key, CreditorInstitutionException value,
+        long currentTime, long currentDuration) {
+      return ttlNanosByError.get(value.getCreditorInstitutionError());
+    }
+
+    @Override
+    public long expireAfterRead(String key, CreditorInstitutionException value,
+        long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
@@ -1,14 +1,17 @@
 package it.gov.pagopa.payment.options.services;
 
+import io.smallrye.mutiny.Uni;
 import it.gov.pagopa.payment.options.clients.CreditorInstitutionRestClient;
 import it.gov.pagopa.payment.options.exception.PaymentOptionsException;
-import it.gov.pagopa.payment.options.models.clients.cache.Connection;
 import it.gov.pagopa.payment.options.models.clients.cache.Connection.ProtocolEnum;
-import it.gov.pagopa.payment.options.models.clients.cache.Station;
 import it.gov.pagopa.payment.options.models.clients.creditorInstitution.PaymentOptionsResponse;
 import it.gov.pagopa.payment.options.models.enums.AppErrorCodeEnum;
+import it.gov.pagopa.payment.options.models.snapshot.ConnectionSnapshot;
+import it.gov.pagopa.payment.options.models.snapshot.EcTarget;
+import it.gov.pagopa.payment.options.models.snapshot.StationSnapshot;
 import jakarta.annotation.Nonnull;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import java.net.MalformedURLException;
 import java.net.URL;
 
@@ -29,87 +32,177 @@ public class CreditorInstitutionService {
   private final String apimForwarderPath;
   private final String gpdRestEndpoint;
   private final CreditorInstitutionRestClient creditorInstitutionRestClient;
+  private final PaymentOptionsResponseCache responseCache;
+  private final CreditorInstitutionErrorCache errorCache;
 
+  @Inject
   CreditorInstitutionService(
       @ConfigProperty(name = "CreditorInstitutionRestClient.apimEndpoint")
           String apimForwarderEndpoint,
       @ConfigProperty(name = "CreditorInstitutionRestClient.apimPath") String apimForwarderPath,
       @ConfigProperty(name = "quarkus.rest-client.gpd-core-api.url") String gpdRestEndpoint,
-      CreditorInstitutionRestClient creditorInstitutionRestClient) {
+      CreditorInstitutionRestClient creditorInstitutionRestClient,
+      PaymentOptionsResponseCache responseCache,
+      CreditorInstitutionErrorCache errorCache) {
     this.apimForwarderEndpoint = apimForwarderEndpoint;
     this.apimForwarderPath = apimForwarderPath;
     this.creditorInstitutionRestClient = creditorInstitutionRestClient;
+    this.responseCache = responseCache;
+    this.errorCache = errorCache;
     //endpoint "special guest" GPD-Core
     this.gpdRestEndpoint = gpdRestEndpoint;
   }
 
+  CreditorInstitutionService(
+      String apimForwarderEndpoint,
+      String apimForwarderPath,
+      String gpdRestEndpoint,
+      CreditorInstitutionRestClient creditorInstitutionRestClient) {
+    this(apimForwarderEndpoint, apimForwarderPath, gpdRestEndpoint, creditorInstitutionRestClient,
+        PaymentOptionsResponseCache.disabled(), CreditorInstitutionErrorCache.disabled());
+  }
+
   /**
    * Using the provided input attempts to call the creditor institution service to obtain the list
    * paymentOptions related to the input
    *
-   * <p>The method contains checks regarding the endpoint to use, and attempts to extract the REST
-   * target params
+   * <p>The REST target params are the ones extracted by {@link #resolveTarget(StationSnapshot)}
+   * when the config cache was loaded. Stations allowing it are served through the {@link
+   * PaymentOptionsResponseCache}, and notices the creditor institution recently refused with a
+   * terminal error get the same error from the {@link CreditorInstitutionErrorCache}
    *
    * @param noticeNumber input notice number
    * @param fiscalCode input fiscal code
-   * @param station station containing the connection config to use
+   * @param target EC target of the station serving the notice
    * @return the payment option retrieved from creditor institution
    */
  public PaymentOptionsResponse getPaymentOptions(
-		 String noticeNumber, String fiscalCode, Station station, long segregationCode) {
+		 String noticeNumber, String fiscalCode, EcTarget target, long segregationCode) {
 
 	 // 1) Special guest: EC = GPD-Core
-	 if (isEcGpdSpecialGuest(station)) {
+	 if (target.isGpd()) {
 		 logger.info("[Payment Options] Using GPD-Core special guest endpoint for station {}",
-				 station.getStationCode());
+				 target.getStationCode());
 
-		 return creditorInstitutionRestClient.callGpdPaymentOptionsVerify(
-				 fiscalCode,
-				 noticeNumber,
-				 String.valueOf(segregationCode) // optional param
-				 );
+		 return errorCache.get(fiscalCode, noticeNumber,
+				 () -> responseCache.get(fiscalCode, noticeNumber, target,
+						 () -> creditorInstitutionRestClient.callGpdPaymentOptionsVerify(
+								 fiscalCode,
+								 noticeNumber,
+								 String.valueOf(segregationCode) // optional param
+								 )));
 	 }
 
-	 // 2) "Normal" behavior: EC via APIM forwarder
-	 if (station.getConnection().getIp() == null
-			 || !this.apimForwarderEndpoint.contains(station.getConnection().getIp())) {
-		 throw new PaymentOptionsException(
-				 AppErrorCodeEnum.ODP_STAZIONE_INT_PA_IRRAGGIUNGIBILE,
-				 "[Payment Options] Station not configured to pass through the APIM Forwarder");
+	 // a station configuration error, logged as such rather than sampled as a rejection
+	 if (target.getError() != null) {
+		 throw new PaymentOptionsException(target.getError(), target.getErrorMessage());
 	 }
 
-	 if (station.getRestEndpoint() == null) {
-		 throw new PaymentOptionsException(
-				 AppErrorCodeEnum.ODP_SEMANTICA,
-				 "[Payment Options] Station new verify endpoint not provided");
-	 }
+	 // 2) "Normal" behavior: EC via APIM forwarder
+	 return errorCache.get(fiscalCode, noticeNumber,
+			 () -> responseCache.get(fiscalCode, noticeNumber, target,
+					 () -> this.creditorInstitutionRestClient.callEcPaymentOptionsVerify(
+							 target.getForwarderUrl(),
+							 target.getHost(),
+							 target.getPort(),
+							 verifyPath(target, fiscalCode, noticeNumber)
+					 )));
+ }
 
-	 String targetHost;
-	 long targetPort;
-	 String targetPath;
-	 try {
-		 String[] verifyEndpointParts = station.getRestEndpoint().split("/", 4);
-		 targetHost = verifyEndpointParts[2];
-		 targetPort = getTargetPort(verifyEndpointParts);
-		 String formattedPath =
-				 String.format(PAYMENT_OPTIONS_SERVICE_SUFFIX, fiscalCode, noticeNumber);
-		 targetPath =
-				 verifyEndpointParts.length > 3
-				 ? verifyEndpointParts[3].concat(formattedPath)
-						 : formattedPath;
-	 } catch (Exception e) {
-		 logger.error("[Payment Options] Malformed Target URL", e);
-		 throw new PaymentOptionsException(AppErrorCodeEnum.ODP_SEMANTICA, e.getMessage());
-	 }
+  /**
+   * Non-blocking variant of {@link #getPaymentOptions(String, String, EcTarget, long)}: the
+   * creditor institution is called without holding the caller thread, and the returned Uni fails
+   * with the same exceptions the blocking call throws
+   *
+   * @param noticeNumber input notice number
+   * @param fiscalCode input fiscal code
+   * @param target EC target of the station serving the notice
+   * @return Uni emitting the payment option retrieved from creditor institution
+   */
+  public Uni<PaymentOptionsResponse> getPaymentOptionsAsync(
+      String noticeNumber, String fiscalCode, EcTarget target, long segregationCode) {
 
-	 URL forwarderUrl = buildForwarderUrl(station.getConnection());
-	 return this.creditorInstitutionRestClient.callEcPaymentOptionsVerify(
-			 forwarderUrl,
-			 targetHost,
-			 targetPort,
-			 targetPath
-	 );
- }
+    if (target.isGpd()) {
+      logger.info("[Payment Options] Using GPD-Core special guest endpoint for station {}",
+          target.getStationCode());
+
+      return errorCache.getAsync(fiscalCode, noticeNumber,
+          () -> responseCache.getAsync(fiscalCode, noticeNumber, target,
+              () -> creditorInstitutionRestClient.callGpdPaymentOptionsVerifyAsync(
+                  fiscalCode, noticeNumber, String.valueOf(segregationCode))));
+    }
+
+    if (target.getError() != null) {
+      return Uni.createFrom().failure(
+          new PaymentOptionsException(target.getError(), target.getErrorMessage()));
+    }
+
+    return errorCache.getAsync(fiscalCode, noticeNumber,
+        () -> responseCache.getAsync(fiscalCode, noticeNumber, target,
+            () -> this.creditorInstitutionRestClient.callEcPaymentOptionsVerifyAsync(
+                target.getForwarderUrl(),
+                target.getHost(),
+                target.getPort(),
+                verifyPath(target, fiscalCode, noticeNumber))));
+  }
+
+  static String verifyPath(EcTarget target, String fiscalCode, String noticeNumber) {
+    return target.getPathPrefix().concat(
+        String.format(PAYMENT_OPTIONS_SERVICE_SUFFIX, fiscalCode, noticeNumber));
+  }
+
+  /**
+   * Resolves the endpoint to use to contact the creditor institution behind the station.
+   *
+   * <p>The method contains checks regarding the endpoint to use, and attempts to extract the REST
+   * target params. It is meant to be called once per station when the config cache is loaded: a
+   * station that cannot be contacted gets a target carrying the error to return, so that this
+   * method never throws
+   *
+   * @param station station containing the connection config to use
+   * @return the EC target of the station
+   */
+  public EcTarget resolveTarget(StationSnapshot station) {
+    String stationCode = station.getStationCode();
+    if (isEcGpdSpecialGuest(station)) {
+      return EcTarget.gpd(stationCode);
+    }
+
+    ConnectionSnapshot connection = station.getConnection();
+    if (connection == null) {
+      return EcTarget.misconfigured(stationCode, AppErrorCodeEnum.ODP_SYSTEM_ERROR,
+          "Encountered an unmanaged error during payment option retrieval");
+    }
+    if (connection.getIp() == null || !this.apimForwarderEndpoint.contains(connection.getIp())) {
+      return EcTarget.misconfigured(stationCode, AppErrorCodeEnum.ODP_STAZIONE_INT_PA_IRRAGGIUNGIBILE,
+          "[Payment Options] Station not configured to pass through the APIM Forwarder");
+    }
+    if (station.getRestEndpoint() == null) {
+      return EcTarget.misconfigured(stationCode, AppErrorCodeEnum.ODP_SEMANTICA,
+          "[Payment Options] Station new verify endpoint not provided");
+    }
+
+    String targetHost;
+    long targetPort;
+    String targetPathPrefix;
+    try {
+      String[] verifyEndpointParts = station.getRestEndpoint().split("/", 4);
+      targetHost = verifyEndpointParts[2];
+      targetPort = getTargetPort(verifyEndpointParts);
+      targetPathPrefix = verifyEndpointParts.length > 3 ? verifyEndpointParts[3] : "";
+    } catch (Exception e) {
+      logger.warn("[Payment Options] Malformed Target URL for station {}: {}",
+          stationCode, e.getMessage());
+      return EcTarget.misconfigured(stationCode, AppErrorCodeEnum.ODP_SEMANTICA, e.getMessage());
+    }
+
+    try {
+      return EcTarget.forwarder(
+          stationCode, buildForwarderUrl(connection), targetHost, targetPort, targetPathPrefix);
+    } catch (PaymentOptionsException e) {
+      return EcTarget.misconfigured(stationCode, e.getErrorCode(), e.getMessage());
+    }
+  }
 
   private long getTargetPort(String[] verifyEndpointParts) {
     String[] hostSplit = verifyEndpointParts[2].split(":");
@@ -123,7 +216,7 @@ public class CreditorInstitutionService {
     return 80L;
   }
 
-  private URL buildForwarderUrl(@Nonnull Connection connection) {
+  private URL buildForwarderUrl(@Nonnull ConnectionSnapshot connection) {
     try {
       String scheme = getProtocol(connection);
       String port = connection.getPort() != null ? String.valueOf(connection.getPort()) : "80";
@@ -137,7 +230,7 @@ public class CreditorInstitutionService {
     }
   }
 
-  private String getProtocol(Connection connection) {
+  private String getProtocol(ConnectionSnapshot connection) {
     ProtocolEnum protocol = connection.getProtocol();
 
     if (ProtocolEnum.HTTPS.equals(protocol)) {
@@ -149,7 +242,7 @@ public class CreditorInstitutionService {
     return ProtocolEnum.HTTP.name().toLowerCase();
   }
 
-  private boolean isEcGpdSpecialGuest(Station station) {
+  private boolean isEcGpdSpecialGuest(StationSnapshot station) {
 	  if (station.getRestEndpoint() == null || gpdRestEndpoint.isEmpty()) {
 		  return false;
 	  }
@@ -0,0 +1,233 @@
+package it.gov.pagopa.payment.options.services;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.metrics.LongHistogram;
+import io.opentelemetry.api.metrics.Meter;
+import io.vertx.core.Context;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jctools.queues.MessagePassingQueue;
+import org.jctools.queues.MpmcArrayQueue;
+import org.jctools.queues.MpscArrayQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publishes the events produced while serving requests from a single background thread, so that
+ * building and sending them never adds to the PSP-facing latency.
+ *
+ * <p>Request threads only enqueue the emission into a bounded ring buffer, drained in batches by
+ * the publisher thread. When the buffer is full, because Kafka is slow or unreachable, the
+ * configured overflow policy applies: drop the new event, drop the oldest queued one, or wait up
+ * to the block timeout and then drop the new one. Event-loop threads, serving the reactive
+ * execution, are never blocked: they drop the new event instead.
+ */
+@ApplicationScoped
+public class EventPublisher {
+
+  /** What to do with an event published while the queue is full */
+  public enum OverflowPolicy {
+    DROP_NEW,
+    DROP_OLDEST,
+    BLOCK
+  }
+
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  private final Logger logger = LoggerFactory.getLogger(EventPublisher.class);
+
+  private final LongAdder dropped = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+
+  private final MessagePassingQueue<Pending> queue;
+  private final OverflowPolicy overflowPolicy;
+  private final long blockTimeoutNanos;
+  private final int batchSize;
+  private final LongSupplier nanoClock;
+
+  private final LongHistogram publishLatency;
+
+  private final Thread publisher;
+
+  private volatile boolean idle;
+  private volatile boolean running = true;
+
+  @Inject
+  EventPublisher(
+      @ConfigProperty(name = "EventPublisher.capacity", defaultValue = "8192") int capacity,
+      @ConfigProperty(name = "EventPublisher.overflow", defaultValue = "drop-new")
+          OverflowPolicy overflowPolicy,
+      @ConfigProperty(name = "EventPublisher.blockTimeout", defaultValue = "PT0.01S")
+          Duration blockTimeout,
+      @ConfigProperty(name = "EventPublisher.batchSize", defaultValue = "256") int batchSize,
+      Meter meter) {
+    this(capacity, overflowPolicy, blockTimeout, batchSize, meter, System::nanoTime);
+  }
+
+  EventPublisher(
+      int capacity,
+      OverflowPolicy overflowPolicy,
+      Duration blockTimeout,
+      int batchSize,
+      Meter meter,
+      LongSupplier nanoClock) {
+    if (capacity < 2 || batchSize < 1) {
+      throw new IllegalArgumentException("Event queue capacity and batch size must be positive");
+    }
+    // dropping the oldest event makes the producers consume too
+    this.queue = overflowPolicy == OverflowPolicy.DROP_OLDEST
+        ? new MpmcArrayQueue<>(capacity)
+        : new MpscArrayQueue<>(capacity);
+    this.overflowPolicy = overflowPolicy;
+    this.blockTimeoutNanos = blockTimeout.toNanos();
+    this.batchSize = batchSize;
+    this.nanoClock = nanoClock;
+
+    Meter metrics = meter != null ? meter : OpenTelemetry.noop().getMeter("noop");
+    metrics.upDownCounterBuilder("odp.events.queue.depth")
+        .setDescription("Events waiting to be published")
+        .buildWithCallback(m -> m.record(queue.size()));
+    metrics.counterBuilder("odp.events.dropped")
+        .setDescription("Events dropped because the publishing queue was full")
+        .buildWithCallback(m -> m.record(dropped.sum()));
+    metrics.counterBuilder("odp.events.failed")
+        .setDescription("Events that could not be handed over or acknowledged by the broker")
+        .buildWithCallback(m -> m.record(failed.sum()));
+    this.publishLatency = metrics.histogramBuilder("odp.events.publish.latency")
+        .setDescription("Time from an event being queued to its acknowledgement by the broker")
+        .setUnit("ms")
+        .ofLongs()
+        .build();
+
+    this.publisher = new Thread(this::run, "event-publisher");
+    this.publisher.setDaemon(true);
+    this.publisher.start();
+  }
+
+  /**
+   * Queues an emission, returning immediately unless the queue is full, the overflow policy is
+   * {@link OverflowPolicy#BLOCK} and the caller is not an event-loop thread
+   *
+   * @param emission builds and sends an event, returning the broker acknowledgement, or null if
+   *     nothing was sent. Invoked on the publisher thread
+   * @return true if the emission was queued, false if it was dropped
+   */
+  public boolean publish(Supplier<CompletionStage<?>> emission) {
+    Pending pending = new Pending(emission, nanoClock.getAsLong());
+    boolean queued = queue.relaxedOffer(pending) || offerOnOverflow(pending);
+    if (!queued) {
+      dropped.increment();
+    }
+    if (idle) {
+      LockSupport.unpark(publisher);
+    }
+    return queued;
+  }
+
+  public long getDropped() {
+    return dropped.sum();
+  }
+
+  public long getFailed() {
+    return failed.sum();
+  }
+
+  public int getQueueDepth() {
+    return queue.size();
+  }
+
+  @PreDestroy
+  void close() {
+    running = false;
+    LockSupport.unpark(publisher);
+    try {
+      publisher.join(TimeUnit.SECONDS.toMillis(5));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private boolean offerOnOverflow(Pending pending) {
+    switch (overflowPolicy) {
+      case DROP_OLDEST:
+        while (!queue.offer(pending)) {
+          if (queue.poll() != null) {
+            dropped.increment();
+          }
+        }
+        return true;
+      case BLOCK:
+        // a verify publishes several events: waiting for each would stall the event loop
+        if (Context.isOnEventLoopThread()) {
+          return false;
+        }
+        long deadline = nanoClock.getAsLong() + blockTimeoutNanos;
+        while (nanoClock.getAsLong() - deadline < 0) {
+          LockSupport.unpark(publisher);
+          LockSupport.parkNanos(BLOCK_PARK_NANOS);
+          if (queue.offer(pending)) {
+            return true;
+          }
+        }
+        return false;
+      default:
+        return false;
+    }
+  }
+
+  private void run() {
+    while (running || !queue.isEmpty()) {
+      int drained = queue.drain(this::send, batchSize);
+      if (drained == 0) {
+        idle = true;
+        // re-checked after flagging, so an event queued meanwhile is not left waiting
+        if (queue.isEmpty() && running) {
+          LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+        idle = false;
+      }
+    }
+  }
+
+  private void send(Pending pending) {
+    try {
+      CompletionStage<?> ack = pending.emission.get();
+      if (ack != null) {
+        ack.whenComplete((ignored, failure) -> {
+          if (failure != null) {
+            failed.increment();
+          } else {
+            publishLatency.record(
+                TimeUnit.NANOSECONDS.toMillis(nanoClock.getAsLong() - pending.queuedAt));
+          }
+        });
+      }
+    } catch (RuntimeException e) {
+      failed.increment();
+      logger.error("[Payment Options] error encountered while publishing event: {}",
+          e.getMessage());
+    }
+  }
+
+  private static final class Pending {
+
+    private final Supplier<CompletionStage<?>> emission;
+    private final long queuedAt;
+
+    private Pending(Supplier<CompletionStage<?>> emission, long queuedAt) {
+      this.emission = emission;
+      this.queuedAt = queuedAt;
+    }
+  }
+}
@@ -1,8 +1,13 @@
 package it.gov.pagopa.payment.options.services;
 
+import it.gov.pagopa.payment.options.models.JsonPayload;
 import it.gov.pagopa.payment.options.models.events.odpRe.Body;
+import it.gov.pagopa.payment.options.models.events.odpRe.BodyV2;
 import it.gov.pagopa.payment.options.models.events.odpRe.EventType;
+import it.gov.pagopa.payment.options.models.events.odpRe.OdpReEvent;
 import it.gov.pagopa.payment.options.models.events.odpRe.OdpVerifyRe;
+import it.gov.pagopa.payment.options.models.events.odpRe.OdpVerifyReV2;
+import it.gov.pagopa.payment.options.models.events.odpRe.Phases;
 import it.gov.pagopa.payment.options.models.events.odpRe.Properties;
 import it.gov.pagopa.payment.options.models.events.odpRe.Status;
 import it.gov.pagopa.payment.options.models.events.verifyKo.Creditor;
@@ -10,17 +15,19 @@ import it.gov.pagopa.payment.options.models.events.verifyKo.DebtorPosition;
 import it.gov.pagopa.payment.options.models.events.verifyKo.FaultBean;
 import it.gov.pagopa.payment.options.models.events.verifyKo.Psp;
 import it.gov.pagopa.payment.options.models.events.verifyKo.VerifyEventKo;
+import it.gov.pagopa.payment.options.util.IdGenerator;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import java.util.Base64;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.reactive.messaging.Channel;
 import org.eclipse.microprofile.reactive.messaging.Emitter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Service managing sending of events for Payment Options
+ * Service managing sending of events for Payment Options. Events are built and sent by the
+ * {@link EventPublisher} thread, the callers only queue them
  */
 @ApplicationScoped
 public class EventService {
@@ -35,7 +42,16 @@ public class EventService {
 
   @Inject
   @Channel("opzioni-di-pagamento-re")
-  Emitter<OdpVerifyRe> odpVerifyReEmitter;
+  Emitter<OdpReEvent> odpVerifyReEmitter;
+
+  @ConfigProperty(name = "EventService.reSchemaVersion", defaultValue = "1")
+  int reSchemaVersion;
+
+  @Inject
+  EventPublisher eventPublisher;
+
+  @Inject
+  IdGenerator idGenerator;
 
   /**
    * Sending an event to the verify-ko event
@@ -58,32 +74,35 @@ public class EventService {
       /* Error content */
       String appErrorCode, String errorMessage, Long timestamp, String dateTime) {
 
-    try {
-      verifyKoEmitter.send(
-          VerifyEventKo.builder()
-              .id(UUID.randomUUID().toString())
-              .psp(Psp.builder().idPsp(idPsp).idBrokerPsp(idBrokerPsp).build())
-              .debtorPosition(DebtorPosition.builder().noticeNumber(noticeNumber).build())
-              .creditor(
-                  Creditor.builder().idPA(fiscalCode).idStation(idStation).idBrokerPA(idBrokerPA)
-                      .build()
-              )
-              .faultBean(
-                  FaultBean.builder()
-                      .faultCode(appErrorCode)
-                      .description(errorMessage)
-                      .timestamp(timestamp)
-                      .dateTime(dateTime)
-                      .build()
-              )
-              .serviceIdentifier(SERVICE_IDENTIFIER)
-              .build()
-      );
-    } catch (Exception e) {
-      logger.error(
-          "[Payment Options] error encountered while sending event to ko topic: {}",
-          e.getMessage());
-    }
+    eventPublisher.publish(() -> {
+      try {
+        return verifyKoEmitter.send(
+            VerifyEventKo.builder()
+                .id(idGenerator.nextId())
+                .psp(Psp.builder().idPsp(idPsp).idBrokerPsp(idBrokerPsp).build())
+                .debtorPosition(DebtorPosition.builder().noticeNumber(noticeNumber).build())
+                .creditor(
+                    Creditor.builder().idPA(fiscalCode).idStation(idStation).idBrokerPA(idBrokerPA)
+                        .build()
+                )
+                .faultBean(
+                    FaultBean.builder()
+                        .faultCode(appErrorCode)
+                        .description(errorMessage)
+                        .timestamp(timestamp)
+                        .dateTime(dateTime)
+                        .build()
+                )
+                .serviceIdentifier(SERVICE_IDENTIFIER)
+                .build()
+        );
+      } catch (Exception e) {
+        logger.error(
+            "[Payment Options] error encountered while sending event to ko topic: {}",
+            e.getMessage());
+        return CompletableFuture.failedFuture(e);
+      }
+    });
 
   }
 
@@ -97,7 +116,7 @@ public class EventService {
    * @param dateTime event date-time
    * @param esito event outcome
    * @param eventType outcome eventType
-   * @param payload payload for the event (if existing)
+   * @param payload payload for the event (if existing), encoded once per request
    */
   public void sendEvent(
       /* Input Request **/
@@ -109,43 +128,114 @@ public class EventService {
       String sessionId, String dateTime,
       Status esito, EventType eventType,
       /* Response Content */
-      String payload, String errorCode, String errorDescription
+      JsonPayload payload, String errorCode, String errorDescription
 
   ) {
-    try {
-      odpVerifyReEmitter.send(
-          OdpVerifyRe.builder()
-              .body(
-                  Body.builder()
-                  .id(UUID.randomUUID().toString())
-                  .sessionId(sessionId)
-                  .insertedTimestamp(dateTime)
-                  .eventTimestamp(dateTime)
-                  .status(esito)
-                  .eventType(eventType)
-                  .stationId(idStation)
-                  .sessionId(sessionId)
-                  .pspId(idPsp)
-                  .brokerId(idBrokerPsp)
-                  .organizationId(fiscalCode)
-                  .noticeNumber(noticeNumber)
-                  .errorStatusCode(errorCode)
-                  .errorStatusDesc(errorDescription)
-                  .payload(payload != null ?
-                      Base64.getMimeEncoder().encodeToString(payload.getBytes()) : null)
-                  .version("1")
+    eventPublisher.publish(() -> {
+      try {
+        return odpVerifyReEmitter.send(
+            OdpVerifyRe.builder()
+                .body(
+                    Body.builder()
+                    .id(idGenerator.nextId())
+                    .sessionId(sessionId)
+                    .insertedTimestamp(dateTime)
+                    .eventTimestamp(dateTime)
+                    .status(esito)
+                    .eventType(eventType)
+                    .stationId(idStation)
+                    .sessionId(sessionId)
+                    .pspId(idPsp)
+                    .brokerId(idBrokerPsp)
+                    .organizationId(fiscalCode)
+                    .noticeNumber(noticeNumber)
+                    .errorStatusCode(errorCode)
+                    .errorStatusDesc(errorDescription)
+                    .payload(payload != null ? payload.getBase64() : null)
+                    .version("1")
+                  .build()
+                )
+                .properties(Properties.builder()
+                    .serviceIdentifier(SERVICE_IDENTIFIER)
+                    .build())
+                .build()
+        );
+      } catch (Exception e) {
+        logger.error(
+            "[Payment Options] error encountered while sending event for Odp res topic: {}",
+            e.getMessage());
+        return CompletableFuture.failedFuture(e);
+      }
+    });
+  }
+
+  /**
+   * Tells whether the payment-options-re channel uses the version 2 schema, i.e. a single
+   * {@link #sendInteractionEvent} per verify in place of the REQ and RES events
+   * @return true if the version 2 schema is configured
+   */
+  public boolean isInteractionEvents() {
+    return reSchemaVersion == 2;
+  }
+
+  /**
+   * Produces the version 2 event to the payment-options-re, recording a whole verify interaction
+   * @param idPsp input PSP
+   * @param idBrokerPsp input Broker PSP
+   * @param noticeNumber input notice number
+   * @param fiscalCode input fiscalCode
+   * @param idStation extracted idStation
+   * @param sessionId sessionId to trace events
+   * @param esito interaction outcome
+   * @param phases timestamps of the phases reached by the interaction
+   * @param payload creditor institution response (if existing), encoded once per request
+   * @param errorCode error code of a failed interaction
+   * @param errorDescription error description of a failed interaction
+   */
+  public void sendInteractionEvent(
+      /* Input Request **/
+      String idPsp, String idBrokerPsp,
+      String noticeNumber, String fiscalCode,
+      /* Extracted data */
+      String idStation,
+      /* Meta content */
+      String sessionId, Status esito, Phases phases,
+      /* Response Content */
+      JsonPayload payload, String errorCode, String errorDescription
+  ) {
+    eventPublisher.publish(() -> {
+      try {
+        return odpVerifyReEmitter.send(
+            OdpVerifyReV2.builder()
+                .body(
+                    BodyV2.builder()
+                        .id(idGenerator.nextId())
+                        .sessionId(sessionId)
+                        .status(esito)
+                        .organizationId(fiscalCode)
+                        .stationId(idStation)
+                        .pspId(idPsp)
+                        .brokerId(idBrokerPsp)
+                        .noticeNumber(noticeNumber)
+                        .errorStatusCode(errorCode)
+                        .errorStatusDesc(errorDescription)
+                        .phases(phases)
+                        .payload(payload != null ? payload.getBase64() : null)
+                        .version("2")
+                        .build()
+                )
+                .properties(Properties.builder()
+                    .serviceIdentifier(SERVICE_IDENTIFIER)
+                    .build())
                 .build()
-              )
-              .properties(Properties.builder()
-                  .serviceIdentifier(SERVICE_IDENTIFIER)
-                  .build())
-              .build()
-      );
-    } catch (Exception e) {
-      logger.error(
-          "[Payment Options] error encountered while sending event for Odp res topic: {}",
-          e.getMessage());
-    }
+        );
+      } catch (Exception e) {
+        logger.error(
+            "[Payment Options] error encountered while sending event for Odp res topic: {}",
+            e.getMessage());
+        return CompletableFuture.failedFuture(e);
+      }
+    });
   }
 
 }
@@ -0,0 +1,325 @@
+package it.gov.pagopa.payment.options.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.metrics.Meter;
+import io.smallrye.mutiny.Uni;
+import it.gov.pagopa.payment.options.exception.PaymentOptionsException;
+import it.gov.pagopa.payment.options.models.JsonPayload;
+import it.gov.pagopa.payment.options.models.clients.creditorInstitution.PaymentOptionsResponse;
+import it.gov.pagopa.payment.options.models.clients.creditorInstitution.RawPaymentOptionsResponse;
+import it.gov.pagopa.payment.options.models.enums.AppErrorCodeEnum;
+import it.gov.pagopa.payment.options.models.snapshot.EcTarget;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Short-lived cache of the payment options returned by the creditor institutions, keyed by
+ * fiscal code and notice number, for the stations that allow it.
+ *
+ * <p>PSPs and front-ends often verify the same notice several times within seconds: a station
+ * listed in {@code PaymentOptionsCache.stations} gets its responses cached for its own TTL, the
+ * size of the cache being bounded with W-TinyLFU eviction. Concurrent requests for a notice not
+ * cached yet wait for the one calling the creditor institution instead of calling it as well; a
+ * failure is shared by the requests waiting for it, and never cached. Stations moved by a config
+ * refresh can be served from the cache until their entries expire. A request waiting for a call
+ * that gets cancelled calls the creditor institution itself.
+ *
+ * <p>Responses are cached as their JSON encoding: each request is served its own
+ * {@link RawPaymentOptionsResponse}, so that requests never share a mutable response and the
+ * cached bytes are forwarded without being serialized again.
+ *
+ * <p>The cache only replaces the creditor institution call, so a request served from the cache
+ * goes through the same RE events as any other.
+ */
+@ApplicationScoped
+public class PaymentOptionsResponseCache {
+
+  private final Map<String, Long> ttlNanosByStation;
+  private final AsyncCache<String, Cached> cache;
+  private final ObjectMapper objectMapper;
+  private final ObjectReader reader;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  @Inject
+  PaymentOptionsResponseCache(
+      @ConfigProperty(name = "PaymentOptionsCache.stations") Optional<List<String>> stations,
+      @ConfigProperty(name = "PaymentOptionsCache.ttl", defaultValue = "PT5S") Duration ttl,
+      @ConfigProperty(name = "PaymentOptionsCache.maxSize", defaultValue = "10000") long maxSize,
+      ObjectMapper objectMapper,
+      Meter meter) {
+    this(stations.orElse(List.of()), ttl, maxSize, objectMapper, meter, System::nanoTime);
+  }
+
+  PaymentOptionsResponseCache(List<String> stations, Duration ttl, long maxSize,
+      ObjectMapper objectMapper, Meter meter, LongSupplier nanoClock) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("Payment options cache size must be positive");
+    }
+    this.ttlNanosByStation = parseStations(stations, ttl);
+    this.objectMapper = objectMapper;
+    this.reader = objectMapper.readerFor(PaymentOptionsResponse.class);
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfter(new StationTtl())
+        .ticker(nanoClock::getAsLong)
+        // maintenance is cheap: run it on the caller rather than on the common pool
+        .executor(Runnable::run)
+        .buildAsync();
+    registerMetrics(meter != null ? meter : OpenTelemetry.noop().getMeter("noop"));
+  }
+
+  /** Cache serving no station, for services built outside the container */
+  static PaymentOptionsResponseCache disabled() {
+    return new PaymentOptionsResponseCache(
+        List.of(), Duration.ofSeconds(1), 1, new ObjectMapper(), null, System::nanoTime);
+  }
+
+  /**
+   * Provides the payment options of a notice, calling the creditor institution through the
+   * loader only if the station allows caching and no request for the notice is cached or in
+   * flight
+   *
+   * @param fiscalCode EC fiscal code
+   * @param noticeNumber notice number
+   * @param target EC target of the station serving the notice
+   * @param loader creditor institution call
+   * @return the cached or loaded payment options, owned by the caller
+   */
+  public PaymentOptionsResponse get(String fiscalCode, String noticeNumber, EcTarget target,
+      Supplier<PaymentOptionsResponse> loader) {
+    Long ttlNanos = ttlNanos(target);
+    if (ttlNanos == null) {
+      return loader.get();
+    }
+
+    String key = key(fiscalCode, noticeNumber);
+    CompletableFuture<Cached> loading = new CompletableFuture<>();
+    CompletableFuture<Cached> existing;
+    while ((existing = cache.asMap().putIfAbsent(key, loading)) != null) {
+      LongAdder counter = count(existing);
+      try {
+        return existing.join().serve();
+      } catch (CancellationException e) {
+        // the request calling the creditor institution went away: call it here instead
+        counter.decrement();
+        cache.asMap().remove(key, existing);
+      } catch (CompletionException e) {
+        throw e.getCause() instanceof RuntimeException cause ? cause : e;
+      }
+    }
+
+    misses.increment();
+    try {
+      Cached cached = encode(loader.get(), ttlNanos);
+      loading.complete(cached);
+      return cached.serve();
+    } catch (RuntimeException | Error e) {
+      loading.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  /**
+   * Non-blocking variant of {@link #get(String, String, EcTarget, Supplier)}: requests waiting
+   * for a call in flight do not hold their thread
+   *
+   * @param fiscalCode EC fiscal code
+   * @param noticeNumber notice number
+   * @param target EC target of the station serving the notice
+   * @param loader creditor institution call, subscribed at most once per subscription
+   * @return Uni emitting the cached or loaded payment options, owned by the caller
+   */
+  public Uni<PaymentOptionsResponse> getAsync(String fiscalCode, String noticeNumber,
+      EcTarget target, Supplier<Uni<PaymentOptionsResponse>> loader) {
+    Long ttlNanos = ttlNanos(target);
+    if (ttlNanos == null) {
+      return loader.get();
+    }
+    return getAsync(key(fiscalCode, noticeNumber), ttlNanos, loader);
+  }
+
+  private Uni<PaymentOptionsResponse> getAsync(String key, long ttlNanos,
+      Supplier<Uni<PaymentOptionsResponse>> loader) {
+    return Uni.createFrom().deferred(() -> {
+      CompletableFuture<Cached> loading = new CompletableFuture<>();
+      CompletableFuture<Cached> existing = cache.asMap().putIfAbsent(key, loading);
+      if (existing != null) {
+        LongAdder counter = count(existing);
+        return Uni.createFrom().completionStage(existing)
+            .map(Cached::serve)
+            // the request calling the creditor institution went away: call it here instead
+            .onFailure(CancellationException.class).recoverWithUni(() -> {
+              counter.decrement();
+              cache.asMap().remove(key, existing);
+              return getAsync(key, ttlNanos, loader);
+            });
+      }
+
+      misses.increment();
+      return loader.get()
+          .map(response -> encode(response, ttlNanos))
+          .onItemOrFailure().invoke((cached, failure) -> {
+            if (failure != null) {
+              loading.completeExceptionally(failure);
+            } else {
+              loading.complete(cached);
+            }
+          })
+          // a cancelled call must not leave the waiting requests hanging
+          .onCancellation().invoke(() -> loading.cancel(false))
+          .map(Cached::serve);
+    });
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getCoalesced() {
+    return coalesced.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public long size() {
+    return cache.synchronous().estimatedSize();
+  }
+
+  private Long ttlNanos(EcTarget target) {
+    if (ttlNanosByStation.isEmpty() || target == null || target.getStationCode() == null) {
+      return null;
+    }
+    return ttlNanosByStation.get(target.getStationCode());
+  }
+
+  // Forwarded responses are cached as received, the others encoded once
+  private Cached encode(PaymentOptionsResponse response, long ttlNanos) {
+    Optional<JsonPayload> forwarded = response instanceof RawPaymentOptionsResponse raw
+        ? raw.getPayload()
+        : Optional.empty();
+    if (forwarded.isPresent()) {
+      return new Cached(forwarded.get().getJson(), ttlNanos);
+    }
+    try {
+      return new Cached(objectMapper.writeValueAsBytes(response), ttlNanos);
+    } catch (JsonProcessingException e) {
+      throw new PaymentOptionsException(AppErrorCodeEnum.ODP_SYSTEM_ERROR,
+          "[Payment Options] Unable to cache the creditor institution response: " + e.getMessage(),
+          e);
+    }
+  }
+
+  private LongAdder count(CompletableFuture<Cached> existing) {
+    LongAdder counter = existing.isDone() ? hits : coalesced;
+    counter.increment();
+    return counter;
+  }
+
+  private static String key(String fiscalCode, String noticeNumber) {
+    return fiscalCode + '/' + noticeNumber;
+  }
+
+  // Entries "stationCode" or "stationCode=ttl", the ttl defaulting to the given one
+  private static Map<String, Long> parseStations(List<String> stations, Duration defaultTtl) {
+    Map<String, Long> ttlNanosByStation = new HashMap<>();
+    for (String entry : stations) {
+      String station = entry.strip();
+      if (station.isEmpty()) {
+        continue;
+      }
+      Duration ttl = defaultTtl;
+      int separator = station.indexOf('=');
+      if (separator >= 0) {
+        try {
+          ttl = Duration.parse(station.substring(separator + 1).strip());
+        } catch (DateTimeParseException e) {
+          throw new IllegalArgumentException(
+              "Invalid payment options cache TTL for station: " + station, e);
+        }
+        station = station.substring(0, separator).strip();
+      }
+      if (ttl.isNegative() || ttl.isZero()) {
+        throw new IllegalArgumentException(
+            "Payment options cache TTL must be positive for station " + station);
+      }
+      ttlNanosByStation.put(station, ttl.toNanos());
+    }
+    return Map.copyOf(ttlNanosByStation);
+  }
+
+  private void registerMetrics(Meter meter) {
+    meter.counterBuilder("odp.verify.response_cache.hits")
+        .setDescription("Verify requests served by a cached creditor institution response")
+        .buildWithCallback(m -> m.record(hits.sum()));
+    meter.counterBuilder("odp.verify.response_cache.coalesced")
+        .setDescription("Verify requests that waited for an identical creditor institution call")
+        .buildWithCallback(m -> m.record(coalesced.sum()));
+    meter.counterBuilder("odp.verify.response_cache.misses")
+        .setDescription("Verify requests of caching stations that called the creditor institution")
+        .buildWithCallback(m -> m.record(misses.sum()));
+    meter.upDownCounterBuilder("odp.verify.response_cache.size")
+        .setDescription("Creditor institution responses currently cached")
+        .buildWithCallback(m -> m.record(size()));
+  }
+
+  private final class Cached {
+
+    // never modified once cached
+    private final byte[] json;
+    private final long ttlNanos;
+
+    private Cached(byte[] json, long ttlNanos) {
+      this.json = json;
+      this.ttlNanos = ttlNanos;
+    }
+
+    private PaymentOptionsResponse serve() {
+      return new RawPaymentOptionsResponse(json, reader);
+    }
+  }
+
+  // Each entry lives for the TTL of its station from the response, reads do not extend it
+  private static final class StationTtl implements Expiry<String, Cached> {
+
+    @Override
+    public long expireAfterCreate(String key, Cached value, long currentTime) {
+      return value.ttlNanos;
+    }
+
+    @Override
+    public long expireAfterUpdate(String key, Cached value, long currentTime,
+        long currentDuration) {
+      return value.ttlNanos;
+    }
+
+    @Override
+    public long expireAfterRead(String key, Cached value, long currentTime,
+        long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
@@ -2,24 +2,30 @@ package it.gov.pagopa.payment.options.services;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.unchecked.Unchecked;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
 import it.gov.pagopa.payment.options.exception.CreditorInstitutionException;
 import it.gov.pagopa.payment.options.exception.PaymentOptionsException;
-import it.gov.pagopa.payment.options.models.clients.cache.BrokerPsp;
-import it.gov.pagopa.payment.options.models.clients.cache.ConfigDataV1;
-import it.gov.pagopa.payment.options.models.clients.cache.CreditorInstitution;
-import it.gov.pagopa.payment.options.models.clients.cache.PaymentServiceProvider;
-import it.gov.pagopa.payment.options.models.clients.cache.Station;
+import it.gov.pagopa.payment.options.models.JsonPayload;
 import it.gov.pagopa.payment.options.models.clients.creditorInstitution.PaymentOptionsResponse;
+import it.gov.pagopa.payment.options.models.clients.creditorInstitution.RawPaymentOptionsResponse;
 import it.gov.pagopa.payment.options.models.enums.AppErrorCodeEnum;
 import it.gov.pagopa.payment.options.models.events.odpRe.EventType;
+import it.gov.pagopa.payment.options.models.events.odpRe.Phases;
 import it.gov.pagopa.payment.options.models.events.odpRe.Status;
+import it.gov.pagopa.payment.options.models.snapshot.ConfigSnapshot;
+import it.gov.pagopa.payment.options.models.snapshot.CreditorInstitutionRoutes;
+import it.gov.pagopa.payment.options.models.snapshot.StationRoute;
+import it.gov.pagopa.payment.options.models.snapshot.StationSnapshot;
+import it.gov.pagopa.payment.options.services.VerifyMetrics.Outcome;
+import it.gov.pagopa.payment.options.services.VerifyMetrics.Phase;
+import it.gov.pagopa.payment.options.util.TimeSource;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
 import java.util.Map;
+import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,11 +37,8 @@ public class PaymentOptionsService {
 
   private final Logger logger = LoggerFactory.getLogger(PaymentOptionsService.class);
 
-  private final DateTimeFormatter formatter = DateTimeFormatter
-      .ofPattern("yyyy-MM-dd'T'HH:mm'Z'")
-      .withZone(ZoneId.systemDefault());
-
-  private final ObjectMapper objectMapper = new ObjectMapper();
+  @Inject
+  ObjectMapper objectMapper;
 
   @Inject
   ConfigCacheService configCacheService;
@@ -46,6 +49,12 @@ public class PaymentOptionsService {
   @Inject
   EventService eventService;
 
+  @Inject
+  TimeSource timeSource;
+
+  @Inject
+  VerifyMetrics verifyMetrics;
+
   /**
    * Provides the service method to execute payment options verify process, attempting
    * to use the extracted station config data to contact the exposed creditor institution
@@ -60,202 +69,303 @@ public class PaymentOptionsService {
   public PaymentOptionsResponse getPaymentOptions(
       String idPsp, String idBrokerPsp, String fiscalCode, String noticeNumber, String sessionId) {
 
-    Station station = null;
-    long segregationCode;
-    
-    String creditorInstitutionCode = null;
-    String stationCode = null;
+    VerifyRequest request = new VerifyRequest(
+        idPsp, idBrokerPsp, fiscalCode, noticeNumber, sessionId, timeSource.currentTimeMillis(),
+        verifyMetrics.sample());
+    try {
+      request.sample.start(Phase.VALIDATION);
+      validateRequest(request);
+      request.sample.start(Phase.CONFIG_LOOKUP);
+      resolveRoute(request, getConfigData());
+    } catch (PaymentOptionsException e) {
+      onRejected(request, e);
+      throw e;
+    }
 
     try {
+      onForwarded(request);
 
-      validateInput(idPsp, idBrokerPsp, fiscalCode, noticeNumber);
+      request.sample.start(Phase.EC_CALL);
+      PaymentOptionsResponse paymentOptionsResponse =
+          creditorInstitutionService.getPaymentOptions(
+              noticeNumber, fiscalCode, request.route.getTarget(), request.segregationCode);
 
-      long auxDigit = Long.parseLong(noticeNumber.substring(0, 1));
-      if (auxDigit != 3) {
-        throw new PaymentOptionsException(AppErrorCodeEnum.ODP_PSP_NAV_NOT_NMU,
-            "Notice number contains a nav not valid for the OdP service");
-      }
+      onResponse(request, paymentOptionsResponse);
+      return paymentOptionsResponse;
 
-      segregationCode = Long.parseLong(noticeNumber.substring(1, 3));
-
-      ConfigDataV1 configCacheData = getConfigData();
-      // Validate PSP / Broker. This allows to fail fast in case of missing/invalid configuration.
-      getAndValidatePsp(idPsp, configCacheData);
-      getAndValidateBrokerPsp(idBrokerPsp, configCacheData);
-      
-      Map<String, Station> stationMap = configCacheData.getStations();
-      if (stationMap == null) {
-        throw new PaymentOptionsException(AppErrorCodeEnum.ODP_SYSTEM_ERROR,
-            "Configuration data currently not available");
-      }
-      
-      // Resolve creditor institution: keep only primitive codes to minimize retained memory.
-      CreditorInstitution creditorInstitution = getCreditorInstitution(fiscalCode, configCacheData);
-      creditorInstitutionCode = creditorInstitution.getCreditorInstitutionCode();
-      
-      // stationCode is resolved through the compact index built by ConfigCacheService.
-      // This avoids scanning large collections and keeps memory/GC pressure low.
-      stationCode = configCacheService.resolveStationCode(creditorInstitutionCode, segregationCode);
-
-      if (stationCode == null) {
-    	  throw new PaymentOptionsException(
-    			  AppErrorCodeEnum.ODP_STAZIONE_INT_PA_SCONOSCIUTA,
-    			  "Station related to the creditor institution not found"
-    			  );
-      }
+    } catch (Exception e) {
+      throw onFailure(request, e);
+    }
+  }
 
-      station = stationMap.get(stationCode);
-
-      
-      if (station == null) {
-    	  throw new PaymentOptionsException(
-    	      AppErrorCodeEnum.ODP_STAZIONE_INT_PA_SCONOSCIUTA,
-    	      "Station not found using station code " + stationCode
-    	  );
-    	} else if (!Boolean.TRUE.equals(station.getEnabled())) {
-    	  throw new PaymentOptionsException(
-    	      AppErrorCodeEnum.ODP_STAZIONE_INT_PA_DISABILITATA,
-    	      "Station found using station code " + stationCode + " disabled"
-    	  );
-    	} else if (!Boolean.TRUE.equals(station.getVerifyPaymentOptionEnabled())) {
-    	  throw new PaymentOptionsException(
-    	      AppErrorCodeEnum.ODP_STAZIONE_INT_VERIFICA_ODP_DISABILITATA,
-    	      "Station found using station code " + stationCode
-    	          + " has the OdP verify service disabled. Use the standard verification flow"
-    	  );
-    	}
+  /**
+   * Non-blocking variant of {@link #getPaymentOptions(String, String, String, String, String)},
+   * meant to be subscribed on the event loop: neither the config data lookup nor the creditor
+   * institution call hold the caller thread. Events and failures are the same as the blocking
+   * variant
+   * @param idPsp input id PSP
+   * @param idBrokerPsp input id Broker PSP
+   * @param fiscalCode EC fiscal code
+   * @param noticeNumber input notice number
+   * @return Uni emitting the instance of extracted PaymentOptions
+   */
+  public Uni<PaymentOptionsResponse> getPaymentOptionsAsync(
+      String idPsp, String idBrokerPsp, String fiscalCode, String noticeNumber, String sessionId) {
 
-    } catch (PaymentOptionsException e) {
-      Instant instantForPspReq = Instant.now();
-      sendKoEvent(idPsp, idBrokerPsp, fiscalCode, noticeNumber, stationCode, creditorInstitutionCode,
-    		    instantForPspReq, e);
-      eventService.sendEvent(
-          idPsp, idBrokerPsp, noticeNumber, fiscalCode,
-          station != null ? station.getStationCode() : null, sessionId, LocalDateTime
-              .ofInstant(instantForPspReq, ZoneId.systemDefault())
-              .format(formatter),
-          Status.KO, EventType.REQ, null,
-          e.getErrorCode().getErrorCode(), e.getMessage()
-      );
-      throw e;
+    VerifyRequest request = new VerifyRequest(
+        idPsp, idBrokerPsp, fiscalCode, noticeNumber, sessionId, timeSource.currentTimeMillis(),
+        verifyMetrics.sample());
+    return Uni.createFrom().deferred(() -> {
+          request.sample.start(Phase.VALIDATION);
+          validateRequest(request);
+          request.sample.start(Phase.CONFIG_LOOKUP);
+          return getConfigDataAsync();
+        })
+        .onItem().invoke(configCacheData -> resolveRoute(request, configCacheData))
+        .onFailure(PaymentOptionsException.class)
+        .invoke(e -> onRejected(request, (PaymentOptionsException) e))
+        .onItem().transformToUni(configCacheData -> Uni.createFrom().deferred(() -> {
+              onForwarded(request);
+              request.sample.start(Phase.EC_CALL);
+              return creditorInstitutionService.getPaymentOptionsAsync(
+                  noticeNumber, fiscalCode, request.route.getTarget(), request.segregationCode);
+            })
+            .onItem().invoke(Unchecked.consumer(response -> onResponse(request, response)))
+            .onFailure().transform(e -> onFailure(request, e)));
+  }
+
+  static void validateRequest(VerifyRequest request) {
+    validateInput(request.idPsp, request.idBrokerPsp, request.fiscalCode, request.noticeNumber);
+    request.segregationCode = segregationCode(request.noticeNumber);
+  }
+
+  // Segregation code of a notice number with aux digit 3, the only one served by the OdP service
+  static long segregationCode(String noticeNumber) {
+    long auxDigit = Long.parseLong(noticeNumber.substring(0, 1));
+    if (auxDigit != 3) {
+      throw PaymentOptionsException.rejection(AppErrorCodeEnum.ODP_PSP_NAV_NOT_NMU,
+          "Notice number contains a nav not valid for the OdP service");
     }
+    return Long.parseLong(noticeNumber.substring(1, 3));
+  }
 
-    try {
+  static StationRoute resolveRoute(VerifyRequest request, ConfigSnapshot configCacheData) {
+    // Validate PSP / Broker. This allows to fail fast in case of missing/invalid configuration.
+    validatePsp(request.idPsp, configCacheData);
+    validateBrokerPsp(request.idBrokerPsp, configCacheData);
 
-      Instant instantForPspReq = Instant.now();
-      eventService.sendEvent(
-          idPsp, idBrokerPsp, noticeNumber, fiscalCode,
-          station.getStationCode(), sessionId, LocalDateTime
-              .ofInstant(instantForPspReq, ZoneId.systemDefault())
-              .format(formatter),
-          Status.OK, EventType.REQ,
-          null, null, null
+    // Creditor institution and station checks, and the EC target, are resolved once per config
+    // refresh: the request only looks up the routes of the creditor institution.
+    CreditorInstitutionRoutes creditorInstitutionRoutes =
+        getCreditorInstitutionRoutes(request.fiscalCode, configCacheData);
+    request.creditorInstitutionCode = creditorInstitutionRoutes.getCreditorInstitutionCode();
+
+    if (!creditorInstitutionRoutes.isRoutingAvailable()) {
+      throw new PaymentOptionsException(AppErrorCodeEnum.ODP_SYSTEM_ERROR,
+          "Configuration data currently not available");
+    }
+
+    StationRoute route = creditorInstitutionRoutes.route(request.segregationCode);
+    if (route == null) {
+      throw PaymentOptionsException.rejection(
+          AppErrorCodeEnum.ODP_STAZIONE_INT_PA_SCONOSCIUTA,
+          "Station related to the creditor institution not found"
       );
+    }
 
-      Instant instantForEcReq = Instant.now();
+    request.route = route;
+    request.stationCode = route.getStationCode();
+    request.station = route.getStation();
+    if (route.getRejection() != null) {
+      throw PaymentOptionsException.rejection(route.getRejection(), route.getRejectionMessage());
+    }
+    return route;
+  }
+
+  // The request was refused before contacting the creditor institution
+  private void onRejected(VerifyRequest request, PaymentOptionsException e) {
+    request.sample.start(Phase.EVENTS);
+    sendKoEvent(request.idPsp, request.idBrokerPsp, request.fiscalCode, request.noticeNumber,
+        request.stationCode, request.creditorInstitutionCode, e);
+    if (eventService.isInteractionEvents()) {
+      sendInteractionEvent(request, Status.KO, null,
+          e.getErrorCode().getErrorCode(), e.getMessage());
+    } else {
       eventService.sendEvent(
-          idPsp, idBrokerPsp, noticeNumber, fiscalCode,
-          station.getStationCode(), sessionId, LocalDateTime
-              .ofInstant(instantForEcReq, ZoneId.systemDefault())
-              .format(formatter),
-          Status.OK, EventType.REQ,
-          null, null, null
+          request.idPsp, request.idBrokerPsp, request.noticeNumber, request.fiscalCode,
+          request.station != null ? request.station.getStationCode() : null, request.sessionId,
+          timeSource.minuteTimestamp(),
+          Status.KO, EventType.REQ, null,
+          e.getErrorCode().getErrorCode(), e.getMessage()
       );
+    }
+    verifyMetrics.record(request.sample, e.isRejection() ? Outcome.REJECTED : Outcome.KO,
+        request.route, e.getErrorCode().getErrorCode());
+  }
 
-      PaymentOptionsResponse paymentOptionsResponse =
-          creditorInstitutionService.getPaymentOptions(noticeNumber, fiscalCode, station, segregationCode);
+  private void onForwarded(VerifyRequest request) {
+    request.sample.stop();
+    if (eventService.isInteractionEvents()) {
+      request.ecRequestAt = timeSource.currentTimeMillis();
+      return;
+    }
 
+    request.sample.start(Phase.EVENTS);
+
+    eventService.sendEvent(
+        request.idPsp, request.idBrokerPsp, request.noticeNumber, request.fiscalCode,
+        request.station.getStationCode(), request.sessionId, timeSource.minuteTimestamp(),
+        Status.OK, EventType.REQ,
+        null, null, null
+    );
+
+    eventService.sendEvent(
+        request.idPsp, request.idBrokerPsp, request.noticeNumber, request.fiscalCode,
+        request.station.getStationCode(), request.sessionId, timeSource.minuteTimestamp(),
+        Status.OK, EventType.REQ,
+        null, null, null
+    );
+    request.sample.stop();
+  }
 
-      Instant instantForEcRes = Instant.now();
+  private void onResponse(VerifyRequest request, PaymentOptionsResponse paymentOptionsResponse)
+      throws JsonProcessingException {
+    // Serialized once: the same payload is carried by both events and written to the PSP
+    request.sample.start(Phase.SERIALIZATION);
+    Optional<JsonPayload> forwarded = paymentOptionsResponse instanceof RawPaymentOptionsResponse raw
+        ? raw.getPayload()
+        : Optional.empty();
+    JsonPayload payload = forwarded.isPresent()
+        ? forwarded.get()
+        : JsonPayload.of(objectMapper, paymentOptionsResponse);
+    payload.attachTo(request.context);
+
+    request.sample.start(Phase.EVENTS);
+    if (eventService.isInteractionEvents()) {
+      request.ecResponseAt = timeSource.currentTimeMillis();
+      sendInteractionEvent(request, Status.OK, payload, null, null);
+    } else {
       eventService.sendEvent(
-          idPsp, idBrokerPsp, noticeNumber, fiscalCode,
-          station.getStationCode(), sessionId, LocalDateTime
-              .ofInstant(instantForEcRes, ZoneId.systemDefault())
-              .format(formatter),
+          request.idPsp, request.idBrokerPsp, request.noticeNumber, request.fiscalCode,
+          request.station.getStationCode(), request.sessionId, timeSource.minuteTimestamp(),
           Status.OK, EventType.RES,
-          objectMapper.writeValueAsString(paymentOptionsResponse)
-          , null, null);
+          payload, null, null);
 
-      Instant instantForPspRes = Instant.now();
       eventService.sendEvent(
-          idPsp, idBrokerPsp, noticeNumber, fiscalCode,
-          station.getStationCode(), sessionId, LocalDateTime
-              .ofInstant(instantForPspRes, ZoneId.systemDefault())
-              .format(formatter),
+          request.idPsp, request.idBrokerPsp, request.noticeNumber, request.fiscalCode,
+          request.station.getStationCode(), request.sessionId, timeSource.minuteTimestamp(),
           Status.OK, EventType.RES,
-          objectMapper.writeValueAsString(paymentOptionsResponse),
-          null, null
+          payload, null, null
       );
+    }
+    verifyMetrics.record(request.sample, Outcome.OK, request.route, null);
+  }
 
-      return paymentOptionsResponse;
-
-    } catch (CreditorInstitutionException e) {
+  // Sends the KO events of a failed creditor institution call, returning the exception to rethrow
+  private RuntimeException onFailure(VerifyRequest request, Throwable failure) {
+    request.sample.start(Phase.EVENTS);
+    if (failure instanceof CreditorInstitutionException e) {
       logger.error("[Payment Options] encountered a managed error: {}", e.getMessage());
-      Instant instant = Instant.now();
       try {
-        eventService.sendEvent(
-            idPsp, idBrokerPsp, noticeNumber, fiscalCode,
-            station.getStationCode(), sessionId, LocalDateTime
-                .ofInstant(instant, ZoneId.systemDefault())
-                .format(formatter),
-            Status.KO, EventType.RES,
-            objectMapper.writeValueAsString(e.getErrorResponse()),
-            e.getErrorResponse().getAppErrorCode(),
-            e.getMessage()
-        );
+        JsonPayload payload = JsonPayload.of(objectMapper, e.getErrorResponse());
+        if (eventService.isInteractionEvents()) {
+          request.ecResponseAt = timeSource.currentTimeMillis();
+          sendInteractionEvent(request, Status.KO, payload,
+              e.getErrorResponse().getAppErrorCode(), e.getMessage());
+        } else {
+          eventService.sendEvent(
+              request.idPsp, request.idBrokerPsp, request.noticeNumber, request.fiscalCode,
+              request.station.getStationCode(), request.sessionId, timeSource.minuteTimestamp(),
+              Status.KO, EventType.RES,
+              payload,
+              e.getErrorResponse().getAppErrorCode(),
+              e.getMessage()
+          );
+        }
       } catch (JsonProcessingException ex) {
-        throw new RuntimeException(ex);
+        verifyMetrics.record(request.sample, Outcome.ERROR, request.route, null);
+        return new RuntimeException(ex);
       }
-    
-      eventService.sendVerifyKoEvent(
-    		    idPsp, idBrokerPsp, noticeNumber, fiscalCode,
-    		    station.getStationCode(),
-    		    creditorInstitutionCode,
-    		    e.getErrorResponse().getAppErrorCode(),
-    		    e.getErrorResponse().getErrorMessage(),
-    		    instant.getEpochSecond(),
-    		    LocalDateTime.ofInstant(instant, ZoneId.systemDefault()).format(formatter)
-    		);
 
-      throw e;
-    } catch (PaymentOptionsException e) {
-      logger.error("[Payment Options] encountered a managed error: {}", e.getMessage());
-      Instant instant = Instant.now();
-      eventService.sendEvent(
-          idPsp, idBrokerPsp, noticeNumber, fiscalCode,
-          station.getStationCode(), sessionId, LocalDateTime
-              .ofInstant(instant, ZoneId.systemDefault())
-              .format(formatter),
-          Status.KO, EventType.REQ,
-          null, e.getErrorCode().getErrorCode(), e.getMessage()
+      eventService.sendVerifyKoEvent(
+          request.idPsp, request.idBrokerPsp, request.noticeNumber, request.fiscalCode,
+          request.station.getStationCode(),
+          request.creditorInstitutionCode,
+          e.getErrorResponse().getAppErrorCode(),
+          e.getErrorResponse().getErrorMessage(),
+          timeSource.epochSecond(),
+          timeSource.minuteTimestamp()
       );
-      sendKoEvent(idPsp, idBrokerPsp, fiscalCode, noticeNumber, stationCode, creditorInstitutionCode,
-          instant, e);
-      throw e;
-    } catch (Exception e) {
-      logger.error("[Payment Options] encountered an unexpected error: {}", e.getMessage());
-      Instant instantForEcRes = Instant.now();
-      PaymentOptionsException paymentOptionsException =
-          new PaymentOptionsException(AppErrorCodeEnum.ODP_SYSTEM_ERROR,
-              "Encountered an unmanaged error during payment option retrieval");
+      verifyMetrics.record(request.sample, Outcome.KO, request.route,
+          e.getErrorResponse().getAppErrorCode());
+      return e;
+    }
+
+    if (failure instanceof PaymentOptionsException e) {
+      if (!e.isRejection()) {
+        logger.error("[Payment Options] encountered a managed error: {}", e.getMessage());
+      }
+      if (eventService.isInteractionEvents()) {
+        sendInteractionEvent(request, Status.KO, null,
+            e.getErrorCode().getErrorCode(), e.getMessage());
+      } else {
+        eventService.sendEvent(
+            request.idPsp, request.idBrokerPsp, request.noticeNumber, request.fiscalCode,
+            request.station.getStationCode(), request.sessionId, timeSource.minuteTimestamp(),
+            Status.KO, EventType.REQ,
+            null, e.getErrorCode().getErrorCode(), e.getMessage()
+        );
+      }
+      sendKoEvent(request.idPsp, request.idBrokerPsp, request.fiscalCode, request.noticeNumber,
+          request.stationCode, request.creditorInstitutionCode, e);
+      verifyMetrics.record(request.sample, e.isRejection() ? Outcome.REJECTED : Outcome.KO,
+          request.route, e.getErrorCode().getErrorCode());
+      return e;
+    }
+
+    logger.error("[Payment Options] encountered an unexpected error: {}", failure.getMessage());
+    PaymentOptionsException paymentOptionsException =
+        new PaymentOptionsException(AppErrorCodeEnum.ODP_SYSTEM_ERROR,
+            "Encountered an unmanaged error during payment option retrieval");
+    if (eventService.isInteractionEvents()) {
+      sendInteractionEvent(request, Status.KO, null,
+          paymentOptionsException.getErrorCode().getErrorCode(),
+          paymentOptionsException.getMessage());
+    } else {
       eventService.sendEvent(
-          idPsp, idBrokerPsp, noticeNumber, fiscalCode,
-          station.getStationCode(), sessionId, LocalDateTime
-              .ofInstant(instantForEcRes, ZoneId.systemDefault())
-              .format(formatter),
+          request.idPsp, request.idBrokerPsp, request.noticeNumber, request.fiscalCode,
+          request.station.getStationCode(), request.sessionId, timeSource.minuteTimestamp(),
           Status.KO, EventType.REQ, null,
           paymentOptionsException.getErrorCode().getErrorCode(),
           paymentOptionsException.getMessage()
       );
-      sendKoEvent(idPsp, idBrokerPsp, fiscalCode, noticeNumber, stationCode, creditorInstitutionCode,
-          instantForEcRes, paymentOptionsException);
-      throw paymentOptionsException;
     }
+    sendKoEvent(request.idPsp, request.idBrokerPsp, request.fiscalCode, request.noticeNumber,
+        request.stationCode, request.creditorInstitutionCode, paymentOptionsException);
+    verifyMetrics.record(request.sample, Outcome.ERROR, request.route,
+        paymentOptionsException.getErrorCode().getErrorCode());
+    return paymentOptionsException;
+  }
 
+  // Version 2 RE event, sent once the interaction is over with the phases it went through
+  private void sendInteractionEvent(VerifyRequest request, Status esito,
+      JsonPayload payload, String errorCode, String errorDescription) {
+    eventService.sendInteractionEvent(
+        request.idPsp, request.idBrokerPsp, request.noticeNumber, request.fiscalCode,
+        request.station != null ? request.station.getStationCode() : null, request.sessionId,
+        esito,
+        Phases.builder()
+            .pspRequest(TimeSource.isoInstant(request.receivedAt))
+            .ecRequest(request.ecRequestAt != 0 ? TimeSource.isoInstant(request.ecRequestAt) : null)
+            .ecResponse(
+                request.ecResponseAt != 0 ? TimeSource.isoInstant(request.ecResponseAt) : null)
+            .pspResponse(TimeSource.isoInstant(timeSource.currentTimeMillis()))
+            .build(),
+        payload, errorCode, errorDescription);
   }
 
-  private ConfigDataV1 getConfigData() {
-    ConfigDataV1 configCacheData;
+  private ConfigSnapshot getConfigData() {
+    ConfigSnapshot configCacheData;
     try {
       configCacheData = configCacheService.getConfigCacheData();
     } catch (Exception e) {
@@ -271,22 +381,34 @@ public class PaymentOptionsService {
     return configCacheData;
   }
 
+  private Uni<ConfigSnapshot> getConfigDataAsync() {
+    return Uni.createFrom().deferred(configCacheService::getConfigCacheDataAsync)
+        .onFailure().transform(e -> {
+          logger.error("[Payment Options] Unexpected error recovering configuration data: {}",
+              e.getMessage());
+          return new PaymentOptionsException(AppErrorCodeEnum.ODP_SYSTEM_ERROR,
+              "Configuration data currently not available");
+        })
+        .onItem().ifNull().failWith(() -> new PaymentOptionsException(
+            AppErrorCodeEnum.ODP_SYSTEM_ERROR, "Configuration data currently not available"));
+  }
+
   private static void validateInput(
       String idPsp, String idBrokerPsp, String fiscalCode, String noticeNumber) {
     if (idPsp == null) {
-      throw new PaymentOptionsException(AppErrorCodeEnum.ODP_SINTASSI,
+      throw PaymentOptionsException.rejection(AppErrorCodeEnum.ODP_SINTASSI,
           "Missing input idPsp");
     }
     if (idBrokerPsp == null) {
-      throw new PaymentOptionsException(AppErrorCodeEnum.ODP_SINTASSI,
+      throw PaymentOptionsException.rejection(AppErrorCodeEnum.ODP_SINTASSI,
           "Missing input idBrokerPsp");
     }
     if (fiscalCode == null) {
-      throw new PaymentOptionsException(AppErrorCodeEnum.ODP_SINTASSI,
+      throw PaymentOptionsException.rejection(AppErrorCodeEnum.ODP_SINTASSI,
           "Missing input fiscalCode");
     }
     if (noticeNumber == null) {
-      throw new PaymentOptionsException(AppErrorCodeEnum.ODP_SINTASSI,
+      throw PaymentOptionsException.rejection(AppErrorCodeEnum.ODP_SINTASSI,
           "Missing input noticeNumber");
     }
   }
@@ -294,13 +416,12 @@ public class PaymentOptionsService {
   private void sendKoEvent(
 		  String idPsp, String idBrokerPsp, String fiscalCode, String noticeNumber,
 		  String stationCode, String creditorInstitutionCode,
-		  Instant instant, PaymentOptionsException e) {
-
-	  logger.error("[Payment Options] encountered a managed error: {}", e.getMessage());
+		  PaymentOptionsException e) {
 
-	  String formattedDateTime = LocalDateTime
-			  .ofInstant(instant, ZoneId.systemDefault())
-			  .format(formatter);
+	  // rejections are logged, sampled, by the ExceptionMapper
+	  if (!e.isRejection()) {
+		  logger.error("[Payment Options] encountered a managed error: {}", e.getMessage());
+	  }
 
 	  eventService.sendVerifyKoEvent(
 			  idPsp, idBrokerPsp, noticeNumber, fiscalCode,
@@ -308,77 +429,110 @@ public class PaymentOptionsService {
 			  creditorInstitutionCode,
 			  e.getErrorCode().getErrorCode(),
 			  e.getErrorCode().getErrorMessage(),
-			  instant.getEpochSecond(),
-			  formattedDateTime);
+			  timeSource.epochSecond(),
+			  timeSource.minuteTimestamp());
   }
   
-  private static CreditorInstitution getCreditorInstitution(String fiscalCode, ConfigDataV1 configCacheData) {
+  private static CreditorInstitutionRoutes getCreditorInstitutionRoutes(String fiscalCode, ConfigSnapshot configCacheData) {
 	  // Extract and validate creditor institution from the config cache
-	  Map<String, CreditorInstitution> creditorInstitutionMap = configCacheData.getCreditorInstitutions();
-	  if (creditorInstitutionMap == null) {
+	  Map<String, CreditorInstitutionRoutes> routes = configCacheData.getRoutes();
+	  if (routes == null) {
 		  throw new PaymentOptionsException(AppErrorCodeEnum.ODP_SYSTEM_ERROR,
 				  "Configuration data currently not available");
 	  }
 
-	  CreditorInstitution creditorInstitution = creditorInstitutionMap.get(fiscalCode);
-	  if (creditorInstitution == null) {
-		  throw new PaymentOptionsException(AppErrorCodeEnum.ODP_DOMINIO_SCONOSCIUTO,
+	  CreditorInstitutionRoutes creditorInstitutionRoutes = routes.get(fiscalCode);
+	  if (creditorInstitutionRoutes == null) {
+		  throw PaymentOptionsException.rejection(AppErrorCodeEnum.ODP_DOMINIO_SCONOSCIUTO,
 				  "Creditor institution with id " + fiscalCode + " not found");
-	  } else if (!Boolean.TRUE.equals(creditorInstitution.getEnabled())) {
-		  throw new PaymentOptionsException(AppErrorCodeEnum.ODP_DOMINIO_DISABILITATO,
-				  "Creditor institution with id " + fiscalCode + " disabled");
 	  }
-
-	  if (creditorInstitution.getCreditorInstitutionCode() == null) {
-		  throw new PaymentOptionsException(AppErrorCodeEnum.ODP_SYSTEM_ERROR,
-				  "Creditor institution code missing");
+	  if (creditorInstitutionRoutes.getRejection() != null) {
+		  throw creditorInstitutionRoutes.isConfigurationError()
+				  ? new PaymentOptionsException(creditorInstitutionRoutes.getRejection(),
+						  creditorInstitutionRoutes.getRejectionMessage())
+				  : PaymentOptionsException.rejection(creditorInstitutionRoutes.getRejection(),
+						  creditorInstitutionRoutes.getRejectionMessage());
 	  }
 
-	  return creditorInstitution;
+	  return creditorInstitutionRoutes;
   }
   
-  private static PaymentServiceProvider getAndValidatePsp(String idPsp, ConfigDataV1 configCacheData) {
+  private static void validatePsp(String idPsp, ConfigSnapshot configCacheData) {
 	  // Validate PSP data using the config cache.
-	  Map<String, PaymentServiceProvider> psps = configCacheData.getPsps();
+	  Map<String, Boolean> psps = configCacheData.getPsps();
 	  if (psps == null) {
 		  throw new PaymentOptionsException(AppErrorCodeEnum.ODP_SYSTEM_ERROR,
 				  "Configuration data currently not available");
 	  }
 
-	  PaymentServiceProvider psp = psps.get(idPsp);
-	  if (psp == null) {
-		  throw new PaymentOptionsException(AppErrorCodeEnum.ODP_PSP_SCONOSCIUTO,
+	  Boolean pspEnabled = psps.get(idPsp);
+	  if (pspEnabled == null) {
+		  throw PaymentOptionsException.rejection(AppErrorCodeEnum.ODP_PSP_SCONOSCIUTO,
 				  "PSP with id " + idPsp + " not found");
 	  }
 
-	  if (!psp.isEnabled()) {
-		  throw new PaymentOptionsException(AppErrorCodeEnum.ODP_PSP_DISABILITATO,
+	  if (!pspEnabled) {
+		  throw PaymentOptionsException.rejection(AppErrorCodeEnum.ODP_PSP_DISABILITATO,
 				  "PSP with id " + idPsp + " disabled");
 	  }
-
-	  return psp;
   }
 
-  private static BrokerPsp getAndValidateBrokerPsp(String idBrokerPsp, ConfigDataV1 configCacheData) {
+  private static void validateBrokerPsp(String idBrokerPsp, ConfigSnapshot configCacheData) {
 	  // Validate broker PSP.
-	  Map<String, BrokerPsp> brokers = configCacheData.getPspBrokers();
+	  Map<String, Boolean> brokers = configCacheData.getPspBrokers();
 	  if (brokers == null) {
 		  throw new PaymentOptionsException(AppErrorCodeEnum.ODP_SYSTEM_ERROR,
 				  "Configuration data currently not available");
 	  }
 
-	  BrokerPsp broker = brokers.get(idBrokerPsp);
-	  if (broker == null) {
-		  throw new PaymentOptionsException(AppErrorCodeEnum.ODP_INTERMEDIARIO_PSP_SCONOSCIUTO,
+	  Boolean brokerEnabled = brokers.get(idBrokerPsp);
+	  if (brokerEnabled == null) {
+		  throw PaymentOptionsException.rejection(AppErrorCodeEnum.ODP_INTERMEDIARIO_PSP_SCONOSCIUTO,
 				  "PSP Broker with id " + idBrokerPsp + " not found");
 	  }
 
-	  if (!broker.isEnabled()) {
-		  throw new PaymentOptionsException(AppErrorCodeEnum.ODP_INTERMEDIARIO_PSP_DISABILITATO,
+	  if (!brokerEnabled) {
+		  throw PaymentOptionsException.rejection(AppErrorCodeEnum.ODP_INTERMEDIARIO_PSP_DISABILITATO,
 				  "PSP Broker with id " + idBrokerPsp + " disabled");
 	  }
+  }
 
-	  return broker;
+  /**
+   * State of a verify request, filled in while it is resolved so that the events sent on failure
+   * carry whatever was found up to that point
+   */
+  static final class VerifyRequest {
+
+    private final String idPsp;
+    private final String idBrokerPsp;
+    private final String fiscalCode;
+    private final String noticeNumber;
+    private final String sessionId;
+    // Vert.x context serving the request, if any, captured before any non-blocking call
+    private final Context context = Vertx.currentContext();
+    private final long receivedAt;
+    private final VerifyMetrics.Sample sample;
+
+    private long segregationCode;
+    private String creditorInstitutionCode;
+    private String stationCode;
+    private StationSnapshot station;
+    private StationRoute route;
+    // epoch millis of the phases reached, 0 if not reached
+    private long ecRequestAt;
+    private long ecResponseAt;
+
+    VerifyRequest(
+        String idPsp, String idBrokerPsp, String fiscalCode, String noticeNumber, String sessionId,
+        long receivedAt, VerifyMetrics.Sample sample) {
+      this.idPsp = idPsp;
+      this.idBrokerPsp = idBrokerPsp;
+      this.fiscalCode = fiscalCode;
+      this.noticeNumber = noticeNumber;
+      this.sessionId = sessionId;
+      this.receivedAt = receivedAt;
+      this.sample = sample;
+    }
   }
 
 }
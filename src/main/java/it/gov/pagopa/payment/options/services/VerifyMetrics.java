@@ -0,0 +1,240 @@
+package it.gov.pagopa.payment.options.services;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.Meter;
+import it.gov.pagopa.payment.options.models.enums.AppErrorCodeEnum;
+import it.gov.pagopa.payment.options.models.enums.CreditorInstitutionErrorEnum;
+import it.gov.pagopa.payment.options.models.snapshot.EcTarget;
+import it.gov.pagopa.payment.options.models.snapshot.StationRoute;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Duration of the phases of a verify request, exported as the {@code odp.verify.phase.duration}
+ * histogram tagged by phase, outcome, route type and error code.
+ *
+ * <p>The phases of a request are timed in a {@link Sample} and recorded together once the
+ * outcome is known. Tags only take values from fixed sets (error codes outside of the known ones
+ * are reported as {@code other}) and their combinations are built once, so that recording does
+ * not allocate. When disabled, requests share a sample that does not read the clock.
+ */
+@ApplicationScoped
+public class VerifyMetrics {
+
+  /** Phases of a verify request */
+  public enum Phase {
+    /** Input and notice number checks */
+    VALIDATION,
+    /** Config data lookup and PSP, broker, creditor institution and station checks */
+    CONFIG_LOOKUP,
+    /** Creditor institution call, through GPD-Core or the APIM forwarder */
+    EC_CALL,
+    /** RE and KO events handed over to the publisher */
+    EVENTS,
+    /** Serialization of the creditor institution response */
+    SERIALIZATION
+  }
+
+  /** Outcome of a verify request */
+  public enum Outcome {
+    OK,
+    /** Refused as expected, e.g. an unknown PSP or a disabled station */
+    REJECTED,
+    /** Managed error, e.g. an error response of the creditor institution */
+    KO,
+    /** Unexpected error */
+    ERROR
+  }
+
+  /** How the creditor institution is reached */
+  public enum Route {
+    GPD,
+    FORWARDER,
+    /** Not resolved before the request ended */
+    NONE
+  }
+
+  static final String NO_ERROR = "none";
+  static final String OTHER_ERROR = "other";
+
+  private static final AttributeKey<String> PHASE = AttributeKey.stringKey("phase");
+  private static final AttributeKey<String> OUTCOME = AttributeKey.stringKey("outcome");
+  private static final AttributeKey<String> ROUTE = AttributeKey.stringKey("route");
+  private static final AttributeKey<String> ERROR_CODE = AttributeKey.stringKey("error.code");
+
+  private static final Phase[] PHASES = Phase.values();
+  private static final double NANOS_PER_MILLI = 1_000_000d;
+
+  private static final Sample DISABLED = new Sample(null) {
+    @Override
+    public void start(Phase phase) {
+    }
+
+    @Override
+    public void stop() {
+    }
+  };
+
+  private final boolean enabled;
+  private final LongSupplier nanoClock;
+  private final DoubleHistogram phaseDuration;
+
+  // error code tag values, the index of each one in the attributes table
+  private final Map<String, Integer> errorCodes = new HashMap<>();
+  private final String[] errorCodeValues;
+  // [phase][outcome][route][error code]
+  private final Attributes[][][][] attributes;
+
+  @Inject
+  VerifyMetrics(
+      @ConfigProperty(name = "VerifyMetrics.enabled", defaultValue = "true") boolean enabled,
+      Meter meter) {
+    this(enabled, meter, System::nanoTime);
+  }
+
+  VerifyMetrics(boolean enabled, Meter meter, LongSupplier nanoClock) {
+    this.enabled = enabled;
+    this.nanoClock = nanoClock;
+
+    Meter metrics = meter != null ? meter : OpenTelemetry.noop().getMeter("noop");
+    this.phaseDuration = metrics.histogramBuilder("odp.verify.phase.duration")
+        .setDescription("Time spent by the verify requests in each phase")
+        .setUnit("ms")
+        .setExplicitBucketBoundariesAdvice(List.of(
+            0.05, 0.1, 0.25, 0.5, 1d, 2.5, 5d, 10d, 25d, 50d, 100d, 250d, 500d, 1000d, 2500d,
+            5000d, 10000d))
+        .build();
+
+    addErrorCode(NO_ERROR);
+    addErrorCode(OTHER_ERROR);
+    for (AppErrorCodeEnum errorCode : AppErrorCodeEnum.values()) {
+      addErrorCode(errorCode.getErrorCode());
+    }
+    for (CreditorInstitutionErrorEnum errorCode : CreditorInstitutionErrorEnum.values()) {
+      addErrorCode(errorCode.getErrorCode());
+    }
+    this.errorCodeValues = new String[errorCodes.size()];
+    errorCodes.forEach((errorCode, index) -> errorCodeValues[index] = errorCode);
+    this.attributes = new Attributes[PHASES.length][Outcome.values().length]
+        [Route.values().length][errorCodeValues.length];
+  }
+
+  /**
+   * Starts the sample of a verify request
+   *
+   * @return a new sample, or a shared one recording nothing when the metrics are disabled
+   */
+  public Sample sample() {
+    return enabled ? new Sample(nanoClock) : DISABLED;
+  }
+
+  /**
+   * Records the phases reached by a verify request
+   *
+   * @param sample sample of the request, stopped
+   * @param outcome outcome of the request
+   * @param route route of the request, null if not resolved
+   * @param errorCode application error code returned, null if none
+   */
+  public void record(Sample sample, Outcome outcome, StationRoute route, String errorCode) {
+    if (sample == DISABLED) {
+      return;
+    }
+    sample.stop();
+    Route routeType = routeOf(route);
+    int errorCodeIndex = errorCodeIndex(errorCode);
+    for (Phase phase : PHASES) {
+      if ((sample.reached & (1 << phase.ordinal())) != 0) {
+        phaseDuration.record(sample.nanos[phase.ordinal()] / NANOS_PER_MILLI,
+            attributes(phase, outcome, routeType, errorCodeIndex));
+      }
+    }
+  }
+
+  private static Route routeOf(StationRoute route) {
+    EcTarget target = route != null ? route.getTarget() : null;
+    if (target == null) {
+      return Route.NONE;
+    }
+    return target.isGpd() ? Route.GPD : Route.FORWARDER;
+  }
+
+  private int errorCodeIndex(String errorCode) {
+    Integer index = errorCodes.get(errorCode != null ? errorCode : NO_ERROR);
+    return index != null ? index : errorCodes.get(OTHER_ERROR);
+  }
+
+  private void addErrorCode(String errorCode) {
+    errorCodes.putIfAbsent(errorCode, errorCodes.size());
+  }
+
+  // built on first use, racing threads build equal instances
+  private Attributes attributes(Phase phase, Outcome outcome, Route route, int errorCodeIndex) {
+    Attributes[] byErrorCode =
+        this.attributes[phase.ordinal()][outcome.ordinal()][route.ordinal()];
+    Attributes tags = byErrorCode[errorCodeIndex];
+    if (tags == null) {
+      tags = Attributes.of(
+          PHASE, phase.name().toLowerCase(Locale.ROOT),
+          OUTCOME, outcome.name().toLowerCase(Locale.ROOT),
+          ROUTE, route.name().toLowerCase(Locale.ROOT),
+          ERROR_CODE, errorCodeValues[errorCodeIndex]);
+      byErrorCode[errorCodeIndex] = tags;
+    }
+    return tags;
+  }
+
+  /**
+   * Phase durations of a verify request, timed one phase at a time. A phase can be timed more
+   * than once, e.g. the events sent before and after the creditor institution call
+   */
+  public static class Sample {
+
+    private final LongSupplier nanoClock;
+    private final long[] nanos = new long[PHASES.length];
+    private int reached;
+
+    private Phase current;
+    private long start;
+
+    private Sample(LongSupplier nanoClock) {
+      this.nanoClock = nanoClock;
+    }
+
+    /** Starts timing a phase, stopping the current one if any */
+    public void start(Phase phase) {
+      long now = nanoClock.getAsLong();
+      if (current != null) {
+        add(current, now - start);
+      }
+      current = phase;
+      start = now;
+    }
+
+    /** Stops timing the current phase, if any */
+    public void stop() {
+      if (current != null) {
+        add(current, nanoClock.getAsLong() - start);
+        current = null;
+      }
+    }
+
+    long nanos(Phase phase) {
+      return nanos[phase.ordinal()];
+    }
+
+    private void add(Phase phase, long elapsed) {
+      nanos[phase.ordinal()] += elapsed;
+      reached |= 1 << phase.ordinal();
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package it.gov.pagopa.payment.options.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Counts the bytes read from the wrapped stream, e.g. the size of a downloaded payload
+public class CountingInputStream extends FilterInputStream {
+
+  private long count;
+
+  public CountingInputStream(InputStream in) {
+    super(in);
+  }
+
+  @Override
+  public int read() throws IOException {
+    int read = in.read();
+    if (read != -1) {
+      count++;
+    }
+    return read;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    int read = in.read(b, off, len);
+    if (read > 0) {
+      count += read;
+    }
+    return read;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    long skipped = in.skip(n);
+    count += skipped;
+    return skipped;
+  }
+
+  // mark/reset would count the replayed bytes twice
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (in != null) {
+      in.close();
+    }
+  }
+
+  // Bytes read so far
+  public long getCount() {
+    return count;
+  }
+}
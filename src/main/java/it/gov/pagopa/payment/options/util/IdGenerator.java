@@ -0,0 +1,51 @@
+package it.gov.pagopa.payment.options.util;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates the identifiers of events, operations and sessions, in the canonical UUID format.
+ *
+ * <p>{@link #timeOrdered()} generates version 7 UUIDs (RFC 9562): a millisecond timestamp followed
+ * by 74 random bits drawn from the {@link ThreadLocalRandom} of the caller, so that no state is
+ * shared between threads and the identifiers sort by creation time. {@link #random()} generates
+ * version 4 UUIDs from the shared SecureRandom of {@link UUID#randomUUID()}.
+ */
+@FunctionalInterface
+public interface IdGenerator {
+
+  /** Available generators, selected by the IdGenerator.type property */
+  enum Type {
+    TIME_ORDERED,
+    RANDOM
+  }
+
+  String nextId();
+
+  static IdGenerator of(Type type) {
+    return type == Type.RANDOM ? random() : timeOrdered();
+  }
+
+  static IdGenerator timeOrdered() {
+    return () -> timeOrderedUuid(System.currentTimeMillis()).toString();
+  }
+
+  static IdGenerator random() {
+    return () -> UUID.randomUUID().toString();
+  }
+
+  /**
+   * Builds a version 7 UUID
+   *
+   * @param epochMillis creation time, as milliseconds from the epoch
+   * @return the UUID, with random bits from the ThreadLocalRandom of the caller
+   */
+  static UUID timeOrderedUuid(long epochMillis) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    // 48 bits timestamp, 4 bits version, 12 random bits
+    long msb = (epochMillis << 16) | 0x7000L | (random.nextLong() & 0x0FFFL);
+    // 2 bits variant, 62 random bits
+    long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+    return new UUID(msb, lsb);
+  }
+}
@@ -0,0 +1,20 @@
+package it.gov.pagopa.payment.options.util;
+
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Provides the {@link IdGenerator} used across the application, selected by configuration
+ */
+@Singleton
+public class IdGeneratorProducer {
+
+  @Produces
+  @Singleton
+  IdGenerator idGenerator(
+      @ConfigProperty(name = "IdGenerator.type", defaultValue = "time-ordered")
+          IdGenerator.Type type) {
+    return IdGenerator.of(type);
+  }
+}
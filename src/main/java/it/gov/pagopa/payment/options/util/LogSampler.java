@@ -0,0 +1,89 @@
+package it.gov.pagopa.payment.options.util;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+
+/**
+ * Rate limits repeated log messages, such as the rejections of a misconfigured PSP retrying the
+ * same request.
+ *
+ * <p>Messages are grouped by key, e.g. their error code: the first permits of each window are
+ * logged, the following ones only counted, and the count is logged when the next window starts.
+ */
+@Singleton
+public class LogSampler {
+
+  private final Map<Object, Window> windows = new ConcurrentHashMap<>();
+
+  private final int permits;
+  private final long windowNanos;
+  private final Duration window;
+  private final LongSupplier nanoClock;
+
+  @Inject
+  LogSampler(
+      @ConfigProperty(name = "LogSampler.permits", defaultValue = "10") int permits,
+      @ConfigProperty(name = "LogSampler.window", defaultValue = "PT10S") Duration window) {
+    this(permits, window, System::nanoTime);
+  }
+
+  public LogSampler(int permits, Duration window, LongSupplier nanoClock) {
+    if (permits < 0 || window.isNegative() || window.isZero()) {
+      throw new IllegalArgumentException("Log sampler permits and window must be positive");
+    }
+    this.permits = permits;
+    this.window = window;
+    this.windowNanos = window.toNanos();
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * Tells whether a message of the provided key is to be logged, logging how many were not when a
+   * new window starts
+   *
+   * @param logger logger of the caller, also used for the count of suppressed messages
+   * @param key group of the message
+   * @return true if the caller should log the message
+   */
+  public boolean sample(Logger logger, Object key) {
+    long now = nanoClock.getAsLong();
+    Window current = windows.get(key);
+    if (current == null) {
+      current = windows.computeIfAbsent(key, k -> new Window(now));
+    }
+    long start = current.start.get();
+    if (now - start >= windowNanos && current.start.compareAndSet(start, now)) {
+      current.logged.set(0);
+      long suppressed = current.suppressed.sumThenReset();
+      if (suppressed > 0) {
+        logger.warn("[Payment Options] {} messages for {} not logged in the last {}",
+            suppressed, key, window);
+      }
+    }
+    if (current.logged.incrementAndGet() <= permits) {
+      return true;
+    }
+    current.suppressed.increment();
+    return false;
+  }
+
+  private static final class Window {
+
+    private final AtomicLong start;
+    private final AtomicInteger logged = new AtomicInteger();
+    private final LongAdder suppressed = new LongAdder();
+
+    private Window(long start) {
+      this.start = new AtomicLong(start);
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package it.gov.pagopa.payment.options.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+
+public class MemoryUtil {
+
+  private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+  // Bytes allocated so far by the calling thread, or -1 when the JVM does not track it
+  public static long currentThreadAllocatedBytes() {
+    if (THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean threadMXBean
+        && threadMXBean.isThreadAllocatedMemorySupported()
+        && threadMXBean.isThreadAllocatedMemoryEnabled()) {
+      return threadMXBean.getCurrentThreadAllocatedBytes();
+    }
+    return -1;
+  }
+
+  // Sum of the heap pools peak usage since the JVM start. The peaks are never reset here, as they
+  // are shared with every other reader: diff two readings to get how much an operation raised them.
+  public static long heapPeakBytes() {
+    long peak = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+        peak += pool.getPeakUsage().getUsed();
+      }
+    }
+    return peak;
+  }
+
+  private MemoryUtil() {}
+}
@@ -0,0 +1,136 @@
+package it.gov.pagopa.payment.options.util;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Coarse clock shared by the request path, serving the current time and its event formatting
+ * without reading the system clock or allocating on each call.
+ *
+ * <p>The time is sampled by a background thread every tick, so values lag behind the system clock
+ * by at most one tick. The 10 ms default keeps the sampling thread to 100 wake-ups per second,
+ * while the millisecond event fields stay within 10 ms of the system clock. The minute timestamp of the events ({@code yyyy-MM-dd'T'HH:mm'Z'}, in the
+ * system zone) is formatted once per minute. Instances built with
+ * {@link #TimeSource(LongSupplier, ZoneId)} do not tick and read the provided clock on each call
+ * instead, for deterministic tests.
+ */
+@Singleton
+public class TimeSource {
+
+  private static final long MILLIS_PER_MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+  private final DateTimeFormatter minuteFormatter;
+  private final LongSupplier clock;
+  private final ScheduledExecutorService executor;
+
+  private volatile Tick tick;
+
+  @Inject
+  TimeSource(@ConfigProperty(name = "TimeSource.tick", defaultValue = "PT0.01S") Duration tick) {
+    this(System::currentTimeMillis, ZoneId.systemDefault(),
+        Executors.newSingleThreadScheduledExecutor(runnable -> {
+          Thread thread = new Thread(runnable, "time-source");
+          thread.setDaemon(true);
+          return thread;
+        }),
+        tick);
+  }
+
+  /**
+   * Builds a time source reading the provided clock on each call
+   *
+   * @param clock current time, as milliseconds from the epoch
+   * @param zone zone of the formatted timestamps
+   */
+  public TimeSource(LongSupplier clock, ZoneId zone) {
+    this(clock, zone, null, null);
+  }
+
+  TimeSource(LongSupplier clock, ZoneId zone, ScheduledExecutorService executor, Duration tick) {
+    this.minuteFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm'Z'").withZone(zone);
+    this.clock = clock;
+    this.executor = executor;
+    this.tick = next(null, clock.getAsLong());
+    if (executor != null) {
+      if (tick.isNegative() || tick.isZero()) {
+        throw new IllegalArgumentException("Time source tick must be positive");
+      }
+      long period = tick.toNanos();
+      executor.scheduleAtFixedRate(this::advance, period, period, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /** Current time, as milliseconds from the epoch */
+  public long currentTimeMillis() {
+    return current().millis;
+  }
+
+  /** Current time, as seconds from the epoch */
+  public long epochSecond() {
+    return Math.floorDiv(current().millis, 1000L);
+  }
+
+  /** Current minute formatted as in the events, e.g. 2024-10-30T10:15Z */
+  public String minuteTimestamp() {
+    return current().minute;
+  }
+
+  /**
+   * Formats an ISO-8601 instant, e.g. 2024-10-30T10:15:30.123Z
+   *
+   * @param epochMillis time to format, as milliseconds from the epoch
+   * @return the formatted instant
+   */
+  public static String isoInstant(long epochMillis) {
+    return Instant.ofEpochMilli(epochMillis).toString();
+  }
+
+  @PreDestroy
+  void close() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  void advance() {
+    tick = next(tick, clock.getAsLong());
+  }
+
+  private Tick current() {
+    if (executor == null) {
+      advance();
+    }
+    return tick;
+  }
+
+  private Tick next(Tick last, long millis) {
+    long minuteStart = millis - Math.floorMod(millis, MILLIS_PER_MINUTE);
+    String minute = last != null && last.minuteStart == minuteStart
+        ? last.minute
+        : minuteFormatter.format(Instant.ofEpochMilli(minuteStart));
+    return new Tick(millis, minuteStart, minute);
+  }
+
+  private static final class Tick {
+
+    private final long millis;
+    private final long minuteStart;
+    private final String minute;
+
+    private Tick(long millis, long minuteStart, String minute) {
+      this.millis = millis;
+      this.minuteStart = minuteStart;
+      this.minute = minute;
+    }
+  }
+}
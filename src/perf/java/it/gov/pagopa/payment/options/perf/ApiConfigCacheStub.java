@@ -0,0 +1,258 @@
+package it.gov.pagopa.payment.options.perf;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Local stand-in of api-config-cache serving synthetic payloads on {@code GET /cache?keys=},
+ * answering after a fixed latency and streaming the body at a bounded bandwidth, so that config
+ * cache refreshes can be profiled offline.
+ *
+ * <p>Each combination of keys is generated once into a temporary file, deleted on close: the
+ * payload is not kept on the heap, which would skew the heap measured when the stub runs in the
+ * same JVM as the service.
+ *
+ * <p>It can also be run on its own, the service pointing at it with
+ * {@code APICONFIG_CACHE_URL=http://localhost:8082}:
+ * {@code mvn -Pperf test-compile exec:exec@api-config-cache-stub -Dstub.args="..."}, where the
+ * arguments are {@code name=value} pairs: {@code port}, {@code latencyMs}, {@code bandwidthMbps}
+ * and the {@link ConfigCachePayloadGenerator.Spec} properties, lengths as {@code min:mode:max}.
+ */
+public final class ApiConfigCacheStub implements AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(ApiConfigCacheStub.class);
+
+  private static final int CHUNK_SIZE = 64 * 1024;
+
+  private final ConfigCachePayloadGenerator generator;
+  private final Duration latency;
+  private final long bytesPerSecond;
+
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final Map<List<String>, Path> payloads = new ConcurrentHashMap<>();
+  private final AtomicInteger requests = new AtomicInteger();
+
+  private ApiConfigCacheStub(ConfigCachePayloadGenerator generator, int port, Duration latency,
+      long bytesPerSecond) throws IOException {
+    this.generator = generator;
+    this.latency = latency;
+    this.bytesPerSecond = bytesPerSecond;
+    this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+    this.executor = Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "api-config-cache-stub");
+      thread.setDaemon(true);
+      return thread;
+    });
+    server.setExecutor(executor);
+    server.createContext("/cache", this::handle);
+  }
+
+  /**
+   * Starts a stub
+   *
+   * @param generator generator of the payloads served
+   * @param port port to listen on, 0 for any free one
+   * @param latency time before the response headers are sent
+   * @param bytesPerSecond bandwidth of the response body, 0 for unbounded
+   * @return the started stub
+   */
+  public static ApiConfigCacheStub start(ConfigCachePayloadGenerator generator, int port,
+      Duration latency, long bytesPerSecond) throws IOException {
+    ApiConfigCacheStub stub = new ApiConfigCacheStub(generator, port, latency, bytesPerSecond);
+    stub.server.start();
+    return stub;
+  }
+
+  /** Base URL of the stub, as configured for the api-config-cache client */
+  public URI uri() {
+    return URI.create("http://localhost:" + server.getAddress().getPort());
+  }
+
+  /** Number of cache requests served so far */
+  public int requests() {
+    return requests.get();
+  }
+
+  /**
+   * Generates, if not done yet, the payload served for the given keys
+   *
+   * @return size of the payload, in bytes
+   */
+  public long prepare(List<String> keys) throws IOException {
+    return Files.size(payload(keys));
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+    for (Path payload : payloads.values()) {
+      try {
+        Files.deleteIfExists(payload);
+      } catch (IOException e) {
+        logger.warn("[Payment Options] Cannot delete stub payload {}", payload, e);
+      }
+    }
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try {
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        exchange.sendResponseHeaders(405, -1);
+        return;
+      }
+      if (!"/cache".equals(exchange.getRequestURI().getPath())) {
+        exchange.sendResponseHeaders(404, -1);
+        return;
+      }
+      Path payload = payload(keys(exchange.getRequestURI().getRawQuery()));
+      requests.incrementAndGet();
+      sleep(latency.toNanos());
+
+      exchange.getResponseHeaders().set("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, Files.size(payload));
+      try (InputStream in = Files.newInputStream(payload);
+          OutputStream out = exchange.getResponseBody()) {
+        copy(in, out);
+      }
+    } catch (IOException e) {
+      // the client gave up on the response, e.g. a refresh timeout
+      logger.debug("[Payment Options] Stub response interrupted: {}", e.getMessage());
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private Path payload(List<String> keys) throws IOException {
+    try {
+      return payloads.computeIfAbsent(keys, requested -> {
+        try {
+          Path file = Files.createTempFile("api-config-cache-", ".json");
+          try (OutputStream out = Files.newOutputStream(file)) {
+            generator.write(out, requested);
+          }
+          logger.info("[Payment Options] Stub payload generated - keys={}, bytes={}",
+              requested, Files.size(file));
+          return file;
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  // keys in the request order, repeated or comma separated
+  private static List<String> keys(String rawQuery) {
+    List<String> keys = new ArrayList<>();
+    if (rawQuery == null) {
+      return keys;
+    }
+    for (String parameter : rawQuery.split("&")) {
+      int separator = parameter.indexOf('=');
+      if (separator > 0 && "keys".equals(parameter.substring(0, separator))) {
+        for (String key : URLDecoder.decode(parameter.substring(separator + 1),
+            StandardCharsets.UTF_8).split(",")) {
+          if (!key.isBlank()) {
+            keys.add(key.trim());
+          }
+        }
+      }
+    }
+    return keys;
+  }
+
+  // Streams the payload in chunks, each one sent no earlier than the bandwidth allows
+  private void copy(InputStream in, OutputStream out) throws IOException {
+    byte[] buffer = new byte[CHUNK_SIZE];
+    long start = System.nanoTime();
+    long sent = 0;
+    int read;
+    while ((read = in.read(buffer)) != -1) {
+      if (bytesPerSecond > 0) {
+        long due = start + sent * TimeUnit.SECONDS.toNanos(1) / bytesPerSecond;
+        sleep(due - System.nanoTime());
+      }
+      out.write(buffer, 0, read);
+      sent += read;
+    }
+  }
+
+  private static void sleep(long nanos) throws IOException {
+    if (nanos <= 0) {
+      return;
+    }
+    try {
+      TimeUnit.NANOSECONDS.sleep(nanos);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted", e);
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    int port = 8082;
+    long latencyMillis = 0;
+    long bandwidthMbps = 0;
+    ConfigCachePayloadGenerator.Spec.SpecBuilder spec = ConfigCachePayloadGenerator.Spec.builder();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (separator <= 0) {
+        throw new IllegalArgumentException("Expected name=value, got " + arg);
+      }
+      String name = arg.substring(0, separator);
+      String value = arg.substring(separator + 1);
+      switch (name) {
+        case "port" -> port = Integer.parseInt(value);
+        case "latencyMs" -> latencyMillis = Long.parseLong(value);
+        case "bandwidthMbps" -> bandwidthMbps = Long.parseLong(value);
+        case "version" -> spec.version(value);
+        case "seed" -> spec.seed(Long.parseLong(value));
+        case "creditorInstitutions" -> spec.creditorInstitutions(Integer.parseInt(value));
+        case "creditorInstitutionBrokers" -> spec.creditorInstitutionBrokers(Integer.parseInt(value));
+        case "stations" -> spec.stations(Integer.parseInt(value));
+        case "creditorInstitutionStations" ->
+            spec.creditorInstitutionStations(Integer.parseInt(value));
+        case "psps" -> spec.psps(Integer.parseInt(value));
+        case "pspBrokers" -> spec.pspBrokers(Integer.parseInt(value));
+        case "businessNameLength" ->
+            spec.businessNameLength(ConfigCachePayloadGenerator.Length.parse(value));
+        case "descriptionLength" ->
+            spec.descriptionLength(ConfigCachePayloadGenerator.Length.parse(value));
+        case "addressLength" -> spec.addressLength(ConfigCachePayloadGenerator.Length.parse(value));
+        case "pathLength" -> spec.pathLength(ConfigCachePayloadGenerator.Length.parse(value));
+        default -> throw new IllegalArgumentException("Unknown argument " + name);
+      }
+    }
+
+    ApiConfigCacheStub stub = start(new ConfigCachePayloadGenerator(spec.build()), port,
+        Duration.ofMillis(latencyMillis), bandwidthMbps * 1_000_000 / 8);
+    Runtime.getRuntime().addShutdownHook(new Thread(stub::close));
+    logger.info("[Payment Options] api-config-cache stub listening on {} - latencyMs={}, bandwidthMbps={}",
+        stub.uri(), latencyMillis, bandwidthMbps);
+    Thread.currentThread().join();
+  }
+}
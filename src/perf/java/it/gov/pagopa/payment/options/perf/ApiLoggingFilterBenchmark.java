@@ -0,0 +1,97 @@
+package it.gov.pagopa.payment.options.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.logging.json.runtime.JsonFormatter;
+import it.gov.pagopa.payment.options.filters.ApiLogContext;
+import it.gov.pagopa.payment.options.filters.ApiLoggingFilter;
+import it.gov.pagopa.payment.options.models.ErrorResponse;
+import it.gov.pagopa.payment.options.util.IdGenerator;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import org.jboss.logmanager.LogContext;
+import org.jboss.logmanager.Logger;
+import org.jboss.logmanager.handlers.OutputStreamHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the API logging filter for one verify operation: the request log, the response log and
+ * the MDC cleanup, with the log events written as ECS JSON to a discarding stream. Run with
+ * {@code -prof gc} to compare the bytes allocated per operation of the mdc and lazy modes, with
+ * the service logging at INFO (both log events written) and at WARN (none written).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {
+    "-Xmx1g", "-Djava.util.logging.manager=org.jboss.logmanager.LogManager"})
+@State(Scope.Benchmark)
+public class ApiLoggingFilterBenchmark {
+
+  // key names of the ECS log format of quarkus-logging-json
+  private static final String ECS_KEYS = "TIMESTAMP=@timestamp,LOGGER_NAME=log.logger,"
+      + "LEVEL=log.level,PROCESS_ID=process.pid,PROCESS_NAME=process.name,"
+      + "THREAD_NAME=process.thread.name,THREAD_ID=process.thread.id,HOST_NAME=host.hostname,"
+      + "SEQUENCE=event.sequence,EXCEPTION_MESSAGE=error.message,STACK_TRACE=error.stack_trace";
+
+  @Param({"MDC", "LAZY"})
+  ApiLoggingFilter.Mode mode;
+
+  @Param({"INFO", "WARN"})
+  String level;
+
+  @Param({"200", "404"})
+  int status;
+
+  private ApiLoggingFilter filter;
+
+  private final MultivaluedMap<String, String> queryParams = new MultivaluedHashMap<>();
+
+  private ErrorResponse errorResponse;
+
+  @Setup
+  public void setUp() {
+    Logger root = LogContext.getLogContext().getLogger("");
+    for (Handler handler : root.getHandlers()) {
+      root.removeHandler(handler);
+    }
+    root.addHandler(new OutputStreamHandler(OutputStream.nullOutputStream(),
+        new JsonFormatter(ECS_KEYS)));
+    root.setLevel(Level.INFO);
+    LogContext.getLogContext().getLogger(ApiLoggingFilter.class.getName())
+        .setLevel("WARN".equals(level) ? Level.WARNING : Level.INFO);
+
+    filter = new ApiLoggingFilter(new ObjectMapper(), IdGenerator.timeOrdered(), mode);
+    queryParams.add("idPsp", "ABCDITMMXXX");
+    queryParams.add("idBrokerPsp", "ABCDITMMXXX");
+    queryParams.add("idStation", "77777777777_01");
+    errorResponse = ErrorResponse.builder()
+        .httpStatusCode(404)
+        .httpStatusDescription("Not Found")
+        .appErrorCode("ODP-107")
+        .errorMessage("PSP with id ABCDITMMXXX not found")
+        .timestamp(1724425035L)
+        .dateTime("2024-08-23T14:57:15.635528")
+        .build();
+  }
+
+  @Benchmark
+  public void operation() {
+    ApiLogContext logContext = filter.logRequest("getPaymentOptions", queryParams);
+    filter.logResponse(logContext, status, status == 200 ? null : errorResponse);
+  }
+}
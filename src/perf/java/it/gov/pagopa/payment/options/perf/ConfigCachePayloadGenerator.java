@@ -0,0 +1,404 @@
+package it.gov.pagopa.payment.options.perf;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.gov.pagopa.payment.options.models.clients.cache.BrokerCreditorInstitution;
+import it.gov.pagopa.payment.options.models.clients.cache.BrokerPsp;
+import it.gov.pagopa.payment.options.models.clients.cache.Connection;
+import it.gov.pagopa.payment.options.models.clients.cache.Connection.ProtocolEnum;
+import it.gov.pagopa.payment.options.models.clients.cache.CreditorInstitution;
+import it.gov.pagopa.payment.options.models.clients.cache.CreditorInstitutionAddress;
+import it.gov.pagopa.payment.options.models.clients.cache.PaymentServiceProvider;
+import it.gov.pagopa.payment.options.models.clients.cache.Proxy;
+import it.gov.pagopa.payment.options.models.clients.cache.Redirect;
+import it.gov.pagopa.payment.options.models.clients.cache.Service;
+import it.gov.pagopa.payment.options.models.clients.cache.Station;
+import it.gov.pagopa.payment.options.models.clients.cache.StationCreditorInstitution;
+import it.gov.pagopa.payment.options.models.clients.cache.Timeouts;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.SplittableRandom;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Synthetic api-config-cache payloads ({@code ConfigDataV1} JSON) of configurable size, to
+ * profile config cache refreshes against a national-scale cache without reaching api-config.
+ *
+ * <p>Every entity is written through the api-config-cache client models with all of their
+ * fields set, so the payload has the shape and the size of the real one. Entities are streamed
+ * one at a time: payloads of millions of entries never sit in memory. The output only depends on
+ * the {@link Spec}, seed included.
+ *
+ * <p>Creditor institutions are spread over the {@code creditorInstitutionStations}, each one
+ * getting consecutive segregation codes (up to 100) on random stations; stations are spread over
+ * the creditor institution brokers (up to 100 each), all of them enabled for the payment options.
+ * One creditor institution in 50 and one PSP in 20 are disabled, see {@link
+ * #isEnabledCreditorInstitution(int)} and {@link #isEnabledPsp(int)}. Stations reach their own
+ * host, unless a {@link Spec#getForwarder() forwarder} is given; a share of them can be served by
+ * GPD-Core.
+ */
+public final class ConfigCachePayloadGenerator {
+
+  /** Top level keys of the payload, as requested to {@code /cache?keys=} */
+  public static final List<String> KEYS = List.of("creditorInstitutions", "stations",
+      "creditorInstitutionBrokers", "creditorInstitutionStations", "psps", "pspBrokers");
+
+  private static final String LETTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz   àèéìòù";
+
+  private final Spec spec;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  public ConfigCachePayloadGenerator(Spec spec) {
+    if ((long) spec.getCreditorInstitutionStations() > 100L * spec.getCreditorInstitutions()) {
+      throw new IllegalArgumentException(
+          "At most 100 creditorInstitutionStations per creditor institution");
+    }
+    if ((long) spec.getStations() > 100L * spec.getCreditorInstitutionBrokers()) {
+      throw new IllegalArgumentException("At most 100 stations per creditor institution broker");
+    }
+    this.spec = spec;
+  }
+
+  public Spec getSpec() {
+    return spec;
+  }
+
+  /**
+   * Writes the payload, the output stream being left open
+   *
+   * @param out destination of the payload
+   * @param keys top level keys to be written, any of {@link #KEYS}; all of them if empty
+   */
+  public void write(OutputStream out, Collection<String> keys) throws IOException {
+    try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      generator.writeStartObject();
+      generator.writeStringField("version", spec.getVersion());
+      for (String key : KEYS) {
+        if (keys == null || keys.isEmpty() || keys.contains(key)) {
+          generator.writeObjectFieldStart(key);
+          writeEntries(generator, key);
+          generator.writeEndObject();
+        }
+      }
+      generator.writeEndObject();
+    }
+  }
+
+  private void writeEntries(JsonGenerator generator, String key) throws IOException {
+    // one stream per key, so that each section is the same whatever the keys requested
+    SplittableRandom random = new SplittableRandom(spec.getSeed() + key.hashCode());
+    switch (key) {
+      case "creditorInstitutions" -> {
+        for (int i = 0; i < spec.getCreditorInstitutions(); i++) {
+          String code = creditorInstitutionCode(i);
+          generator.writeFieldName(code);
+          generator.writeObject(creditorInstitution(i, code, random));
+        }
+      }
+      case "stations" -> {
+        for (int i = 0; i < spec.getStations(); i++) {
+          Station station = station(i, random);
+          generator.writeFieldName(station.getStationCode());
+          generator.writeObject(station);
+        }
+      }
+      case "creditorInstitutionBrokers" -> {
+        for (int i = 0; i < spec.getCreditorInstitutionBrokers(); i++) {
+          String code = brokerCode(i);
+          generator.writeFieldName(code);
+          generator.writeObject(BrokerCreditorInstitution.builder()
+              .brokerCode(code)
+              .enabled(true)
+              .description(text(random, spec.getDescriptionLength()))
+              .extendedFaultBean(random.nextBoolean())
+              .build());
+        }
+      }
+      case "creditorInstitutionStations" -> {
+        for (int i = 0; i < spec.getCreditorInstitutionStations(); i++) {
+          StationCreditorInstitution entry = creditorInstitutionStation(i, random);
+          generator.writeFieldName(entry.getCreditorInstitutionCode() + "_"
+              + entry.getStationCode() + "_" + entry.getSegregationCode());
+          generator.writeObject(entry);
+        }
+      }
+      case "psps" -> {
+        for (int i = 0; i < spec.getPsps(); i++) {
+          String code = pspCode(i);
+          generator.writeFieldName(code);
+          generator.writeObject(psp(i, code, random));
+        }
+      }
+      case "pspBrokers" -> {
+        for (int i = 0; i < spec.getPspBrokers(); i++) {
+          String code = pspCode(i);
+          generator.writeFieldName(code);
+          generator.writeObject(BrokerPsp.builder()
+              .brokerPspCode(code)
+              .description(text(random, spec.getDescriptionLength()))
+              .enabled(true)
+              .extendedFaultBean(random.nextBoolean())
+              .build());
+        }
+      }
+      default -> throw new IllegalArgumentException("Unknown key " + key);
+    }
+  }
+
+  /** Fiscal code of the i-th creditor institution */
+  public static String creditorInstitutionCode(int i) {
+    return String.format("%011d", 80_000_000_000L + i);
+  }
+
+  /** Code of the i-th station */
+  public String stationCode(int i) {
+    int brokers = spec.getCreditorInstitutionBrokers();
+    return brokerCode(i % brokers) + String.format("_%02d", i / brokers);
+  }
+
+  /** Code of the i-th PSP, also used for its broker */
+  public static String pspCode(int i) {
+    return String.format("PSP%08d", i);
+  }
+
+  public static boolean isEnabledCreditorInstitution(int i) {
+    return i % 50 != 49;
+  }
+
+  public static boolean isEnabledPsp(int i) {
+    return i % 20 != 19;
+  }
+
+  /** Whether the i-th station is served by GPD-Core */
+  public boolean isGpdStation(int i) {
+    return spec.getGpdEndpoint() != null && i % 100 < spec.getGpdStationsPercent();
+  }
+
+  private static String brokerCode(int i) {
+    return String.format("%011d", 10_000_000_000L + i);
+  }
+
+  private CreditorInstitution creditorInstitution(int i, String code, SplittableRandom random) {
+    return CreditorInstitution.builder()
+        .creditorInstitutionCode(code)
+        .enabled(isEnabledCreditorInstitution(i))
+        .businessName(text(random, spec.getBusinessNameLength()))
+        .description(text(random, spec.getDescriptionLength()))
+        .address(CreditorInstitutionAddress.builder()
+            .location(text(random, spec.getAddressLength()))
+            .city(text(random, Length.of(3, 10, 30)))
+            .zipCode(String.format("%05d", random.nextInt(100_000)))
+            .countryCode("IT")
+            .taxDomicile(text(random, spec.getAddressLength()))
+            .build())
+        .pspPayment(random.nextBoolean())
+        .reportingFtp(random.nextBoolean())
+        .reportingZip(random.nextBoolean())
+        .build();
+  }
+
+  private Station station(int i, SplittableRandom random) {
+    String host = "ec" + i + ".example.it";
+    Connection connection = spec.getForwarder() != null ? spec.getForwarder() : connection(host);
+    return Station.builder()
+        .stationCode(stationCode(i))
+        .enabled(true)
+        .version(2L)
+        .connection(connection)
+        .connectionMod4(connection)
+        .password(text(random, Length.of(8, 12, 32)))
+        .redirect(Redirect.builder()
+            .protocol(Redirect.ProtocolEnum.HTTPS)
+            .ip(host)
+            .path(path(random))
+            .port(443L)
+            .queryString(text(random, Length.of(0, 10, 40)))
+            .build())
+        .service(service(host, random))
+        .servicePof(service(host, random))
+        .serviceMod4(service(host, random))
+        .brokerCode(brokerCode(i % spec.getCreditorInstitutionBrokers()))
+        .proxy(Proxy.builder()
+            .proxyHost("10.79.20.33")
+            .proxyPort(80L)
+            .build())
+        .threadNumber(1L)
+        .timeouts(Timeouts.builder().timeoutA(15L).timeoutB(30L).timeoutC(120L).build())
+        .invioRtIstantaneo(random.nextBoolean())
+        .primitiveVersion(random.nextInt(100) < 20 ? 1 : 2)
+        .flagStandin(random.nextInt(100) < 10)
+        .verifyPaymentOptionEnabled(true)
+        .restEndpoint(isGpdStation(i) ? spec.getGpdEndpoint() : "https://" + host + path(random))
+        .build();
+  }
+
+  private StationCreditorInstitution creditorInstitutionStation(int i, SplittableRandom random) {
+    int creditorInstitutions = spec.getCreditorInstitutions();
+    return StationCreditorInstitution.builder()
+        .creditorInstitutionCode(creditorInstitutionCode(i % creditorInstitutions))
+        .stationCode(stationCode(random.nextInt(spec.getStations())))
+        .auxDigit(3L)
+        .segregationCode((long) (i / creditorInstitutions))
+        .mod4(random.nextBoolean())
+        .broadcast(random.nextInt(100) < 5)
+        .primitiveVersion(random.nextInt(100) < 20 ? 1 : 2)
+        .spontaneousPayment(random.nextInt(100) < 5)
+        .build();
+  }
+
+  private PaymentServiceProvider psp(int i, String code, SplittableRandom random) {
+    return PaymentServiceProvider.builder()
+        .pspCode(code)
+        .enabled(isEnabledPsp(i))
+        .description(text(random, spec.getDescriptionLength()))
+        .businessName(text(random, spec.getBusinessNameLength()))
+        .abi(String.format("%05d", random.nextInt(100_000)))
+        .bic(text(random, Length.of(8, 8, 11)))
+        .myBankCode(text(random, Length.of(0, 8, 20)))
+        .digitalStamp(random.nextBoolean())
+        .agidPsp(random.nextInt(100) < 2)
+        .taxCode(String.format("%011d", random.nextLong(100_000_000_000L)))
+        .vatNumber(String.format("%011d", random.nextLong(100_000_000_000L)))
+        .build();
+  }
+
+  private static Connection connection(String host) {
+    return Connection.builder().protocol(ProtocolEnum.HTTPS).ip(host).port(443L).build();
+  }
+
+  private Service service(String host, SplittableRandom random) {
+    return Service.builder()
+        .path(path(random))
+        .targetHost(host)
+        .targetPort(443L)
+        .targetPath(path(random))
+        .build();
+  }
+
+  private String path(SplittableRandom random) {
+    return "/" + text(random, spec.getPathLength()).replace(' ', '/');
+  }
+
+  private static String text(SplittableRandom random, Length length) {
+    int size = length.sample(random);
+    StringBuilder text = new StringBuilder(size);
+    for (int i = 0; i < size; i++) {
+      text.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+    }
+    return text.toString();
+  }
+
+  /**
+   * Size of the generated cache, the defaults being close to the national one, and length
+   * distribution of its free text fields
+   */
+  @Getter
+  @Builder(toBuilder = true)
+  public static class Spec {
+
+    @Builder.Default
+    private final String version = "1";
+
+    @Builder.Default
+    private final long seed = 42;
+
+    @Builder.Default
+    private final int creditorInstitutions = 25_000;
+
+    @Builder.Default
+    private final int creditorInstitutionBrokers = 2_500;
+
+    @Builder.Default
+    private final int stations = 6_000;
+
+    @Builder.Default
+    private final int creditorInstitutionStations = 120_000;
+
+    @Builder.Default
+    private final int psps = 700;
+
+    @Builder.Default
+    private final int pspBrokers = 500;
+
+    // connection of every station, the APIM forwarder, instead of their own host
+    private final Connection forwarder;
+
+    // GPD-Core endpoint, used as the verify endpoint of gpdStationsPercent stations
+    private final String gpdEndpoint;
+
+    private final int gpdStationsPercent;
+
+    @Builder.Default
+    private final Length businessNameLength = Length.of(10, 35, 140);
+
+    @Builder.Default
+    private final Length descriptionLength = Length.of(10, 50, 255);
+
+    @Builder.Default
+    private final Length addressLength = Length.of(10, 30, 100);
+
+    @Builder.Default
+    private final Length pathLength = Length.of(5, 20, 100);
+  }
+
+  /** Triangular distribution of string lengths, between min and max and peaking at mode */
+  @Getter
+  public static final class Length {
+
+    private final int min;
+    private final int mode;
+    private final int max;
+
+    private Length(int min, int mode, int max) {
+      if (min < 0 || mode < min || max < mode) {
+        throw new IllegalArgumentException(
+            "Expected 0 <= min <= mode <= max, got " + min + ", " + mode + ", " + max);
+      }
+      this.min = min;
+      this.mode = mode;
+      this.max = max;
+    }
+
+    public static Length of(int min, int mode, int max) {
+      return new Length(min, mode, max);
+    }
+
+    /** Parses {@code min:mode:max}, or a single fixed length */
+    public static Length parse(String value) {
+      String[] bounds = value.split(":");
+      if (bounds.length == 1) {
+        int length = Integer.parseInt(bounds[0].trim());
+        return of(length, length, length);
+      }
+      if (bounds.length != 3) {
+        throw new IllegalArgumentException("Expected min:mode:max, got " + value);
+      }
+      return of(Integer.parseInt(bounds[0].trim()), Integer.parseInt(bounds[1].trim()),
+          Integer.parseInt(bounds[2].trim()));
+    }
+
+    int sample(SplittableRandom random) {
+      if (min == max) {
+        return min;
+      }
+      double u = random.nextDouble();
+      double range = max - min;
+      double split = (mode - min) / range;
+      double length = u < split
+          ? min + Math.sqrt(u * range * (mode - min))
+          : max - Math.sqrt((1 - u) * range * (max - mode));
+      return (int) Math.round(length);
+    }
+
+    @Override
+    public String toString() {
+      return min + ":" + mode + ":" + max;
+    }
+  }
+}
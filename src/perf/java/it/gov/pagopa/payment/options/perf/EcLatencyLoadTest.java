@@ -0,0 +1,176 @@
+package it.gov.pagopa.payment.options.perf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.QuarkusTestProfile.TestResourceEntry;
+import it.gov.pagopa.payment.options.test.extensions.InjectWireMock;
+import it.gov.pagopa.payment.options.test.extensions.KafkaTestResourceLifecycleManager;
+import it.gov.pagopa.payment.options.test.extensions.WireMockExtensions;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Load test of getPaymentOptions against a creditor institution answering after 50 ms, 500 ms
+ * and 3 s: {@link #REQUESTS} requests are sent keeping {@link #CONCURRENCY} of them in flight,
+ * with the worker pool bounded to {@link #WORKER_THREADS}.
+ *
+ * <p>The worker execution holds a pool thread for the whole EC call, so its throughput cannot
+ * exceed WORKER_THREADS / latency; the reactive one is bound by the open connections. Run with
+ * {@code mvn -Pperf test -Dtest='*PipelineLoadTest'}.
+ */
+abstract class EcLatencyLoadTest {
+
+  static final int WORKER_THREADS = 4;
+
+  static final int CONCURRENCY = 64;
+
+  static final int REQUESTS = 64;
+
+  private final Logger logger = LoggerFactory.getLogger(getClass());
+
+  @TestHTTPResource("/payment-options/organizations/77777777777/notices/311111111112222222?idPsp=00001&idBrokerPsp=00001")
+  URI verifyUri;
+
+  @InjectWireMock
+  WireMockServer wireMockServer;
+
+  @ParameterizedTest
+  @ValueSource(ints = {50, 500, 3000})
+  void throughputUnderEcLatency(int ecLatencyMillis) throws Exception {
+    assertThroughput(ecLatencyMillis, measureThroughput(ecLatencyMillis));
+  }
+
+  @AfterEach
+  void resetLatency() {
+    wireMockServer.setGlobalFixedDelay(0);
+  }
+
+  /**
+   * Asserts the throughput measured for the execution mode under test
+   *
+   * @param ecLatencyMillis EC response latency
+   * @param throughput measured throughput, in requests per second
+   */
+  abstract void assertThroughput(int ecLatencyMillis, double throughput);
+
+  /**
+   * Sends the load, asserting every request succeeds
+   *
+   * @param ecLatencyMillis EC response latency
+   * @return the measured throughput, in requests per second
+   */
+  double measureThroughput(int ecLatencyMillis) throws Exception {
+    HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    HttpRequest request = HttpRequest.newBuilder(verifyUri).GET().build();
+
+    // warm up the connection pools and the config cache
+    for (int i = 0; i < 5; i++) {
+      assertEquals(200, client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+    }
+    wireMockServer.setGlobalFixedDelay(ecLatencyMillis);
+
+    Semaphore inFlight = new Semaphore(CONCURRENCY);
+    AtomicInteger failures = new AtomicInteger();
+    CompletableFuture<?>[] responses = new CompletableFuture<?>[REQUESTS];
+    long start = System.nanoTime();
+    for (int i = 0; i < REQUESTS; i++) {
+      inFlight.acquire();
+      responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+          .whenComplete((response, failure) -> {
+            inFlight.release();
+            if (failure != null || response.statusCode() != 200) {
+              failures.incrementAndGet();
+            }
+          });
+    }
+    CompletableFuture.allOf(responses).get(5, TimeUnit.MINUTES);
+    double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+    double throughput = REQUESTS / elapsedSeconds;
+
+    logger.info("{}: {} requests, EC latency {} ms, {} worker threads, {} in flight -> {} req/s",
+        getClass().getSimpleName(), REQUESTS, ecLatencyMillis, WORKER_THREADS, CONCURRENCY,
+        String.format("%.1f", throughput));
+    assertEquals(0, failures.get());
+    return throughput;
+  }
+
+  /** Upper bound of the worker execution throughput, in requests per second */
+  static double workerBound(int ecLatencyMillis) {
+    return WORKER_THREADS * 1000.0 / ecLatencyMillis;
+  }
+
+  static Map<String, String> configOverrides(String execution) {
+    return Map.of(
+        "PaymentOptions.execution", execution,
+        "quarkus.thread-pool.max-threads", String.valueOf(WORKER_THREADS),
+        "quarkus.rest-client.connection-pool-size", String.valueOf(CONCURRENCY),
+        "quarkus.log.category.\"it.gov.pagopa\".level", "WARN",
+        "quarkus.log.category.\"it.gov.pagopa.payment.options.perf\".level", "INFO");
+  }
+
+  // The slow EC replaces the global WireMock resource, which would bind the same port
+  static List<TestResourceEntry> testResources() {
+    return List.of(
+        new TestResourceEntry(WireMockExtensions.class,
+            Map.of(WireMockExtensions.ASYNCHRONOUS_RESPONSES, "true")),
+        new TestResourceEntry(KafkaTestResourceLifecycleManager.class));
+  }
+
+  abstract static class LoadTestProfile implements QuarkusTestProfile {
+
+    private final String execution;
+
+    LoadTestProfile(String execution) {
+      this.execution = execution;
+    }
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      return configOverrides(execution);
+    }
+
+    @Override
+    public List<TestResourceEntry> testResources() {
+      return EcLatencyLoadTest.testResources();
+    }
+
+    @Override
+    public boolean disableGlobalTestResources() {
+      return true;
+    }
+  }
+
+  public static class WorkerProfile extends LoadTestProfile {
+
+    public WorkerProfile() {
+      super("worker");
+    }
+  }
+
+  public static class ReactiveProfile extends LoadTestProfile {
+
+    public ReactiveProfile() {
+      super("reactive");
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package it.gov.pagopa.payment.options.perf;
+
+import it.gov.pagopa.payment.options.util.IdGenerator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Id generation throughput under concurrency: SecureRandom backed UUIDs against the time-ordered
+ * generator. Run once per thread count, e.g. {@code -Djmh.args="-t 64"}: the total throughput of
+ * the random generator stops scaling with the threads contending on the shared SecureRandom.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class IdGeneratorBenchmark {
+
+  private final IdGenerator random = IdGenerator.random();
+
+  private final IdGenerator timeOrdered = IdGenerator.timeOrdered();
+
+  @Benchmark
+  public String random() {
+    return random.nextId();
+  }
+
+  @Benchmark
+  public String timeOrdered() {
+    return timeOrdered.nextId();
+  }
+}
@@ -0,0 +1,141 @@
+package it.gov.pagopa.payment.options.perf;
+
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+import it.gov.pagopa.payment.options.models.clients.cache.Connection;
+import it.gov.pagopa.payment.options.models.clients.cache.Connection.ProtocolEnum;
+import it.gov.pagopa.payment.options.perf.PaymentOptionsStub.Behaviour;
+import it.gov.pagopa.payment.options.perf.PaymentOptionsStub.ErrorMix;
+import it.gov.pagopa.payment.options.perf.PaymentOptionsStub.Latency;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Stubs the service depends on in the load harness: api-config-cache serving a synthetic
+ * national-scale cache, the APIM forwarder and GPD-Core, each with its latency distribution and
+ * error mix. Every setting is read from a {@code load.*} system property, so it can be given on
+ * the Maven command line:
+ *
+ * <ul>
+ *   <li>{@code load.scale}: size of the cache relative to the national one, default 1
+ *   <li>{@code load.gpdStationsPercent}: stations served by GPD-Core, default 20
+ *   <li>{@code load.ec.latency}, {@code load.gpd.latency}: {@code fixed:ms}, {@code
+ *       uniform:minMs:maxMs} or {@code lognormal:medianMs:p99Ms}
+ *   <li>{@code load.ec.errors}, {@code load.gpd.errors}: {@code OUTCOME=percentage} pairs, the
+ *       outcomes being the {@link PaymentOptionsStub.Outcome} values
+ *   <li>{@code load.cache.latencyMs}, {@code load.cache.bandwidthMbps}: api-config-cache response
+ * </ul>
+ */
+public class LoadHarnessResources implements QuarkusTestResourceLifecycleManager {
+
+  static final String APIM_PATH = "/pagopa-node-forwarder/api/v1";
+
+  private final Map<String, String> environment = new LinkedHashMap<>();
+
+  private ConfigCachePayloadGenerator generator;
+  private PaymentOptionsStub forwarder;
+  private PaymentOptionsStub gpdCore;
+  private ApiConfigCacheStub apiConfigCache;
+
+  @Override
+  public Map<String, String> start() {
+    try {
+      forwarder = PaymentOptionsStub.forwarder(APIM_PATH, behaviour("ec", "lognormal:40:400",
+          "UNKNOWN_NOTICE=2,EXPIRED=0.5,SYSTEM_ERROR=0.5,TIMEOUT=0.05"));
+      gpdCore = PaymentOptionsStub.gpdCore(behaviour("gpd", "lognormal:20:150",
+          "UNKNOWN_NOTICE=1"));
+
+      double scale = Double.parseDouble(setting("scale", "1"));
+      ConfigCachePayloadGenerator.Spec defaults = ConfigCachePayloadGenerator.Spec.builder().build();
+      generator = new ConfigCachePayloadGenerator(defaults.toBuilder()
+          .creditorInstitutions(scaled(defaults.getCreditorInstitutions(), scale))
+          .creditorInstitutionBrokers(scaled(defaults.getCreditorInstitutionBrokers(), scale))
+          .stations(scaled(defaults.getStations(), scale))
+          .creditorInstitutionStations(scaled(defaults.getCreditorInstitutionStations(), scale))
+          .psps(scaled(defaults.getPsps(), scale))
+          .pspBrokers(scaled(defaults.getPspBrokers(), scale))
+          .forwarder(Connection.builder()
+              .protocol(ProtocolEnum.HTTP)
+              .ip("localhost")
+              .port((long) forwarder.port())
+              .build())
+          .gpdEndpoint(gpdCore.uri().toString())
+          .gpdStationsPercent(Integer.parseInt(setting("gpdStationsPercent", "20")))
+          .build());
+      long cacheLatencyMillis = Long.parseLong(setting("cache.latencyMs", "0"));
+      long cacheBandwidthMbps = Long.parseLong(setting("cache.bandwidthMbps", "0"));
+      apiConfigCache = ApiConfigCacheStub.start(generator, 0,
+          Duration.ofMillis(cacheLatencyMillis), cacheBandwidthMbps * 1_000_000 / 8);
+
+      ConfigCachePayloadGenerator.Spec spec = generator.getSpec();
+      environment.put("cache", spec.getCreditorInstitutions() + " creditor institutions, "
+          + spec.getStations() + " stations, " + spec.getCreditorInstitutionStations()
+          + " creditorInstitutionStations, " + spec.getPsps() + " PSPs, "
+          + spec.getGpdStationsPercent() + "% GPD-Core stations");
+      environment.put("cache latency / bandwidth",
+          cacheLatencyMillis + " ms / " + (cacheBandwidthMbps > 0 ? cacheBandwidthMbps + " Mbps" : "unbounded"));
+    } catch (Exception e) {
+      stop();
+      throw new IllegalStateException("Cannot start the load harness stubs", e);
+    }
+
+    Map<String, String> config = new LinkedHashMap<>();
+    config.put("quarkus.rest-client.\"it.gov.pagopa.payment.options.clients.ApiConfigCacheClient\".url",
+        apiConfigCache.uri().toString());
+    config.put("ApiConfigCacheClient.ocpSubKey", "load");
+    config.put("CreditorInstitutionRestClient.apimEndpoint", forwarder.uri().toString());
+    config.put("CreditorInstitutionRestClient.apimPath", APIM_PATH);
+    config.put("CreditorInstitutionRestClient.ocpSubKey", "load");
+    config.put("quarkus.rest-client.gpd-core-api.url", gpdCore.uri().toString());
+    return config;
+  }
+
+  @Override
+  public void inject(TestInjector testInjector) {
+    testInjector.injectIntoFields(this, new TestInjector.MatchesType(LoadHarnessResources.class));
+  }
+
+  @Override
+  public void stop() {
+    for (AutoCloseable stub : new AutoCloseable[] {apiConfigCache, forwarder, gpdCore}) {
+      if (stub != null) {
+        try {
+          stub.close();
+        } catch (Exception e) {
+          // stopping anyway
+        }
+      }
+    }
+  }
+
+  ConfigCachePayloadGenerator generator() {
+    return generator;
+  }
+
+  /** Settings of the stubs, followed by the requests they answered by outcome */
+  Map<String, String> environment() {
+    Map<String, String> described = new LinkedHashMap<>(environment);
+    described.put("forwarder answers", forwarder.outcomes().toString());
+    described.put("GPD-Core answers", gpdCore.outcomes().toString());
+    return described;
+  }
+
+  static String setting(String name, String defaultValue) {
+    return System.getProperty("load." + name, defaultValue);
+  }
+
+  private Behaviour behaviour(String stub, String latency, String errors) {
+    Behaviour behaviour = Behaviour.builder()
+        .latency(Latency.parse(setting(stub + ".latency", latency)))
+        .errors(ErrorMix.parse(setting(stub + ".errors", errors)))
+        .build();
+    String name = stub.equals("ec") ? "forwarder" : "GPD-Core";
+    environment.put(name + " latency", behaviour.getLatency().toString());
+    environment.put(name + " errors (%)", behaviour.getErrors().toString());
+    return behaviour;
+  }
+
+  private static int scaled(int count, double scale) {
+    return Math.max(1, (int) Math.round(count * scale));
+  }
+}
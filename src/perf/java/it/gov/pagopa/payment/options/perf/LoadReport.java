@@ -0,0 +1,262 @@
+package it.gov.pagopa.payment.options.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Outcome of an {@link OpenModelLoad}: throughput, HDR latency percentiles per outcome, a
+ * per-second timeline and the JVM activity, written as JSON and as a standalone HTML page.
+ * Latencies are in milliseconds.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class LoadReport {
+
+  private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+  private final String startedAt;
+  private final OpenModelLoad.Plan plan;
+  // stubs and service settings the load ran against
+  private final Map<String, String> environment;
+  private final long sent;
+  private final long completed;
+  private final long dropped;
+  // no response within the drain timeout
+  private final long unfinished;
+  // requests sent per second during the measurement
+  private final double offeredRate;
+  // responses per second
+  private final double throughput;
+  // worst delay of the load generator on the planned send times
+  private final double maxSendLagMillis;
+  private final Map<String, Long> statuses;
+  private final Map<String, Percentiles> latencies;
+  private final List<Interval> timeline;
+  private final Runtime runtime;
+  // HdrHistogram percentile distribution of all the latencies, for the HdrHistogram plotter
+  private final String percentileDistribution;
+
+  /** Writes {@code name.json} and {@code name.html} to the given directory */
+  public void write(Path directory, String name) throws IOException {
+    Files.createDirectories(directory);
+    ObjectMapper objectMapper = new ObjectMapper()
+        .findAndRegisterModules()
+        .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+        .enable(SerializationFeature.INDENT_OUTPUT);
+    objectMapper.writeValue(directory.resolve(name + ".json").toFile(), this);
+    Files.writeString(directory.resolve(name + ".html"), html(name));
+  }
+
+  static String percentileDistribution(Histogram histogram) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    // microseconds recorded, milliseconds printed
+    histogram.outputPercentileDistribution(
+        new PrintStream(out, true, StandardCharsets.UTF_8), 1000.0);
+    return out.toString(StandardCharsets.UTF_8);
+  }
+
+  private String html(String name) {
+    StringBuilder html = new StringBuilder();
+    html.append("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>")
+        .append(escape(name))
+        .append("</title><style>body{font-family:sans-serif;margin:2em}")
+        .append("table{border-collapse:collapse;margin-bottom:1.5em}")
+        .append("td,th{border:1px solid #ccc;padding:4px 10px;text-align:right}")
+        .append("th:first-child,td:first-child{text-align:left}</style></head><body>")
+        .append("<h1>").append(escape(name)).append("</h1>");
+
+    html.append("<h2>Load</h2><table>");
+    row(html, "started at", startedAt);
+    row(html, "arrivals", plan.getArrivals() + " at " + format(plan.getRate()) + " req/s");
+    row(html, "warm-up / measurement", plan.getWarmup() + " / " + plan.getDuration());
+    row(html, "sent / completed", sent + " / " + completed);
+    row(html, "dropped / unfinished", dropped + " / " + unfinished);
+    row(html, "offered rate", format(offeredRate) + " req/s");
+    row(html, "throughput", format(throughput) + " req/s");
+    row(html, "max send lag", format(maxSendLagMillis) + " ms");
+    if (environment != null) {
+      environment.forEach((key, value) -> row(html, key, value));
+    }
+    html.append("</table>");
+
+    html.append("<h2>Latency (ms)</h2><table><tr><th>outcome</th><th>count</th><th>mean</th>");
+    for (double percentile : PERCENTILES) {
+      html.append("<th>").append(label(percentile)).append("</th>");
+    }
+    html.append("<th>max</th></tr>");
+    latencies.forEach((outcome, percentiles) -> {
+      html.append("<tr><td>").append(escape(outcome)).append("</td><td>")
+          .append(percentiles.getCount()).append("</td><td>")
+          .append(format(percentiles.getMean())).append("</td>");
+      for (double value : percentiles.getValues().values()) {
+        html.append("<td>").append(format(value)).append("</td>");
+      }
+      html.append("<td>").append(format(percentiles.getMax())).append("</td></tr>");
+    });
+    html.append("</table>");
+
+    html.append("<h2>Statuses</h2><table>");
+    statuses.forEach((status, count) -> row(html, status, String.valueOf(count)));
+    html.append("</table>");
+
+    if (runtime != null) {
+      html.append("<h2>JVM</h2><table>");
+      row(html, "allocation rate", format(runtime.getAllocationRateMbPerSecond()) + " MB/s");
+      row(html, "GC time", format(runtime.getGcTimeRatio() * 100) + " %");
+      for (Collector collector : runtime.getCollectors()) {
+        row(html, collector.getName(), collector.getCount() + " collections, "
+            + collector.getTimeMillis() + " ms");
+      }
+      if (runtime.getCpuCores() != null) {
+        row(html, "CPU", format(runtime.getCpuCores()) + " cores");
+      }
+      row(html, "heap used", (runtime.getHeapUsedStart() >> 20) + " MB -> "
+          + (runtime.getHeapUsedEnd() >> 20) + " MB");
+      html.append("</table>");
+    }
+
+    html.append("<h2>Timeline</h2>").append(timelineChart());
+    html.append("<h2>Percentile distribution</h2><pre>")
+        .append(escape(percentileDistribution)).append("</pre></body></html>");
+    return html.toString();
+  }
+
+  // responses per second as bars, p99 as a line on its own scale
+  private String timelineChart() {
+    int width = 900;
+    int height = 240;
+    double maxCount = timeline.stream().mapToDouble(Interval::getCount).max().orElse(0);
+    double maxP99 = timeline.stream().mapToDouble(Interval::getP99).max().orElse(0);
+    if (timeline.isEmpty() || maxCount == 0) {
+      return "<p>No responses</p>";
+    }
+    double step = (double) width / timeline.size();
+    StringBuilder svg = new StringBuilder()
+        .append("<svg width=\"").append(width).append("\" height=\"").append(height + 20)
+        .append("\" style=\"background:#fafafa\">");
+    StringBuilder line = new StringBuilder();
+    for (int i = 0; i < timeline.size(); i++) {
+      Interval interval = timeline.get(i);
+      double barHeight = interval.getCount() / maxCount * height;
+      svg.append(String.format(Locale.ROOT,
+          "<rect x=\"%.1f\" y=\"%.1f\" width=\"%.1f\" height=\"%.1f\" fill=\"#9ecae1\"/>",
+          i * step, height - barHeight, Math.max(step - 1, 1), barHeight));
+      double y = maxP99 > 0 ? height - interval.getP99() / maxP99 * height : height;
+      line.append(String.format(Locale.ROOT, "%.1f,%.1f ", i * step + step / 2, y));
+    }
+    svg.append("<polyline fill=\"none\" stroke=\"#d62728\" stroke-width=\"2\" points=\"")
+        .append(line).append("\"/>")
+        .append("<text x=\"4\" y=\"").append(height + 16).append("\" font-size=\"12\">")
+        .append("bars: responses/s (max ").append(format(maxCount)).append("), line: p99 (max ")
+        .append(format(maxP99)).append(" ms), one point per second</text></svg>");
+    return svg.toString();
+  }
+
+  private static void row(StringBuilder html, String name, String value) {
+    html.append("<tr><td>").append(escape(name)).append("</td><td>").append(escape(value))
+        .append("</td></tr>");
+  }
+
+  private static String format(double value) {
+    return String.format(Locale.ROOT, value >= 100 ? "%.0f" : "%.2f", value);
+  }
+
+  private static String label(double percentile) {
+    return "p" + BigDecimal.valueOf(percentile).stripTrailingZeros().toPlainString();
+  }
+
+  private static String escape(String value) {
+    if (value == null) {
+      return "";
+    }
+    return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+  }
+
+  /** Latency percentiles of an outcome */
+  @Getter
+  @Builder
+  public static class Percentiles {
+
+    private final long count;
+    private final double mean;
+    // by percentile, e.g. "p99.9"
+    private final Map<String, Double> values;
+    private final double max;
+
+    static Percentiles of(Histogram histogram) {
+      Map<String, Double> values = new LinkedHashMap<>();
+      for (double percentile : PERCENTILES) {
+        values.put(label(percentile), millis(histogram.getValueAtPercentile(percentile)));
+      }
+      return Percentiles.builder()
+          .count(histogram.getTotalCount())
+          .mean(histogram.getMean() / 1000)
+          .values(values)
+          .max(millis(histogram.getMaxValue()))
+          .build();
+    }
+  }
+
+  /** Responses completed in a second of the measurement */
+  @Getter
+  @AllArgsConstructor
+  public static class Interval {
+
+    private final int second;
+    private final long count;
+    private final double p50;
+    private final double p99;
+    private final double max;
+
+    static Interval of(int second, Histogram histogram) {
+      return new Interval(second, histogram.getTotalCount(),
+          millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+          millis(histogram.getMaxValue()));
+    }
+  }
+
+  /** JVM activity during the measurement */
+  @Getter
+  @Builder
+  public static class Runtime {
+
+    private final double seconds;
+    private final List<Collector> collectors;
+    // share of the wall time spent in GC
+    private final double gcTimeRatio;
+    private final long allocatedBytes;
+    private final double allocationRateMbPerSecond;
+    // average cores busy, null when not available
+    private final Double cpuCores;
+    private final long heapUsedStart;
+    private final long heapUsedEnd;
+  }
+
+  @Getter
+  @AllArgsConstructor
+  public static class Collector {
+
+    private final String name;
+    private final long count;
+    private final long timeMillis;
+  }
+
+  private static double millis(long micros) {
+    return micros / 1000.0;
+  }
+}
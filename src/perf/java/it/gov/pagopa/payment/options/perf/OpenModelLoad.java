@@ -0,0 +1,249 @@
+package it.gov.pagopa.payment.options.perf;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import lombok.Builder;
+import lombok.Getter;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Open-model load: requests are sent at the planned arrival rate whatever the response times,
+ * as independent clients would, instead of waiting for a response before sending the next one.
+ *
+ * <p>Latencies are measured from the planned send time of each request, so that a stall of the
+ * service or of the load generator itself is charged to every request it delays (no coordinated
+ * omission), and are recorded in HDR histograms per outcome: 2xx, 4xx, 5xx and errors (no
+ * response). Requests sent during the warm-up are not recorded; requests that would exceed
+ * {@link Plan#getMaxInFlight()} are dropped and counted, the service being already saturated.
+ */
+public final class OpenModelLoad {
+
+  private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+  private final Plan plan;
+  private final HttpClient client;
+  private final Function<SplittableRandom, HttpRequest> requests;
+
+  private final Map<String, Series> series = new ConcurrentHashMap<>();
+  private final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final LongAdder completed = new LongAdder();
+  private final List<LoadReport.Interval> timeline = new ArrayList<>();
+  private final Histogram intervalTotal = histogram();
+
+  private volatile boolean measuring;
+
+  /**
+   * @param plan arrival rate and durations
+   * @param client client sending the requests
+   * @param requests request to be sent next, drawn with the given random
+   */
+  public OpenModelLoad(Plan plan, HttpClient client,
+      Function<SplittableRandom, HttpRequest> requests) {
+    this.plan = plan;
+    this.client = client;
+    this.requests = requests;
+    for (String outcome : List.of("2xx", "4xx", "5xx", "error")) {
+      series.put(outcome, new Series());
+    }
+  }
+
+  /** Runs the warm-up and the measurement, then waits for the requests in flight */
+  public LoadReport run() throws InterruptedException {
+    SplittableRandom random = new SplittableRandom(plan.getSeed());
+    double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / plan.getRate();
+    long start = System.nanoTime();
+    long measureStart = start + plan.getWarmup().toNanos();
+    long end = measureStart + plan.getDuration().toNanos();
+
+    ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "load-sampler");
+      thread.setDaemon(true);
+      return thread;
+    });
+    RuntimeStats before = null;
+    Instant startedAt = null;
+    long sent = 0;
+    long dropped = 0;
+    long maxSendLag = 0;
+    double next = start;
+    try {
+      while (next < end) {
+        long intended = (long) next;
+        long now = System.nanoTime();
+        if (intended > now) {
+          LockSupport.parkNanos(intended - now);
+          now = System.nanoTime();
+        }
+        if (!measuring && intended >= measureStart) {
+          // the measurement starts with the first request planned after the warm-up
+          before = RuntimeStats.capture();
+          startedAt = Instant.now();
+          measuring = true;
+          sampler.scheduleAtFixedRate(this::sample, 1, 1, TimeUnit.SECONDS);
+        }
+        if (measuring) {
+          sent++;
+          maxSendLag = Math.max(maxSendLag, now - intended);
+        }
+        if (inFlight.get() >= plan.getMaxInFlight()) {
+          if (measuring) {
+            dropped++;
+          }
+        } else {
+          send(requests.apply(random), intended, measuring);
+        }
+        next += plan.getArrivals() == Arrivals.POISSON
+            ? -Math.log(1 - random.nextDouble()) * meanIntervalNanos
+            : meanIntervalNanos;
+      }
+      RuntimeStats after = RuntimeStats.capture();
+      double elapsedSeconds = (System.nanoTime() - measureStart) / 1e9;
+
+      // the responses still in flight belong to the measurement, their wait included
+      long drainDeadline = System.nanoTime() + plan.getDrainTimeout().toNanos();
+      while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+        TimeUnit.MILLISECONDS.sleep(10);
+      }
+      sampler.shutdown();
+      sampler.awaitTermination(5, TimeUnit.SECONDS);
+      sample();
+
+      Map<String, LoadReport.Percentiles> latencies = new LinkedHashMap<>();
+      Histogram total = histogram();
+      series.forEach((outcome, recorded) -> total.add(recorded.total));
+      latencies.put("all", LoadReport.Percentiles.of(total));
+      for (String outcome : List.of("2xx", "4xx", "5xx", "error")) {
+        Histogram histogram = series.get(outcome).total;
+        if (histogram.getTotalCount() > 0) {
+          latencies.put(outcome, LoadReport.Percentiles.of(histogram));
+        }
+      }
+      Map<String, Long> statusCounts = new LinkedHashMap<>();
+      statuses.entrySet().stream()
+          .sorted(Map.Entry.comparingByKey())
+          .forEach(status -> statusCounts.put(status.getKey(), status.getValue().sum()));
+
+      return LoadReport.builder()
+          .startedAt(startedAt != null ? startedAt.toString() : null)
+          .plan(plan)
+          .sent(sent)
+          .completed(completed.sum())
+          .dropped(dropped)
+          .unfinished(inFlight.get())
+          .offeredRate(sent / elapsedSeconds)
+          .throughput(completed.sum() / elapsedSeconds)
+          .maxSendLagMillis(maxSendLag / 1e6)
+          .statuses(statusCounts)
+          .latencies(latencies)
+          .timeline(timeline)
+          .runtime(before != null ? before.until(after) : null)
+          .percentileDistribution(LoadReport.percentileDistribution(total))
+          .build();
+    } finally {
+      sampler.shutdownNow();
+    }
+  }
+
+  private void send(HttpRequest request, long intended, boolean recorded) {
+    inFlight.incrementAndGet();
+    client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+        .whenComplete((response, failure) -> {
+          long latencyMicros = (System.nanoTime() - intended) / 1_000;
+          inFlight.decrementAndGet();
+          if (!recorded) {
+            return;
+          }
+          completed.increment();
+          String status = failure != null ? "error" : String.valueOf(response.statusCode());
+          statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+          String outcome = failure != null ? "error" : (response.statusCode() / 100) + "xx";
+          series.computeIfAbsent(outcome, key -> new Series()).record(latencyMicros);
+        });
+  }
+
+  // Moves the latencies recorded in the last interval to the totals, adding a timeline point
+  private synchronized void sample() {
+    intervalTotal.reset();
+    for (Series recorded : series.values()) {
+      intervalTotal.add(recorded.sample());
+    }
+    timeline.add(LoadReport.Interval.of(timeline.size() + 1, intervalTotal));
+  }
+
+  static Histogram histogram() {
+    return new Histogram(HIGHEST_LATENCY_MICROS, 3);
+  }
+
+  // Latencies of an outcome: recorded by the response threads, moved to the total every second
+  private static final class Series {
+
+    private final Recorder recorder = new Recorder(HIGHEST_LATENCY_MICROS, 3);
+    private final Histogram total = histogram();
+    private Histogram interval;
+
+    private void record(long latencyMicros) {
+      recorder.recordValue(Math.min(latencyMicros, HIGHEST_LATENCY_MICROS));
+    }
+
+    private Histogram sample() {
+      interval = recorder.getIntervalHistogram(interval);
+      total.add(interval);
+      return interval;
+    }
+  }
+
+  /** Arrival process of the requests */
+  public enum Arrivals {
+    // evenly spaced
+    CONSTANT,
+    // exponential inter-arrival times, as independent clients
+    POISSON
+  }
+
+  /** Arrival rate and durations of a load */
+  @Getter
+  @Builder
+  public static class Plan {
+
+    // requests per second
+    @Builder.Default
+    private final double rate = 100;
+
+    @Builder.Default
+    private final Arrivals arrivals = Arrivals.POISSON;
+
+    @Builder.Default
+    private final Duration warmup = Duration.ofSeconds(10);
+
+    @Builder.Default
+    private final Duration duration = Duration.ofSeconds(30);
+
+    @Builder.Default
+    private final int maxInFlight = 10_000;
+
+    // time left to the requests in flight at the end of the measurement
+    @Builder.Default
+    private final Duration drainTimeout = Duration.ofSeconds(30);
+
+    @Builder.Default
+    private final long seed = 42;
+  }
+}
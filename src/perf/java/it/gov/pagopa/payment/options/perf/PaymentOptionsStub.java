@@ -0,0 +1,362 @@
+package it.gov.pagopa.payment.options.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import it.gov.pagopa.payment.options.models.ErrorResponse;
+import it.gov.pagopa.payment.options.models.clients.creditorInstitution.Installment;
+import it.gov.pagopa.payment.options.models.clients.creditorInstitution.PaymentOption;
+import it.gov.pagopa.payment.options.models.clients.creditorInstitution.PaymentOptionsResponse;
+import it.gov.pagopa.payment.options.models.enums.CreditorInstitutionErrorEnum;
+import it.gov.pagopa.payment.options.models.enums.InstallmentEnum;
+import it.gov.pagopa.payment.options.models.enums.PaymentOptionStatusEnum;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Builder;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Local stand-in of the creditor institutions, behind the APIM forwarder ({@code POST
+ * {apimPath}/forward}, the verify path in {@code X-Host-Path}) or GPD-Core ({@code POST
+ * /payment-options/organizations/{fc}/notices/{nav}}), answering each request after a latency
+ * drawn from a distribution, with an error mix.
+ *
+ * <p>Responses are scheduled instead of holding a server thread during the latency, so the stub
+ * keeps up with thousands of requests in flight.
+ */
+public final class PaymentOptionsStub implements AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(PaymentOptionsStub.class);
+
+  private static final String PAYMENT_OPTIONS_PATH = "/payment-options/organizations/";
+
+  private static final byte[] TRUNCATED_BODY =
+      "{\"organizationFiscalCode\":".getBytes(StandardCharsets.UTF_8);
+
+  // kept open longer than any client read timeout
+  private static final Duration HANG = Duration.ofSeconds(60);
+
+  private final Behaviour behaviour;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final ScheduledExecutorService scheduler;
+  private final Map<Outcome, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+  private PaymentOptionsStub(Behaviour behaviour, String context) throws IOException {
+    this.behaviour = behaviour;
+    this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+    this.executor = Executors.newFixedThreadPool(4, daemon("payment-options-stub"));
+    this.scheduler = Executors.newScheduledThreadPool(4, daemon("payment-options-stub-response"));
+    server.setExecutor(executor);
+    server.createContext(context, this::handle);
+    server.start();
+  }
+
+  /**
+   * Starts a stub of the APIM forwarder
+   *
+   * @param apimPath forwarder path, as configured for the service
+   */
+  public static PaymentOptionsStub forwarder(String apimPath, Behaviour behaviour)
+      throws IOException {
+    String path = apimPath.endsWith("/") ? apimPath : apimPath + "/";
+    return new PaymentOptionsStub(behaviour, path + "forward");
+  }
+
+  /** Starts a stub of GPD-Core */
+  public static PaymentOptionsStub gpdCore(Behaviour behaviour) throws IOException {
+    return new PaymentOptionsStub(behaviour, PAYMENT_OPTIONS_PATH);
+  }
+
+  /** Base URL of the stub */
+  public URI uri() {
+    return URI.create("http://localhost:" + server.getAddress().getPort());
+  }
+
+  public int port() {
+    return server.getAddress().getPort();
+  }
+
+  /** Requests answered so far, by outcome */
+  public Map<Outcome, Long> outcomes() {
+    Map<Outcome, Long> counts = new EnumMap<>(Outcome.class);
+    outcomes.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+    return counts;
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    scheduler.shutdownNow();
+    executor.shutdownNow();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try (InputStream body = exchange.getRequestBody()) {
+      body.transferTo(OutputStream.nullOutputStream());
+    }
+    String path = exchange.getRequestHeaders().getFirst("X-Host-Path");
+    if (path == null) {
+      path = exchange.getRequestURI().getPath();
+    }
+    Random random = ThreadLocalRandom.current();
+    Outcome outcome = behaviour.getErrors().draw(random);
+    outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+    long delay = outcome == Outcome.TIMEOUT
+        ? HANG.toNanos()
+        : behaviour.getLatency().sampleNanos(random);
+    String verifyPath = path;
+    scheduler.schedule(() -> respond(exchange, outcome, verifyPath), delay, TimeUnit.NANOSECONDS);
+  }
+
+  private void respond(HttpExchange exchange, Outcome outcome, String verifyPath) {
+    try {
+      switch (outcome) {
+        case OK -> send(exchange, 200, objectMapper.writeValueAsBytes(paymentOptions(verifyPath)));
+        case MALFORMED -> send(exchange, 200, TRUNCATED_BODY);
+        case TIMEOUT, RESET -> {
+          // closing without a response resets the connection
+        }
+        default -> {
+          CreditorInstitutionErrorEnum error = outcome.error;
+          send(exchange, error.getStatus(), objectMapper.writeValueAsBytes(ErrorResponse.builder()
+              .httpStatusCode(error.getStatus())
+              .httpStatusDescription(error.name())
+              .appErrorCode(error.getErrorCode())
+              .errorMessage(error.getErrorMessage())
+              .timestamp(System.currentTimeMillis())
+              .build()));
+        }
+      }
+    } catch (IOException e) {
+      logger.debug("[Payment Options] Stub response interrupted: {}", e.getMessage());
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  // a single option, for the notice in the verify path
+  private static PaymentOptionsResponse paymentOptions(String verifyPath) {
+    String[] parts = verifyPath.substring(verifyPath.indexOf(PAYMENT_OPTIONS_PATH)
+        + PAYMENT_OPTIONS_PATH.length()).split("/");
+    String fiscalCode = parts[0];
+    String noticeNumber = parts.length > 2 ? parts[2] : "";
+    return PaymentOptionsResponse.builder()
+        .organizationFiscalCode(fiscalCode)
+        .companyName("Comune di Test")
+        .officeName("Ufficio Tributi")
+        .standin(false)
+        .paymentOptions(List.of(PaymentOption.builder()
+            .description("Tassa sui rifiuti")
+            .numberOfInstallments(1)
+            .dueDate("2030-10-30T23:59:59")
+            .validFrom("2024-09-30T23:59:59")
+            .amount(12000L)
+            .status(PaymentOptionStatusEnum.PO_UNPAID)
+            .statusReason("desc")
+            .allCCP(false)
+            .installments(List.of(Installment.builder()
+                .nav(noticeNumber)
+                .iuv(noticeNumber.length() > 1 ? noticeNumber.substring(1) : noticeNumber)
+                .amount(12000L)
+                .description("Tassa sui rifiuti - unica rata")
+                .dueDate("2030-10-30T23:59:59")
+                .validFrom("2024-09-30T23:59:59")
+                .status(InstallmentEnum.POI_UNPAID)
+                .statusReason("desc")
+                .build()))
+            .build()))
+        .build();
+  }
+
+  private static ThreadFactory daemon(String name) {
+    return runnable -> {
+      Thread thread = new Thread(runnable, name);
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /** Response of the stub to a request */
+  public enum Outcome {
+    OK(null),
+    UNKNOWN_NOTICE(CreditorInstitutionErrorEnum.PAA_PAGAMENTO_SCONOSCIUTO),
+    EXPIRED(CreditorInstitutionErrorEnum.PAA_PAGAMENTO_SCADUTO),
+    CANCELLED(CreditorInstitutionErrorEnum.PAA_PAGAMENTO_ANNULLATO),
+    SYSTEM_ERROR(CreditorInstitutionErrorEnum.PAA_SYSTEM_ERROR),
+    // 200 with a truncated body
+    MALFORMED(null),
+    // connection closed without a response
+    RESET(null),
+    // no response before the client read timeout
+    TIMEOUT(null);
+
+    private final CreditorInstitutionErrorEnum error;
+
+    Outcome(CreditorInstitutionErrorEnum error) {
+      this.error = error;
+    }
+  }
+
+  /** Latency distribution and error mix of a stub */
+  @Getter
+  @Builder
+  public static class Behaviour {
+
+    @Builder.Default
+    private final Latency latency = Latency.fixed(Duration.ofMillis(20));
+
+    @Builder.Default
+    private final ErrorMix errors = ErrorMix.none();
+  }
+
+  /** Distribution of the response latency */
+  public abstract static class Latency {
+
+    abstract long sampleNanos(Random random);
+
+    public static Latency fixed(Duration latency) {
+      long nanos = latency.toNanos();
+      return describe(random -> nanos, "fixed:" + latency.toMillis());
+    }
+
+    public static Latency uniform(Duration min, Duration max) {
+      long minNanos = min.toNanos();
+      long range = max.toNanos() - minNanos + 1;
+      return describe(random -> minNanos + (long) (random.nextDouble() * range),
+          "uniform:" + min.toMillis() + ":" + max.toMillis());
+    }
+
+    /** Log-normal, the usual shape of service latencies, given its median and 99th percentile */
+    public static Latency logNormal(Duration median, Duration p99) {
+      double mu = Math.log(median.toNanos());
+      // 2.326 is the 99th percentile of the standard normal distribution
+      double sigma = Math.max(0, (Math.log(p99.toNanos()) - mu) / 2.326);
+      return describe(random -> (long) Math.exp(mu + sigma * random.nextGaussian()),
+          "lognormal:" + median.toMillis() + ":" + p99.toMillis());
+    }
+
+    /** Parses {@code fixed:ms}, {@code uniform:minMs:maxMs} or {@code lognormal:medianMs:p99Ms} */
+    public static Latency parse(String value) {
+      String[] parts = value.trim().split(":");
+      try {
+        switch (parts[0]) {
+          case "fixed":
+            return fixed(Duration.ofMillis(Long.parseLong(parts[1])));
+          case "uniform":
+            return uniform(Duration.ofMillis(Long.parseLong(parts[1])),
+                Duration.ofMillis(Long.parseLong(parts[2])));
+          case "lognormal":
+            return logNormal(Duration.ofMillis(Long.parseLong(parts[1])),
+                Duration.ofMillis(Long.parseLong(parts[2])));
+          default:
+            break;
+        }
+      } catch (RuntimeException e) {
+        throw new IllegalArgumentException("Invalid latency " + value, e);
+      }
+      throw new IllegalArgumentException("Invalid latency " + value);
+    }
+
+    private static Latency describe(Sampler sampler, String description) {
+      return new Latency() {
+        @Override
+        long sampleNanos(Random random) {
+          return sampler.sampleNanos(random);
+        }
+
+        @Override
+        public String toString() {
+          return description;
+        }
+      };
+    }
+
+    private interface Sampler {
+      long sampleNanos(Random random);
+    }
+  }
+
+  /** Share of the responses of each error outcome, the rest being {@link Outcome#OK} */
+  public static final class ErrorMix {
+
+    private final Map<Outcome, Double> percentages;
+
+    private ErrorMix(Map<Outcome, Double> percentages) {
+      double total = percentages.values().stream().mapToDouble(Double::doubleValue).sum();
+      if (percentages.containsKey(Outcome.OK) || total > 100
+          || percentages.values().stream().anyMatch(percentage -> percentage < 0)) {
+        throw new IllegalArgumentException("Invalid error mix " + percentages);
+      }
+      this.percentages = new EnumMap<>(percentages);
+    }
+
+    public static ErrorMix none() {
+      return new ErrorMix(Map.of());
+    }
+
+    /** Error percentages, e.g. {@code Map.of(Outcome.UNKNOWN_NOTICE, 2.5)} */
+    public static ErrorMix of(Map<Outcome, Double> percentages) {
+      return new ErrorMix(percentages);
+    }
+
+    /** Parses {@code OUTCOME=percentage} pairs separated by commas, empty for no errors */
+    public static ErrorMix parse(String value) {
+      Map<Outcome, Double> percentages = new EnumMap<>(Outcome.class);
+      for (String pair : value.split(",")) {
+        if (!pair.isBlank()) {
+          String[] parts = pair.split("=");
+          if (parts.length != 2) {
+            throw new IllegalArgumentException("Expected OUTCOME=percentage, got " + pair);
+          }
+          percentages.put(Outcome.valueOf(parts[0].trim()), Double.parseDouble(parts[1].trim()));
+        }
+      }
+      return new ErrorMix(percentages);
+    }
+
+    Outcome draw(Random random) {
+      double value = random.nextDouble() * 100;
+      for (Map.Entry<Outcome, Double> percentage : percentages.entrySet()) {
+        value -= percentage.getValue();
+        if (value < 0) {
+          return percentage.getKey();
+        }
+      }
+      return Outcome.OK;
+    }
+
+    @Override
+    public String toString() {
+      return percentages.toString();
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package it.gov.pagopa.payment.options.perf;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+
+/** Baseline: blocking execution on the worker pool under a slow creditor institution */
+@QuarkusTest
+@TestProfile(EcLatencyLoadTest.WorkerProfile.class)
+class PlatformThreadPipelineLoadTest extends EcLatencyLoadTest {
+
+  @Override
+  void assertThroughput(int ecLatencyMillis, double throughput) {
+    // allow some slack for the measurement
+    assertTrue(throughput <= workerBound(ecLatencyMillis) * 1.2,
+        "Worker throughput " + throughput + " above the bound " + workerBound(ecLatencyMillis));
+  }
+}
@@ -0,0 +1,187 @@
+package it.gov.pagopa.payment.options.perf;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.kafka.client.serialization.ObjectMapperSerializer;
+import it.gov.pagopa.payment.options.models.JsonPayload;
+import it.gov.pagopa.payment.options.models.clients.creditorInstitution.Installment;
+import it.gov.pagopa.payment.options.models.clients.creditorInstitution.PaymentOption;
+import it.gov.pagopa.payment.options.models.clients.creditorInstitution.PaymentOptionsResponse;
+import it.gov.pagopa.payment.options.models.enums.InstallmentEnum;
+import it.gov.pagopa.payment.options.models.enums.PaymentOptionStatusEnum;
+import it.gov.pagopa.payment.options.models.events.odpRe.Body;
+import it.gov.pagopa.payment.options.models.events.odpRe.BodyV2;
+import it.gov.pagopa.payment.options.models.events.odpRe.EventType;
+import it.gov.pagopa.payment.options.models.events.odpRe.OdpReEvent;
+import it.gov.pagopa.payment.options.models.events.odpRe.OdpVerifyRe;
+import it.gov.pagopa.payment.options.models.events.odpRe.OdpVerifyReV2;
+import it.gov.pagopa.payment.options.models.events.odpRe.Phases;
+import it.gov.pagopa.payment.options.models.events.odpRe.Properties;
+import it.gov.pagopa.payment.options.models.events.odpRe.Status;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Producer side of the RE events of a successful verify interaction: the four version 1 events
+ * against the single version 2 one. Each operation builds, serializes and sends the events of one
+ * interaction to a {@link MockProducer}; the bytes counter is the record value bytes produced,
+ * i.e. what the interactions cost in topic throughput.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class ReEventBenchmark {
+
+  private static final String TOPIC = "opzioni-di-pagamento-re";
+
+  @Param({"1", "24"})
+  int installments;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final ObjectMapperSerializer<OdpReEvent> serializer =
+      new ObjectMapperSerializer<>(objectMapper);
+
+  private final MockProducer<byte[], byte[]> producer =
+      new MockProducer<>(true, null, new ByteArraySerializer(), new ByteArraySerializer());
+
+  private JsonPayload payload;
+
+  private int sent;
+
+  /** Record value bytes sent, reported as a rate next to the interactions */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Produced {
+
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      bytes = 0;
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() throws JsonProcessingException {
+    List<Installment> plan = new ArrayList<>();
+    for (int i = 0; i < installments; i++) {
+      plan.add(Installment.builder()
+          .nav(String.format("3%017d", i))
+          .iuv(String.format("%017d", i))
+          .amount(12000L)
+          .description("Rata " + (i + 1) + " - piano di rateizzazione")
+          .dueDate("2024-10-30T23:59:59")
+          .validFrom("2024-09-30T23:59:59")
+          .status(InstallmentEnum.POI_UNPAID)
+          .statusReason("desc")
+          .build());
+    }
+    payload = JsonPayload.of(objectMapper, PaymentOptionsResponse.builder()
+        .organizationFiscalCode("77777777777")
+        .companyName("Comune di Test")
+        .officeName("Ufficio Tributi")
+        .standin(false)
+        .paymentOptions(List.of(PaymentOption.builder()
+            .description("Test Opt Inst")
+            .numberOfInstallments(installments)
+            .dueDate("2024-10-30T23:59:59")
+            .validFrom("2024-09-30T23:59:59")
+            .amount(12000L * installments)
+            .status(PaymentOptionStatusEnum.PO_UNPAID)
+            .statusReason("desc")
+            .allCCP(false)
+            .installments(plan)
+            .build()))
+        .build());
+  }
+
+  @Benchmark
+  public void schemaV1(Produced produced) {
+    String dateTime = "2024-10-30T10:15Z";
+    send(produced, v1(EventType.REQ, dateTime, null));
+    send(produced, v1(EventType.REQ, dateTime, null));
+    send(produced, v1(EventType.RES, dateTime, payload));
+    send(produced, v1(EventType.RES, dateTime, payload));
+  }
+
+  @Benchmark
+  public void schemaV2(Produced produced) {
+    String now = Instant.now().toString();
+    send(produced, OdpVerifyReV2.builder()
+        .body(BodyV2.builder()
+            .id(UUID.randomUUID().toString())
+            .sessionId("6f1c3ae1-2c1b-4c3e-9f0e-0d6f5d7c9a11")
+            .status(Status.OK)
+            .organizationId("77777777777")
+            .stationId("77777777777_01")
+            .pspId("ABCDITMMXXX")
+            .brokerId("ABCDITMMXXX")
+            .noticeNumber("302000100000009424")
+            .phases(Phases.builder()
+                .pspRequest(now)
+                .ecRequest(now)
+                .ecResponse(now)
+                .pspResponse(now)
+                .build())
+            .payload(payload.getBase64())
+            .version("2")
+            .build())
+        .properties(Properties.builder().serviceIdentifier("ODP").build())
+        .build());
+  }
+
+  private static OdpVerifyRe v1(EventType eventType, String dateTime, JsonPayload payload) {
+    return OdpVerifyRe.builder()
+        .body(Body.builder()
+            .id(UUID.randomUUID().toString())
+            .sessionId("6f1c3ae1-2c1b-4c3e-9f0e-0d6f5d7c9a11")
+            .insertedTimestamp(dateTime)
+            .eventTimestamp(dateTime)
+            .status(Status.OK)
+            .eventType(eventType)
+            .stationId("77777777777_01")
+            .pspId("ABCDITMMXXX")
+            .brokerId("ABCDITMMXXX")
+            .organizationId("77777777777")
+            .noticeNumber("302000100000009424")
+            .payload(payload != null ? payload.getBase64() : null)
+            .version("1")
+            .build())
+        .properties(Properties.builder().serviceIdentifier("ODP").build())
+        .build();
+  }
+
+  private void send(Produced produced, OdpReEvent event) {
+    byte[] value = serializer.serialize(TOPIC, event);
+    produced.bytes += value.length;
+    producer.send(new ProducerRecord<>(TOPIC, value));
+    // the mock producer keeps the history of sent records
+    if (++sent == 4096) {
+      sent = 0;
+      producer.clear();
+    }
+  }
+}
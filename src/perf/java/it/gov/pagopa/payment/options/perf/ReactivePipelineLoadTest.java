@@ -0,0 +1,21 @@
+package it.gov.pagopa.payment.options.perf;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+
+/** Non-blocking execution under the same slow creditor institution as the baseline */
+@QuarkusTest
+@TestProfile(EcLatencyLoadTest.ReactiveProfile.class)
+class ReactivePipelineLoadTest extends EcLatencyLoadTest {
+
+  @Override
+  void assertThroughput(int ecLatencyMillis, double throughput) {
+    // at 50 ms the worker bound is above what the load generator itself can reach
+    if (ecLatencyMillis >= 500) {
+      assertTrue(throughput > workerBound(ecLatencyMillis) * 3,
+          "Non-blocking throughput " + throughput + " not above the worker bound " + workerBound(ecLatencyMillis));
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package it.gov.pagopa.payment.options.perf;
+
+import it.gov.pagopa.payment.options.exception.PaymentOptionsException;
+import it.gov.pagopa.payment.options.models.enums.AppErrorCodeEnum;
+import it.gov.pagopa.payment.options.util.LogSampler;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.helpers.NOPLogger;
+
+/**
+ * Cost of a config-validation rejection (unknown PSP) thrown at the stack depth of a request.
+ * Before: the exception captures its stack trace, which the exception mapper renders in the ERROR
+ * log. After: the exception is stackless and the rejection log is rate limited by the
+ * {@link LogSampler}, letting through the first 10 rejections every 10 seconds.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class RejectionBenchmark {
+
+  // frames below the validation code when serving a request on the worker pool
+  @Param({"80"})
+  int depth;
+
+  private final LogSampler logSampler = new LogSampler(10, Duration.ofSeconds(10), System::nanoTime);
+
+  @Benchmark
+  public String withStackTrace() {
+    try {
+      throwAt(depth, false);
+      return null;
+    } catch (PaymentOptionsException e) {
+      StringWriter log = new StringWriter();
+      log.append(e.getMessage()).append(System.lineSeparator());
+      e.printStackTrace(new PrintWriter(log));
+      return log.toString();
+    }
+  }
+
+  @Benchmark
+  public String stackless() {
+    try {
+      throwAt(depth, true);
+      return null;
+    } catch (PaymentOptionsException e) {
+      return logSampler.sample(NOPLogger.NOP_LOGGER, e.getErrorCode())
+          ? e.getErrorCode().getErrorCode() + ": " + e.getMessage()
+          : null;
+    }
+  }
+
+  private static void throwAt(int depth, boolean rejection) {
+    if (depth > 0) {
+      throwAt(depth - 1, rejection);
+      return;
+    }
+    String message = "PSP with id ABCDITMMXXX not found";
+    throw rejection
+        ? PaymentOptionsException.rejection(AppErrorCodeEnum.ODP_PSP_SCONOSCIUTO, message)
+        : new PaymentOptionsException(AppErrorCodeEnum.ODP_PSP_SCONOSCIUTO, message);
+  }
+}
@@ -0,0 +1,132 @@
+package it.gov.pagopa.payment.options.perf;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import it.gov.pagopa.payment.options.clients.PaymentOptionsResponseValidator;
+import it.gov.pagopa.payment.options.models.JsonPayload;
+import it.gov.pagopa.payment.options.models.clients.creditorInstitution.Installment;
+import it.gov.pagopa.payment.options.models.clients.creditorInstitution.PaymentOption;
+import it.gov.pagopa.payment.options.models.clients.creditorInstitution.PaymentOptionsResponse;
+import it.gov.pagopa.payment.options.models.clients.creditorInstitution.RawPaymentOptionsResponse;
+import it.gov.pagopa.payment.options.models.enums.InstallmentEnum;
+import it.gov.pagopa.payment.options.models.enums.PaymentOptionStatusEnum;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Encoding of a successful verify response for the two RES events and the HTTP response: one
+ * serialization and Base64 encoding per consumer against a single shared {@link JsonPayload}.
+ * The ecResponse benchmarks start from the creditor institution bytes, decoded into the model or
+ * validated and forwarded as received. Run with {@code -Djmh.args="-prof gc"}:
+ * gc.alloc.rate.norm is the allocation per request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class ResponsePayloadBenchmark {
+
+  @Param({"1", "24"})
+  int installments;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final ObjectReader reader = objectMapper.readerFor(PaymentOptionsResponse.class);
+
+  private PaymentOptionsResponse response;
+
+  private byte[] ecResponse;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    List<Installment> plan = new ArrayList<>();
+    for (int i = 0; i < installments; i++) {
+      plan.add(Installment.builder()
+          .nav(String.format("3%017d", i))
+          .iuv(String.format("%017d", i))
+          .amount(12000L)
+          .description("Rata " + (i + 1) + " - piano di rateizzazione")
+          .dueDate("2024-10-30T23:59:59")
+          .validFrom("2024-09-30T23:59:59")
+          .status(InstallmentEnum.POI_UNPAID)
+          .statusReason("desc")
+          .build());
+    }
+    response = PaymentOptionsResponse.builder()
+        .organizationFiscalCode("77777777777")
+        .companyName("Comune di Test")
+        .officeName("Ufficio Tributi")
+        .standin(false)
+        .paymentOptions(List.of(PaymentOption.builder()
+            .description("Test Opt Inst")
+            .numberOfInstallments(installments)
+            .dueDate("2024-10-30T23:59:59")
+            .validFrom("2024-09-30T23:59:59")
+            .amount(12000L * installments)
+            .status(PaymentOptionStatusEnum.PO_UNPAID)
+            .statusReason("desc")
+            .allCCP(false)
+            .installments(plan)
+            .build()))
+        .build();
+    try {
+      ecResponse = objectMapper.writeValueAsBytes(response);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Benchmark
+  public void serializedPerConsumer(Blackhole blackhole) throws JsonProcessingException {
+    for (int event = 0; event < 2; event++) {
+      String payload = objectMapper.writeValueAsString(response);
+      blackhole.consume(Base64.getMimeEncoder().encodeToString(payload.getBytes()));
+    }
+    blackhole.consume(objectMapper.writeValueAsBytes(response));
+  }
+
+  @Benchmark
+  public void serializedOnce(Blackhole blackhole) throws JsonProcessingException {
+    consumeOnce(blackhole, JsonPayload.of(objectMapper, response));
+  }
+
+  @Benchmark
+  public void ecResponseDecoded(Blackhole blackhole) throws IOException {
+    PaymentOptionsResponse decoded = reader.readValue(ecResponse);
+    consumeOnce(blackhole, JsonPayload.of(objectMapper, decoded));
+  }
+
+  @Benchmark
+  public void ecResponseForwarded(Blackhole blackhole) throws IOException {
+    if (!PaymentOptionsResponseValidator.isForwardable(objectMapper.getFactory(), ecResponse)) {
+      throw new IllegalStateException("EC response not forwardable");
+    }
+    consumeOnce(blackhole, new RawPaymentOptionsResponse(ecResponse, reader).getPayload().orElseThrow());
+  }
+
+  private static void consumeOnce(Blackhole blackhole, JsonPayload payload) {
+    for (int event = 0; event < 2; event++) {
+      blackhole.consume(payload.getBase64());
+    }
+    blackhole.consume(payload.getJson());
+  }
+}
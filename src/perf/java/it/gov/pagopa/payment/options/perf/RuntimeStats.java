@@ -0,0 +1,86 @@
+package it.gov.pagopa.payment.options.perf;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Point-in-time reading of the JVM counters covered by a load report: GC count and time per
+ * collector, bytes allocated, process CPU time and heap usage. The service, the stubs and the
+ * load generator share the JVM, so the figures are an upper bound of the service ones.
+ *
+ * <p>Allocation is the sum of the per-thread allocated bytes: threads ended between two readings
+ * are missed, the service pools being long lived.
+ */
+final class RuntimeStats {
+
+  private final long nanoTime = System.nanoTime();
+  private final Map<String, long[]> collectors = new LinkedHashMap<>();
+  private final Map<Long, Long> allocatedBytes = new HashMap<>();
+  private final long cpuNanos;
+  private final long heapUsed;
+
+  private RuntimeStats() {
+    for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+      collectors.put(collector.getName(),
+          new long[] {collector.getCollectionCount(), collector.getCollectionTime()});
+    }
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (threads instanceof com.sun.management.ThreadMXBean threadMXBean
+        && threadMXBean.isThreadAllocatedMemorySupported()
+        && threadMXBean.isThreadAllocatedMemoryEnabled()) {
+      long[] ids = threadMXBean.getAllThreadIds();
+      long[] bytes = threadMXBean.getThreadAllocatedBytes(ids);
+      for (int i = 0; i < ids.length; i++) {
+        if (bytes[i] >= 0) {
+          allocatedBytes.put(ids[i], bytes[i]);
+        }
+      }
+    }
+    cpuNanos = ManagementFactory.getOperatingSystemMXBean()
+        instanceof com.sun.management.OperatingSystemMXBean os ? os.getProcessCpuTime() : -1;
+    MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+    heapUsed = heap.getUsed();
+  }
+
+  static RuntimeStats capture() {
+    return new RuntimeStats();
+  }
+
+  /** Activity between this reading and a later one */
+  LoadReport.Runtime until(RuntimeStats end) {
+    double seconds = (end.nanoTime - nanoTime) / 1e9;
+
+    List<LoadReport.Collector> gc = new ArrayList<>();
+    long gcMillis = 0;
+    for (Map.Entry<String, long[]> collector : end.collectors.entrySet()) {
+      long[] from = collectors.getOrDefault(collector.getKey(), new long[2]);
+      long count = collector.getValue()[0] - from[0];
+      long millis = collector.getValue()[1] - from[1];
+      gcMillis += millis;
+      gc.add(new LoadReport.Collector(collector.getKey(), count, millis));
+    }
+
+    long allocated = 0;
+    for (Map.Entry<Long, Long> thread : end.allocatedBytes.entrySet()) {
+      allocated += thread.getValue() - allocatedBytes.getOrDefault(thread.getKey(), 0L);
+    }
+
+    return LoadReport.Runtime.builder()
+        .seconds(seconds)
+        .collectors(gc)
+        .gcTimeRatio(gcMillis / (seconds * 1000))
+        .allocatedBytes(allocated)
+        .allocationRateMbPerSecond(allocated / seconds / (1024 * 1024))
+        .cpuCores(cpuNanos >= 0 && end.cpuNanos >= 0 ? (end.cpuNanos - cpuNanos) / 1e9 / seconds : null)
+        .heapUsedStart(heapUsed)
+        .heapUsedEnd(end.heapUsed)
+        .build();
+  }
+}
@@ -0,0 +1,88 @@
+package it.gov.pagopa.payment.options.perf;
+
+import it.gov.pagopa.payment.options.models.snapshot.StationRoutingTable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Station resolution: nested {@code Map<String, Map<Long, String>>} index against the primitive
+ * {@link StationRoutingTable}. Lookups cycle over a precomputed mix of hits and misses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class StationRoutingBenchmark {
+
+  private static final int LOOKUPS = 1 << 14;
+
+  @Param({"20000"})
+  int creditorInstitutions;
+
+  private Map<String, Map<Long, String>> nestedIndex;
+  private StationRoutingTable routingTable;
+
+  private String[] lookupCodes;
+  private int[] lookupSegregationCodes;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    nestedIndex = new HashMap<>();
+    StationRoutingTable.Builder builder = StationRoutingTable.builder();
+    String[] stations = new String[Math.max(1, creditorInstitutions / 4)];
+    for (int i = 0; i < stations.length; i++) {
+      stations[i] = String.format("%011d_%02d", i, i % 100);
+    }
+    String[] codes = new String[creditorInstitutions];
+    for (int ci = 0; ci < creditorInstitutions; ci++) {
+      codes[ci] = String.format("%011d", ci);
+      int segregationCodes = ci % 100 == 0 ? 80 : 1 + ci % 3;
+      for (int seg = 0; seg < segregationCodes; seg++) {
+        String station = stations[(ci + seg) % stations.length];
+        nestedIndex.computeIfAbsent(codes[ci], k -> new HashMap<>()).put((long) seg, station);
+        builder.put(codes[ci], seg, station);
+      }
+    }
+    routingTable = builder.build();
+
+    SplittableRandom random = new SplittableRandom(42);
+    lookupCodes = new String[LOOKUPS];
+    lookupSegregationCodes = new int[LOOKUPS];
+    for (int i = 0; i < LOOKUPS; i++) {
+      // fresh String instances, as the fiscal code comes from the request path
+      lookupCodes[i] = new String(codes[random.nextInt(codes.length)]);
+      lookupSegregationCodes[i] = random.nextInt(4);
+    }
+  }
+
+  @Benchmark
+  public String nestedMapIndex() {
+    int i = next++ & (LOOKUPS - 1);
+    long segregationCode = lookupSegregationCodes[i];
+    Map<Long, String> bySegregationCode = nestedIndex.get(lookupCodes[i]);
+    return bySegregationCode != null ? bySegregationCode.get(segregationCode) : null;
+  }
+
+  @Benchmark
+  public String routingTable() {
+    int i = next++ & (LOOKUPS - 1);
+    return routingTable.resolve(lookupCodes[i], lookupSegregationCodes[i]);
+  }
+}
@@ -0,0 +1,127 @@
+package it.gov.pagopa.payment.options.perf;
+
+import static it.gov.pagopa.payment.options.perf.LoadHarnessResources.setting;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import it.gov.pagopa.payment.options.test.extensions.KafkaTestResourceLifecycleManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Load harness of getPaymentOptions: the service runs in-process against the stubs of {@link
+ * LoadHarnessResources}, while an {@link OpenModelLoad} sends verify requests for random notices
+ * of the synthetic cache, with enabled PSPs and brokers. The report is written to {@code
+ * target/load-report/verify-load.json} and {@code .html}.
+ *
+ * <p>Run with {@code mvn -Pperf test -Dtest=VerifyOpenModelLoadTest}, adding {@code
+ * -Dload.rate=} (requests per second, default 200), {@code -Dload.arrivals=} (POISSON or
+ * CONSTANT), {@code -Dload.warmup=} and {@code -Dload.duration=} (ISO-8601, default PT10S and
+ * PT30S), {@code -Dload.maxInFlight=}, {@code -Dload.execution=} (worker or reactive) and the
+ * stub settings.
+ */
+@QuarkusTest
+@TestProfile(VerifyOpenModelLoadTest.HarnessProfile.class)
+class VerifyOpenModelLoadTest {
+
+  private final Logger logger = LoggerFactory.getLogger(getClass());
+
+  @TestHTTPResource("/payment-options/organizations/")
+  URI organizationsUri;
+
+  LoadHarnessResources harness;
+
+  @Test
+  void verifyUnderOpenModelLoad() throws Exception {
+    OpenModelLoad.Plan plan = OpenModelLoad.Plan.builder()
+        .rate(Double.parseDouble(setting("rate", "200")))
+        .arrivals(OpenModelLoad.Arrivals.valueOf(setting("arrivals", "POISSON")))
+        .warmup(Duration.parse(setting("warmup", "PT10S")))
+        .duration(Duration.parse(setting("duration", "PT30S")))
+        .maxInFlight(Integer.parseInt(setting("maxInFlight", "10000")))
+        .build();
+    HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    ConfigCachePayloadGenerator generator = harness.generator();
+
+    LoadReport report = new OpenModelLoad(plan, client, random -> verify(generator, random)).run();
+    Map<String, String> environment = new HashMap<>(harness.environment());
+    environment.put("execution", setting("execution", "default"));
+    report = report.toBuilder().environment(environment).build();
+    Path directory = Path.of(setting("report.dir", "target/load-report"));
+    report.write(directory, "verify-load");
+
+    LoadReport.Percentiles latency = report.getLatencies().get("all");
+    logger.info("verify load: {} req/s offered, {} req/s served, p50 {} ms, p99 {} ms, "
+            + "p99.9 {} ms, statuses {} -> {}",
+        String.format("%.1f", report.getOfferedRate()), String.format("%.1f", report.getThroughput()),
+        latency.getValues().get("p50"), latency.getValues().get("p99"),
+        latency.getValues().get("p99.9"), report.getStatuses(), directory.toAbsolutePath());
+    assertTrue(report.getStatuses().getOrDefault("200", 0L) > 0, "No successful verify");
+  }
+
+  // a notice of an enabled creditor institution, on one of its segregation codes
+  private HttpRequest verify(ConfigCachePayloadGenerator generator, SplittableRandom random) {
+    ConfigCachePayloadGenerator.Spec spec = generator.getSpec();
+    int creditorInstitutions = spec.getCreditorInstitutions();
+    int entry;
+    do {
+      entry = random.nextInt(spec.getCreditorInstitutionStations());
+    } while (!ConfigCachePayloadGenerator.isEnabledCreditorInstitution(entry % creditorInstitutions));
+    int psp;
+    do {
+      psp = random.nextInt(spec.getPsps());
+    } while (!ConfigCachePayloadGenerator.isEnabledPsp(psp));
+
+    String noticeNumber = String.format("3%02d%015d",
+        entry / creditorInstitutions, random.nextLong(1_000_000_000_000_000L));
+    URI uri = organizationsUri.resolve(
+        ConfigCachePayloadGenerator.creditorInstitutionCode(entry % creditorInstitutions)
+            + "/notices/" + noticeNumber
+            + "?idPsp=" + ConfigCachePayloadGenerator.pspCode(psp)
+            + "&idBrokerPsp=" + ConfigCachePayloadGenerator.pspCode(random.nextInt(spec.getPspBrokers())));
+    return HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+  }
+
+  public static class HarnessProfile implements QuarkusTestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      Map<String, String> config = new HashMap<>();
+      config.put("quarkus.log.category.\"it.gov.pagopa\".level", "WARN");
+      config.put("quarkus.log.category.\"it.gov.pagopa.payment.options.perf\".level", "INFO");
+      String execution = setting("execution", null);
+      if (execution != null) {
+        config.put("PaymentOptions.execution", execution);
+      }
+      return config;
+    }
+
+    @Override
+    public List<TestResourceEntry> testResources() {
+      return List.of(
+          new TestResourceEntry(LoadHarnessResources.class),
+          new TestResourceEntry(KafkaTestResourceLifecycleManager.class));
+    }
+
+    @Override
+    public boolean disableGlobalTestResources() {
+      return true;
+    }
+  }
+}
@@ -0,0 +1,165 @@
+package it.gov.pagopa.payment.options.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.gov.pagopa.payment.options.models.ConfigCacheData;
+import it.gov.pagopa.payment.options.models.events.CacheUpdateEvent;
+import it.gov.pagopa.payment.options.perf.ApiConfigCacheStub;
+import it.gov.pagopa.payment.options.perf.ConfigCachePayloadGenerator;
+import it.gov.pagopa.payment.options.util.MemoryUtil;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Whole config cache refresh, from the api-config-cache request to the snapshot swap, against a
+ * local {@link ApiConfigCacheStub} serving synthetic caches of 120k (the national size) and 1.2M
+ * creditorInstitutionStations, the other collections scaled along. Each invocation is a refresh
+ * triggered by a newer cache update event, so the previous snapshot stays reachable while the
+ * new one is built, as in production.
+ *
+ * <p>Besides the refresh time, {@code heapPeakBytes} reports the peak heap during the refreshes
+ * of each iteration (JMH sums them in the total, the min, avg and max line being the one to read);
+ * add {@code -Djmh.args="-prof gc"} for the allocation and the GC activity. The stub bandwidth
+ * and latency can be set with {@code -p bandwidthMbps=} and {@code -p latencyMs=}, 0 meaning
+ * unbounded. The class lives in the services package to wire the service without CDI.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ConfigCacheRefreshBenchmark {
+
+  private static final String CACHE_VERSION = "benchmark";
+
+  @Param({"120000", "1200000"})
+  int creditorInstitutionStations;
+
+  @Param({"0"})
+  long bandwidthMbps;
+
+  @Param({"0"})
+  long latencyMs;
+
+  private final HttpClient httpClient = HttpClient.newHttpClient();
+
+  private ApiConfigCacheStub stub;
+  private ConfigCacheService configCacheService;
+  private long eventVersion;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    int scale = creditorInstitutionStations / 120_000;
+    ConfigCachePayloadGenerator generator = new ConfigCachePayloadGenerator(
+        ConfigCachePayloadGenerator.Spec.builder()
+            .creditorInstitutions(25_000 * scale)
+            .creditorInstitutionBrokers(2_500 * scale)
+            .stations(6_000 * scale)
+            .creditorInstitutionStations(creditorInstitutionStations)
+            .psps(700 * scale)
+            .pspBrokers(500 * scale)
+            .build());
+    stub = ApiConfigCacheStub.start(generator, 0, Duration.ofMillis(latencyMs),
+        bandwidthMbps * 1_000_000 / 8);
+
+    configCacheService = new ConfigCacheService();
+    configCacheService.apiConfigCacheClient = this::download;
+    configCacheService.creditorInstitutionService = new CreditorInstitutionService(
+        "https://10.79.20.33", "/forwarder", "https://gpd.example.it", null);
+    configCacheService.snapshotStore = new ConfigSnapshotStore(Optional.empty());
+    configCacheService.cacheMetrics = new ConfigCacheMetrics(null);
+    configCacheService.streamParser = new ConfigCacheStreamParser(new ObjectMapper());
+
+    // generates the payload out of the measurements, then serves a first snapshot
+    configCacheService.checkAndUpdateCache(nextEvent());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    stub.close();
+  }
+
+  // The fork runs nothing else, so the benchmark may reset the pool peaks the service only reads
+  @Setup(Level.Iteration)
+  public void resetHeapPeak() {
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+        pool.resetPeakUsage();
+      }
+    }
+  }
+
+  @Benchmark
+  public ConfigCacheData refresh(HeapPeak heapPeak) {
+    ConfigCacheData data = configCacheService.checkAndUpdateCache(nextEvent());
+    heapPeak.heapPeakBytes = Math.max(heapPeak.heapPeakBytes, MemoryUtil.heapPeakBytes());
+    return data;
+  }
+
+  private CacheUpdateEvent nextEvent() {
+    return CacheUpdateEvent.builder()
+        .cacheVersion(CACHE_VERSION)
+        .version(String.valueOf(++eventVersion))
+        .build();
+  }
+
+  /** Peak heap during the refreshes of an iteration */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class HeapPeak {
+
+    public long heapPeakBytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      heapPeakBytes = 0;
+    }
+  }
+
+  // Streaming download from the stub, in place of the REST client; not a class, which the
+  // Quarkus tests of the perf profile would discover as a bean
+  private InputStream download(List<String> keys) {
+    String query = keys.stream().map(key -> "keys=" + key).collect(Collectors.joining("&"));
+    try {
+      HttpResponse<InputStream> response = httpClient.send(
+          HttpRequest.newBuilder(stub.uri().resolve("/cache?" + query)).GET().build(),
+          HttpResponse.BodyHandlers.ofInputStream());
+      if (response.statusCode() != 200) {
+        response.body().close();
+        throw new IOException("api-config-cache stub answered " + response.statusCode());
+      }
+      return response.body();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
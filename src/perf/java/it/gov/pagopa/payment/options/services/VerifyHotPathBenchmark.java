@@ -0,0 +1,349 @@
+package it.gov.pagopa.payment.options.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.gov.pagopa.payment.options.clients.CreditorInstitutionRestClient;
+import it.gov.pagopa.payment.options.models.ConfigCacheData;
+import it.gov.pagopa.payment.options.models.JsonPayload;
+import it.gov.pagopa.payment.options.models.clients.cache.Connection.ProtocolEnum;
+import it.gov.pagopa.payment.options.models.clients.creditorInstitution.Installment;
+import it.gov.pagopa.payment.options.models.clients.creditorInstitution.PaymentOption;
+import it.gov.pagopa.payment.options.models.clients.creditorInstitution.PaymentOptionsResponse;
+import it.gov.pagopa.payment.options.models.enums.InstallmentEnum;
+import it.gov.pagopa.payment.options.models.enums.PaymentOptionStatusEnum;
+import it.gov.pagopa.payment.options.models.events.odpRe.EventType;
+import it.gov.pagopa.payment.options.models.events.odpRe.Status;
+import it.gov.pagopa.payment.options.models.snapshot.ConfigSnapshot;
+import it.gov.pagopa.payment.options.models.snapshot.ConfigSnapshotSource;
+import it.gov.pagopa.payment.options.models.snapshot.ConnectionSnapshot;
+import it.gov.pagopa.payment.options.models.snapshot.CreditorInstitutionSnapshot;
+import it.gov.pagopa.payment.options.models.snapshot.EcTarget;
+import it.gov.pagopa.payment.options.models.snapshot.StationRoute;
+import it.gov.pagopa.payment.options.models.snapshot.StationRoutingTable;
+import it.gov.pagopa.payment.options.models.snapshot.StationSnapshot;
+import it.gov.pagopa.payment.options.util.IdGenerator;
+import it.gov.pagopa.payment.options.util.TimeSource;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.reactive.messaging.Emitter;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * CPU work of a verify request before and after the creditor institution call, against synthetic
+ * config snapshots of 10k, 100k and 1M creditor institutions and PSPs, with a PSP broker and a
+ * station every 10 of them (up to 50k stations) and 1 to 3 segregation codes per creditor
+ * institution (80 for one in 100). Requests cycle over a precomputed mix spread over the whole
+ * snapshot, with fresh key instances as they come from the request path.
+ *
+ * <p>{@code verify} is the whole getPaymentOptions with the creditor institution answering at
+ * once; the other benchmarks are its steps: notice number parsing, route resolution (the PSP and
+ * broker checks and the precomputed station route lookup, through the service's own resolveRoute
+ * on the snapshot served by ConfigCacheService), forwarder path building, the construction of the
+ * two REQ and two RES events (version 1 schema) and the response serialization. The class lives
+ * in the services package to wire the service without CDI. Run with
+ * {@code -Djmh.includes=VerifyHotPathBenchmark}, adding {@code -Djmh.args="-prof gc"} for the
+ * allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class VerifyHotPathBenchmark {
+
+  private static final int REQUESTS = 1 << 14;
+
+  private static final String FORWARDER_IP = "10.79.20.33";
+
+  @Param({"10000", "100000", "1000000"})
+  int entries;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private ConfigCacheService configCacheService;
+  private EventService eventService;
+  private PaymentOptionsService paymentOptionsService;
+  private PaymentOptionsResponse response;
+  // encoded once per request, then shared by the RES events
+  private JsonPayload payload;
+
+  private String[] idPsps;
+  private String[] idBrokerPsps;
+  private String[] fiscalCodes;
+  private String[] noticeNumbers;
+  // validated as by the service, for the route resolution
+  private PaymentOptionsService.VerifyRequest[] requests;
+  private EcTarget[] targets;
+  private int next;
+
+  @Setup(Level.Trial)
+  @SuppressWarnings("unchecked")
+  public void setUp() throws Exception {
+    CreditorInstitutionService creditorInstitutionService = new CreditorInstitutionService(
+        "https://" + FORWARDER_IP, "/forwarder", "https://gpd.example.it",
+        new CreditorInstitutionRestClient(objectMapper, null, null, false, null) {
+          @Override
+          public PaymentOptionsResponse callEcPaymentOptionsVerify(
+              URL baseUrl, String targetHost, Long targetPort, String targetPath) {
+            return response;
+          }
+        });
+    ConfigCacheData data = syntheticConfig(creditorInstitutionService);
+    ConfigSnapshot snapshot = data.getSnapshot();
+
+    configCacheService = new ConfigCacheService();
+    Field cacheRef = ConfigCacheService.class.getDeclaredField("cacheRef");
+    cacheRef.setAccessible(true);
+    ((AtomicReference<ConfigCacheData>) cacheRef.get(configCacheService)).set(data);
+
+    eventService = new EventService();
+    eventService.odpVerifyReEmitter = new DiscardingEmitter<>();
+    eventService.verifyKoEmitter = new DiscardingEmitter<>();
+    eventService.reSchemaVersion = 1;
+    eventService.idGenerator = IdGenerator.timeOrdered();
+    // events built on the calling thread, instead of the publisher one
+    eventService.eventPublisher = new EventPublisher(
+        2, EventPublisher.OverflowPolicy.DROP_NEW, Duration.ZERO, 1, null, System::nanoTime) {
+      @Override
+      public boolean publish(Supplier<CompletionStage<?>> emission) {
+        emission.get();
+        return true;
+      }
+    };
+
+    paymentOptionsService = new PaymentOptionsService();
+    paymentOptionsService.objectMapper = objectMapper;
+    paymentOptionsService.configCacheService = configCacheService;
+    paymentOptionsService.creditorInstitutionService = creditorInstitutionService;
+    paymentOptionsService.eventService = eventService;
+    paymentOptionsService.timeSource = new TimeSource(System::currentTimeMillis, ZoneOffset.UTC);
+    paymentOptionsService.verifyMetrics = new VerifyMetrics(true, null, System::nanoTime);
+
+    response = PaymentOptionsResponse.builder()
+        .organizationFiscalCode("77777777777")
+        .companyName("Comune di Test")
+        .officeName("Ufficio Tributi")
+        .standin(false)
+        .paymentOptions(List.of(PaymentOption.builder()
+            .description("Test Opt Inst")
+            .numberOfInstallments(1)
+            .dueDate("2024-10-30T23:59:59")
+            .validFrom("2024-09-30T23:59:59")
+            .amount(12000L)
+            .status(PaymentOptionStatusEnum.PO_UNPAID)
+            .statusReason("desc")
+            .allCCP(false)
+            .installments(List.of(Installment.builder()
+                .nav("311111111111111111")
+                .iuv("11111111111111111")
+                .amount(12000L)
+                .description("Test Opt Inst - unica opzione")
+                .dueDate("2024-10-30T23:59:59")
+                .validFrom("2024-09-30T23:59:59")
+                .status(InstallmentEnum.POI_UNPAID)
+                .statusReason("desc")
+                .build()))
+            .build()))
+        .build();
+    payload = JsonPayload.of(objectMapper, response);
+
+    SplittableRandom random = new SplittableRandom(42);
+    idPsps = new String[REQUESTS];
+    idBrokerPsps = new String[REQUESTS];
+    fiscalCodes = new String[REQUESTS];
+    noticeNumbers = new String[REQUESTS];
+    requests = new PaymentOptionsService.VerifyRequest[REQUESTS];
+    targets = new EcTarget[REQUESTS];
+    for (int i = 0; i < REQUESTS; i++) {
+      int creditorInstitution = random.nextInt(entries);
+      long segregationCode = random.nextInt(segregationCodesOf(creditorInstitution));
+      idPsps[i] = pspCode(random.nextInt(entries));
+      idBrokerPsps[i] = brokerCode(random.nextInt(brokers()));
+      fiscalCodes[i] = fiscalCode(creditorInstitution);
+      noticeNumbers[i] = String.format("3%02d%015d", segregationCode, random.nextLong(1L << 40));
+      requests[i] = new PaymentOptionsService.VerifyRequest(
+          idPsps[i], idBrokerPsps[i], fiscalCodes[i], noticeNumbers[i], null, 0L, null);
+      PaymentOptionsService.validateRequest(requests[i]);
+      targets[i] = snapshot.getRoutes().get(fiscalCodes[i]).route(segregationCode).getTarget();
+    }
+  }
+
+  @Benchmark
+  public PaymentOptionsResponse verify() {
+    int i = next();
+    return paymentOptionsService.getPaymentOptions(
+        idPsps[i], idBrokerPsps[i], fiscalCodes[i], noticeNumbers[i], null);
+  }
+
+  @Benchmark
+  public long noticeNumber() {
+    return PaymentOptionsService.segregationCode(noticeNumbers[next()]);
+  }
+
+  @Benchmark
+  public StationRoute resolveRoute() {
+    return PaymentOptionsService.resolveRoute(
+        requests[next()], configCacheService.getConfigCacheData());
+  }
+
+  @Benchmark
+  public String verifyPath() {
+    int i = next();
+    return CreditorInstitutionService.verifyPath(targets[i], fiscalCodes[i], noticeNumbers[i]);
+  }
+
+  @Benchmark
+  public void events() {
+    int i = next();
+    String dateTime = "2024-10-30T10:15Z";
+    for (int event = 0; event < 2; event++) {
+      eventService.sendEvent(idPsps[i], idBrokerPsps[i], noticeNumbers[i], fiscalCodes[i],
+          targets[i].getStationCode(), null, dateTime, Status.OK, EventType.REQ, null, null, null);
+    }
+    for (int event = 0; event < 2; event++) {
+      eventService.sendEvent(idPsps[i], idBrokerPsps[i], noticeNumbers[i], fiscalCodes[i],
+          targets[i].getStationCode(), null, dateTime, Status.OK, EventType.RES, payload, null,
+          null);
+    }
+  }
+
+  @Benchmark
+  public void responseSerialization(Blackhole blackhole) throws JsonProcessingException {
+    JsonPayload payload = JsonPayload.of(objectMapper, response);
+    blackhole.consume(payload.getJson());
+    blackhole.consume(payload.getBase64());
+  }
+
+  private int next() {
+    return next++ & (REQUESTS - 1);
+  }
+
+  private ConfigCacheData syntheticConfig(CreditorInstitutionService creditorInstitutionService) {
+    ConfigSnapshotAssembler assembler = new ConfigSnapshotAssembler();
+    ConnectionSnapshot connection = new ConnectionSnapshot(ProtocolEnum.HTTPS, FORWARDER_IP, 443L);
+    // the routing table addresses up to 65534 stations
+    int stationCount = Math.max(1, Math.min(entries / 10, 50_000));
+    String[] stationCodes = new String[stationCount];
+    Map<String, StationSnapshot> stations = new HashMap<>();
+    for (int i = 0; i < stationCount; i++) {
+      stationCodes[i] = assembler.dedup(String.format("%011d_%02d", 90_000_000_000L + i, i % 100));
+      stations.put(stationCodes[i], StationSnapshot.builder()
+          .stationCode(stationCodes[i])
+          .enabled(true)
+          .verifyPaymentOptionEnabled(true)
+          .restEndpoint("https://ec" + i + ".example.it:8443/odp/v1")
+          .connection(connection)
+          .build());
+    }
+
+    Map<String, CreditorInstitutionSnapshot> creditorInstitutions = new HashMap<>();
+    Map<String, Boolean> psps = new HashMap<>();
+    StationRoutingTable.Builder routes = StationRoutingTable.builder();
+    for (int i = 0; i < entries; i++) {
+      String fiscalCode = assembler.dedup(fiscalCode(i));
+      creditorInstitutions.put(fiscalCode, new CreditorInstitutionSnapshot(fiscalCode, true));
+      for (int segregationCode = 0; segregationCode < segregationCodesOf(i); segregationCode++) {
+        routes.put(fiscalCode, segregationCode, stationCodes[(i + segregationCode) % stationCount]);
+      }
+      psps.put(assembler.dedup(pspCode(i)), true);
+    }
+    Map<String, Boolean> pspBrokers = new HashMap<>();
+    for (int i = 0; i < brokers(); i++) {
+      pspBrokers.put(assembler.dedup(brokerCode(i)), true);
+    }
+
+    ConfigSnapshotSource source = ConfigSnapshotSource.builder()
+        .version("1")
+        .stations(stations)
+        .creditorInstitutions(creditorInstitutions)
+        .psps(psps)
+        .pspBrokers(pspBrokers)
+        .routingTable(routes.build())
+        .build();
+    return ConfigCacheData.builder()
+        .cacheVersion("BENCHMARK")
+        .version("1")
+        .snapshot(ConfigSnapshotAssembler.snapshot(source, creditorInstitutionService::resolveTarget))
+        .build();
+  }
+
+  private int brokers() {
+    return Math.max(1, entries / 10);
+  }
+
+  private static int segregationCodesOf(int creditorInstitution) {
+    return creditorInstitution % 100 == 0 ? 80 : 1 + creditorInstitution % 3;
+  }
+
+  private static String fiscalCode(int creditorInstitution) {
+    return String.format("%011d", 80_000_000_000L + creditorInstitution);
+  }
+
+  private static String pspCode(int psp) {
+    return String.format("PSP%08dXX", psp);
+  }
+
+  private static String brokerCode(int broker) {
+    return String.format("BRK%08dXX", broker);
+  }
+
+  // Keeps the last event, so that building it cannot be optimized away
+  private static final class DiscardingEmitter<T> implements Emitter<T> {
+
+    private volatile Object last;
+
+    @Override
+    public CompletionStage<Void> send(T msg) {
+      last = msg;
+      return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public <M extends Message<? extends T>> void send(M msg) {
+      last = msg;
+    }
+
+    @Override
+    public void complete() {
+    }
+
+    @Override
+    public void error(Exception e) {
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return false;
+    }
+
+    @Override
+    public boolean hasRequests() {
+      return true;
+    }
+  }
+}
@@ -1,6 +1,9 @@
 package it.gov.pagopa.payment.options;
 
 import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
@@ -11,7 +14,10 @@ import io.quarkus.test.common.QuarkusTestResource;
 import io.quarkus.test.common.QuarkusTestResource.List;
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.junit.mockito.InjectSpy;
-import it.gov.pagopa.payment.options.models.clients.cache.Station;
+import it.gov.pagopa.payment.options.models.JsonPayload;
+import it.gov.pagopa.payment.options.models.events.odpRe.EventType;
+import it.gov.pagopa.payment.options.models.events.odpRe.Status;
+import it.gov.pagopa.payment.options.models.snapshot.EcTarget;
 import it.gov.pagopa.payment.options.services.ConfigCacheService;
 import it.gov.pagopa.payment.options.services.CreditorInstitutionService;
 import it.gov.pagopa.payment.options.services.EventService;
@@ -19,6 +25,7 @@ import it.gov.pagopa.payment.options.services.PaymentOptionsService;
 import it.gov.pagopa.payment.options.test.extensions.KafkaTestResourceLifecycleManager;
 import it.gov.pagopa.payment.options.test.extensions.WireMockExtensions;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 @QuarkusTest
 @List({
@@ -53,7 +60,7 @@ public class PaymentOptionsExtendedTest {
     verify(creditorInstitutionService).getPaymentOptions(
             eq("311111111112222222"),
             eq("77777777777"),
-            any(Station.class),
+            any(EcTarget.class),
             anyLong()
         );
     verify(eventService, times(0)).sendVerifyKoEvent(
@@ -61,4 +68,22 @@ public class PaymentOptionsExtendedTest {
 
   }
 
+  @Test
+  public void verifyOptionRequestOnValidDataShouldSerializeResponseOnce() {
+
+    byte[] body = given()
+        .when().get("/payment-options/organizations/77777777777/notices/311111111112222222?idPsp=00001&idBrokerPsp=00001")
+        .then()
+        .statusCode(200)
+        .extract().asByteArray();
+
+    ArgumentCaptor<JsonPayload> payloads = ArgumentCaptor.forClass(JsonPayload.class);
+    verify(eventService, times(2)).sendEvent(
+        any(), any(), any(), any(), any(), any(), any(), eq(Status.OK), eq(EventType.RES),
+        payloads.capture(), any(), any());
+    assertEquals(2, payloads.getAllValues().size());
+    assertSame(payloads.getAllValues().get(0), payloads.getAllValues().get(1));
+    assertArrayEquals(payloads.getValue().getJson(), body);
+  }
+
 }
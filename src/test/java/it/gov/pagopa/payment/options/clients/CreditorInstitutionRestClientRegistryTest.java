@@ -0,0 +1,204 @@
+package it.gov.pagopa.payment.options.clients;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import jakarta.ws.rs.core.Response;
+import java.net.URL;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CreditorInstitutionRestClientRegistryTest {
+
+  private final AtomicLong clock = new AtomicLong();
+  private final AtomicInteger built = new AtomicInteger();
+  private final List<CreditorInstitutionRestClientInterface> clients = new CopyOnWriteArrayList<>();
+
+  private CreditorInstitutionRestClientRegistry registry;
+
+  @BeforeEach
+  void init() {
+    registry = buildRegistry(2);
+  }
+
+  @Test
+  @SneakyThrows
+  void getShouldReuseClientForSameUrl() {
+    CreditorInstitutionRestClientInterface first = client(new URL("http://forwarder:80/api"));
+    CreditorInstitutionRestClientInterface second = client(new URL("http://forwarder:80/api"));
+
+    assertSame(first, second);
+    assertEquals(1, built.get());
+    assertEquals(1, registry.getMisses());
+    assertEquals(1, registry.getHits());
+  }
+
+  @Test
+  @SneakyThrows
+  void getShouldBuildNewClientWhenConnectionChanges() {
+    CreditorInstitutionRestClientInterface http = client(new URL("http://forwarder:80/api"));
+    CreditorInstitutionRestClientInterface https = client(new URL("https://forwarder:443/api"));
+
+    assertNotSame(http, https);
+    assertEquals(2, built.get());
+    assertEquals(2, registry.getMisses());
+  }
+
+  @Test
+  @SneakyThrows
+  void concurrentMissesShouldKeepOneClientAndCloseTheOthers() {
+    URL url = new URL("http://forwarder:80/api");
+    CountDownLatch building = new CountDownLatch(2);
+    registry = new CreditorInstitutionRestClientRegistry(2, Duration.ofMinutes(1), null,
+        baseUrl -> {
+          built.incrementAndGet();
+          building.countDown();
+          try {
+            assertTrue(building.await(5, TimeUnit.SECONDS));
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          CreditorInstitutionRestClientInterface client = mock(
+              CreditorInstitutionRestClientInterface.class,
+              withSettings().extraInterfaces(AutoCloseable.class));
+          clients.add(client);
+          return client;
+        },
+        clock::get);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<CreditorInstitutionRestClientInterface> first = executor.submit(() -> client(url));
+      Future<CreditorInstitutionRestClientInterface> second = executor.submit(() -> client(url));
+
+      // both requests built a client: one of them is registered, the other closed
+      assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+      assertEquals(2, built.get());
+      assertEquals(1, registry.getMisses());
+      assertEquals(1, registry.getHits());
+      assertEquals(1, registry.size());
+      CreditorInstitutionRestClientInterface kept = first.get();
+      CreditorInstitutionRestClientInterface loser = clients.get(0) == kept
+          ? clients.get(1) : clients.get(0);
+      verify((AutoCloseable) loser).close();
+      verify((AutoCloseable) kept, never()).close();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  @SneakyThrows
+  void getShouldEvictLeastRecentlyUsedWhenFull() {
+    CreditorInstitutionRestClientInterface a = client(new URL("http://a:80/api"));
+    clock.addAndGet(1);
+    client(new URL("http://b:80/api"));
+    clock.addAndGet(1);
+    client(new URL("http://a:80/api"));
+    clock.addAndGet(1);
+    client(new URL("http://c:80/api"));
+
+    assertEquals(2, registry.size());
+    assertEquals(1, registry.getEvictions());
+    // "b" was the least recently used: "a" must still be served by the same instance
+    assertSame(a, client(new URL("http://a:80/api")));
+  }
+
+  @Test
+  @SneakyThrows
+  void getShouldEvictIdleClients() {
+    registry = buildRegistry(10);
+    client(new URL("http://a:80/api"));
+    client(new URL("http://b:80/api"));
+
+    clock.addAndGet(Duration.ofMinutes(2).toNanos());
+    client(new URL("http://c:80/api"));
+
+    assertEquals(1, registry.size());
+    assertEquals(2, registry.getEvictions());
+  }
+
+  @Test
+  @SneakyThrows
+  void evictionShouldCloseClientOnlyAfterInFlightCall() {
+    registry = buildRegistry(1);
+    CountDownLatch inFlight = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Response response = mock(Response.class);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<?> call = executor.submit(() -> {
+        try (CreditorInstitutionRestClientRegistry.Lease lease =
+            registry.acquire(new URL("http://a:80/api"))) {
+          when(lease.client().verifyPaymentOptions(anyString(), anyInt(), anyString()))
+              .thenAnswer(invocation -> {
+                inFlight.countDown();
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+                return response;
+              });
+          lease.client().verifyPaymentOptions("host", 80, "/path").close();
+        }
+        return null;
+      });
+      assertTrue(inFlight.await(5, TimeUnit.SECONDS));
+      AutoCloseable a = (AutoCloseable) clients.get(0);
+
+      // the registry is full: leasing "b" evicts "a" while its call is in flight
+      clock.addAndGet(1);
+      client(new URL("http://b:80/api"));
+      assertEquals(1, registry.getEvictions());
+      assertEquals(1, registry.size());
+      verify(a, never()).close();
+
+      release.countDown();
+      call.get(5, TimeUnit.SECONDS);
+      verify(response).close();
+      verify(a).close();
+      verify((AutoCloseable) clients.get(1), never()).close();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @SneakyThrows
+  private CreditorInstitutionRestClientInterface client(URL baseUrl) {
+    try (CreditorInstitutionRestClientRegistry.Lease lease = registry.acquire(baseUrl)) {
+      return lease.client();
+    }
+  }
+
+  private CreditorInstitutionRestClientRegistry buildRegistry(int maxSize) {
+    return new CreditorInstitutionRestClientRegistry(
+        maxSize,
+        Duration.ofMinutes(1),
+        null,
+        url -> {
+          built.incrementAndGet();
+          CreditorInstitutionRestClientInterface client = mock(
+              CreditorInstitutionRestClientInterface.class,
+              withSettings().extraInterfaces(AutoCloseable.class));
+          clients.add(client);
+          return client;
+        },
+        clock::get);
+  }
+}
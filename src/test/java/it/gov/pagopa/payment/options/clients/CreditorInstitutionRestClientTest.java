@@ -2,7 +2,10 @@ package it.gov.pagopa.payment.options.clients;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -13,19 +16,24 @@ import static it.gov.pagopa.payment.options.models.enums.AppErrorCodeEnum.ODP_ER
 
 import io.quarkus.test.common.QuarkusTestResource;
 import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.mutiny.Uni;
 import it.gov.pagopa.payment.options.exception.CreditorInstitutionException;
 import it.gov.pagopa.payment.options.exception.PaymentOptionsException;
 import it.gov.pagopa.payment.options.models.ErrorResponse;
 import it.gov.pagopa.payment.options.models.clients.creditorInstitution.PaymentOptionsResponse;
+import it.gov.pagopa.payment.options.models.clients.creditorInstitution.RawPaymentOptionsResponse;
 import it.gov.pagopa.payment.options.models.enums.AppErrorCodeEnum;
 import it.gov.pagopa.payment.options.models.enums.CreditorInstitutionErrorEnum;
 import it.gov.pagopa.payment.options.services.CreditorInstitutionService;
 import it.gov.pagopa.payment.options.test.extensions.WireMockExtensions;
+import it.gov.pagopa.payment.options.util.TimeSource;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.core.Response;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import lombok.SneakyThrows;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.resteasy.reactive.ClientWebApplicationException;
@@ -33,6 +41,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @QuarkusTest
@@ -52,6 +61,10 @@ class CreditorInstitutionRestClientTest {
   
   @Inject CreditorInstitutionService sut;
 
+  @Inject CreditorInstitutionRestClientRegistry clientRegistry;
+
+  @Inject TimeSource timeSource;
+
   @Test
   void callEcPaymentOptionsVerifyShouldReturnData() {
     PaymentOptionsResponse paymentOptionsResponse =
@@ -66,6 +79,19 @@ class CreditorInstitutionRestClientTest {
     assertNotNull(paymentOptionsResponse);
   }
 
+  @Test
+  @SneakyThrows
+  void callEcPaymentOptionsVerifyShouldReuseClientForSameForwarder() {
+    URL url = new URL(wiremockUrl);
+    String targetPath = "/payment-options/organizations/77777777777/notices/311111111112222222";
+
+    creditorInstitutionRestClient.callEcPaymentOptionsVerify(url, TARGET_HOST, TARGET_PORT, targetPath);
+    long misses = clientRegistry.getMisses();
+    creditorInstitutionRestClient.callEcPaymentOptionsVerify(url, TARGET_HOST, TARGET_PORT, targetPath);
+
+    assertEquals(misses, clientRegistry.getMisses());
+  }
+
   @ParameterizedTest
   @ValueSource(strings = {"87777777777", "57777777777", "97777777777"})
   @SneakyThrows
@@ -92,6 +118,7 @@ class CreditorInstitutionRestClientTest {
     assertEquals(
         CreditorInstitutionErrorEnum.PAA_SYSTEM_ERROR.name(),
         exception.getErrorResponse().getErrorMessage());
+    assertNull(exception.getCreditorInstitutionError());
   }
 
   @Test
@@ -121,6 +148,9 @@ class CreditorInstitutionRestClientTest {
             .getErrorResponse()
             .getErrorMessage()
             .startsWith(AppErrorCodeEnum.ODP_ERRORE_EMESSO_DA_PAA.name()));
+    assertEquals(
+        CreditorInstitutionErrorEnum.PAA_PAGAMENTO_SCONOSCIUTO,
+        exception.getCreditorInstitutionError());
   }
 
   @Test
@@ -167,7 +197,7 @@ class CreditorInstitutionRestClientTest {
       ObjectMapper om = new ObjectMapper();
 
       CreditorInstitutionRestClient client =
-          new CreditorInstitutionRestClient(om, gpdMock);
+          new CreditorInstitutionRestClient(om, gpdMock, mock(CreditorInstitutionRestClientRegistry.class), false, timeSource);
 
       PaymentOptionsResponse expected = PaymentOptionsResponse.builder().build();
       String body = om.writeValueAsString(expected);
@@ -186,6 +216,58 @@ class CreditorInstitutionRestClientTest {
   }
   
  
+  @Test
+  void callGpdPaymentOptionsVerifyShouldForwardValidResponseAsReceived() throws Exception {
+      GpdCoreRestClientInterface gpdMock = mock(GpdCoreRestClientInterface.class);
+      ObjectMapper om = new ObjectMapper();
+      CreditorInstitutionRestClient client =
+          new CreditorInstitutionRestClient(om, gpdMock, mock(CreditorInstitutionRestClientRegistry.class), true, timeSource);
+
+      byte[] body = """
+          {"organizationFiscalCode": "77777777777", "standin": false,
+           "paymentOptions": [{"amount": 120, "status": "PO_UNPAID",
+             "installments": [{"nav": "311111111111111111", "status": "POI_UNPAID"}]}]}
+          """.getBytes(StandardCharsets.UTF_8);
+      Response response = mock(Response.class);
+      when(response.readEntity(byte[].class)).thenReturn(body);
+      when(gpdMock.verifyPaymentOptions(any(), any(), any())).thenReturn(response);
+
+      PaymentOptionsResponse result =
+          client.callGpdPaymentOptionsVerify("77777777777", "311111111111111111", null);
+
+      RawPaymentOptionsResponse raw = assertInstanceOf(RawPaymentOptionsResponse.class, result);
+      assertSame(body, raw.getPayload().orElseThrow().getJson());
+      assertEquals("77777777777", result.getOrganizationFiscalCode());
+      assertEquals(120L, result.getPaymentOptions().get(0).getAmount());
+  }
+
+  @Test
+  void callGpdPaymentOptionsVerifyShouldDecodeResponseNeedingNormalization() throws Exception {
+      GpdCoreRestClientInterface gpdMock = mock(GpdCoreRestClientInterface.class);
+      ObjectMapper om = new ObjectMapper()
+          .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+      CreditorInstitutionRestClient client =
+          new CreditorInstitutionRestClient(om, gpdMock, mock(CreditorInstitutionRestClientRegistry.class), true, timeSource);
+
+      Response response = mock(Response.class);
+      when(response.readEntity(byte[].class)).thenReturn(
+          "{\"organizationFiscalCode\": \"77777777777\", \"iupd\": \"IUPD_1\"}"
+              .getBytes(StandardCharsets.UTF_8),
+          "NOT_JSON".getBytes(StandardCharsets.UTF_8));
+      when(gpdMock.verifyPaymentOptions(any(), any(), any())).thenReturn(response);
+
+      PaymentOptionsResponse result =
+          client.callGpdPaymentOptionsVerify("77777777777", "311111111111111111", null);
+      CreditorInstitutionException parsing = assertThrows(
+          CreditorInstitutionException.class,
+          () -> client.callGpdPaymentOptionsVerify("77777777777", "311111111111111111", null));
+
+      assertFalse(result instanceof RawPaymentOptionsResponse);
+      assertEquals("77777777777", result.getOrganizationFiscalCode());
+      assertEquals(
+          CreditorInstitutionErrorEnum.PAA_SYSTEM_ERROR.name(), parsing.getErrorResponse().getErrorMessage());
+  }
+
   @Test
   void callGpdPaymentOptionsVerifyShouldMapBusinessErrorFromGpd() throws Exception {
 
@@ -193,7 +275,7 @@ class CreditorInstitutionRestClientTest {
       ObjectMapper om = new ObjectMapper();
 
       CreditorInstitutionRestClient client =
-          new CreditorInstitutionRestClient(om, gpdMock);
+          new CreditorInstitutionRestClient(om, gpdMock, mock(CreditorInstitutionRestClientRegistry.class), false, timeSource);
 
       ErrorResponse err = ErrorResponse.builder()
           .httpStatusCode(404)
@@ -246,7 +328,7 @@ class CreditorInstitutionRestClientTest {
       ObjectMapper om = new ObjectMapper();
 
       CreditorInstitutionRestClient client =
-          new CreditorInstitutionRestClient(om, gpdMock);
+          new CreditorInstitutionRestClient(om, gpdMock, mock(CreditorInstitutionRestClientRegistry.class), false, timeSource);
 
       ClientWebApplicationException cwae = mock(ClientWebApplicationException.class);
       when(cwae.getResponse()).thenReturn(null);
@@ -271,7 +353,7 @@ class CreditorInstitutionRestClientTest {
       ObjectMapper om = new ObjectMapper();
 
       CreditorInstitutionRestClient client =
-          new CreditorInstitutionRestClient(om, gpdMock);
+          new CreditorInstitutionRestClient(om, gpdMock, mock(CreditorInstitutionRestClientRegistry.class), false, timeSource);
 
       Response response = mock(Response.class);
       when(response.getStatus()).thenReturn(200);
@@ -299,7 +381,7 @@ class CreditorInstitutionRestClientTest {
       ObjectMapper om = new ObjectMapper();
 
       CreditorInstitutionRestClient client =
-          new CreditorInstitutionRestClient(om, gpdMock);
+          new CreditorInstitutionRestClient(om, gpdMock, mock(CreditorInstitutionRestClientRegistry.class), false, timeSource);
 
       ErrorResponse err = ErrorResponse.builder()
           .httpStatusCode(500)
@@ -334,7 +416,7 @@ class CreditorInstitutionRestClientTest {
       ObjectMapper om = new ObjectMapper();
 
       CreditorInstitutionRestClient client =
-          new CreditorInstitutionRestClient(om, gpdMock);
+          new CreditorInstitutionRestClient(om, gpdMock, mock(CreditorInstitutionRestClientRegistry.class), false, timeSource);
 
       Response resp = mock(Response.class);
       when(resp.readEntity(String.class)).thenReturn("THIS_IS_NOT_JSON");
@@ -375,7 +457,7 @@ class CreditorInstitutionRestClientTest {
 	  ObjectMapper om = new ObjectMapper();
 
 	  CreditorInstitutionRestClient client =
-			  new CreditorInstitutionRestClient(om, gpdMock);
+			  new CreditorInstitutionRestClient(om, gpdMock, mock(CreditorInstitutionRestClientRegistry.class), false, timeSource);
 
 	  ErrorResponse err = ErrorResponse.builder()
 			  .httpStatusCode(500)
@@ -411,7 +493,7 @@ class CreditorInstitutionRestClientTest {
 	  ObjectMapper om = new ObjectMapper();
 
 	  CreditorInstitutionRestClient client =
-			  new CreditorInstitutionRestClient(om, gpdMock);
+			  new CreditorInstitutionRestClient(om, gpdMock, mock(CreditorInstitutionRestClientRegistry.class), false, timeSource);
 
 	  RuntimeException generic = new RuntimeException("generic failure");
 
@@ -432,4 +514,113 @@ class CreditorInstitutionRestClientTest {
 	  assertSame(generic, ex.getCause());
   }
   
-}
\ No newline at end of file
+  //============================================================
+  //  Non-blocking variants
+  // ============================================================
+
+  @Test
+  @SneakyThrows
+  void callEcPaymentOptionsVerifyAsyncShouldReturnData() {
+    PaymentOptionsResponse paymentOptionsResponse =
+        creditorInstitutionRestClient.callEcPaymentOptionsVerifyAsync(
+                new URL(wiremockUrl),
+                TARGET_HOST,
+                TARGET_PORT,
+                "/payment-options/organizations/77777777777/notices/311111111112222222")
+            .await().atMost(Duration.ofSeconds(10));
+
+    assertNotNull(paymentOptionsResponse);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"87777777777", "57777777777", "97777777777", "67777777777"})
+  @SneakyThrows
+  void callEcPaymentOptionsVerifyAsyncShouldFailLikeBlockingCall(String fiscalCode) {
+    URL url = new URL(wiremockUrl);
+    String targetPath =
+        String.format("/payment-options/organizations/%s/notices/311111111112222222", fiscalCode);
+
+    CreditorInstitutionException expected =
+        assertThrows(
+            CreditorInstitutionException.class,
+            () -> creditorInstitutionRestClient.callEcPaymentOptionsVerify(
+                url, TARGET_HOST, TARGET_PORT, targetPath));
+    CreditorInstitutionException exception =
+        assertThrows(
+            CreditorInstitutionException.class,
+            () -> creditorInstitutionRestClient.callEcPaymentOptionsVerifyAsync(
+                    url, TARGET_HOST, TARGET_PORT, targetPath)
+                .await().atMost(Duration.ofSeconds(10)));
+
+    assertEquals(expected.getMessage(), exception.getMessage());
+    assertEquals(
+        expected.getErrorResponse().getHttpStatusCode(),
+        exception.getErrorResponse().getHttpStatusCode());
+    assertEquals(
+        expected.getErrorResponse().getAppErrorCode(),
+        exception.getErrorResponse().getAppErrorCode());
+    assertEquals(
+        expected.getErrorResponse().getErrorMessage(),
+        exception.getErrorResponse().getErrorMessage());
+  }
+
+  @Test
+  void callGpdPaymentOptionsVerifyAsyncShouldMapBusinessErrorFromGpd() throws Exception {
+    GpdCoreRestClientInterface gpdMock = mock(GpdCoreRestClientInterface.class);
+    ObjectMapper om = new ObjectMapper();
+    CreditorInstitutionRestClient client =
+        new CreditorInstitutionRestClient(om, gpdMock, mock(CreditorInstitutionRestClientRegistry.class), false, timeSource);
+
+    Response resp = mock(Response.class);
+    when(resp.getStatus()).thenReturn(404);
+    when(resp.readEntity(String.class)).thenReturn(om.writeValueAsString(ErrorResponse.builder()
+        .httpStatusCode(404)
+        .appErrorCode("ODP-404")
+        .errorMessage("PAA_SOME_ERROR details")
+        .build()));
+    ClientWebApplicationException cwae = mock(ClientWebApplicationException.class);
+    when(cwae.getResponse()).thenReturn(resp);
+    when(gpdMock.verifyPaymentOptionsAsync(any(), any(), any()))
+        .thenReturn(Uni.createFrom().failure(cwae));
+
+    CreditorInstitutionException ex = assertThrows(
+        CreditorInstitutionException.class,
+        () -> client.callGpdPaymentOptionsVerifyAsync("77777777777", "311111111111111111", null)
+            .await().atMost(Duration.ofSeconds(5)));
+
+    assertEquals(
+        ODP_ERRORE_EMESSO_DA_PAA.getErrorCode(), ex.getErrorResponse().getAppErrorCode());
+    assertEquals(
+        CreditorInstitutionErrorEnum.PAA_SYSTEM_ERROR.name(), ex.getErrorResponse().getErrorMessage());
+  }
+
+  @Test
+  void callGpdPaymentOptionsVerifyAsyncShouldMapParsingAndNetworkErrors() {
+    GpdCoreRestClientInterface gpdMock = mock(GpdCoreRestClientInterface.class);
+    CreditorInstitutionRestClient client =
+        new CreditorInstitutionRestClient(
+            new ObjectMapper(), gpdMock, mock(CreditorInstitutionRestClientRegistry.class), false, timeSource);
+
+    Response response = mock(Response.class);
+    when(response.readEntity(String.class)).thenReturn("NOT_JSON");
+    RuntimeException generic = new RuntimeException("generic failure");
+    when(gpdMock.verifyPaymentOptionsAsync(any(), any(), any()))
+        .thenReturn(Uni.createFrom().item(response))
+        .thenReturn(Uni.createFrom().failure(generic));
+
+    CreditorInstitutionException parsing = assertThrows(
+        CreditorInstitutionException.class,
+        () -> client.callGpdPaymentOptionsVerifyAsync("77777777777", "311111111111111111", null)
+            .await().atMost(Duration.ofSeconds(5)));
+    PaymentOptionsException network = assertThrows(
+        PaymentOptionsException.class,
+        () -> client.callGpdPaymentOptionsVerifyAsync("77777777777", "311111111111111111", null)
+            .await().atMost(Duration.ofSeconds(5)));
+
+    assertEquals(
+        CreditorInstitutionErrorEnum.PAA_SYSTEM_ERROR.name(), parsing.getErrorResponse().getErrorMessage());
+    assertEquals(AppErrorCodeEnum.ODP_STAZIONE_INT_PA_IRRAGGIUNGIBILE, network.getErrorCode());
+    assertSame(generic, network.getCause());
+  }
+
+}
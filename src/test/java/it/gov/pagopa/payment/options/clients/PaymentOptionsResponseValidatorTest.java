@@ -0,0 +1,67 @@
+package it.gov.pagopa.payment.options.clients;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class PaymentOptionsResponseValidatorTest {
+
+  private final JsonFactory jsonFactory = new JsonFactory();
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "{}",
+      "{\"organizationFiscalCode\": \"77777777777\", \"companyName\": null, \"standin\": true}",
+      " {\"paymentOptions\": [{\"numberOfInstallments\": 2, \"amount\": 12000000000,"
+          + " \"status\": \"PO_PARTIALLY_PAID\", \"allCCP\": false, \"installments\": [null,"
+          + " {\"nav\": \"311111111111111111\", \"amount\": 120, \"status\": \"POI_PAID\"}]}]}\n",
+      "{\"companyName\": \"Comune di Città\", \"paymentOptions\": null}"
+  })
+  void isForwardableShouldAcceptResponsesMatchingTheModel(String json) throws IOException {
+    assertTrue(PaymentOptionsResponseValidator.isForwardable(jsonFactory, utf8(json)));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "null",
+      "[]",
+      "{\"iupd\": \"IUPD_1\"}",
+      "{\"standin\": \"true\"}",
+      "{\"companyName\": \"A\", \"companyName\": \"B\"}",
+      "{\"paymentOptions\": [{\"amount\": 120.5}]}",
+      "{\"paymentOptions\": [{\"numberOfInstallments\": 3000000000}]}",
+      "{\"paymentOptions\": [{\"status\": \"non pagato\"}]}",
+      "{\"paymentOptions\": [{\"installments\": [{\"debtor\": {}}]}]}",
+      "{\"paymentOptions\": {}}",
+      "{} {}"
+  })
+  void isForwardableShouldRejectResponsesNeedingNormalization(String json) throws IOException {
+    assertFalse(PaymentOptionsResponseValidator.isForwardable(jsonFactory, utf8(json)));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"UTF-16BE", "UTF-16LE"})
+  void isForwardableShouldRejectOtherEncodings(String charset) throws IOException {
+    byte[] json = "{\"companyName\": \"A\"}".getBytes(charset);
+
+    assertFalse(PaymentOptionsResponseValidator.isForwardable(jsonFactory, json));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"NOT_JSON", "{\"companyName\": ", "{\"companyName\" \"A\"}"})
+  void isForwardableShouldFailOnMalformedJson(String json) {
+    assertThrows(JsonProcessingException.class,
+        () -> PaymentOptionsResponseValidator.isForwardable(jsonFactory, utf8(json)));
+  }
+
+  private static byte[] utf8(String json) {
+    return json.getBytes(StandardCharsets.UTF_8);
+  }
+}
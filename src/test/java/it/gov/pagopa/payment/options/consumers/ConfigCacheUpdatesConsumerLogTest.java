@@ -1,7 +1,8 @@
 package it.gov.pagopa.payment.options.consumers;
 
 import it.gov.pagopa.payment.options.models.events.CacheUpdateEvent;
-import it.gov.pagopa.payment.options.services.ConfigCacheService;
+import it.gov.pagopa.payment.options.services.ConfigCacheMetrics;
+import it.gov.pagopa.payment.options.services.ConfigCacheRefreshScheduler;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
@@ -15,16 +16,17 @@ import static org.mockito.Mockito.*;
 class ConfigCacheUpdatesConsumerLogTest {
 
   private ConfigCacheUpdatesConsumer consumer;
-  private ConfigCacheService configCacheService;
+  private ConfigCacheRefreshScheduler refreshScheduler;
   private Logger slf4jLogger;
 
   @BeforeEach
   void setUp() throws Exception {
     consumer = new ConfigCacheUpdatesConsumer();
 
-    // inject mocked service
-    configCacheService = mock(ConfigCacheService.class);
-    consumer.configCacheService = configCacheService;
+    // inject mocked scheduler
+    refreshScheduler = mock(ConfigCacheRefreshScheduler.class);
+    consumer.refreshScheduler = refreshScheduler;
+    consumer.cacheMetrics = mock(ConfigCacheMetrics.class);
 
     slf4jLogger = mock(Logger.class);
     Field f = ConfigCacheUpdatesConsumer.class.getDeclaredField("logger");
@@ -33,10 +35,7 @@ class ConfigCacheUpdatesConsumerLogTest {
   }
 
   @Test
-  void consume_withKo_shouldLogErrorAndNotThrow() {
-	  when(configCacheService.checkAndUpdateCache(any()))
-	  .thenThrow(new RuntimeException("exception"));
-
+  void consume_shouldScheduleRefreshAndLogReceivedEvent() {
 	  CacheUpdateEvent event = CacheUpdateEvent.builder()
 			  .cacheVersion("CACHE")
 			  .version("11221")
@@ -45,14 +44,12 @@ class ConfigCacheUpdatesConsumerLogTest {
 
 	  assertDoesNotThrow(() -> consumer.consume(event));
 
-	  verify(configCacheService).checkAndUpdateCache(any());
-
-	  verify(slf4jLogger).error(
-			  eq("[Payment Options] Cache update failed (cacheVersion={}, version={}). Keeping previous snapshot. Cause: {}"),
+	  verify(refreshScheduler).submit(event);
+	  verify(slf4jLogger).info(
+			  eq("[Payment Options] Received update event with cacheVersion {} and version {}"),
 			  eq("CACHE"),
-			  eq("11221"),
-			  eq("exception"),
-			  any(RuntimeException.class)
+			  eq("11221")
 			  );
+	  verify(slf4jLogger, never()).error(anyString(), any(Object[].class));
   }
-}
\ No newline at end of file
+}
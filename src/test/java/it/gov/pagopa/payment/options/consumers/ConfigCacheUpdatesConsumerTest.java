@@ -13,6 +13,7 @@ import org.mockito.Mockito;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -40,7 +41,7 @@ class ConfigCacheUpdatesConsumerTest {
 				.version("11221")
 				.timestamp("12121212")
 				.build());
-		verify(configCacheService).checkAndUpdateCache(any());
+		verify(configCacheService, timeout(5000)).checkAndUpdateCache(any());
 	}
 
 	@Test
@@ -54,7 +55,7 @@ class ConfigCacheUpdatesConsumerTest {
 				.timestamp("12121212")
 				.build()));
 
-		verify(configCacheService).checkAndUpdateCache(any());
+		verify(configCacheService, timeout(5000)).checkAndUpdateCache(any());
 	}
 	
 	@Test
@@ -0,0 +1,151 @@
+package it.gov.pagopa.payment.options.filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.gov.pagopa.payment.options.filters.ApiLoggingFilter.Mode;
+import it.gov.pagopa.payment.options.models.ErrorResponse;
+import it.gov.pagopa.payment.options.util.IdGenerator;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import org.jboss.logmanager.ExtLogRecord;
+import org.jboss.logmanager.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ApiLoggingFilterTest {
+
+  private final Logger logger = Logger.getLogger(ApiLoggingFilter.class.getName());
+
+  private final List<Map<String, String>> logged = new ArrayList<>();
+
+  private final Handler handler = new Handler() {
+    @Override
+    public void publish(LogRecord record) {
+      if (isLoggable(record)) {
+        logged.add(((ExtLogRecord) record).getMdcCopy());
+      }
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+  };
+
+  private Level level;
+
+  @BeforeEach
+  void setUp() {
+    level = logger.getLevel();
+    logger.addHandler(handler);
+  }
+
+  @AfterEach
+  void tearDown() {
+    logger.removeHandler(handler);
+    logger.setLevel(level);
+  }
+
+  @Test
+  void lazyModeShouldLogTheSameFieldsAsMdcMode() {
+    logger.setLevel(Level.INFO);
+    ErrorResponse errorResponse = ErrorResponse.builder()
+        .httpStatusCode(404)
+        .httpStatusDescription("Not Found")
+        .appErrorCode("ODP-107")
+        .errorMessage("PSP with id 00001 not found")
+        .timestamp(1724425035L)
+        .dateTime("2024-08-23T14:57:15.635528")
+        .build();
+
+    List<Map<String, String>> mdc = operation(Mode.MDC, 404, errorResponse);
+    List<Map<String, String>> lazy = operation(Mode.LAZY, 404, errorResponse);
+
+    assertEquals(2, mdc.size());
+    assertEquals(2, lazy.size());
+    for (int i = 0; i < 2; i++) {
+      assertEquals(withoutVariableFields(mdc.get(i)), withoutVariableFields(lazy.get(i)));
+      assertNotNull(lazy.get(i).get(ApiLoggingFilter.OPERATION_ID));
+      assertNotNull(lazy.get(i).get(ApiLoggingFilter.REQUEST_ID));
+      assertTrue(Long.parseLong(lazy.get(i).get(ApiLoggingFilter.START_TIME)) > 0);
+    }
+    assertEquals("{\"idPsp\":[\"00001\"]}", lazy.get(0).get(ApiLoggingFilter.ARGS));
+    assertEquals("404", lazy.get(1).get(ApiLoggingFilter.CODE));
+    assertEquals("ODP-107", lazy.get(1).get(ApiLoggingFilter.FAULT_CODE));
+    assertTrue(lazy.get(1).get(ApiLoggingFilter.RESPONSE).contains("\"appErrorCode\":\"ODP-107\""));
+    assertTrue(Long.parseLong(lazy.get(1).get(ApiLoggingFilter.RESPONSE_TIME)) >= 0);
+    assertNull(org.jboss.logmanager.MDC.getObject(ApiLoggingFilter.METHOD));
+    assertNull(org.jboss.logmanager.MDC.getObject(ApiLoggingFilter.ARGS));
+  }
+
+  @Test
+  void lazyModeShouldNotRenderFieldsWhenNotLogged() throws Exception {
+    logger.setLevel(Level.WARNING);
+    ObjectMapper objectMapper = spy(new ObjectMapper());
+    ApiLoggingFilter filter =
+        new ApiLoggingFilter(objectMapper, IdGenerator.timeOrdered(), Mode.LAZY);
+
+    ApiLogContext logContext = filter.logRequest("getPaymentOptions", queryParams());
+    assertEquals("getPaymentOptions", org.jboss.logmanager.MDC.get(ApiLoggingFilter.METHOD));
+    filter.logResponse(logContext, 404, ErrorResponse.builder().httpStatusCode(404).build());
+
+    assertTrue(logged.isEmpty());
+    verify(objectMapper, never()).writeValueAsString(any());
+    assertNull(org.jboss.logmanager.MDC.getObject(ApiLoggingFilter.START_TIME));
+  }
+
+  @Test
+  void lazyModeShouldLogUnexpectedResponsesAsMdcMode() {
+    logger.setLevel(Level.INFO);
+
+    List<Map<String, String>> mdc = operation(Mode.MDC, 500, "boom");
+    List<Map<String, String>> lazy = operation(Mode.LAZY, 500, "boom");
+
+    assertEquals(withoutVariableFields(mdc.get(1)), withoutVariableFields(lazy.get(1)));
+    assertEquals("KO", lazy.get(1).get(ApiLoggingFilter.STATUS));
+    assertEquals("500", lazy.get(1).get(ApiLoggingFilter.CODE));
+    assertEquals("", lazy.get(1).get(ApiLoggingFilter.RESPONSE));
+  }
+
+  private List<Map<String, String>> operation(Mode mode, int status, Object entity) {
+    logged.clear();
+    ApiLoggingFilter filter =
+        new ApiLoggingFilter(new ObjectMapper(), IdGenerator.timeOrdered(), mode);
+    filter.logResponse(filter.logRequest("getPaymentOptions", queryParams()), status, entity);
+    return new ArrayList<>(logged);
+  }
+
+  private static MultivaluedMap<String, String> queryParams() {
+    MultivaluedMap<String, String> queryParams = new MultivaluedHashMap<>();
+    queryParams.add("idPsp", "00001");
+    return queryParams;
+  }
+
+  private static Map<String, String> withoutVariableFields(Map<String, String> mdc) {
+    Map<String, String> fields = new HashMap<>(mdc);
+    fields.remove(ApiLoggingFilter.START_TIME);
+    fields.remove(ApiLoggingFilter.RESPONSE_TIME);
+    fields.remove(ApiLoggingFilter.OPERATION_ID);
+    fields.remove(ApiLoggingFilter.REQUEST_ID);
+    return fields;
+  }
+}
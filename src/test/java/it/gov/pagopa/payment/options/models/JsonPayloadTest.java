@@ -0,0 +1,49 @@
+package it.gov.pagopa.payment.options.models;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.gov.pagopa.payment.options.models.clients.creditorInstitution.PaymentOption;
+import it.gov.pagopa.payment.options.models.clients.creditorInstitution.PaymentOptionsResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+class JsonPayloadTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void base64ShouldMatchThePreviousEventEncoding() throws JsonProcessingException {
+    // long enough for the MIME encoder to break lines
+    PaymentOptionsResponse response = PaymentOptionsResponse.builder()
+        .organizationFiscalCode("77777777777")
+        .companyName("Comune di Città")
+        .paymentOptions(Collections.nCopies(5,
+            PaymentOption.builder().description("Test Opt Inst - unica opzione").amount(120L).build()))
+        .build();
+
+    JsonPayload payload = JsonPayload.of(objectMapper, response);
+
+    String json = objectMapper.writeValueAsString(response);
+    assertArrayEquals(json.getBytes(StandardCharsets.UTF_8), payload.getJson());
+    assertEquals(payload.getJson().length, payload.size());
+    assertEquals(Base64.getMimeEncoder().encodeToString(json.getBytes(StandardCharsets.UTF_8)),
+        payload.getBase64());
+    assertSame(payload.getBase64(), payload.getBase64());
+  }
+
+  @Test
+  void ofRequestShouldBeEmptyOutsideRequests() throws JsonProcessingException {
+    PaymentOptionsResponse response = PaymentOptionsResponse.builder().build();
+
+    JsonPayload.of(objectMapper, response).attachTo(null);
+
+    assertTrue(JsonPayload.ofRequest(response).isEmpty());
+  }
+}
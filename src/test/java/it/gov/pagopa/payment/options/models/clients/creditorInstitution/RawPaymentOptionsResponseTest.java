@@ -0,0 +1,55 @@
+package it.gov.pagopa.payment.options.models.clients.creditorInstitution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class RawPaymentOptionsResponseTest {
+
+  private static final byte[] JSON = """
+      {"companyName":"EC","paymentOptions":[{"description":"unica opzione","amount":120}]}"""
+      .getBytes(StandardCharsets.UTF_8);
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void readingFieldsShouldKeepForwardingTheReceivedBytes() {
+    RawPaymentOptionsResponse response = raw();
+
+    assertEquals("EC", response.getCompanyName());
+
+    assertSame(JSON, response.getPayload().orElseThrow().getJson());
+  }
+
+  @Test
+  void setterShouldApplyAndStopForwardingTheReceivedBytes() throws Exception {
+    RawPaymentOptionsResponse response = raw();
+
+    response.setCompanyName("changed");
+
+    assertEquals("changed", response.getCompanyName());
+    assertFalse(response.getPayload().isPresent());
+    assertTrue(objectMapper.writeValueAsString(response).contains("\"companyName\":\"changed\""));
+  }
+
+  @Test
+  void modifiedPaymentOptionsShouldBeSerialized() throws Exception {
+    RawPaymentOptionsResponse response = raw();
+
+    response.getPaymentOptions().get(0).setAmount(130L);
+
+    assertFalse(response.getPayload().isPresent());
+    PaymentOptionsResponse serialized = objectMapper.readValue(
+        objectMapper.writeValueAsBytes(response), PaymentOptionsResponse.class);
+    assertEquals(130L, serialized.getPaymentOptions().get(0).getAmount());
+  }
+
+  private RawPaymentOptionsResponse raw() {
+    return new RawPaymentOptionsResponse(JSON, objectMapper.readerFor(PaymentOptionsResponse.class));
+  }
+}
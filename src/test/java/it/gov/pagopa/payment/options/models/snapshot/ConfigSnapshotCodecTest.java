@@ -0,0 +1,115 @@
+package it.gov.pagopa.payment.options.models.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import it.gov.pagopa.payment.options.models.ConfigCacheData;
+import it.gov.pagopa.payment.options.models.clients.cache.Connection.ProtocolEnum;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ConfigSnapshotCodecTest {
+
+  @Test
+  void readShouldRestoreWrittenData() throws IOException {
+    ConnectionSnapshot connection = new ConnectionSnapshot(ProtocolEnum.HTTPS, "apim", 443L);
+    StationRoutingTable.Builder routes = StationRoutingTable.builder()
+        .put("CI1", 1L, "ST1")
+        .put("CI2", 5L, "ST2");
+    for (int segregationCode = 0; segregationCode < StationRoutingTable.SEGREGATION_CODES; segregationCode++) {
+      routes.put("CI3", segregationCode, "ST1");
+    }
+    ConfigCacheData data = ConfigCacheData.builder()
+        .cacheVersion("CACHE")
+        .version("7")
+        .eventVersion("11")
+        .build();
+    ConfigSnapshotSource source = ConfigSnapshotSource.builder()
+        .version("7")
+        .stations(Map.of(
+            "ST1", StationSnapshot.builder().stationCode("ST1").enabled(true)
+                .verifyPaymentOptionEnabled(true).restEndpoint("https://ec.it/verify")
+                .connection(connection).build(),
+            "ST2", StationSnapshot.builder().stationCode("ST2")
+                .connection(new ConnectionSnapshot(ProtocolEnum.HTTPS, "apim", 443L)).build(),
+            "ST3", StationSnapshot.builder().stationCode("ST3")
+                .connection(new ConnectionSnapshot(null, null, null)).build()))
+        .creditorInstitutions(Map.of("CI1", new CreditorInstitutionSnapshot("CI1", true)))
+        .psps(Map.of("PSP1", true, "PSP2", false))
+        .pspBrokers(null)
+        .routingTable(routes.build())
+        .build();
+
+    ConfigSnapshotCodec.Stored read = ConfigSnapshotCodec.read(encode(data, source));
+
+    assertEquals("CACHE", read.getData().getCacheVersion());
+    assertEquals("7", read.getData().getVersion());
+    assertEquals("11", read.getData().getEventVersion());
+    assertNull(read.getData().getSnapshot());
+    assertFalse(read.getData().isRestored());
+    assertEquals("7", read.getSource().getVersion());
+    assertEquals(source.getStations(), read.getSource().getStations());
+    assertSame(read.getSource().getStations().get("ST1").getConnection(),
+        read.getSource().getStations().get("ST2").getConnection());
+    assertEquals(source.getCreditorInstitutions(), read.getSource().getCreditorInstitutions());
+    assertEquals(Map.of("PSP1", true, "PSP2", false), read.getSource().getPsps());
+    assertNull(read.getSource().getPspBrokers());
+
+    StationRoutingTable table = read.getSource().getRoutingTable();
+    assertEquals("ST1", table.resolve("CI1", 1));
+    assertEquals("ST2", table.resolve("CI2", 5));
+    assertEquals("ST1", table.resolve("CI3", 99));
+    assertNull(table.resolve("CI1", 5));
+    assertEquals(3, table.size());
+  }
+
+  @Test
+  void readShouldKeepMissingRoutingTable() throws IOException {
+    ConfigSnapshotCodec.Stored read = ConfigSnapshotCodec.read(
+        encode(ConfigCacheData.builder().build(), ConfigSnapshotSource.builder().build()));
+
+    assertNull(read.getSource().getRoutingTable());
+    assertNull(read.getSource().getStations());
+    assertNull(read.getData().getCacheVersion());
+  }
+
+  @Test
+  void readShouldRejectCorruptedOrTruncatedData() throws IOException {
+    ByteBuffer encoded = encode(
+        ConfigCacheData.builder().cacheVersion("CACHE").build(),
+        ConfigSnapshotSource.builder()
+            .stations(Map.of())
+            .routingTable(StationRoutingTable.builder().put("CI1", 1L, "ST1").build())
+            .build());
+
+    ByteBuffer corrupted = ByteBuffer.allocate(encoded.remaining()).put(encoded.duplicate()).flip();
+    corrupted.put(10, (byte) (corrupted.get(10) ^ 1));
+    ByteBuffer truncated = encoded.duplicate().limit(encoded.limit() - 1);
+
+    assertThrows(IOException.class, () -> ConfigSnapshotCodec.read(corrupted));
+    assertThrows(IOException.class, () -> ConfigSnapshotCodec.read(truncated));
+    assertThrows(IOException.class, () -> ConfigSnapshotCodec.read(ByteBuffer.allocate(4)));
+  }
+
+  @Test
+  void isValidRoutesShouldRejectUnknownOrdinals() {
+    assertTrue(StationRoutingTable.isValidRoutes(new short[] {1, 2}, 2));
+    assertFalse(StationRoutingTable.isValidRoutes(new short[] {1, 3}, 2));
+    assertFalse(StationRoutingTable.isValidRoutes(new short[] {100, 1}, 2));
+    assertFalse(StationRoutingTable.isValidRoutes(new short[] {1}, 2));
+  }
+
+  private static ByteBuffer encode(ConfigCacheData data, ConfigSnapshotSource source)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ConfigSnapshotCodec.write(data, source, out);
+    return ByteBuffer.wrap(out.toByteArray());
+  }
+}
@@ -0,0 +1,65 @@
+package it.gov.pagopa.payment.options.models.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import it.gov.pagopa.payment.options.models.clients.cache.Connection.ProtocolEnum;
+import it.gov.pagopa.payment.options.services.ConfigSnapshotAssembler;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+class ConfigSnapshotFootprintTest {
+
+  @Test
+  void estimateShouldBeCloseToTheMeasuredSize() {
+    ConfigSnapshotAssembler assembler = new ConfigSnapshotAssembler();
+    ConnectionSnapshot connection = new ConnectionSnapshot(ProtocolEnum.HTTPS, "10.0.0.1", 443L);
+    Map<String, StationSnapshot> stations = new HashMap<>();
+    for (int i = 0; i < 500; i++) {
+      String stationCode = assembler.dedup(String.format("%011d_%02d", i, i % 100));
+      stations.put(stationCode, StationSnapshot.builder()
+          .stationCode(stationCode)
+          .enabled(true)
+          .verifyPaymentOptionEnabled(true)
+          .restEndpoint("https://ec" + i + ".it/verify")
+          .connection(connection)
+          .build());
+    }
+    String[] stationCodes = stations.keySet().toArray(String[]::new);
+    Map<String, CreditorInstitutionSnapshot> creditorInstitutions = new HashMap<>();
+    Map<String, Boolean> psps = new HashMap<>();
+    StationRoutingTable.Builder routes = StationRoutingTable.builder();
+    for (int i = 0; i < 5_000; i++) {
+      String creditorInstitutionCode = assembler.dedup(String.format("%011d", 80_000_000_000L + i));
+      creditorInstitutions.put(creditorInstitutionCode,
+          new CreditorInstitutionSnapshot(creditorInstitutionCode, true));
+      for (int segregationCode = 0; segregationCode < i % 5; segregationCode++) {
+        routes.put(creditorInstitutionCode, segregationCode,
+            stationCodes[(i + segregationCode) % stationCodes.length]);
+      }
+      psps.put(assembler.dedup("PSP" + i), i % 2 == 0);
+    }
+    ConfigSnapshot snapshot = ConfigSnapshotAssembler.snapshot(ConfigSnapshotSource.builder()
+        .version("42")
+        .stations(stations)
+        .creditorInstitutions(creditorInstitutions)
+        .psps(psps)
+        .pspBrokers(Map.of())
+        .routingTable(routes.build())
+        .build(), station -> EcTarget.gpd(station.getStationCode()));
+
+    long estimated = ConfigSnapshotFootprint.estimate(snapshot);
+    long measured = GraphLayout.parseInstance(snapshot).totalSize();
+
+    assertTrue(Math.abs(estimated - measured) < measured / 10,
+        "estimated " + estimated + " bytes, measured " + measured + " bytes");
+  }
+
+  @Test
+  void estimateShouldAcceptMissingData() {
+    assertEquals(0, ConfigSnapshotFootprint.estimate(null));
+    assertTrue(ConfigSnapshotFootprint.estimate(ConfigSnapshot.builder().build()) > 0);
+  }
+}
@@ -0,0 +1,98 @@
+package it.gov.pagopa.payment.options.models.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+class StationRoutingTableTest {
+
+  @Test
+  void resolveShouldServePackedRoutes() {
+    StationRoutingTable table = StationRoutingTable.builder()
+        .put("CI1", 0L, "ST1")
+        .put("CI1", 99L, "ST2")
+        .put("CI2", 5L, "ST1")
+        .build();
+
+    assertEquals("ST1", table.resolve("CI1", 0));
+    assertEquals("ST2", table.resolve("CI1", 99));
+    assertEquals("ST1", table.resolve("CI2", 5));
+    assertNull(table.resolve("CI1", 5));
+    assertNull(table.resolve("CI3", 0));
+    assertEquals(2, table.size());
+    assertEquals(2, table.stationCount());
+  }
+
+  @Test
+  void resolveShouldServeDenseRoutes() {
+    StationRoutingTable.Builder builder = StationRoutingTable.builder();
+    for (int segregationCode = 0; segregationCode < StationRoutingTable.SEGREGATION_CODES; segregationCode += 2) {
+      builder.put("CI1", segregationCode, "ST" + segregationCode);
+    }
+    StationRoutingTable table = builder.build();
+
+    assertEquals("ST0", table.resolve("CI1", 0));
+    assertEquals("ST98", table.resolve("CI1", 98));
+    assertNull(table.resolve("CI1", 99));
+  }
+
+  @Test
+  void resolveShouldIgnoreOutOfRangeSegregationCodes() {
+    StationRoutingTable table = StationRoutingTable.builder()
+        .put("CI1", 100L, "ST1")
+        .put("CI1", -1L, "ST1")
+        .put("CI1", 1L, "ST1")
+        .build();
+
+    assertEquals("ST1", table.resolve("CI1", 1));
+    assertNull(table.resolve("CI1", 100));
+    assertNull(table.resolve("CI1", -1));
+    assertEquals(1, table.stationCount());
+  }
+
+  @Test
+  void buildShouldKeepLastStationForSamePairAndShareEmptyTable() {
+    StationRoutingTable table = StationRoutingTable.builder()
+        .put("CI1", 1L, "ST1")
+        .put("CI1", 1L, "ST2")
+        .build();
+
+    assertEquals("ST2", table.resolve("CI1", 1));
+    assertSame(StationRoutingTable.empty(), StationRoutingTable.builder().build());
+    assertTrue(StationRoutingTable.empty().isEmpty());
+  }
+
+  @Test
+  void routingTableShouldRetainLessThanHalfOfNestedMapIndex() {
+    // National-scale shape: most creditor institutions use a few segregation codes, some many.
+    Map<String, Map<Long, String>> nestedIndex = new HashMap<>();
+    StationRoutingTable.Builder builder = StationRoutingTable.builder();
+    String[] stations = new String[5_000];
+    for (int i = 0; i < stations.length; i++) {
+      stations[i] = String.format("%011d_%02d", i, i % 100);
+    }
+    for (int ci = 0; ci < 20_000; ci++) {
+      String creditorInstitutionCode = String.format("%011d", ci);
+      int segregationCodes = ci % 100 == 0 ? 80 : 1 + ci % 3;
+      for (int seg = 0; seg < segregationCodes; seg++) {
+        String station = stations[(ci + seg) % stations.length];
+        nestedIndex.computeIfAbsent(creditorInstitutionCode, k -> new HashMap<>())
+            .put((long) seg, station);
+        builder.put(creditorInstitutionCode, seg, station);
+      }
+    }
+    StationRoutingTable table = builder.build();
+
+    long nestedBytes = GraphLayout.parseInstance(nestedIndex).totalSize();
+    long tableBytes = GraphLayout.parseInstance(table).totalSize();
+
+    assertTrue(tableBytes * 2 < nestedBytes,
+        "routing table " + tableBytes + " bytes, nested map index " + nestedBytes + " bytes");
+  }
+}
@@ -0,0 +1,81 @@
+package it.gov.pagopa.payment.options.resources;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.common.QuarkusTestResource.List;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.quarkus.test.junit.mockito.InjectSpy;
+import io.vertx.core.Context;
+import it.gov.pagopa.payment.options.models.enums.AppErrorCodeEnum;
+import it.gov.pagopa.payment.options.services.CreditorInstitutionService;
+import it.gov.pagopa.payment.options.services.PaymentOptionsService;
+import it.gov.pagopa.payment.options.test.extensions.KafkaTestResourceLifecycleManager;
+import it.gov.pagopa.payment.options.test.extensions.WireMockExtensions;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+@TestProfile(PaymentOptionsResourceReactiveTest.ReactiveProfile.class)
+@List({
+    @QuarkusTestResource(value = WireMockExtensions.class),
+    @QuarkusTestResource(value = KafkaTestResourceLifecycleManager.class)
+})
+class PaymentOptionsResourceReactiveTest {
+
+  @InjectSpy
+  PaymentOptionsService paymentOptionsService;
+
+  @InjectSpy
+  CreditorInstitutionService creditorInstitutionService;
+
+  @Test
+  void verifyOptionRequestOnValidDataShouldReturnOkResponseFromEventLoop() {
+    AtomicReference<Boolean> onEventLoop = new AtomicReference<>();
+    doAnswer(invocation -> {
+      onEventLoop.set(Context.isOnEventLoopThread());
+      return invocation.callRealMethod();
+    }).when(creditorInstitutionService).getPaymentOptionsAsync(any(), any(), any(), anyLong());
+
+    given()
+        .when().get("/payment-options/organizations/77777777777/notices/311111111112222222?idPsp=00001&idBrokerPsp=00001")
+        .then()
+        .statusCode(200);
+
+    verify(paymentOptionsService).getPaymentOptionsAsync(
+        eq("00001"), eq("00001"), eq("77777777777"), eq("311111111112222222"), any());
+    verify(paymentOptionsService, never()).getPaymentOptions(any(), any(), any(), any(), any());
+    assertEquals(Boolean.TRUE, onEventLoop.get());
+  }
+
+  @Test
+  void verifyOptionRequestOnUnknownCreditorInstitutionShouldBeMappedAsWorkerExecution() {
+    AppErrorCodeEnum errorCode = AppErrorCodeEnum.ODP_DOMINIO_SCONOSCIUTO;
+
+    given()
+        .when().get("/payment-options/organizations/88888888888/notices/311111111112222222?idPsp=00001&idBrokerPsp=00001")
+        .then()
+        .statusCode(errorCode.getStatus().getStatusCode())
+        .body("appErrorCode", equalTo(errorCode.getErrorCode()))
+        .body("errorMessage", equalTo("Creditor institution with id 88888888888 not found"));
+  }
+
+  public static class ReactiveProfile implements QuarkusTestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      return Map.of("PaymentOptions.execution", "reactive");
+    }
+  }
+}
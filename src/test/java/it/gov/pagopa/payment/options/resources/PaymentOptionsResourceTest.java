@@ -38,7 +38,7 @@ class PaymentOptionsResourceTest {
         PaymentOptionsResponse.builder().build());
     RestResponse<PaymentOptionsResponse> paymentOptionsResponse = assertDoesNotThrow(
         () -> paymentOptionsResource.getPaymentOptions(
-        "00001", "300000001", "00001", "00001", null));
+        "00001", "300000001", "00001", "00001", null).await().indefinitely());
     assertNotNull(paymentOptionsResponse);
     assertNotNull(paymentOptionsResponse.getEntity());
   }
@@ -49,7 +49,7 @@ class PaymentOptionsResourceTest {
         new CreditorInstitutionException(ErrorResponse.builder().build(), "message"));
     CreditorInstitutionException creditorInstitutionException = assertThrows(
         CreditorInstitutionException.class, () -> paymentOptionsResource.getPaymentOptions(
-        "00001", "300000001", "00001", "00001", null));
+        "00001", "300000001", "00001", "00001", null).await().indefinitely());
     assertNotNull(creditorInstitutionException);
   }
 
@@ -59,7 +59,7 @@ class PaymentOptionsResourceTest {
         new PaymentOptionsException(AppErrorCodeEnum.ODP_SYSTEM_ERROR, "message"));
     PaymentOptionsException paymentOptionsException = assertThrows(
         PaymentOptionsException.class, () -> paymentOptionsResource.getPaymentOptions(
-            "00001", "300000001", "00001", "00001", null));
+            "00001", "300000001", "00001", "00001", null).await().indefinitely());
     assertNotNull(paymentOptionsException);
   }
 
@@ -0,0 +1,66 @@
+package it.gov.pagopa.payment.options.resources;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.common.QuarkusTestResource.List;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectSpy;
+import io.vertx.core.Context;
+import it.gov.pagopa.payment.options.filters.ApiLoggingFilter;
+import it.gov.pagopa.payment.options.models.enums.AppErrorCodeEnum;
+import it.gov.pagopa.payment.options.services.PaymentOptionsService;
+import it.gov.pagopa.payment.options.test.extensions.KafkaTestResourceLifecycleManager;
+import it.gov.pagopa.payment.options.test.extensions.WireMockExtensions;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+@QuarkusTest
+@List({
+    @QuarkusTestResource(value = WireMockExtensions.class),
+    @QuarkusTestResource(value = KafkaTestResourceLifecycleManager.class)
+})
+class PaymentOptionsResourceWorkerTest {
+
+  @InjectSpy
+  PaymentOptionsService paymentOptionsService;
+
+  @Test
+  void verifyOptionRequestOnValidDataShouldSeeLoggingFilterMdcOffEventLoop() {
+    Map<String, String> mdc = new ConcurrentHashMap<>();
+    Map<String, Boolean> onEventLoop = new ConcurrentHashMap<>();
+    doAnswer(invocation -> {
+      onEventLoop.put("service", Context.isOnEventLoopThread());
+      mdc.put(ApiLoggingFilter.METHOD, MDC.get(ApiLoggingFilter.METHOD));
+      mdc.put(ApiLoggingFilter.OPERATION_ID, MDC.get(ApiLoggingFilter.OPERATION_ID));
+      return invocation.callRealMethod();
+    }).when(paymentOptionsService).getPaymentOptions(any(), any(), any(), any(), any());
+
+    given()
+        .when().get("/payment-options/organizations/77777777777/notices/311111111112222222?idPsp=00001&idBrokerPsp=00001")
+        .then()
+        .statusCode(200);
+
+    assertEquals(Boolean.FALSE, onEventLoop.get("service"));
+    assertEquals("getPaymentOptions", mdc.get(ApiLoggingFilter.METHOD));
+    assertNotNull(mdc.get(ApiLoggingFilter.OPERATION_ID));
+  }
+
+  @Test
+  void verifyOptionRequestOnUnknownCreditorInstitutionShouldBeMappedToErrorResponse() {
+    AppErrorCodeEnum errorCode = AppErrorCodeEnum.ODP_DOMINIO_SCONOSCIUTO;
+
+    given()
+        .when().get("/payment-options/organizations/88888888888/notices/311111111112222222?idPsp=00001&idBrokerPsp=00001")
+        .then()
+        .statusCode(errorCode.getStatus().getStatusCode())
+        .body("appErrorCode", equalTo(errorCode.getErrorCode()));
+  }
+}
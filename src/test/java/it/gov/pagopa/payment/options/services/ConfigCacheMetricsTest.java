@@ -0,0 +1,141 @@
+package it.gov.pagopa.payment.options.services;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import it.gov.pagopa.payment.options.models.ConfigCacheData;
+import it.gov.pagopa.payment.options.models.ConfigCacheStatus;
+import it.gov.pagopa.payment.options.models.snapshot.ConfigSnapshot;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigCacheMetricsTest {
+
+  private static final long MILLIS = 1_000_000L;
+
+  final AtomicLong clock = new AtomicLong();
+
+  final VerifyMetricsTest.TestReader reader = new VerifyMetricsTest.TestReader();
+
+  final SdkMeterProvider meterProvider =
+      SdkMeterProvider.builder().registerMetricReader(reader).build();
+
+  final ConfigCacheMetrics metrics = new ConfigCacheMetrics(meterProvider.get("test"), clock::get);
+
+  @AfterEach
+  void tearDown() {
+    meterProvider.close();
+  }
+
+  @Test
+  void staleness_shouldGrowFromTheOldestEventNotServed() {
+    assertEquals(0, metrics.staleness());
+
+    clock.set(10 * MILLIS);
+    metrics.eventReceived();
+    clock.set(15 * MILLIS);
+    metrics.eventReceived();
+    clock.set(40 * MILLIS);
+    assertEquals(30, metrics.staleness());
+    assertEquals(30, gauge("odp.cache.staleness"));
+
+    // a refresh started before the events serves them
+    metrics.synced(20 * MILLIS);
+    assertEquals(0, metrics.staleness());
+  }
+
+  @Test
+  void staleness_shouldKeepTheEventsReceivedDuringARefresh() {
+    clock.set(10 * MILLIS);
+    metrics.eventReceived();
+    long start = metrics.now();
+    clock.set(30 * MILLIS);
+    metrics.eventReceived();
+    clock.set(50 * MILLIS);
+
+    metrics.synced(start);
+
+    assertEquals(20, metrics.staleness());
+  }
+
+  @Test
+  void staleness_shouldKeepGrowingWhileRefreshesFail() {
+    clock.set(10 * MILLIS);
+    metrics.eventReceived();
+    clock.set(20 * MILLIS);
+    metrics.refreshFailed();
+    clock.set(70 * MILLIS);
+
+    assertEquals(60, metrics.staleness());
+    assertEquals(1, metrics.status().getRefreshFailures());
+  }
+
+  @Test
+  void refreshedAndApplied_shouldExportTheLastRefreshAndTheServedSnapshot() {
+    clock.set(100 * MILLIS);
+    metrics.refreshed(120 * MILLIS, 800 * MILLIS, 40 * MILLIS, 52_428_800L);
+    metrics.applied(ConfigCacheData.builder()
+        .cacheVersion("CACHE")
+        .version("7")
+        .eventVersion("11")
+        .snapshot(ConfigSnapshot.builder()
+            .stationCount(0)
+            .creditorInstitutionCount(0)
+            .routedCreditorInstitutionCount(0)
+            .psps(Map.of("PSP1", true))
+            .build())
+        .build(), 4_096L);
+    clock.set(1_100 * MILLIS);
+
+    ConfigCacheStatus status = metrics.status();
+    assertEquals("CACHE", status.getCacheVersion());
+    assertEquals("11", status.getEventVersion());
+    assertFalse(status.isRestored());
+    assertEquals(1_000L, status.getSnapshotAge());
+    assertEquals(4_096L, status.getRetainedSize());
+    assertEquals(1, status.getPsps());
+    assertNull(status.getPspBrokers());
+    assertEquals(0, status.getRoutedCreditorInstitutions());
+    assertEquals(120d, status.getLastRefreshHttpDuration());
+    assertEquals(800d, status.getLastRefreshParseDuration());
+    assertEquals(40d, status.getLastRefreshIndexBuildDuration());
+    assertEquals(52_428_800L, status.getLastRefreshPayloadSize());
+    assertNotNull(status.getLastRefreshTime());
+
+    assertEquals(1_000L, gauge("odp.cache.snapshot.age"));
+    assertEquals(4_096L, gauge("odp.cache.snapshot.retained"));
+    MetricData info = metric("odp.cache.snapshot.info");
+    assertEquals("11", info.getLongGaugeData().getPoints().iterator().next()
+        .getAttributes().get(AttributeKey.stringKey("event.version")));
+    assertEquals(800d, metric("odp.cache.refresh.parse.duration")
+        .getHistogramData().getPoints().iterator().next().getSum());
+    assertEquals(52_428_800L, metric("odp.cache.refresh.payload.size")
+        .getHistogramData().getPoints().iterator().next().getSum(), 0.1);
+  }
+
+  @Test
+  void status_shouldBeEmptyBeforeTheFirstSnapshot() {
+    ConfigCacheStatus status = metrics.status();
+
+    assertNull(status.getCacheVersion());
+    assertNull(status.getSnapshotAge());
+    assertNull(status.getLastRefreshTime());
+    assertEquals(0, status.getStaleness());
+    assertNull(metric("odp.cache.snapshot.age"));
+  }
+
+  private long gauge(String name) {
+    return metric(name).getLongGaugeData().getPoints().iterator().next().getValue();
+  }
+
+  private MetricData metric(String name) {
+    return reader.registration.collectAllMetrics().stream()
+        .filter(metric -> metric.getName().equals(name))
+        .findFirst()
+        .orElse(null);
+  }
+}
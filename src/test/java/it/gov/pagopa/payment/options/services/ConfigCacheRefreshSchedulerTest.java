@@ -0,0 +1,138 @@
+package it.gov.pagopa.payment.options.services;
+
+import it.gov.pagopa.payment.options.models.events.CacheUpdateEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConfigCacheRefreshSchedulerTest {
+
+  @Mock
+  ConfigCacheService configCacheService;
+
+  ConfigCacheRefreshScheduler scheduler;
+
+  @BeforeEach
+  void setup() {
+    scheduler = new ConfigCacheRefreshScheduler(configCacheService, Duration.ofMillis(100), null,
+        Executors.newSingleThreadScheduledExecutor(), System::nanoTime);
+  }
+
+  @AfterEach
+  void tearDown() {
+    scheduler.close();
+  }
+
+  @Test
+  void submit_burstOfEvents_shouldRefreshOnceWithHighestVersion() {
+    scheduler.submit(event("CACHE", "1"));
+    scheduler.submit(event("CACHE", "3"));
+    scheduler.submit(event("CACHE", "2"));
+
+    ArgumentCaptor<CacheUpdateEvent> captor = ArgumentCaptor.forClass(CacheUpdateEvent.class);
+    verify(configCacheService, timeout(5000)).checkAndUpdateCache(captor.capture());
+    assertEquals("3", captor.getValue().getVersion());
+    assertEquals(2, scheduler.getCoalesced());
+
+    verify(configCacheService, after(300).times(1)).checkAndUpdateCache(any());
+  }
+
+  @Test
+  void submit_shouldPreferHigherCacheVersion() {
+    scheduler.submit(event("2", "9"));
+    scheduler.submit(event("3", "1"));
+
+    verify(configCacheService, timeout(5000)).checkAndUpdateCache(
+        argThat(e -> "3".equals(e.getCacheVersion()) && "1".equals(e.getVersion())));
+  }
+
+  @Test
+  void submit_duringRefresh_shouldCoalesceIntoNextRefresh() throws Exception {
+    CountDownLatch refreshing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(configCacheService.checkAndUpdateCache(any())).thenAnswer(inv -> {
+      refreshing.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      return null;
+    });
+
+    scheduler.submit(event("CACHE", "1"));
+    assertTrue(refreshing.await(5, TimeUnit.SECONDS));
+    scheduler.submit(event("CACHE", "2"));
+    scheduler.submit(event("CACHE", "4"));
+    release.countDown();
+
+    verify(configCacheService, timeout(5000)).checkAndUpdateCache(
+        argThat(e -> "4".equals(e.getVersion())));
+    verify(configCacheService, after(300).times(2)).checkAndUpdateCache(any());
+  }
+
+  @Test
+  void refreshFailure_shouldLogErrorAndKeepServingEvents() throws Exception {
+    Logger logger = mock(Logger.class);
+    Field f = ConfigCacheRefreshScheduler.class.getDeclaredField("logger");
+    f.setAccessible(true);
+    f.set(scheduler, logger);
+
+    when(configCacheService.checkAndUpdateCache(any()))
+        .thenThrow(new RuntimeException("exception"))
+        .thenReturn(null);
+
+    scheduler.submit(event("CACHE", "11221"));
+    verify(logger, timeout(5000)).error(
+        eq("[Payment Options] Cache update failed (cacheVersion={}, version={}). Keeping previous snapshot. Cause: {}"),
+        eq("CACHE"),
+        eq("11221"),
+        eq("exception"),
+        any(RuntimeException.class)
+    );
+
+    scheduler.submit(event("CACHE", "11222"));
+    verify(configCacheService, timeout(5000).times(2)).checkAndUpdateCache(any());
+  }
+
+  @Test
+  void persist_duringRefresh_shouldRunOnlyLatestSaveAfterIt() throws Exception {
+    CountDownLatch refreshing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(configCacheService.checkAndUpdateCache(any())).thenAnswer(inv -> {
+      refreshing.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      return null;
+    });
+    Runnable older = mock(Runnable.class);
+    Runnable newer = mock(Runnable.class);
+
+    scheduler.submit(event("CACHE", "1"));
+    assertTrue(refreshing.await(5, TimeUnit.SECONDS));
+    scheduler.persist(older);
+    scheduler.persist(newer);
+    verify(newer, after(100).never()).run();
+    release.countDown();
+
+    verify(newer, timeout(5000)).run();
+    verify(older, never()).run();
+  }
+
+  private static CacheUpdateEvent event(String cacheVersion, String version) {
+    return CacheUpdateEvent.builder().cacheVersion(cacheVersion).version(version).build();
+  }
+}
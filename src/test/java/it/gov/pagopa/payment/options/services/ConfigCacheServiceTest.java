@@ -1,26 +1,48 @@
 package it.gov.pagopa.payment.options.services;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import it.gov.pagopa.payment.options.clients.ApiConfigCacheClient;
+import it.gov.pagopa.payment.options.clients.CreditorInstitutionRestClient;
 import it.gov.pagopa.payment.options.exception.PaymentOptionsException;
 import it.gov.pagopa.payment.options.models.ConfigCacheData;
+import it.gov.pagopa.payment.options.models.ConfigCacheStatus;
 import it.gov.pagopa.payment.options.models.clients.cache.ConfigDataV1;
+import it.gov.pagopa.payment.options.models.clients.cache.CreditorInstitution;
+import it.gov.pagopa.payment.options.models.clients.cache.Station;
 import it.gov.pagopa.payment.options.models.clients.cache.StationCreditorInstitution;
 import it.gov.pagopa.payment.options.models.enums.AppErrorCodeEnum;
 import it.gov.pagopa.payment.options.models.events.CacheUpdateEvent;
+import it.gov.pagopa.payment.options.models.snapshot.ConfigSnapshot;
+import it.gov.pagopa.payment.options.models.snapshot.CreditorInstitutionRoutes;
+import it.gov.pagopa.payment.options.models.snapshot.StationRoute;
+import it.gov.pagopa.payment.options.models.snapshot.StationSnapshot;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,19 +52,42 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class ConfigCacheServiceTest {
 
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
   @Mock
   ApiConfigCacheClient apiConfigCacheClient;
 
+  @Mock
+  ConfigCacheRefreshScheduler refreshScheduler;
+
+  @TempDir
+  Path tempDir;
+
   ConfigCacheService configCacheService;
 
+  final ConfigCacheMetrics cacheMetrics = new ConfigCacheMetrics(null);
+
   @BeforeEach
   void setup() throws Exception {
     configCacheService = new ConfigCacheService();
+    inject(configCacheService, Optional.empty());
+  }
 
-    // inject mock into the service using reflection
-    Field f = ConfigCacheService.class.getDeclaredField("apiConfigCacheClient");
-    f.setAccessible(true);
-    f.set(configCacheService, apiConfigCacheClient);
+  // inject mocks into the service using reflection
+  private void inject(ConfigCacheService service, Optional<Path> snapshotPath) throws Exception {
+    Map<String, Object> dependencies = Map.of(
+        "apiConfigCacheClient", apiConfigCacheClient,
+        "creditorInstitutionService", new CreditorInstitutionService(
+            "http://apim", "/forwarder", "", mock(CreditorInstitutionRestClient.class)),
+        "snapshotStore", new ConfigSnapshotStore(snapshotPath),
+        "refreshScheduler", refreshScheduler,
+        "streamParser", new ConfigCacheStreamParser(OBJECT_MAPPER),
+        "cacheMetrics", cacheMetrics);
+    for (Map.Entry<String, Object> dependency : dependencies.entrySet()) {
+      Field f = ConfigCacheService.class.getDeclaredField(dependency.getKey());
+      f.setAccessible(true);
+      f.set(service, dependency.getValue());
+    }
   }
 
   @Test
@@ -60,7 +105,7 @@ class ConfigCacheServiceTest {
   void refreshFails_shouldKeepLastKnownGood() {
     // first load ok -> snapshot version=1
     when(apiConfigCacheClient.getCache(any()))
-        .thenReturn(ConfigDataV1.builder().version("1").build());
+        .thenAnswer(payloads(ConfigDataV1.builder().version("1").build()));
 
     assertDoesNotThrow(() -> configCacheService.checkAndUpdateCache(null));
     assertEquals("1", configCacheService.getConfigCacheData().getVersion());
@@ -80,15 +125,42 @@ class ConfigCacheServiceTest {
     verify(apiConfigCacheClient, times(2)).getCache(any());
   }
   
+  @Test
+  void refresh_shouldRecordThePayloadAndTheServedSnapshot() {
+    when(apiConfigCacheClient.getCache(any()))
+        .thenAnswer(payloads(ConfigDataV1.builder().version("1").build()));
+    cacheMetrics.eventReceived();
+
+    configCacheService.checkAndUpdateCache(
+        CacheUpdateEvent.builder().cacheVersion("CACHE").version("2").build());
+
+    ConfigCacheStatus status = cacheMetrics.status();
+    assertEquals("CACHE", status.getCacheVersion());
+    assertEquals("2", status.getEventVersion());
+    assertTrue(status.getRetainedSize() > 0);
+    assertTrue(status.getLastRefreshPayloadSize() > 0);
+    assertEquals(0, status.getStaleness());
+    assertEquals(0, status.getRefreshFailures());
+
+    // a failed refresh keeps serving, and reporting, the previous snapshot
+    when(apiConfigCacheClient.getCache(any())).thenThrow(new RuntimeException("boom"));
+    cacheMetrics.eventReceived();
+    configCacheService.checkAndUpdateCache(
+        CacheUpdateEvent.builder().cacheVersion("CACHE").version("3").build());
+
+    assertEquals(1, cacheMetrics.status().getRefreshFailures());
+    assertEquals("2", cacheMetrics.status().getEventVersion());
+  }
+
   @Test
   void checkAndUpdateCacheOK() {
     when(apiConfigCacheClient.getCache(any()))
-        .thenReturn(ConfigDataV1.builder().version("2").build());
+        .thenAnswer(payloads(ConfigDataV1.builder().version("2").build()));
 
     // 1) First load with no event -> must fetch
     configCacheService.checkAndUpdateCache(null);
 
-    ConfigDataV1 configCacheData = configCacheService.getConfigCacheData();
+    ConfigSnapshot configCacheData = configCacheService.getConfigCacheData();
     assertNotNull(configCacheData);
     assertEquals("2", configCacheData.getVersion());
 
@@ -113,10 +185,10 @@ class ConfigCacheServiceTest {
   void checkAndUpdateCache_shouldRefreshOnCacheVersionMismatch() {
     // First fetch -> version 2, second fetch -> version 3
     when(apiConfigCacheClient.getCache(any()))
-        .thenReturn(
+        .thenAnswer(payloads(
             ConfigDataV1.builder().version("2").build(),
             ConfigDataV1.builder().version("3").build()
-        );
+        ));
 
     // 1) First load without event
     configCacheService.checkAndUpdateCache(null);
@@ -132,7 +204,7 @@ class ConfigCacheServiceTest {
     // 3) Send an event with DIFFERENT cacheVersion: must refresh again (mismatch)
     reset(apiConfigCacheClient);
     when(apiConfigCacheClient.getCache(any()))
-        .thenReturn(ConfigDataV1.builder().version("4").build());
+        .thenAnswer(payloads(ConfigDataV1.builder().version("4").build()));
 
     configCacheService.checkAndUpdateCache(
         CacheUpdateEvent.builder().cacheVersion("CACHE-B").version("1").build()
@@ -146,10 +218,10 @@ class ConfigCacheServiceTest {
   void checkAndUpdateCache_shouldRefreshWhenEventVersionIsNewer() {
     // First fetch -> version 2, second fetch -> version 3
     when(apiConfigCacheClient.getCache(any()))
-        .thenReturn(
+        .thenAnswer(payloads(
             ConfigDataV1.builder().version("2").build(),
             ConfigDataV1.builder().version("3").build()
-        );
+        ));
 
     // 1) First load
     configCacheService.checkAndUpdateCache(null);
@@ -164,7 +236,7 @@ class ConfigCacheServiceTest {
     // 3) Now we have snapshot cacheVersion=CACHE and version=3. Send an event with same cacheVersion but a NEWER version => must refresh.
     reset(apiConfigCacheClient);
     when(apiConfigCacheClient.getCache(any()))
-        .thenReturn(ConfigDataV1.builder().version("4").build());
+        .thenAnswer(payloads(ConfigDataV1.builder().version("4").build()));
 
     configCacheService.checkAndUpdateCache(
         CacheUpdateEvent.builder().cacheVersion("CACHE").version("999").build()
@@ -174,58 +246,13 @@ class ConfigCacheServiceTest {
     verify(apiConfigCacheClient, times(1)).getCache(any());
   }
   
-  @Test
-  void resolveStationCode_shouldThrowErrorWhenIndexMissing() throws Exception {
-	  // no index snapshot -> stationCodeByCiAndSeg is null
-	  ConfigCacheData snap = ConfigCacheData.builder()
-			  .configDataV1(ConfigDataV1.builder().version("1").build())
-			  .stationCodeByCiAndSeg(null)
-			  .build();
-
-	  Field f = ConfigCacheService.class.getDeclaredField("cacheRef");
-	  f.setAccessible(true);
-	  @SuppressWarnings("unchecked")
-	  AtomicReference<ConfigCacheData> ref =
-	  (AtomicReference<ConfigCacheData>) f.get(configCacheService);
-
-	  ref.set(snap);
-
-	  PaymentOptionsException ex = assertThrows(
-			  PaymentOptionsException.class,
-			  () -> configCacheService.resolveStationCode("00001", 0L)
-			  );
-	  assertEquals(AppErrorCodeEnum.ODP_SYSTEM_ERROR, ex.getErrorCode());
-  }
-  
-  @Test
-  void resolveStationCode_shouldReturnStationCodeFromIndex() throws Exception {
-	  Map<String, Map<Long, String>> index =
-			  Map.of("00001", Map.of(0L, "STATION-XYZ"));
-
-	  ConfigCacheData snap = ConfigCacheData.builder()
-			  .configDataV1(ConfigDataV1.builder().version("1").build())
-			  .stationCodeByCiAndSeg(index)
-			  .build();
-
-	  Field f = ConfigCacheService.class.getDeclaredField("cacheRef");
-	  f.setAccessible(true);
-	  @SuppressWarnings("unchecked")
-	  AtomicReference<ConfigCacheData> ref =
-	  (AtomicReference<ConfigCacheData>) f.get(configCacheService);
-
-	  ref.set(snap);
-
-	  assertEquals("STATION-XYZ", configCacheService.resolveStationCode("00001", 0L));
-	  assertNull(configCacheService.resolveStationCode("00001", 999L));
-  }
-  
   @Test
   void checkAndUpdateCache_shouldNotDowngradeOnOlderFetchedVersion() {
 	  when(apiConfigCacheClient.getCache(any()))
-	  .thenReturn(
+	  .thenAnswer(payloads(
 			  ConfigDataV1.builder().version("10").build(),
 			  ConfigDataV1.builder().version("9").build()
-			  );
+			  ));
 
 	  configCacheService.checkAndUpdateCache(null);
 	  assertEquals("10", configCacheService.getConfigCacheData().getVersion());
@@ -249,7 +276,7 @@ class ConfigCacheServiceTest {
       if (!releaseRemote.await(2, TimeUnit.SECONDS)) {
         throw new RuntimeException("timeout waiting test release");
       }
-      return ConfigDataV1.builder().version("1").build();
+      return json(ConfigDataV1.builder().version("1").build());
     });
 
     ExecutorService pool = Executors.newFixedThreadPool(2);
@@ -275,10 +302,10 @@ class ConfigCacheServiceTest {
 
     assertNotNull(r1);
     assertNotNull(r2);
-    assertNotNull(r1.getConfigDataV1());
-    assertNotNull(r2.getConfigDataV1());
-    assertEquals("1", r1.getConfigDataV1().getVersion());
-    assertEquals("1", r2.getConfigDataV1().getVersion());
+    assertNotNull(r1.getSnapshot());
+    assertNotNull(r2.getSnapshot());
+    assertEquals("1", r1.getSnapshot().getVersion());
+    assertEquals("1", r2.getSnapshot().getVersion());
 
     // only one remote call should have been made, because the second thread should have waited for the first to complete and then read the cached value
     verify(apiConfigCacheClient, times(1)).getCache(any());
@@ -294,7 +321,7 @@ class ConfigCacheServiceTest {
       if (!releaseRemote.await(2, TimeUnit.SECONDS)) {
         throw new RuntimeException("timeout waiting test release");
       }
-      return ConfigDataV1.builder().version("1").build();
+      return json(ConfigDataV1.builder().version("1").build());
     });
 
     CacheUpdateEvent evt = CacheUpdateEvent.builder()
@@ -339,7 +366,7 @@ class ConfigCacheServiceTest {
   void checkAndUpdateCache_shouldNotDowngradeOnOlderEventVersion_whenApiVersionNull() throws Exception {
 	  // payload always has apiVersion null (DEV/UAT real behavior)
 	  when(apiConfigCacheClient.getCache(any()))
-	  .thenReturn(ConfigDataV1.builder().version(null).build());
+	  .thenAnswer(payloads(ConfigDataV1.builder().version(null).build()));
 
 	  CacheUpdateEvent v10 = CacheUpdateEvent.builder().cacheVersion("CACHE").version("10").build();
 	  CacheUpdateEvent v9  = CacheUpdateEvent.builder().cacheVersion("CACHE").version("9").build();
@@ -374,7 +401,7 @@ class ConfigCacheServiceTest {
     AtomicReference<ConfigCacheData> ref = (AtomicReference<ConfigCacheData>) f.get(configCacheService);
 
     ref.set(ConfigCacheData.builder()
-        .configDataV1(ConfigDataV1.builder().version(null).build())
+        .snapshot(ConfigSnapshotAssembler.of(ConfigDataV1.builder().version(null).build(), station -> null))
         .build());
 
     // call onStart
@@ -383,6 +410,109 @@ class ConfigCacheServiceTest {
     verify(apiConfigCacheClient, never()).getCache(any());
   }
   
+  @Test
+  void onStart_withSavedSnapshot_shouldServeItAndReconcileInBackground() throws Exception {
+    Optional<Path> snapshotPath = Optional.of(tempDir.resolve("config-snapshot.bin"));
+    inject(configCacheService, snapshotPath);
+    // the save is handed to the refresh thread: run it in place
+    doAnswer(inv -> {
+      inv.<Runnable>getArgument(0).run();
+      return null;
+    }).when(refreshScheduler).persist(any());
+    when(apiConfigCacheClient.getCache(any())).thenAnswer(payloads(ConfigDataV1.builder()
+        .version("5")
+        .stations(Map.of("ST1", Station.builder().stationCode("ST1").enabled(true)
+            .verifyPaymentOptionEnabled(true).build()))
+        .creditorInstitutions(Map.of("CI1", CreditorInstitution.builder()
+            .creditorInstitutionCode("CI1").enabled(true).build()))
+        .creditorInstitutionStations(Map.of("CI1_ST1", StationCreditorInstitution.builder()
+            .creditorInstitutionCode("CI1").stationCode("ST1").segregationCode(1L).build()))
+        .build()));
+    configCacheService.checkAndUpdateCache(
+        CacheUpdateEvent.builder().cacheVersion("CACHE").version("3").build());
+    verify(refreshScheduler).persist(any());
+    assertTrue(Files.exists(snapshotPath.get()));
+
+    // restart
+    ConfigCacheService restarted = new ConfigCacheService();
+    inject(restarted, snapshotPath);
+    clearInvocations(apiConfigCacheClient);
+
+    restarted.onStart(null);
+
+    verify(apiConfigCacheClient, never()).getCache(any());
+    verify(refreshScheduler).reconcile();
+    ConfigSnapshot served = restarted.getConfigCacheData();
+    assertEquals("5", served.getVersion());
+    assertEquals("ST1", served.getRoutes().get("CI1").route(1).getStationCode());
+
+    // reconcile: the restored snapshot is refreshed even without a newer event
+    ConfigCacheData reconciled = restarted.checkAndUpdateCache(null);
+    verify(apiConfigCacheClient).getCache(any());
+    assertFalse(reconciled.isRestored());
+    assertEquals("CACHE", reconciled.getCacheVersion());
+    assertEquals("3", reconciled.getEventVersion());
+  }
+
+  @Test
+  void onStart_withUnreadableSnapshot_shouldFallBackToRemoteLoad() throws Exception {
+    Path snapshotPath = tempDir.resolve("config-snapshot.bin");
+    Files.write(snapshotPath, new byte[] {1, 2, 3});
+    inject(configCacheService, Optional.of(snapshotPath));
+    when(apiConfigCacheClient.getCache(any()))
+        .thenAnswer(payloads(ConfigDataV1.builder().version("1").build()));
+
+    configCacheService.onStart(null);
+
+    verify(apiConfigCacheClient).getCache(any());
+    verify(refreshScheduler, never()).reconcile();
+    assertEquals("1", configCacheService.getConfigCacheData().getVersion());
+  }
+
+  @Test
+  void getConfigCacheData_duringSlowFirstLoad_shouldFailFastAndLoadOnce() throws Exception {
+    configCacheService.initialLoadTimeout = Duration.ofMillis(50);
+    CountDownLatch releaseRemote = new CountDownLatch(1);
+    when(apiConfigCacheClient.getCache(any())).thenAnswer(inv -> {
+      releaseRemote.await(5, TimeUnit.SECONDS);
+      return json(ConfigDataV1.builder().version("1").build());
+    });
+
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    List<Future<PaymentOptionsException>> waiters = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      waiters.add(pool.submit(() ->
+          assertThrows(PaymentOptionsException.class, configCacheService::getConfigCacheData)));
+    }
+    for (Future<PaymentOptionsException> waiter : waiters) {
+      assertEquals(AppErrorCodeEnum.ODP_SYSTEM_ERROR, waiter.get(2, TimeUnit.SECONDS).getErrorCode());
+    }
+    pool.shutdownNow();
+
+    releaseRemote.countDown();
+    configCacheService.initialLoadTimeout = Duration.ofSeconds(5);
+    assertEquals("1", configCacheService.getConfigCacheData().getVersion());
+    verify(apiConfigCacheClient, times(1)).getCache(any());
+  }
+
+  @Test
+  void getConfigCacheData_afterFailedFirstLoad_shouldNotRetryWithinCooldown() {
+    when(apiConfigCacheClient.getCache(any()))
+        .thenThrow(new RuntimeException("api-config-cache down"))
+        .thenAnswer(payloads(ConfigDataV1.builder().version("1").build()));
+
+    PaymentOptionsException first =
+        assertThrows(PaymentOptionsException.class, configCacheService::getConfigCacheData);
+    assertEquals(AppErrorCodeEnum.ODP_SYSTEM_ERROR, first.getErrorCode());
+    assertThrows(PaymentOptionsException.class, configCacheService::getConfigCacheData);
+    verify(apiConfigCacheClient, times(1)).getCache(any());
+
+    // cooldown elapsed -> the next request starts a new load
+    configCacheService.initialLoadFailureCooldown = Duration.ZERO;
+    assertEquals("1", configCacheService.getConfigCacheData().getVersion());
+    verify(apiConfigCacheClient, times(2)).getCache(any());
+  }
+
   @Test
   void onStart_whenFirstLoadFails_shouldCatchAndNotThrow() {
     when(apiConfigCacheClient.getCache(any())).thenThrow(new RuntimeException("exception during first load"));
@@ -394,7 +524,7 @@ class ConfigCacheServiceTest {
   @Test
   void needsRefresh_whenEventCacheVersionNull_shouldRefresh() {
     when(apiConfigCacheClient.getCache(any()))
-        .thenReturn(ConfigDataV1.builder().version(null).build());
+        .thenAnswer(payloads(ConfigDataV1.builder().version(null).build()));
 
     // first load to create snapshot with cacheVersion "CACHE"
     configCacheService.checkAndUpdateCache(CacheUpdateEvent.builder().cacheVersion("CACHE").version("1").build());
@@ -402,7 +532,7 @@ class ConfigCacheServiceTest {
 
     // now event with null cacheVersion -> must refresh
     when(apiConfigCacheClient.getCache(any()))
-        .thenReturn(ConfigDataV1.builder().version(null).build());
+        .thenAnswer(payloads(ConfigDataV1.builder().version(null).build()));
 
     configCacheService.checkAndUpdateCache(CacheUpdateEvent.builder().cacheVersion(null).version("2").build());
 
@@ -419,11 +549,10 @@ class ConfigCacheServiceTest {
     ref.set(ConfigCacheData.builder()
         .cacheVersion(null)
         .eventVersion("1")
-        .configDataV1(ConfigDataV1.builder().version(null).build())
-        .stationCodeByCiAndSeg(Map.of())
+        .snapshot(ConfigSnapshotAssembler.of(ConfigDataV1.builder().version(null).build(), station -> null))
         .build());
 
-    when(apiConfigCacheClient.getCache(any())).thenReturn(ConfigDataV1.builder().version(null).build());
+    when(apiConfigCacheClient.getCache(any())).thenAnswer(payloads(ConfigDataV1.builder().version(null).build()));
 
     configCacheService.checkAndUpdateCache(CacheUpdateEvent.builder().cacheVersion("CACHE").version("2").build());
     verify(apiConfigCacheClient, times(1)).getCache(any());
@@ -432,7 +561,7 @@ class ConfigCacheServiceTest {
   @Test
   void checkAndUpdateCache_shouldNotRefreshOnSameEventVersion_sameStream() {
     when(apiConfigCacheClient.getCache(any()))
-        .thenReturn(ConfigDataV1.builder().version(null).build());
+        .thenAnswer(payloads(ConfigDataV1.builder().version(null).build()));
 
     CacheUpdateEvent v10 = CacheUpdateEvent.builder().cacheVersion("CACHE").version("10").build();
     configCacheService.checkAndUpdateCache(v10);
@@ -451,10 +580,10 @@ class ConfigCacheServiceTest {
   void checkAndUpdateCache_shouldIgnoreFetchedPayloadWhenApiVersionWouldDowngrade() {
     // first load serves apiVersion=10
     when(apiConfigCacheClient.getCache(any()))
-        .thenReturn(
+        .thenAnswer(payloads(
             ConfigDataV1.builder().version("10").build(),
             ConfigDataV1.builder().version("9").build()
-        );
+        ));
 
     configCacheService.checkAndUpdateCache(CacheUpdateEvent.builder().cacheVersion("CACHE").version("1").build());
     assertEquals("10", configCacheService.getConfigCacheData().getVersion());
@@ -469,15 +598,14 @@ class ConfigCacheServiceTest {
   @Test
   void checkAndUpdateCache_whenCreditorInstitutionStationsMissing_shouldBuildEmptyIndex() throws Exception {
     when(apiConfigCacheClient.getCache(any()))
-        .thenReturn(ConfigDataV1.builder()
+        .thenAnswer(payloads(ConfigDataV1.builder()
             .version(null)
             .creditorInstitutionStations(null)
-            .build());
+            .build()));
 
     ConfigCacheData snap = configCacheService.checkAndUpdateCache(null);
 
-    assertNotNull(snap.getStationCodeByCiAndSeg());
-    assertTrue(snap.getStationCodeByCiAndSeg().isEmpty());
+    assertEquals(0, snap.getSnapshot().getRoutedCreditorInstitutionCount());
   }
   
   @Test
@@ -495,21 +623,24 @@ class ConfigCacheServiceTest {
         .build();
 
     when(apiConfigCacheClient.getCache(any()))
-        .thenReturn(ConfigDataV1.builder()
+        .thenAnswer(payloads(ConfigDataV1.builder()
             .version(null)
+            .stations(Map.of("ST1", Station.builder().stationCode("ST1").enabled(true).build()))
+            .creditorInstitutions(Map.of("CI1", CreditorInstitution.builder()
+                .creditorInstitutionCode("CI1").enabled(true).build()))
             .creditorInstitutionStations(Map.of("a", bad, "b", good))
-            .build());
+            .build()));
 
     ConfigCacheData snap = configCacheService.checkAndUpdateCache(null);
 
-    assertEquals("ST1", snap.getStationCodeByCiAndSeg().get("CI1").get(0L));
-    assertNull(snap.getStationCodeByCiAndSeg().get(null)); // never created
+    assertEquals("ST1", snap.getSnapshot().getRoutes().get("CI1").route(0).getStationCode());
+    assertEquals(1, snap.getSnapshot().getRoutedCreditorInstitutionCount()); // invalid entry never indexed
   }
   
   @Test
   void checkAndUpdateCache_shouldCompareNonNumericVersionsLexicographically() throws Exception {
     when(apiConfigCacheClient.getCache(any()))
-        .thenReturn(ConfigDataV1.builder().version(null).build());
+        .thenAnswer(payloads(ConfigDataV1.builder().version(null).build()));
 
     CacheUpdateEvent vA = CacheUpdateEvent.builder().cacheVersion("CACHE").version("b").build();
     CacheUpdateEvent vB = CacheUpdateEvent.builder().cacheVersion("CACHE").version("a").build();
@@ -522,4 +653,128 @@ class ConfigCacheServiceTest {
     verify(apiConfigCacheClient, never()).getCache(any());
   }
 
+  @Test
+  void checkAndUpdateCache_shouldStreamPayloadWithoutMaterializingStationCreditorInstitutions() {
+    String payload = """
+        {
+          "version": "7",
+          "creditorInstitutionBrokers": {"B1": {"broker_code": "B1"}},
+          "stations": {"ST1": {"station_code": "ST1", "enabled": true, "unknown": [1, 2]}},
+          "creditorInstitutions": {"CI1": {"creditor_institution_code": "CI1", "enabled": true}},
+          "creditorInstitutionStations": {
+            "CI1_ST1": {"creditor_institution_code": "CI1", "station_code": "ST1", "segregation_code": 1, "aux_digit": 3},
+            "CI1_ST2": {"creditor_institution_code": "CI1", "station_code": "ST2", "segregation_code": "02"},
+            "CI2_ST3": {"creditor_institution_code": "CI2", "station_code": "ST3", "segregation_code": null}
+          },
+          "psps": null
+        }
+        """;
+    when(apiConfigCacheClient.getCache(any()))
+        .thenAnswer(inv -> new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8)));
+
+    ConfigCacheData snap = configCacheService.checkAndUpdateCache(null);
+
+    assertEquals("7", snap.getVersion());
+    assertNull(snap.getSnapshot().getPsps());
+    assertTrue(snap.getSnapshot().getPspBrokers().isEmpty());
+    assertEquals(1, snap.getSnapshot().getStationCount());
+    CreditorInstitutionRoutes routes = snap.getSnapshot().getRoutes().get("CI1");
+    assertTrue(routes.route(1).getStation().isEnabled());
+    assertEquals("ST1", routes.route(1).getStationCode());
+    assertEquals("ST2", routes.route(2).getStationCode());
+    assertNull(routes.route(3));
+    // the CI2 entry has no segregation code
+    assertEquals(1, snap.getSnapshot().getRoutedCreditorInstitutionCount());
+  }
+
+  @Test
+  void checkAndUpdateCache_shouldShareConnectionsAndCodesAcrossSnapshot() {
+    String payload = """
+        {
+          "stations": {
+            "ST1": {"station_code": "ST1", "connection": {"protocol": "HTTPS", "ip": "apim", "port": 443}},
+            "ST2": {"station_code": "ST2", "connection": {"protocol": "HTTPS", "ip": "apim", "port": 443}}
+          },
+          "creditorInstitutions": {
+            "CI1": {"creditor_institution_code": "CI1", "enabled": true},
+            "CI2": {"creditor_institution_code": "CI2"}
+          },
+          "creditorInstitutionStations": {
+            "CI1_ST1": {"creditor_institution_code": "CI1", "station_code": "ST1", "segregation_code": 1},
+            "CI1_ST2": {"creditor_institution_code": "CI1", "station_code": "ST2", "segregation_code": 2}
+          }
+        }
+        """;
+    when(apiConfigCacheClient.getCache(any()))
+        .thenAnswer(inv -> new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8)));
+
+    ConfigCacheData snap = configCacheService.checkAndUpdateCache(null);
+
+    Map<String, CreditorInstitutionRoutes> routes = snap.getSnapshot().getRoutes();
+    StationSnapshot st1 = routes.get("CI1").route(1).getStation();
+    assertSame(st1.getConnection(), routes.get("CI1").route(2).getStation().getConnection());
+    assertSame(st1.getStationCode(), routes.get("CI1").route(1).getStationCode());
+    assertEquals(AppErrorCodeEnum.ODP_DOMINIO_DISABILITATO, routes.get("CI2").getRejection());
+    assertThrows(UnsupportedOperationException.class, () -> routes.remove("CI1"));
+  }
+
+  @Test
+  void checkAndUpdateCache_shouldPrecomputeRoutesSharedPerStation() {
+    String payload = """
+        {
+          "stations": {
+            "ST1": {"station_code": "ST1", "enabled": true, "is_payment_options_enabled": true,
+              "rest_endpoint": "https://ec.it:8443/verify",
+              "connection": {"protocol": "HTTPS", "ip": "apim", "port": 443}},
+            "ST2": {"station_code": "ST2", "enabled": false}
+          },
+          "creditorInstitutions": {
+            "CI1": {"creditor_institution_code": "CI1", "enabled": true},
+            "CI2": {"creditor_institution_code": "CI2", "enabled": true},
+            "CI3": {"creditor_institution_code": "CI3", "enabled": false}
+          },
+          "creditorInstitutionStations": {
+            "CI1_ST1": {"creditor_institution_code": "CI1", "station_code": "ST1", "segregation_code": 1},
+            "CI1_ST2": {"creditor_institution_code": "CI1", "station_code": "ST2", "segregation_code": 2},
+            "CI2_ST1": {"creditor_institution_code": "CI2", "station_code": "ST1", "segregation_code": 5}
+          }
+        }
+        """;
+    when(apiConfigCacheClient.getCache(any()))
+        .thenAnswer(inv -> new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8)));
+
+    Map<String, CreditorInstitutionRoutes> routes =
+        configCacheService.checkAndUpdateCache(null).getSnapshot().getRoutes();
+
+    StationRoute route = routes.get("CI1").route(1);
+    assertSame(route, routes.get("CI2").route(5));
+    assertNull(route.getRejection());
+    assertEquals("ec.it:8443", route.getTarget().getHost());
+    assertEquals(8443L, route.getTarget().getPort());
+    assertEquals("verify", route.getTarget().getPathPrefix());
+    assertEquals(AppErrorCodeEnum.ODP_STAZIONE_INT_PA_DISABILITATA,
+        routes.get("CI1").route(2).getRejection());
+    assertNull(routes.get("CI1").route(3));
+    assertEquals(AppErrorCodeEnum.ODP_DOMINIO_DISABILITATO, routes.get("CI3").getRejection());
+  }
+
+  @Test
+  void checkAndUpdateCache_malformedPayloadOnFirstLoad_shouldPropagate() {
+    when(apiConfigCacheClient.getCache(any()))
+        .thenAnswer(inv -> new ByteArrayInputStream("[]".getBytes(StandardCharsets.UTF_8)));
+
+    assertThrows(IOException.class, () -> configCacheService.checkAndUpdateCache(null));
+  }
+
+  // The client returns a stream that can be consumed once: serialize a fresh one on each call,
+  // repeating the last payload as Mockito does with thenReturn.
+  private static Answer<InputStream> payloads(ConfigDataV1... data) {
+    AtomicInteger calls = new AtomicInteger();
+    return inv -> json(data[Math.min(calls.getAndIncrement(), data.length - 1)]);
+  }
+
+  private static InputStream json(ConfigDataV1 data) throws IOException {
+    return new ByteArrayInputStream(OBJECT_MAPPER.writeValueAsBytes(data));
+  }
+
 }
@@ -0,0 +1,187 @@
+package it.gov.pagopa.payment.options.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.smallrye.mutiny.Uni;
+import it.gov.pagopa.payment.options.exception.CreditorInstitutionException;
+import it.gov.pagopa.payment.options.models.ErrorResponse;
+import it.gov.pagopa.payment.options.models.clients.creditorInstitution.PaymentOptionsResponse;
+import it.gov.pagopa.payment.options.models.enums.CreditorInstitutionErrorEnum;
+import it.gov.pagopa.payment.options.util.TimeSource;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CreditorInstitutionErrorCacheTest {
+
+  private static final String FISCAL_CODE = "77777777777";
+  private static final String NOTICE_NUMBER = "311111111111111111";
+
+  private final AtomicLong clock = new AtomicLong();
+  private final AtomicLong millis = new AtomicLong(1_700_000_000_000L);
+  private final TimeSource timeSource = new TimeSource(millis::get, ZoneOffset.UTC);
+  private final AtomicInteger calls = new AtomicInteger();
+
+  private CreditorInstitutionErrorCache cache;
+
+  @BeforeEach
+  void init() {
+    cache = new CreditorInstitutionErrorCache(
+        List.of("PAA_PAGAMENTO_SCONOSCIUTO=PT5S", " PAA_PAGAMENTO_SCADUTO = PT30S ",
+            "PAA_PAGAMENTO_ANNULLATO=PT0S"),
+        100, timeSource, null, clock::get);
+  }
+
+  @Test
+  void getShouldReturnCachedTerminalErrorWithoutCallingAgain() {
+    CreditorInstitutionException original =
+        failure(CreditorInstitutionErrorEnum.PAA_PAGAMENTO_SCONOSCIUTO);
+
+    assertSame(original, assertThrows(CreditorInstitutionException.class,
+        () -> cache.get(FISCAL_CODE, NOTICE_NUMBER, failing(original))));
+    CreditorInstitutionException cached = assertThrows(CreditorInstitutionException.class,
+        () -> cache.get(FISCAL_CODE, NOTICE_NUMBER, failing(original)));
+
+    assertEquals(1, calls.get());
+    assertNotSame(original, cached);
+    assertNotSame(original.getErrorResponse(), cached.getErrorResponse());
+    assertEquals(original.getErrorResponse().getErrorMessage(),
+        cached.getErrorResponse().getErrorMessage());
+    assertEquals(CreditorInstitutionErrorEnum.PAA_PAGAMENTO_SCONOSCIUTO,
+        cached.getCreditorInstitutionError());
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+  }
+
+  @Test
+  void getShouldStampCachedErrorWithServeTime() {
+    CreditorInstitutionException original =
+        failure(CreditorInstitutionErrorEnum.PAA_PAGAMENTO_SCONOSCIUTO);
+    assertThrows(CreditorInstitutionException.class,
+        () -> cache.get(FISCAL_CODE, NOTICE_NUMBER, failing(original)));
+    millis.addAndGet(2_000L);
+
+    ErrorResponse cached = assertThrows(CreditorInstitutionException.class,
+        () -> cache.get(FISCAL_CODE, NOTICE_NUMBER, failing(original))).getErrorResponse();
+
+    assertEquals(1_700_000_002_000L, cached.getTimestamp());
+    assertEquals("2023-11-14T22:13:22Z", cached.getDateTime());
+    assertEquals(1_699_999_999_000L, original.getErrorResponse().getTimestamp());
+  }
+
+  @Test
+  void getShouldCallAgainOnceErrorTtlExpired() {
+    CreditorInstitutionException unknown =
+        failure(CreditorInstitutionErrorEnum.PAA_PAGAMENTO_SCONOSCIUTO);
+    CreditorInstitutionException expired =
+        failure(CreditorInstitutionErrorEnum.PAA_PAGAMENTO_SCADUTO);
+    assertThrows(CreditorInstitutionException.class,
+        () -> cache.get(FISCAL_CODE, NOTICE_NUMBER, failing(unknown)));
+    assertThrows(CreditorInstitutionException.class,
+        () -> cache.get(FISCAL_CODE, "322222222222222222", failing(expired)));
+    clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+    assertEquals(PaymentOptionsResponse.class,
+        cache.get(FISCAL_CODE, NOTICE_NUMBER, this::load).getClass());
+    assertThrows(CreditorInstitutionException.class,
+        () -> cache.get(FISCAL_CODE, "322222222222222222", this::load));
+
+    assertEquals(3, calls.get());
+  }
+
+  @Test
+  void getShouldNotCacheOtherErrors() {
+    CreditorInstitutionException cancelled =
+        failure(CreditorInstitutionErrorEnum.PAA_PAGAMENTO_ANNULLATO);
+    CreditorInstitutionException systemError =
+        failure(CreditorInstitutionErrorEnum.PAA_SYSTEM_ERROR);
+    CreditorInstitutionException invalid = failure(null);
+
+    for (CreditorInstitutionException e : List.of(cancelled, systemError, invalid)) {
+      assertThrows(CreditorInstitutionException.class,
+          () -> cache.get(FISCAL_CODE, NOTICE_NUMBER, failing(e)));
+      assertThrows(CreditorInstitutionException.class,
+          () -> cache.get(FISCAL_CODE, NOTICE_NUMBER, failing(e)));
+    }
+
+    assertEquals(6, calls.get());
+    assertEquals(0, cache.getHits());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void getAsyncShouldReturnCachedTerminalError() {
+    CreditorInstitutionException original =
+        failure(CreditorInstitutionErrorEnum.PAA_PAGAMENTO_SCADUTO);
+    Supplier<Uni<PaymentOptionsResponse>> loader = () -> {
+      calls.incrementAndGet();
+      return Uni.createFrom().failure(original);
+    };
+
+    assertSame(original, assertThrows(CreditorInstitutionException.class,
+        () -> cache.getAsync(FISCAL_CODE, NOTICE_NUMBER, loader).await().indefinitely()));
+    CreditorInstitutionException cached = assertThrows(CreditorInstitutionException.class,
+        () -> cache.getAsync(FISCAL_CODE, NOTICE_NUMBER, loader).await().indefinitely());
+
+    assertEquals(1, calls.get());
+    assertEquals(CreditorInstitutionErrorEnum.PAA_PAGAMENTO_SCADUTO,
+        cached.getCreditorInstitutionError());
+  }
+
+  @Test
+  void disabledCacheShouldAlwaysCall() {
+    cache = CreditorInstitutionErrorCache.disabled();
+    CreditorInstitutionException unknown =
+        failure(CreditorInstitutionErrorEnum.PAA_PAGAMENTO_SCONOSCIUTO);
+
+    assertThrows(CreditorInstitutionException.class,
+        () -> cache.get(FISCAL_CODE, NOTICE_NUMBER, failing(unknown)));
+    assertThrows(CreditorInstitutionException.class,
+        () -> cache.get(FISCAL_CODE, NOTICE_NUMBER, failing(unknown)));
+
+    assertEquals(2, calls.get());
+    assertEquals(0, cache.getMisses());
+  }
+
+  @Test
+  void constructorShouldRejectInvalidEntries() {
+    for (String entry : List.of("PAA_PAGAMENTO_SCONOSCIUTO", "PAA_UNKNOWN=PT5S",
+        "PAA_PAGAMENTO_SCONOSCIUTO=5s", "PAA_PAGAMENTO_SCONOSCIUTO=-PT5S")) {
+      assertThrows(IllegalArgumentException.class,
+          () -> new CreditorInstitutionErrorCache(List.of(entry), 100, timeSource, null,
+              clock::get));
+    }
+  }
+
+  private Supplier<PaymentOptionsResponse> failing(CreditorInstitutionException e) {
+    return () -> {
+      calls.incrementAndGet();
+      throw e;
+    };
+  }
+
+  private PaymentOptionsResponse load() {
+    calls.incrementAndGet();
+    return PaymentOptionsResponse.builder().build();
+  }
+
+  private static CreditorInstitutionException failure(CreditorInstitutionErrorEnum error) {
+    ErrorResponse errorResponse = ErrorResponse.builder()
+        .httpStatusCode(502)
+        .appErrorCode("ODP-014")
+        .errorMessage("ODP_ERRORE_EMESSO_DA_PAA " + (error != null ? error.getErrorCode() : "ODP-999"))
+        .timestamp(1_699_999_999_000L)
+        .dateTime("2023-11-14T22:13:19Z")
+        .build();
+    return new CreditorInstitutionException(
+        errorResponse, "[Payment Options] Encountered a managed error", error);
+  }
+}
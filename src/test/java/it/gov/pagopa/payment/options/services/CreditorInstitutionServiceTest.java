@@ -7,16 +7,20 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.quarkus.test.InjectMock;
 import io.quarkus.test.junit.QuarkusTest;
 import it.gov.pagopa.payment.options.clients.CreditorInstitutionRestClient;
 import it.gov.pagopa.payment.options.exception.PaymentOptionsException;
-import it.gov.pagopa.payment.options.models.clients.cache.Connection;
 import it.gov.pagopa.payment.options.models.clients.cache.Connection.ProtocolEnum;
-import it.gov.pagopa.payment.options.models.clients.cache.Station;
+import it.gov.pagopa.payment.options.models.snapshot.ConnectionSnapshot;
+import it.gov.pagopa.payment.options.models.snapshot.EcTarget;
+import it.gov.pagopa.payment.options.models.snapshot.StationSnapshot;
 import it.gov.pagopa.payment.options.models.clients.creditorInstitution.PaymentOptionsResponse;
 import it.gov.pagopa.payment.options.models.enums.AppErrorCodeEnum;
 import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -42,10 +46,10 @@ class CreditorInstitutionServiceTest {
             any(), any(), any(), any()))
         .thenReturn(PaymentOptionsResponse.builder().build());
 
-    Station station = buildStation("localhost", "http://localhost:8080/test");
+    StationSnapshot station = buildStation("localhost", "http://localhost:8080/test");
 
     PaymentOptionsResponse paymentOptionsResponse =
-        assertDoesNotThrow(() -> sut.getPaymentOptions(NOTICE_NUMBER, FISCAL_CODE, station, 0L));
+        assertDoesNotThrow(() -> sut.getPaymentOptions(NOTICE_NUMBER, FISCAL_CODE, sut.resolveTarget(station), 0L));
 
     assertNotNull(paymentOptionsResponse);
     verify(creditorInstitutionRestClient)
@@ -58,24 +62,48 @@ class CreditorInstitutionServiceTest {
             any(), any(), any(), any()))
         .thenReturn(PaymentOptionsResponse.builder().build());
 
-    Station station = buildStation("localhost", "http://localhost/test");
+    StationSnapshot station = buildStation("localhost", "http://localhost/test");
 
     PaymentOptionsResponse paymentOptionsResponse =
-        assertDoesNotThrow(() -> sut.getPaymentOptions(NOTICE_NUMBER, FISCAL_CODE, station, 0L));
+        assertDoesNotThrow(() -> sut.getPaymentOptions(NOTICE_NUMBER, FISCAL_CODE, sut.resolveTarget(station), 0L));
 
     assertNotNull(paymentOptionsResponse);
     verify(creditorInstitutionRestClient)
         .callEcPaymentOptionsVerify(any(), any(), any(), any());
   }
 
+  @Test
+  void getPaymentOptionsShouldServeCachingStationFromCache() {
+    sut = new CreditorInstitutionService(
+        "localhost", "/path", "", creditorInstitutionRestClient,
+        new PaymentOptionsResponseCache(List.of("000001_01=PT5S"), Duration.ofSeconds(5), 100,
+            new ObjectMapper(), null, System::nanoTime),
+        CreditorInstitutionErrorCache.disabled());
+    when(creditorInstitutionRestClient.callEcPaymentOptionsVerify(
+            any(), any(), any(), any()))
+        .thenReturn(PaymentOptionsResponse.builder().companyName("company").build());
+    EcTarget target = sut.resolveTarget(buildStation("localhost", "http://localhost:8080/test"));
+
+    PaymentOptionsResponse first = sut.getPaymentOptions(NOTICE_NUMBER, FISCAL_CODE, target, 0L);
+    PaymentOptionsResponse second = sut.getPaymentOptionsAsync(NOTICE_NUMBER, FISCAL_CODE, target, 0L)
+        .await().indefinitely();
+
+    assertNotSame(first, second);
+    assertEquals("company", second.getCompanyName());
+    verify(creditorInstitutionRestClient)
+        .callEcPaymentOptionsVerify(any(), any(), any(), any());
+    verify(creditorInstitutionRestClient, never())
+        .callEcPaymentOptionsVerifyAsync(any(), any(), any(), any());
+  }
+
   @Test
   void getPaymentOptionsShouldReturnExceptionOnMissingEndpoint() {
-    Station station = buildStation("localhost", null);
+    StationSnapshot station = buildStation("localhost", null);
 
     PaymentOptionsException paymentOptionsException =
         assertThrows(
             PaymentOptionsException.class,
-            () -> sut.getPaymentOptions(NOTICE_NUMBER, FISCAL_CODE, station, 0L));
+            () -> sut.getPaymentOptions(NOTICE_NUMBER, FISCAL_CODE, sut.resolveTarget(station), 0L));
 
     assertNotNull(paymentOptionsException);
     assertEquals(AppErrorCodeEnum.ODP_SEMANTICA, paymentOptionsException.getErrorCode());
@@ -84,12 +112,12 @@ class CreditorInstitutionServiceTest {
 
   @Test
   void getPaymentOptionsShouldReturnExceptionOnBrokerServiceUrl() {
-    Station station = buildStation("localhost", ":8080");
+    StationSnapshot station = buildStation("localhost", ":8080");
 
     PaymentOptionsException paymentOptionsException =
         assertThrows(
             PaymentOptionsException.class,
-            () -> sut.getPaymentOptions(NOTICE_NUMBER, FISCAL_CODE, station, 0L));
+            () -> sut.getPaymentOptions(NOTICE_NUMBER, FISCAL_CODE, sut.resolveTarget(station), 0L));
 
     assertNotNull(paymentOptionsException);
     assertEquals(AppErrorCodeEnum.ODP_SEMANTICA, paymentOptionsException.getErrorCode());
@@ -97,17 +125,36 @@ class CreditorInstitutionServiceTest {
 
   @Test
   void getPaymentOptionsShouldReturnExceptionOnMissingConnection() {
-    Station station = buildStation(null, ":8080");
+    StationSnapshot station = buildStation(null, ":8080");
 
     PaymentOptionsException paymentOptionsException =
         assertThrows(
             PaymentOptionsException.class,
-            () -> sut.getPaymentOptions(NOTICE_NUMBER, FISCAL_CODE, station, 0L));
+            () -> sut.getPaymentOptions(NOTICE_NUMBER, FISCAL_CODE, sut.resolveTarget(station), 0L));
 
     assertNotNull(paymentOptionsException);
     assertEquals(
         AppErrorCodeEnum.ODP_STAZIONE_INT_PA_IRRAGGIUNGIBILE,
         paymentOptionsException.getErrorCode());
+    // a station configuration error, not an expected rejection of the request
+    assertFalse(paymentOptionsException.isRejection());
+    assertNotEquals(0, paymentOptionsException.getStackTrace().length);
+  }
+
+  @Test
+  void getPaymentOptionsAsyncShouldFailWithConfigurationErrorOnNullConnection() {
+    StationSnapshot station = StationSnapshot.builder()
+        .stationCode("000001_01")
+        .restEndpoint("http://localhost:8080/test")
+        .build();
+
+    PaymentOptionsException paymentOptionsException = assertThrows(
+        PaymentOptionsException.class,
+        () -> sut.getPaymentOptionsAsync(NOTICE_NUMBER, FISCAL_CODE, sut.resolveTarget(station), 0L)
+            .await().indefinitely());
+
+    assertEquals(AppErrorCodeEnum.ODP_SYSTEM_ERROR, paymentOptionsException.getErrorCode());
+    assertFalse(paymentOptionsException.isRejection());
   }
   
   //----------------- GPD Special Guest Tests -----------------
@@ -130,18 +177,14 @@ class CreditorInstitutionServiceTest {
 
       PaymentOptionsResponse response = sut.getPaymentOptions(
               "000001", "000001",
-              Station.builder()
+              sut.resolveTarget(StationSnapshot.builder()
                       .stationCode("000001_01")
                       .connection(
-                              Connection.builder()
-                                      .ip("some-ip")
-                                      .protocol(ProtocolEnum.HTTPS)
-                                      .port(443L)
-                                      .build()
+                              new ConnectionSnapshot(ProtocolEnum.HTTPS, "some-ip", 443L)
                       )
                       .restEndpoint(gpdEndpoint)
                       .verifyPaymentOptionEnabled(true)
-                      .build(),
+                      .build()),
               0L
       );
 
@@ -173,14 +216,10 @@ class CreditorInstitutionServiceTest {
               any(), any(), any()))
               .thenThrow(clientException);
 
-      Station station = Station.builder()
+      StationSnapshot station = StationSnapshot.builder()
               .stationCode("000001_01")
               .connection(
-                      Connection.builder()
-                              .ip("some-ip")
-                              .protocol(ProtocolEnum.HTTPS)
-                              .port(443L)
-                              .build()
+                      new ConnectionSnapshot(ProtocolEnum.HTTPS, "some-ip", 443L)
               )
               .restEndpoint(badGpdEndpoint)
               .verifyPaymentOptionEnabled(true)
@@ -188,7 +227,7 @@ class CreditorInstitutionServiceTest {
 
       PaymentOptionsException ex = assertThrows(
               PaymentOptionsException.class,
-              () -> sut.getPaymentOptions("000001", "000001", station, 0L)
+              () -> sut.getPaymentOptions("000001", "000001", sut.resolveTarget(station), 0L)
       );
 
       assertSame(clientException, ex);
@@ -219,14 +258,10 @@ class CreditorInstitutionServiceTest {
       when(creditorInstitutionRestClient.callGpdPaymentOptionsVerify(any(), any(), any()))
               .thenThrow(clientException);
 
-      Station station = Station.builder()
+      StationSnapshot station = StationSnapshot.builder()
               .stationCode("000001_01")
               .connection(
-                      Connection.builder()
-                              .ip("some-ip")
-                              .protocol(ProtocolEnum.HTTPS)
-                              .port(443L)
-                              .build()
+                      new ConnectionSnapshot(ProtocolEnum.HTTPS, "some-ip", 443L)
               )
               .restEndpoint(gpdEndpoint)
               .verifyPaymentOptionEnabled(true)
@@ -234,7 +269,7 @@ class CreditorInstitutionServiceTest {
 
       PaymentOptionsException ex = assertThrows(
               PaymentOptionsException.class,
-              () -> sut.getPaymentOptions("000001", "000001", station, 0L)
+              () -> sut.getPaymentOptions("000001", "000001", sut.resolveTarget(station), 0L)
       );
 
       assertSame(clientException, ex);
@@ -244,11 +279,11 @@ class CreditorInstitutionServiceTest {
   }
 
 
-  private Station buildStation(String connectionIp, String restEndpoint) {
-    return Station.builder()
+  private StationSnapshot buildStation(String connectionIp, String restEndpoint) {
+    return StationSnapshot.builder()
         .stationCode("000001_01")
         .connection(
-            Connection.builder().ip(connectionIp).protocol(ProtocolEnum.HTTP).port(8082L).build())
+            new ConnectionSnapshot(ProtocolEnum.HTTP, connectionIp, 8082L))
         .restEndpoint(restEndpoint)
         .verifyPaymentOptionEnabled(true)
         .build();
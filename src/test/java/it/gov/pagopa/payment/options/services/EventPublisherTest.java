@@ -0,0 +1,209 @@
+package it.gov.pagopa.payment.options.services;
+
+import io.vertx.core.Vertx;
+import it.gov.pagopa.payment.options.services.EventPublisher.OverflowPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventPublisherTest {
+
+  EventPublisher publisher;
+
+  final List<String> emitted = new CopyOnWriteArrayList<>();
+
+  final CountDownLatch sending = new CountDownLatch(1);
+  final CountDownLatch release = new CountDownLatch(1);
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    if (publisher != null) {
+      publisher.close();
+    }
+  }
+
+  @Test
+  void publish_shouldEmitInOrderOffCallerThread() throws Exception {
+    publisher = publisher(16, OverflowPolicy.DROP_NEW, Duration.ZERO);
+    List<Thread> threads = new CopyOnWriteArrayList<>();
+    CountDownLatch done = new CountDownLatch(3);
+    for (String event : List.of("a", "b", "c")) {
+      assertTrue(publisher.publish(() -> {
+        threads.add(Thread.currentThread());
+        emitted.add(event);
+        done.countDown();
+        return CompletableFuture.completedFuture(null);
+      }));
+    }
+
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(List.of("a", "b", "c"), emitted);
+    assertTrue(threads.stream().noneMatch(Thread.currentThread()::equals));
+    assertEquals(0, publisher.getDropped());
+  }
+
+  @Test
+  void publish_dropNew_whenFull_shouldDropTheNewEvent() throws Exception {
+    publisher = publisher(2, OverflowPolicy.DROP_NEW, Duration.ZERO);
+    holdPublisher();
+
+    assertTrue(publisher.publish(emit("b1")));
+    assertTrue(publisher.publish(emit("b2")));
+    assertFalse(publisher.publish(emit("b3")));
+    assertEquals(1, publisher.getDropped());
+
+    release.countDown();
+    awaitEmitted(3);
+    assertEquals(List.of("held", "b1", "b2"), emitted);
+  }
+
+  @Test
+  void publish_dropOldest_whenFull_shouldKeepTheNewestEvents() throws Exception {
+    publisher = publisher(2, OverflowPolicy.DROP_OLDEST, Duration.ZERO);
+    holdPublisher();
+
+    assertTrue(publisher.publish(emit("b1")));
+    assertTrue(publisher.publish(emit("b2")));
+    assertTrue(publisher.publish(emit("b3")));
+    assertEquals(1, publisher.getDropped());
+
+    release.countDown();
+    awaitEmitted(3);
+    assertEquals(List.of("held", "b2", "b3"), emitted);
+  }
+
+  @Test
+  void publish_block_whenFull_shouldDropAfterTimeout() throws Exception {
+    publisher = publisher(2, OverflowPolicy.BLOCK, Duration.ofMillis(50));
+    holdPublisher();
+    publisher.publish(emit("b1"));
+    publisher.publish(emit("b2"));
+
+    long start = System.nanoTime();
+    assertFalse(publisher.publish(emit("b3")));
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+    assertEquals(1, publisher.getDropped());
+  }
+
+  @Test
+  void publish_block_whenSpaceIsFreed_shouldQueueTheEvent() throws Exception {
+    publisher = publisher(2, OverflowPolicy.BLOCK, Duration.ofSeconds(5));
+    holdPublisher();
+    publisher.publish(emit("b1"));
+    publisher.publish(emit("b2"));
+
+    CompletableFuture.runAsync(() -> {
+      sleep(100);
+      release.countDown();
+    });
+    assertTrue(publisher.publish(emit("b3")));
+
+    awaitEmitted(4);
+    assertEquals(List.of("held", "b1", "b2", "b3"), emitted);
+    assertEquals(0, publisher.getDropped());
+  }
+
+  @Test
+  void publish_block_onEventLoop_shouldDropWithoutWaiting() throws Exception {
+    publisher = publisher(2, OverflowPolicy.BLOCK, Duration.ofSeconds(5));
+    holdPublisher();
+    publisher.publish(emit("b1"));
+    publisher.publish(emit("b2"));
+
+    Vertx vertx = Vertx.vertx();
+    try {
+      CompletableFuture<Boolean> queued = new CompletableFuture<>();
+      vertx.runOnContext(ignored -> queued.complete(publisher.publish(emit("b3"))));
+
+      assertFalse(queued.get(1, TimeUnit.SECONDS));
+      assertEquals(1, publisher.getDropped());
+    } finally {
+      vertx.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+  }
+
+  @Test
+  void publish_failingEmission_shouldNotStopThePublisher() throws Exception {
+    publisher = publisher(16, OverflowPolicy.DROP_NEW, Duration.ZERO);
+
+    publisher.publish(() -> {
+      throw new IllegalStateException("broker unavailable");
+    });
+    publisher.publish(() -> CompletableFuture.failedFuture(new IllegalStateException("nack")));
+    publisher.publish(emit("after"));
+
+    awaitEmitted(1);
+    assertEquals(List.of("after"), emitted);
+    assertEquals(2, publisher.getFailed());
+  }
+
+  @Test
+  void close_shouldSendQueuedEvents() {
+    publisher = publisher(16, OverflowPolicy.DROP_NEW, Duration.ZERO);
+    for (int i = 0; i < 10; i++) {
+      publisher.publish(emit("e" + i));
+    }
+
+    publisher.close();
+
+    assertEquals(10, emitted.size());
+    assertEquals(0, publisher.getQueueDepth());
+  }
+
+  private EventPublisher publisher(int capacity, OverflowPolicy policy, Duration blockTimeout) {
+    return new EventPublisher(capacity, policy, blockTimeout, 256, null, System::nanoTime);
+  }
+
+  // keeps the publisher thread busy sending a first event, so that the next ones stay queued
+  private void holdPublisher() throws InterruptedException {
+    publisher.publish(() -> {
+      sending.countDown();
+      await(release);
+      emitted.add("held");
+      return CompletableFuture.completedFuture(null);
+    });
+    assertTrue(sending.await(5, TimeUnit.SECONDS));
+  }
+
+  private Supplier<CompletionStage<?>> emit(String event) {
+    return () -> {
+      emitted.add(event);
+      return CompletableFuture.completedFuture(null);
+    };
+  }
+
+  private void awaitEmitted(int count) {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (emitted.size() < count && System.nanoTime() < deadline) {
+      sleep(5);
+    }
+    assertEquals(count, emitted.size());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -3,6 +3,7 @@ package it.gov.pagopa.payment.options.services;
 import io.quarkus.test.common.QuarkusTestResource;
 import io.quarkus.test.junit.QuarkusTest;
 import it.gov.pagopa.payment.options.models.events.odpRe.EventType;
+import it.gov.pagopa.payment.options.models.events.odpRe.Phases;
 import it.gov.pagopa.payment.options.test.extensions.KafkaTestResourceLifecycleManager;
 import it.gov.pagopa.payment.options.models.events.odpRe.Status;
 import jakarta.inject.Inject;
@@ -48,6 +49,14 @@ class EventServiceTest {
     ));
   }
 
-
+  @Test
+  void sendInteractionEvent() {
+    assertDoesNotThrow(() -> eventService.sendInteractionEvent(
+        "0001", "0001", "0001",
+        "0000001", "00001", "12131313", Status.OK,
+        Phases.builder().pspRequest(Instant.now().toString()).build(),
+        null, null, null
+    ));
+  }
 
 }
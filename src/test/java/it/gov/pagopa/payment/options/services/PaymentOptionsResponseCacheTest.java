@@ -0,0 +1,267 @@
+package it.gov.pagopa.payment.options.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
+import it.gov.pagopa.payment.options.exception.PaymentOptionsException;
+import it.gov.pagopa.payment.options.models.clients.creditorInstitution.PaymentOptionsResponse;
+import it.gov.pagopa.payment.options.models.clients.creditorInstitution.RawPaymentOptionsResponse;
+import it.gov.pagopa.payment.options.models.enums.AppErrorCodeEnum;
+import it.gov.pagopa.payment.options.models.snapshot.EcTarget;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PaymentOptionsResponseCacheTest {
+
+  private static final String FISCAL_CODE = "77777777777";
+  private static final String NOTICE_NUMBER = "311111111111111111";
+  private static final String COMPANY_NAME = "company";
+
+  private static final EcTarget CACHED = EcTarget.gpd("77777777777_01");
+  private static final EcTarget SHORT_LIVED = EcTarget.gpd("77777777777_02");
+  private static final EcTarget NOT_CACHED = EcTarget.gpd("77777777777_03");
+
+  private final AtomicLong clock = new AtomicLong();
+  private final AtomicInteger calls = new AtomicInteger();
+
+  private PaymentOptionsResponseCache cache;
+
+  @BeforeEach
+  void init() {
+    cache = new PaymentOptionsResponseCache(
+        List.of(CACHED.getStationCode(), " " + SHORT_LIVED.getStationCode() + " = PT1S "),
+        Duration.ofSeconds(5), 100, new ObjectMapper(), null, clock::get);
+  }
+
+  @Test
+  void getShouldServeCachedResponseWithinStationTtl() {
+    PaymentOptionsResponse first = cache.get(FISCAL_CODE, NOTICE_NUMBER, CACHED, this::load);
+    clock.addAndGet(Duration.ofSeconds(4).toNanos());
+    PaymentOptionsResponse second = cache.get(FISCAL_CODE, NOTICE_NUMBER, CACHED, this::load);
+
+    assertNotSame(first, second);
+    assertEquals(COMPANY_NAME, second.getCompanyName());
+    assertEquals(1, calls.get());
+    assertEquals(1, cache.getMisses());
+    assertEquals(1, cache.getHits());
+  }
+
+  @Test
+  void getShouldCallAgainOnceStationTtlExpired() {
+    cache.get(FISCAL_CODE, NOTICE_NUMBER, SHORT_LIVED, this::load);
+    cache.get(FISCAL_CODE, NOTICE_NUMBER, CACHED, this::load);
+    clock.addAndGet(Duration.ofMillis(1500).toNanos());
+
+    cache.get(FISCAL_CODE, NOTICE_NUMBER, SHORT_LIVED, this::load);
+
+    // same notice: the entry expired with the TTL of the station that loaded it
+    assertEquals(2, calls.get());
+    assertEquals(2, cache.getMisses());
+  }
+
+  @Test
+  void getShouldNotCacheStationsNotListed() {
+    cache.get(FISCAL_CODE, NOTICE_NUMBER, NOT_CACHED, this::load);
+    cache.get(FISCAL_CODE, NOTICE_NUMBER, NOT_CACHED, this::load);
+
+    assertEquals(2, calls.get());
+    assertEquals(0, cache.getMisses());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void getShouldNotCacheFailures() {
+    PaymentOptionsException failure = new PaymentOptionsException(
+        AppErrorCodeEnum.ODP_STAZIONE_INT_PA_TIMEOUT, "timeout");
+    Supplier<PaymentOptionsResponse> failing = () -> {
+      calls.incrementAndGet();
+      throw failure;
+    };
+
+    assertSame(failure, assertThrows(PaymentOptionsException.class,
+        () -> cache.get(FISCAL_CODE, NOTICE_NUMBER, CACHED, failing)));
+    cache.get(FISCAL_CODE, NOTICE_NUMBER, CACHED, this::load);
+
+    assertEquals(2, calls.get());
+    assertEquals(0, cache.getHits());
+  }
+
+  @Test
+  void getShouldServeEachRequestItsOwnResponse() {
+    PaymentOptionsResponse first = cache.get(FISCAL_CODE, NOTICE_NUMBER, CACHED, this::load);
+    first.setCompanyName("changed");
+    PaymentOptionsResponse second = cache.get(FISCAL_CODE, NOTICE_NUMBER, CACHED, this::load);
+
+    assertNotSame(first, second);
+    assertEquals("changed", first.getCompanyName());
+    assertEquals(COMPANY_NAME, second.getCompanyName());
+  }
+
+  @Test
+  void getShouldCacheForwardedResponseBytes() {
+    byte[] json = "{\"companyName\":\"forwarded\"}".getBytes();
+    RawPaymentOptionsResponse forwarded = new RawPaymentOptionsResponse(
+        json, new ObjectMapper().readerFor(PaymentOptionsResponse.class));
+    cache.get(FISCAL_CODE, NOTICE_NUMBER, CACHED, () -> forwarded);
+
+    RawPaymentOptionsResponse cached = (RawPaymentOptionsResponse)
+        cache.get(FISCAL_CODE, NOTICE_NUMBER, CACHED, this::load);
+
+    assertSame(json, cached.getPayload().orElseThrow().getJson());
+    assertEquals("forwarded", cached.getCompanyName());
+  }
+
+  @Test
+  @SneakyThrows
+  void getShouldCoalesceConcurrentRequests() {
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    PaymentOptionsResponse loaded = response();
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<PaymentOptionsResponse> leader = executor.submit(
+          () -> cache.get(FISCAL_CODE, NOTICE_NUMBER, CACHED, () -> {
+            calls.incrementAndGet();
+            loading.countDown();
+            awaitUninterruptibly(release);
+            return loaded;
+          }));
+      assertTrue(loading.await(5, TimeUnit.SECONDS));
+      Future<PaymentOptionsResponse> follower = executor.submit(
+          () -> cache.get(FISCAL_CODE, NOTICE_NUMBER, CACHED, this::load));
+      while (cache.getCoalesced() == 0) {
+        Thread.onSpinWait();
+      }
+      release.countDown();
+
+      assertEquals(COMPANY_NAME, leader.get(5, TimeUnit.SECONDS).getCompanyName());
+      assertEquals(COMPANY_NAME, follower.get(5, TimeUnit.SECONDS).getCompanyName());
+      assertEquals(1, calls.get());
+      assertEquals(1, cache.getCoalesced());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void getAsyncShouldCoalesceConcurrentRequests() {
+    CompletableFuture<PaymentOptionsResponse> response = new CompletableFuture<>();
+    Supplier<Uni<PaymentOptionsResponse>> loader = () -> {
+      calls.incrementAndGet();
+      return Uni.createFrom().completionStage(response);
+    };
+
+    UniAssertSubscriber<PaymentOptionsResponse> leader =
+        cache.getAsync(FISCAL_CODE, NOTICE_NUMBER, CACHED, loader)
+            .subscribe().withSubscriber(UniAssertSubscriber.create());
+    UniAssertSubscriber<PaymentOptionsResponse> follower =
+        cache.getAsync(FISCAL_CODE, NOTICE_NUMBER, CACHED, loader)
+            .subscribe().withSubscriber(UniAssertSubscriber.create());
+    response.complete(response());
+
+    assertEquals(COMPANY_NAME, leader.awaitItem().getItem().getCompanyName());
+    assertEquals(COMPANY_NAME, follower.awaitItem().getItem().getCompanyName());
+    assertEquals(1, calls.get());
+    assertEquals(1, cache.getCoalesced());
+  }
+
+  @Test
+  void getAsyncShouldShareFailureWithoutCachingIt() {
+    CompletableFuture<PaymentOptionsResponse> response = new CompletableFuture<>();
+    Supplier<Uni<PaymentOptionsResponse>> loader = () -> {
+      calls.incrementAndGet();
+      return Uni.createFrom().completionStage(response);
+    };
+
+    UniAssertSubscriber<PaymentOptionsResponse> leader =
+        cache.getAsync(FISCAL_CODE, NOTICE_NUMBER, CACHED, loader)
+            .subscribe().withSubscriber(UniAssertSubscriber.create());
+    UniAssertSubscriber<PaymentOptionsResponse> follower =
+        cache.getAsync(FISCAL_CODE, NOTICE_NUMBER, CACHED, loader)
+            .subscribe().withSubscriber(UniAssertSubscriber.create());
+    PaymentOptionsException failure = new PaymentOptionsException(
+        AppErrorCodeEnum.ODP_STAZIONE_INT_PA_TIMEOUT, "timeout");
+    response.completeExceptionally(failure);
+
+    assertSame(failure, leader.awaitFailure().getFailure());
+    assertSame(failure, follower.awaitFailure().getFailure());
+    cache.getAsync(FISCAL_CODE, NOTICE_NUMBER, CACHED, () -> Uni.createFrom().item(this::load))
+        .await().indefinitely();
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  void getShouldLoadWhenCallWaitedForIsCancelled() {
+    cache.getAsync(FISCAL_CODE, NOTICE_NUMBER, CACHED, () -> Uni.createFrom().nothing())
+        .subscribe().withSubscriber(UniAssertSubscriber.create())
+        .cancel();
+
+    PaymentOptionsResponse response = cache.get(FISCAL_CODE, NOTICE_NUMBER, CACHED, this::load);
+
+    assertEquals(COMPANY_NAME, response.getCompanyName());
+    assertEquals(1, calls.get());
+    assertEquals(2, cache.getMisses());
+    assertEquals(0, cache.getHits());
+    cache.get(FISCAL_CODE, NOTICE_NUMBER, CACHED, this::load);
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  void getAsyncShouldLoadWhenCallWaitedForIsCancelled() {
+    UniAssertSubscriber<PaymentOptionsResponse> leader =
+        cache.getAsync(FISCAL_CODE, NOTICE_NUMBER, CACHED, () -> Uni.createFrom().nothing())
+            .subscribe().withSubscriber(UniAssertSubscriber.create());
+    UniAssertSubscriber<PaymentOptionsResponse> follower =
+        cache.getAsync(FISCAL_CODE, NOTICE_NUMBER, CACHED, () -> Uni.createFrom().item(this::load))
+            .subscribe().withSubscriber(UniAssertSubscriber.create());
+    leader.cancel();
+
+    assertEquals(COMPANY_NAME, follower.awaitItem().getItem().getCompanyName());
+    assertEquals(1, calls.get());
+    assertEquals(2, cache.getMisses());
+    assertEquals(0, cache.getCoalesced());
+  }
+
+  @Test
+  void constructorShouldRejectInvalidTtl() {
+    assertThrows(IllegalArgumentException.class, () -> new PaymentOptionsResponseCache(
+        List.of("77777777777_01=5s"), Duration.ofSeconds(5), 100, new ObjectMapper(), null, clock::get));
+    assertThrows(IllegalArgumentException.class, () -> new PaymentOptionsResponseCache(
+        List.of("77777777777_01=PT0S"), Duration.ofSeconds(5), 100, new ObjectMapper(), null, clock::get));
+  }
+
+  private PaymentOptionsResponse load() {
+    calls.incrementAndGet();
+    return response();
+  }
+
+  private static PaymentOptionsResponse response() {
+    return PaymentOptionsResponse.builder().companyName(COMPANY_NAME).build();
+  }
+
+  private static void awaitUninterruptibly(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
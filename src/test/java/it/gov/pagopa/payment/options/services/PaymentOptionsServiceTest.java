@@ -2,6 +2,8 @@ package it.gov.pagopa.payment.options.services;
 
 import io.quarkus.test.InjectMock;
 import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.mockito.InjectSpy;
+import io.smallrye.mutiny.Uni;
 import it.gov.pagopa.payment.options.exception.CreditorInstitutionException;
 import it.gov.pagopa.payment.options.exception.PaymentOptionsException;
 import it.gov.pagopa.payment.options.models.ErrorResponse;
@@ -14,19 +16,34 @@ import it.gov.pagopa.payment.options.models.clients.cache.Station;
 import it.gov.pagopa.payment.options.models.clients.cache.StationCreditorInstitution;
 import it.gov.pagopa.payment.options.models.clients.creditorInstitution.PaymentOptionsResponse;
 import it.gov.pagopa.payment.options.models.enums.AppErrorCodeEnum;
+import it.gov.pagopa.payment.options.models.events.odpRe.EventType;
+import it.gov.pagopa.payment.options.models.events.odpRe.Phases;
+import it.gov.pagopa.payment.options.models.events.odpRe.Status;
+import it.gov.pagopa.payment.options.models.snapshot.ConfigSnapshot;
+import it.gov.pagopa.payment.options.services.VerifyMetrics.Outcome;
 import jakarta.inject.Inject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import java.time.Duration;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -42,24 +59,27 @@ class PaymentOptionsServiceTest {
   @InjectMock
   EventService eventService;
 
+  @InjectSpy
+  VerifyMetrics verifyMetrics;
+
   @Inject
   public PaymentOptionsService paymentOptionsService;
 
   @BeforeEach
   void init() {
-	  Mockito.reset(configCacheService, creditorInstitutionService, eventService);
+	  Mockito.reset(configCacheService, creditorInstitutionService, eventService, verifyMetrics);
+  }
 
-	  // Default stub for the new station resolution path:
-	  // PaymentOptionsService now calls ConfigCacheService.resolveStationCode(...) instead of
-	  // scanning creditorInstitutionStations from ConfigDataV1. Since ConfigCacheService is mocked,
-	  // we must stub this method to drive the expected results in tests.
-	  when(configCacheService.resolveStationCode(any(), anyLong())).thenReturn("00001");
+  // Station routes are precomputed in the snapshot, as done by ConfigCacheService on refresh.
+  // The EC target is only handed to the mocked CreditorInstitutionService, so none is resolved.
+  private static ConfigSnapshot snapshotOf(ConfigDataV1 configData) {
+    return ConfigSnapshotAssembler.of(configData, station -> null);
   }
 
   @Test
   void getPaymentOptionsShouldReturnOkOnValidDataAndResponse() {
 
-    when(configCacheService.getConfigCacheData()).thenReturn(ConfigDataV1
+    when(configCacheService.getConfigCacheData()).thenReturn(snapshotOf(ConfigDataV1
         .builder()
             .psps(Map.of("00001", PaymentServiceProvider.builder().enabled(true).build()))
             .stations(Map.of("00001",
@@ -76,7 +96,7 @@ class PaymentOptionsServiceTest {
             .creditorInstitutionBrokers(
                 Map.of("00001", BrokerCreditorInstitution.builder().enabled(true).build())
             )
-        .build());
+        .build()));
 
     when(creditorInstitutionService.getPaymentOptions(any(), any(), any(), anyLong())).thenReturn(
         PaymentOptionsResponse.builder().build());
@@ -93,7 +113,7 @@ class PaymentOptionsServiceTest {
   @Test
   void getPaymentOptionsShouldReturnKoOnApiExceptionAndResponse() {
 
-    when(configCacheService.getConfigCacheData()).thenReturn(ConfigDataV1
+    when(configCacheService.getConfigCacheData()).thenReturn(snapshotOf(ConfigDataV1
         .builder()
         .psps(Map.of("00001", PaymentServiceProvider.builder().enabled(true).build()))
         .stations(Map.of("00001",
@@ -110,7 +130,7 @@ class PaymentOptionsServiceTest {
         .creditorInstitutionBrokers(
             Map.of("00001", BrokerCreditorInstitution.builder().enabled(true).build())
         )
-        .build());
+        .build()));
 
     when(creditorInstitutionService.getPaymentOptions(any(), any(), any(), anyLong())).thenThrow(
         new CreditorInstitutionException(
@@ -130,7 +150,7 @@ class PaymentOptionsServiceTest {
   @Test
   void getPaymentOptionsShouldReturnKoOnOdpDisabled() {
 
-    when(configCacheService.getConfigCacheData()).thenReturn(ConfigDataV1
+    when(configCacheService.getConfigCacheData()).thenReturn(snapshotOf(ConfigDataV1
         .builder()
         .psps(Map.of("00001", PaymentServiceProvider.builder().enabled(true).build()))
         .stations(Map.of("00001",
@@ -147,7 +167,7 @@ class PaymentOptionsServiceTest {
         .creditorInstitutionBrokers(
             Map.of("00001", BrokerCreditorInstitution.builder().enabled(true).build())
         )
-        .build());
+        .build()));
 
     PaymentOptionsException paymentOptionsException = assertThrows(
         PaymentOptionsException.class, () -> paymentOptionsService.getPaymentOptions(
@@ -162,7 +182,7 @@ class PaymentOptionsServiceTest {
   @Test
   void getPaymentOptionsShouldReturnKoOnStationDisabled() {
 
-    when(configCacheService.getConfigCacheData()).thenReturn(ConfigDataV1
+    when(configCacheService.getConfigCacheData()).thenReturn(snapshotOf(ConfigDataV1
         .builder()
         .psps(Map.of("00001", PaymentServiceProvider.builder().enabled(true).build()))
         .stations(Map.of("00001",
@@ -179,7 +199,7 @@ class PaymentOptionsServiceTest {
         .creditorInstitutionBrokers(
             Map.of("00001", BrokerCreditorInstitution.builder().enabled(true).build())
         )
-        .build());
+        .build()));
 
     PaymentOptionsException paymentOptionsException = assertThrows(
         PaymentOptionsException.class, () -> paymentOptionsService.getPaymentOptions(
@@ -194,7 +214,7 @@ class PaymentOptionsServiceTest {
   @Test
   void getPaymentOptionsShouldReturnKoOnStationUnknown() {
 
-    when(configCacheService.getConfigCacheData()).thenReturn(ConfigDataV1
+    when(configCacheService.getConfigCacheData()).thenReturn(snapshotOf(ConfigDataV1
         .builder()
         .psps(Map.of("00001", PaymentServiceProvider.builder().enabled(true).build()))
         .stations(Map.of("00003",
@@ -211,7 +231,7 @@ class PaymentOptionsServiceTest {
         .creditorInstitutionBrokers(
             Map.of("00001", BrokerCreditorInstitution.builder().enabled(true).build())
         )
-        .build());
+        .build()));
 
     PaymentOptionsException paymentOptionsException = assertThrows(
         PaymentOptionsException.class, () -> paymentOptionsService.getPaymentOptions(
@@ -226,7 +246,7 @@ class PaymentOptionsServiceTest {
   @Test
   void getPaymentOptionsShouldReturnKoOnStationDataMissing() {
 
-    when(configCacheService.getConfigCacheData()).thenReturn(ConfigDataV1
+    when(configCacheService.getConfigCacheData()).thenReturn(snapshotOf(ConfigDataV1
         .builder()
         .psps(Map.of("00001", PaymentServiceProvider.builder().enabled(true).build()))
         .creditorInstitutions(Map.of("00001",
@@ -241,7 +261,7 @@ class PaymentOptionsServiceTest {
         .creditorInstitutionBrokers(
             Map.of("00001", BrokerCreditorInstitution.builder().enabled(true).build())
         )
-        .build());
+        .build()));
 
     PaymentOptionsException paymentOptionsException = assertThrows(
         PaymentOptionsException.class, () -> paymentOptionsService.getPaymentOptions(
@@ -256,7 +276,7 @@ class PaymentOptionsServiceTest {
   @Test
   void getPaymentOptionsShouldReturnKoOnStationExtractedUnknown() {
 
-    when(configCacheService.getConfigCacheData()).thenReturn(ConfigDataV1
+    when(configCacheService.getConfigCacheData()).thenReturn(snapshotOf(ConfigDataV1
         .builder()
         .psps(Map.of("00001", PaymentServiceProvider.builder().enabled(true).build()))
         // The service checks that stations data is available before attempting station resolution.
@@ -274,9 +294,7 @@ class PaymentOptionsServiceTest {
         .creditorInstitutionBrokers(
             Map.of("00001", BrokerCreditorInstitution.builder().enabled(true).build())
         )
-        .build());
-    
-    when(configCacheService.resolveStationCode("00001", 0L)).thenReturn(null);
+        .build()));
 
     PaymentOptionsException paymentOptionsException = assertThrows(
         PaymentOptionsException.class, () -> paymentOptionsService.getPaymentOptions(
@@ -291,7 +309,7 @@ class PaymentOptionsServiceTest {
   @Test
   void getPaymentOptionsShouldReturnKoOnCreditorInstitutionStationDataMissing() {
 
-    when(configCacheService.getConfigCacheData()).thenReturn(ConfigDataV1
+    when(configCacheService.getConfigCacheData()).thenReturn(snapshotOf(ConfigDataV1
         .builder()
         .psps(Map.of("00001", PaymentServiceProvider.builder().enabled(true).build()))
         .creditorInstitutions(Map.of("00001",
@@ -301,13 +319,7 @@ class PaymentOptionsServiceTest {
         .creditorInstitutionBrokers(
             Map.of("00001", BrokerCreditorInstitution.builder().enabled(true).build())
         )
-        .build());
-    
-    when(configCacheService.resolveStationCode(any(), anyLong()))
-    .thenThrow(new PaymentOptionsException(
-        AppErrorCodeEnum.ODP_SYSTEM_ERROR,
-        "Configuration data currently not available"
-    ));
+        .build()));
 
     PaymentOptionsException paymentOptionsException = assertThrows(
         PaymentOptionsException.class, () -> paymentOptionsService.getPaymentOptions(
@@ -322,7 +334,7 @@ class PaymentOptionsServiceTest {
   @Test
   void getPaymentOptionsShouldReturnKoOnCreditorInstitutionDisabled() {
 
-    when(configCacheService.getConfigCacheData()).thenReturn(ConfigDataV1
+    when(configCacheService.getConfigCacheData()).thenReturn(snapshotOf(ConfigDataV1
         .builder()
         .psps(Map.of("00001", PaymentServiceProvider.builder().enabled(true).build()))
         // The service checks that stations data is available before attempting station resolution.
@@ -335,7 +347,7 @@ class PaymentOptionsServiceTest {
         .creditorInstitutionBrokers(
             Map.of("00001", BrokerCreditorInstitution.builder().enabled(true).build())
         )
-        .build());
+        .build()));
 
     PaymentOptionsException paymentOptionsException = assertThrows(
         PaymentOptionsException.class, () -> paymentOptionsService.getPaymentOptions(
@@ -350,7 +362,7 @@ class PaymentOptionsServiceTest {
   @Test
   void getPaymentOptionsShouldReturnKoOnCreditorInstitutionUnknown() {
 
-    when(configCacheService.getConfigCacheData()).thenReturn(ConfigDataV1
+    when(configCacheService.getConfigCacheData()).thenReturn(snapshotOf(ConfigDataV1
         .builder()
         .psps(Map.of("00001", PaymentServiceProvider.builder().enabled(true).build()))
         // The service requires the stations map to be present before performing downstream validations.
@@ -364,7 +376,7 @@ class PaymentOptionsServiceTest {
         .creditorInstitutionBrokers(
             Map.of("00001", BrokerCreditorInstitution.builder().enabled(true).build())
         )
-        .build());
+        .build()));
 
     PaymentOptionsException paymentOptionsException = assertThrows(
         PaymentOptionsException.class, () -> paymentOptionsService.getPaymentOptions(
@@ -379,7 +391,7 @@ class PaymentOptionsServiceTest {
   @Test
   void getPaymentOptionsShouldReturnKoOnPspBrokerDisabled() {
 
-    when(configCacheService.getConfigCacheData()).thenReturn(ConfigDataV1
+    when(configCacheService.getConfigCacheData()).thenReturn(snapshotOf(ConfigDataV1
         .builder()
         .psps(Map.of("00001", PaymentServiceProvider.builder().enabled(true).build()))
         .creditorInstitutions(Map.of("00001",
@@ -389,7 +401,7 @@ class PaymentOptionsServiceTest {
         .creditorInstitutionBrokers(
             Map.of("00001", BrokerCreditorInstitution.builder().enabled(true).build())
         )
-        .build());
+        .build()));
 
     PaymentOptionsException paymentOptionsException = assertThrows(
         PaymentOptionsException.class, () -> paymentOptionsService.getPaymentOptions(
@@ -404,7 +416,7 @@ class PaymentOptionsServiceTest {
   @Test
   void getPaymentOptionsShouldReturnKoOnPspBrokerUnknown() {
 
-    when(configCacheService.getConfigCacheData()).thenReturn(ConfigDataV1
+    when(configCacheService.getConfigCacheData()).thenReturn(snapshotOf(ConfigDataV1
         .builder()
         .psps(Map.of("00001", PaymentServiceProvider.builder().enabled(true).build()))
         .creditorInstitutions(Map.of("30001",
@@ -414,7 +426,7 @@ class PaymentOptionsServiceTest {
         .creditorInstitutionBrokers(
             Map.of("00001", BrokerCreditorInstitution.builder().enabled(true).build())
         )
-        .build());
+        .build()));
 
     PaymentOptionsException paymentOptionsException = assertThrows(
         PaymentOptionsException.class, () -> paymentOptionsService.getPaymentOptions(
@@ -429,7 +441,7 @@ class PaymentOptionsServiceTest {
   @Test
   void getPaymentOptionsShouldReturnKoOnPspDisabled() {
 
-    when(configCacheService.getConfigCacheData()).thenReturn(ConfigDataV1
+    when(configCacheService.getConfigCacheData()).thenReturn(snapshotOf(ConfigDataV1
         .builder()
         .psps(Map.of("00001", PaymentServiceProvider.builder().enabled(false).build()))
         .creditorInstitutions(Map.of("00001",
@@ -439,7 +451,7 @@ class PaymentOptionsServiceTest {
         .creditorInstitutionBrokers(
             Map.of("00001", BrokerCreditorInstitution.builder().enabled(true).build())
         )
-        .build());
+        .build()));
 
     PaymentOptionsException paymentOptionsException = assertThrows(
         PaymentOptionsException.class, () -> paymentOptionsService.getPaymentOptions(
@@ -454,7 +466,7 @@ class PaymentOptionsServiceTest {
   @Test
   void getPaymentOptionsShouldReturnKoOnPspUnknown() {
 
-    when(configCacheService.getConfigCacheData()).thenReturn(ConfigDataV1
+    when(configCacheService.getConfigCacheData()).thenReturn(snapshotOf(ConfigDataV1
         .builder()
         .psps(Map.of("30001", PaymentServiceProvider.builder().enabled(true).build()))
         .creditorInstitutions(Map.of("30001",
@@ -464,7 +476,7 @@ class PaymentOptionsServiceTest {
         .creditorInstitutionBrokers(
             Map.of("00001", BrokerCreditorInstitution.builder().enabled(true).build())
         )
-        .build());
+        .build()));
 
     PaymentOptionsException paymentOptionsException = assertThrows(
         PaymentOptionsException.class, () -> paymentOptionsService.getPaymentOptions(
@@ -542,16 +554,17 @@ class PaymentOptionsServiceTest {
   }
   
   @Test
-  void getPaymentOptions_shouldCallResolveStationCodeWithExpectedSegregation() {
-    when(configCacheService.getConfigCacheData()).thenReturn(ConfigDataV1.builder()
+  void getPaymentOptions_shouldRouteWithExpectedSegregation() {
+    when(configCacheService.getConfigCacheData()).thenReturn(snapshotOf(ConfigDataV1.builder()
         .psps(Map.of("00001", PaymentServiceProvider.builder().enabled(true).build()))
         .stations(Map.of("00001", Station.builder().enabled(true).verifyPaymentOptionEnabled(true).build()))
         .creditorInstitutions(Map.of("00001", CreditorInstitution.builder().creditorInstitutionCode("00001").enabled(true).build()))
         .pspBrokers(Map.of("00001", BrokerPsp.builder().enabled(true).build()))
         .creditorInstitutionBrokers(Map.of("00001", BrokerCreditorInstitution.builder().enabled(true).build()))
-        .build());
+        .creditorInstitutionStations(Map.of("00001", StationCreditorInstitution.builder()
+            .creditorInstitutionCode("00001").stationCode("00001").auxDigit(3L).segregationCode(0L).build()))
+        .build()));
 
-    when(configCacheService.resolveStationCode("00001", 0L)).thenReturn("00001");
     when(creditorInstitutionService.getPaymentOptions(any(), any(), any(), anyLong()))
         .thenReturn(PaymentOptionsResponse.builder().build());
 
@@ -559,6 +572,166 @@ class PaymentOptionsServiceTest {
         paymentOptionsService.getPaymentOptions("00001", "00001", "00001", "3000000000", null)
     );
 
-    verify(configCacheService).resolveStationCode("00001", 0L);
+    verify(creditorInstitutionService).getPaymentOptions(any(), any(), any(), eq(0L));
+  }
+
+  @Test
+  void getPaymentOptionsAsyncShouldReturnOkOnValidDataAndResponse() {
+    when(configCacheService.getConfigCacheDataAsync()).thenReturn(Uni.createFrom().item(validSnapshot()));
+    when(creditorInstitutionService.getPaymentOptionsAsync(any(), any(), any(), anyLong()))
+        .thenReturn(Uni.createFrom().item(PaymentOptionsResponse.builder().build()));
+
+    PaymentOptionsResponse paymentOptionsResponse =
+        paymentOptionsService.getPaymentOptionsAsync("00001", "00001", "00001", "3000000000", null)
+            .await().atMost(Duration.ofSeconds(5));
+
+    assertNotNull(paymentOptionsResponse);
+    verify(configCacheService, never()).getConfigCacheData();
+    verify(creditorInstitutionService).getPaymentOptionsAsync(any(), any(), any(), eq(0L));
+    verify(eventService, times(4)).sendEvent(
+        any(), any(), any(), any(), any(), any(), any(), eq(Status.OK), any(), any(), any(), any());
+  }
+
+  @Test
+  void getPaymentOptionsAsyncShouldFailLikeBlockingOnApiException() {
+    CreditorInstitutionException exception = new CreditorInstitutionException(
+        ErrorResponse.builder().appErrorCode("ODP-001").errorMessage("test").build(), "test");
+    when(configCacheService.getConfigCacheDataAsync()).thenReturn(Uni.createFrom().item(validSnapshot()));
+    when(creditorInstitutionService.getPaymentOptionsAsync(any(), any(), any(), anyLong()))
+        .thenReturn(Uni.createFrom().failure(exception));
+
+    CreditorInstitutionException creditorInstitutionException = assertThrows(
+        CreditorInstitutionException.class,
+        () -> paymentOptionsService.getPaymentOptionsAsync("00001", "00001", "00001", "3000000000", null)
+            .await().atMost(Duration.ofSeconds(5)));
+
+    assertSame(exception, creditorInstitutionException);
+    verify(eventService).sendEvent(
+        any(), any(), any(), any(), any(), any(), any(), eq(Status.KO), eq(EventType.RES), any(),
+        eq("ODP-001"), eq("test"));
+    verify(eventService).sendVerifyKoEvent(
+        any(),any(),any(),any(),any(),any(),any(),any(),any(),any());
+  }
+
+  @Test
+  void getPaymentOptionsAsyncShouldReturnKoOnCacheConfigError() {
+    when(configCacheService.getConfigCacheDataAsync())
+        .thenReturn(Uni.createFrom().failure(new RuntimeException("Error")));
+
+    PaymentOptionsException paymentOptionsException = assertThrows(
+        PaymentOptionsException.class,
+        () -> paymentOptionsService.getPaymentOptionsAsync("00001", "00001", "00001", "3000000000", null)
+            .await().atMost(Duration.ofSeconds(5)));
+
+    assertEquals(AppErrorCodeEnum.ODP_SYSTEM_ERROR, paymentOptionsException.getErrorCode());
+    verify(creditorInstitutionService, never()).getPaymentOptionsAsync(any(), any(), any(), anyLong());
+    verify(eventService).sendVerifyKoEvent(
+        any(),any(),any(),any(),any(),any(),any(),any(),any(),any());
+  }
+
+  @Test
+  void getPaymentOptions_withInteractionEvents_shouldSendOneReEventWithAllPhases() {
+    when(eventService.isInteractionEvents()).thenReturn(true);
+    when(configCacheService.getConfigCacheData()).thenReturn(validSnapshot());
+    when(creditorInstitutionService.getPaymentOptions(any(), any(), any(), anyLong()))
+        .thenReturn(PaymentOptionsResponse.builder().build());
+
+    assertDoesNotThrow(() ->
+        paymentOptionsService.getPaymentOptions("00001", "00001", "00001", "3000000000", "sid"));
+
+    ArgumentCaptor<Phases> phases = ArgumentCaptor.forClass(Phases.class);
+    verify(eventService).sendInteractionEvent(
+        eq("00001"), eq("00001"), eq("3000000000"), eq("00001"), any(), eq("sid"),
+        eq(Status.OK), phases.capture(), any(), any(), any());
+    assertNotNull(phases.getValue().getPspRequest());
+    assertNotNull(phases.getValue().getEcRequest());
+    assertNotNull(phases.getValue().getEcResponse());
+    assertNotNull(phases.getValue().getPspResponse());
+    verify(eventService, never()).sendEvent(
+        any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+  }
+
+  @Test
+  void getPaymentOptions_withInteractionEvents_onRejection_shouldSendOneKoReEvent() {
+    when(eventService.isInteractionEvents()).thenReturn(true);
+    when(configCacheService.getConfigCacheData()).thenReturn(validSnapshot());
+
+    assertThrows(PaymentOptionsException.class, () ->
+        paymentOptionsService.getPaymentOptions("00002", "00001", "00001", "3000000000", null));
+
+    ArgumentCaptor<Phases> phases = ArgumentCaptor.forClass(Phases.class);
+    verify(eventService).sendInteractionEvent(
+        any(), any(), any(), any(), any(), any(), eq(Status.KO), phases.capture(), any(),
+        eq(AppErrorCodeEnum.ODP_PSP_SCONOSCIUTO.getErrorCode()), anyString());
+    assertNull(phases.getValue().getEcRequest());
+    assertNull(phases.getValue().getEcResponse());
+    verify(eventService).sendVerifyKoEvent(
+        any(),any(),any(),any(),any(),any(),any(),any(),any(),any());
+    verify(eventService, never()).sendEvent(
+        any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+  }
+
+  @Test
+  void getPaymentOptions_onConfigRejection_shouldThrowWithoutStackTrace() {
+    when(configCacheService.getConfigCacheData()).thenReturn(validSnapshot());
+
+    PaymentOptionsException exception = assertThrows(PaymentOptionsException.class, () ->
+        paymentOptionsService.getPaymentOptions("00002", "00001", "00001", "3000000000", null));
+
+    assertEquals(AppErrorCodeEnum.ODP_PSP_SCONOSCIUTO, exception.getErrorCode());
+    assertTrue(exception.isRejection());
+    assertEquals(0, exception.getStackTrace().length);
+  }
+
+  @Test
+  void getPaymentOptions_onMissingCreditorInstitutionCode_shouldThrowConfigurationError() {
+    when(configCacheService.getConfigCacheData()).thenReturn(snapshotOf(ConfigDataV1.builder()
+        .psps(Map.of("00001", PaymentServiceProvider.builder().enabled(true).build()))
+        .pspBrokers(Map.of("00001", BrokerPsp.builder().enabled(true).build()))
+        .stations(Map.of("00001", Station.builder().enabled(true).verifyPaymentOptionEnabled(true).build()))
+        .creditorInstitutions(Map.of("00001", CreditorInstitution.builder().enabled(true).build()))
+        .creditorInstitutionStations(Map.of())
+        .build()));
+
+    PaymentOptionsException exception = assertThrows(PaymentOptionsException.class, () ->
+        paymentOptionsService.getPaymentOptions("00001", "00001", "00001", "3000000000", null));
+
+    assertEquals(AppErrorCodeEnum.ODP_SYSTEM_ERROR, exception.getErrorCode());
+    assertFalse(exception.isRejection());
+    verify(verifyMetrics).record(any(), eq(Outcome.KO), eq(null),
+        eq(AppErrorCodeEnum.ODP_SYSTEM_ERROR.getErrorCode()));
+  }
+
+  @Test
+  void getPaymentOptions_shouldRecordThePhasesOnceWithTheOutcome() {
+    when(configCacheService.getConfigCacheData()).thenReturn(validSnapshot());
+    when(creditorInstitutionService.getPaymentOptions(any(), any(), any(), anyLong()))
+        .thenReturn(PaymentOptionsResponse.builder().build())
+        .thenThrow(new CreditorInstitutionException(
+            ErrorResponse.builder().appErrorCode("ODP-107").errorMessage("test").build(), "test"));
+
+    paymentOptionsService.getPaymentOptions("00001", "00001", "00001", "3000000000", null);
+    assertThrows(CreditorInstitutionException.class, () ->
+        paymentOptionsService.getPaymentOptions("00001", "00001", "00001", "3000000000", null));
+    assertThrows(PaymentOptionsException.class, () ->
+        paymentOptionsService.getPaymentOptions("00002", "00001", "00001", "3000000000", null));
+
+    verify(verifyMetrics).record(any(), eq(Outcome.OK), any(), eq(null));
+    verify(verifyMetrics).record(any(), eq(Outcome.KO), any(), eq("ODP-107"));
+    verify(verifyMetrics).record(any(), eq(Outcome.REJECTED), eq(null),
+        eq(AppErrorCodeEnum.ODP_PSP_SCONOSCIUTO.getErrorCode()));
+    verify(verifyMetrics, times(3)).record(any(), any(), any(), any());
+  }
+
+  private static ConfigSnapshot validSnapshot() {
+    return snapshotOf(ConfigDataV1.builder()
+        .psps(Map.of("00001", PaymentServiceProvider.builder().enabled(true).build()))
+        .stations(Map.of("00001", Station.builder().enabled(true).verifyPaymentOptionEnabled(true).build()))
+        .creditorInstitutions(Map.of("00001", CreditorInstitution.builder().creditorInstitutionCode("00001").enabled(true).build()))
+        .pspBrokers(Map.of("00001", BrokerPsp.builder().enabled(true).build()))
+        .creditorInstitutionBrokers(Map.of("00001", BrokerCreditorInstitution.builder().enabled(true).build()))
+        .creditorInstitutionStations(Map.of("00001", StationCreditorInstitution.builder()
+            .creditorInstitutionCode("00001").stationCode("00001").auxDigit(3L).segregationCode(0L).build()))
+        .build());
   }
 }
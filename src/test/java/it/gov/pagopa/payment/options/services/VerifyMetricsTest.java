@@ -0,0 +1,162 @@
+package it.gov.pagopa.payment.options.services;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.HistogramPointData;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.CollectionRegistration;
+import io.opentelemetry.sdk.metrics.export.MetricReader;
+import it.gov.pagopa.payment.options.models.enums.AppErrorCodeEnum;
+import it.gov.pagopa.payment.options.models.snapshot.EcTarget;
+import it.gov.pagopa.payment.options.models.snapshot.StationRoute;
+import it.gov.pagopa.payment.options.models.snapshot.StationSnapshot;
+import it.gov.pagopa.payment.options.services.VerifyMetrics.Outcome;
+import it.gov.pagopa.payment.options.services.VerifyMetrics.Phase;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifyMetricsTest {
+
+  final AtomicLong clock = new AtomicLong();
+
+  final TestReader reader = new TestReader();
+
+  final SdkMeterProvider meterProvider =
+      SdkMeterProvider.builder().registerMetricReader(reader).build();
+
+  @AfterEach
+  void tearDown() {
+    meterProvider.close();
+  }
+
+  @Test
+  void record_shouldRecordTheReachedPhasesWithTheirTags() {
+    VerifyMetrics metrics = metrics(true);
+    StationRoute route = StationRoute.of("77777777777_01",
+        StationSnapshot.builder().stationCode("77777777777_01").enabled(true)
+            .verifyPaymentOptionEnabled(true).build(),
+        EcTarget.gpd("77777777777_01"));
+
+    VerifyMetrics.Sample sample = metrics.sample();
+    sample.start(Phase.VALIDATION);
+    clock.addAndGet(1_000_000);
+    sample.start(Phase.CONFIG_LOOKUP);
+    clock.addAndGet(2_000_000);
+    sample.start(Phase.EC_CALL);
+    clock.addAndGet(30_000_000);
+    sample.start(Phase.EVENTS);
+    clock.addAndGet(500_000);
+    metrics.record(sample, Outcome.OK, route, null);
+
+    Map<String, HistogramPointData> points = points();
+    assertEquals(4, points.size());
+    assertEquals(1, points.get("validation").getSum(), 0.001);
+    assertEquals(2, points.get("config_lookup").getSum(), 0.001);
+    assertEquals(30, points.get("ec_call").getSum(), 0.001);
+    assertEquals(0.5, points.get("events").getSum(), 0.001);
+    Attributes tags = points.get("ec_call").getAttributes();
+    assertEquals("ok", tags.get(AttributeKey.stringKey("outcome")));
+    assertEquals("gpd", tags.get(AttributeKey.stringKey("route")));
+    assertEquals("none", tags.get(AttributeKey.stringKey("error.code")));
+  }
+
+  @Test
+  void record_shouldBoundTheErrorCodes() {
+    VerifyMetrics metrics = metrics(true);
+
+    VerifyMetrics.Sample rejected = metrics.sample();
+    rejected.start(Phase.VALIDATION);
+    metrics.record(rejected, Outcome.REJECTED, null,
+        AppErrorCodeEnum.ODP_PSP_SCONOSCIUTO.getErrorCode());
+    VerifyMetrics.Sample failed = metrics.sample();
+    failed.start(Phase.VALIDATION);
+    metrics.record(failed, Outcome.KO, null, "PAA_CUSTOM_ERROR");
+
+    assertEquals(
+        Map.of("ODP-002", "rejected", "other", "ko"),
+        reader.histogram().getHistogramData().getPoints().stream().collect(Collectors.toMap(
+            point -> point.getAttributes().get(AttributeKey.stringKey("error.code")),
+            point -> point.getAttributes().get(AttributeKey.stringKey("outcome")))));
+  }
+
+  @Test
+  void sample_shouldAddUpAPhaseTimedMoreThanOnce() {
+    VerifyMetrics.Sample sample = metrics(true).sample();
+    sample.start(Phase.EVENTS);
+    clock.addAndGet(100);
+    sample.start(Phase.EC_CALL);
+    clock.addAndGet(1_000);
+    sample.start(Phase.EVENTS);
+    clock.addAndGet(200);
+    sample.stop();
+    sample.stop();
+
+    assertEquals(300, sample.nanos(Phase.EVENTS));
+    assertEquals(1_000, sample.nanos(Phase.EC_CALL));
+  }
+
+  @Test
+  void disabled_shouldShareASampleAndRecordNothing() {
+    VerifyMetrics metrics = metrics(false);
+
+    VerifyMetrics.Sample sample = metrics.sample();
+    assertSame(sample, metrics.sample());
+    sample.start(Phase.VALIDATION);
+    clock.addAndGet(1_000);
+    metrics.record(sample, Outcome.OK, null, null);
+
+    assertEquals(0, sample.nanos(Phase.VALIDATION));
+    assertTrue(reader.registration.collectAllMetrics().isEmpty());
+  }
+
+  private VerifyMetrics metrics(boolean enabled) {
+    return new VerifyMetrics(enabled, meterProvider.get("test"), clock::get);
+  }
+
+  private Map<String, HistogramPointData> points() {
+    return reader.histogram().getHistogramData().getPoints().stream().collect(Collectors.toMap(
+        point -> point.getAttributes().get(AttributeKey.stringKey("phase")),
+        point -> point));
+  }
+
+  static class TestReader implements MetricReader {
+
+    CollectionRegistration registration = CollectionRegistration.noop();
+
+    MetricData histogram() {
+      return registration.collectAllMetrics().stream()
+          .filter(metric -> metric.getName().equals("odp.verify.phase.duration"))
+          .findFirst()
+          .orElseThrow();
+    }
+
+    @Override
+    public void register(CollectionRegistration registration) {
+      this.registration = registration;
+    }
+
+    @Override
+    public AggregationTemporality getAggregationTemporality(InstrumentType instrumentType) {
+      return AggregationTemporality.CUMULATIVE;
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+      return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+      return CompletableResultCode.ofSuccess();
+    }
+  }
+}
@@ -2,6 +2,7 @@ package it.gov.pagopa.payment.options.test.extensions;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
 import com.github.tomakehurst.wiremock.http.Body;
 import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
 import it.gov.pagopa.payment.options.models.ErrorResponse;
@@ -26,17 +27,35 @@ import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
 
 
 public class WireMockExtensions implements QuarkusTestResourceLifecycleManager {
 
+    /**
+     * Init arg serving delayed responses without holding a server thread each, for load tests
+     * slowing the stubs down with a global fixed delay
+     */
+    public static final String ASYNCHRONOUS_RESPONSES = "asynchronousResponses";
+
     private WireMockServer wireMockServer;
 
+    private boolean asynchronousResponses;
+
+    @Override
+    public void init(Map<String, String> initArgs) {
+        asynchronousResponses = Boolean.parseBoolean(initArgs.get(ASYNCHRONOUS_RESPONSES));
+    }
+
     @SneakyThrows
     @Override
     public Map<String, String> start() {
         ObjectMapper objectMapper = new ObjectMapper();
-        wireMockServer = new WireMockServer();
+        WireMockConfiguration options = options();
+        if (asynchronousResponses) {
+            options.asynchronousResponseEnabled(true).asynchronousResponseThreads(8).containerThreads(256);
+        }
+        wireMockServer = new WireMockServer(options);
         wireMockServer.start();
 
         wireMockServer.stubFor(
@@ -177,6 +196,12 @@ public class WireMockExtensions implements QuarkusTestResourceLifecycleManager {
         );
     }
 
+    @Override
+    public void inject(TestInjector testInjector) {
+        testInjector.injectIntoFields(wireMockServer,
+                new TestInjector.AnnotatedAndMatchesType(InjectWireMock.class, WireMockServer.class));
+    }
+
     @Override
     public void stop() {
         if (null != wireMockServer) {
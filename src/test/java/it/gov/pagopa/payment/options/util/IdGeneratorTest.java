@@ -0,0 +1,47 @@
+package it.gov.pagopa.payment.options.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class IdGeneratorTest {
+
+  @Test
+  void timeOrdered_shouldGenerateVersion7Uuids() {
+    UUID uuid = UUID.fromString(IdGenerator.timeOrdered().nextId());
+
+    assertEquals(7, uuid.version());
+    assertEquals(2, uuid.variant());
+    long millis = uuid.getMostSignificantBits() >>> 16;
+    assertTrue(Math.abs(System.currentTimeMillis() - millis) < 60_000);
+  }
+
+  @Test
+  void timeOrdered_shouldSortByCreationTime() {
+    UUID earlier = IdGenerator.timeOrderedUuid(1_700_000_000_000L);
+    UUID later = IdGenerator.timeOrderedUuid(1_700_000_000_001L);
+
+    assertTrue(earlier.toString().compareTo(later.toString()) < 0);
+    assertEquals(1_700_000_000_000L, earlier.getMostSignificantBits() >>> 16);
+  }
+
+  @Test
+  void timeOrdered_shouldNotRepeatWithinTheSameMillisecond() {
+    Set<UUID> ids = new HashSet<>();
+    for (int i = 0; i < 100_000; i++) {
+      ids.add(IdGenerator.timeOrderedUuid(1_700_000_000_000L));
+    }
+    assertEquals(100_000, ids.size());
+  }
+
+  @Test
+  void of_shouldSelectTheConfiguredGenerator() {
+    assertEquals(4, UUID.fromString(IdGenerator.of(IdGenerator.Type.RANDOM).nextId()).version());
+    assertEquals(7,
+        UUID.fromString(IdGenerator.of(IdGenerator.Type.TIME_ORDERED).nextId()).version());
+  }
+}
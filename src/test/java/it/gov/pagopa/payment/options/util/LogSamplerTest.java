@@ -0,0 +1,52 @@
+package it.gov.pagopa.payment.options.util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+class LogSamplerTest {
+
+  private final AtomicLong clock = new AtomicLong();
+
+  private final Logger logger = mock(Logger.class);
+
+  private final LogSampler sampler = new LogSampler(2, Duration.ofSeconds(10), clock::get);
+
+  @Test
+  void sample_shouldAllowThePermitsOfEachWindow() {
+    assertTrue(sampler.sample(logger, "ODP-002"));
+    assertTrue(sampler.sample(logger, "ODP-002"));
+    assertFalse(sampler.sample(logger, "ODP-002"));
+    assertFalse(sampler.sample(logger, "ODP-002"));
+
+    clock.addAndGet(Duration.ofSeconds(10).toNanos());
+    assertTrue(sampler.sample(logger, "ODP-002"));
+    verify(logger).warn(anyString(), eq(2L), eq("ODP-002"), eq(Duration.ofSeconds(10)));
+  }
+
+  @Test
+  void sample_shouldCountEachKeySeparately() {
+    assertTrue(sampler.sample(logger, "ODP-002"));
+    assertTrue(sampler.sample(logger, "ODP-002"));
+    assertTrue(sampler.sample(logger, "ODP-003"));
+    assertFalse(sampler.sample(logger, "ODP-002"));
+  }
+
+  @Test
+  void sample_withoutSuppressedMessages_shouldNotReportThem() {
+    assertTrue(sampler.sample(logger, "ODP-002"));
+
+    clock.addAndGet(Duration.ofSeconds(10).toNanos());
+    assertTrue(sampler.sample(logger, "ODP-002"));
+    verify(logger, never()).warn(anyString(), eq(0L), eq("ODP-002"), eq(Duration.ofSeconds(10)));
+  }
+}
@@ -0,0 +1,70 @@
+package it.gov.pagopa.payment.options.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class TimeSourceTest {
+
+  // 2024-10-30T10:15:30.123Z
+  private static final long NOW = 1730283330123L;
+
+  private final AtomicLong clock = new AtomicLong(NOW);
+
+  @Test
+  void shouldServeTheProvidedClock() {
+    TimeSource timeSource = new TimeSource(clock::get, ZoneOffset.UTC);
+
+    assertEquals(NOW, timeSource.currentTimeMillis());
+    assertEquals(1730283330L, timeSource.epochSecond());
+    assertEquals("2024-10-30T10:15Z", timeSource.minuteTimestamp());
+    assertEquals("2024-10-30T10:15:30.123Z", TimeSource.isoInstant(NOW));
+  }
+
+  @Test
+  void minuteTimestamp_shouldBeFormattedOncePerMinute() {
+    TimeSource timeSource = new TimeSource(clock::get, ZoneOffset.UTC);
+    String minute = timeSource.minuteTimestamp();
+
+    clock.set(NOW + 29_000);
+    assertSame(minute, timeSource.minuteTimestamp());
+
+    clock.set(NOW + 30_000);
+    assertEquals("2024-10-30T10:16Z", timeSource.minuteTimestamp());
+  }
+
+  @Test
+  void minuteTimestamp_shouldUseTheProvidedZone() {
+    TimeSource timeSource = new TimeSource(clock::get, ZoneId.of("Europe/Rome"));
+
+    assertEquals("2024-10-30T11:15Z", timeSource.minuteTimestamp());
+  }
+
+  @Test
+  void ticking_shouldServeTheLastSampledTime() throws Exception {
+    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    TimeSource timeSource =
+        new TimeSource(clock::get, ZoneOffset.UTC, executor, Duration.ofMillis(1));
+    try {
+      clock.set(NOW + 60_000);
+      long deadline = System.currentTimeMillis() + 5000;
+      while (timeSource.currentTimeMillis() != NOW + 60_000
+          && System.currentTimeMillis() < deadline) {
+        Thread.sleep(1);
+      }
+      assertEquals(NOW + 60_000, timeSource.currentTimeMillis());
+      assertEquals("2024-10-30T10:16Z", timeSource.minuteTimestamp());
+    } finally {
+      timeSource.close();
+    }
+    assertTrue(executor.isShutdown());
+  }
+}